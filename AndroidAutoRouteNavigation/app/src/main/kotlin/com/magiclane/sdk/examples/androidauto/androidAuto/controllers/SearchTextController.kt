@@ -11,42 +11,44 @@ package com.magiclane.sdk.examples.androidauto.androidAuto.controllers
 
 import androidx.car.app.CarContext
 import com.magiclane.sdk.core.EUnitSystem
-import com.magiclane.sdk.core.ProgressListener
 import com.magiclane.sdk.examples.androidauto.R
 import com.magiclane.sdk.examples.androidauto.androidAuto.Service
 import com.magiclane.sdk.examples.androidauto.androidAuto.model.GenericListItemModel
 import com.magiclane.sdk.examples.androidauto.androidAuto.model.UIActionModel
 import com.magiclane.sdk.examples.androidauto.androidAuto.screens.SearchScreen
 import com.magiclane.sdk.examples.androidauto.app.AppProcess
+import com.magiclane.sdk.examples.androidauto.services.ISearchResultsListener
 import com.magiclane.sdk.examples.androidauto.services.SearchInstance
 import com.magiclane.sdk.places.Coordinates
 import com.magiclane.sdk.places.Landmark
-import com.magiclane.sdk.places.LandmarkList
 import com.magiclane.sdk.util.SdkCall
 import com.magiclane.sdk.util.GemUtil
 
 class SearchTextController(context: CarContext) : SearchScreen(context) {
     private var reference: Coordinates? = null
+    private var results: List<Landmark> = emptyList()
+    private var resultsDelivered = false
 
-    private val listener = ProgressListener.create(
-        onStarted = {
-            isLoading = true
-            invalidate()
-        },
-        onCompleted = { _, _ ->
-            isLoading = false
-            invalidate()
-        }
-    )
+    private val listener = ISearchResultsListener<Landmark> { _, results, _, _ ->
+        this.results = results
+        resultsDelivered = true
+
+        // results narrowed from a shorter text are shown while the search runs
+        isLoading = SearchInstance.textSearch.isSearching && results.isEmpty()
+        invalidate()
+    }
 
     override fun onCreate() {
         super.onCreate()
-        SearchInstance.listeners.add(listener)
+        SearchInstance.textSearch.listener = listener
     }
 
     override fun onDestroy() {
         super.onDestroy()
-        SearchInstance.listeners.remove(listener)
+        if (SearchInstance.textSearch.listener === listener) {
+            SearchInstance.textSearch.cancel()
+            SearchInstance.textSearch.listener = null
+        }
     }
 
     override fun onTextInputChanged(value: String) {
@@ -55,6 +57,7 @@ class SearchTextController(context: CarContext) : SearchScreen(context) {
 
     override fun onTextInputSubmit(value: String) {
         doSearch(value)
+        SearchInstance.textSearch.flush()
     }
 
     override fun updateData() {
@@ -72,19 +75,29 @@ class SearchTextController(context: CarContext) : SearchScreen(context) {
             }
         ))
 
-        listItemModelList = getItems(SearchInstance.results, reference)
+        listItemModelList = getItems(results, reference)
     }
 
-    private fun doSearch(text: String) = SdkCall.execute {
-        reference = AppProcess.currentPosition
+    private fun doSearch(text: String) {
+        val position = SdkCall.execute {
+            reference = AppProcess.currentPosition
+            SearchInstance.textSearch.scope = SearchInstance.textSearchScope
+
+            reference?.let { Pair(it.latitude, it.longitude) }
+        }
 
-        SearchInstance.service.cancelSearch()
+        // Debounced, cancelled and answered from the cache by the pipeline.
+        resultsDelivered = false
+        SearchInstance.textSearch.query(text, position?.first ?: Double.NaN, position?.second ?: Double.NaN)
 
-        SearchInstance.service.searchByFilter(text, reference)
+        if (!resultsDelivered && SearchInstance.textSearch.isSearching && !isLoading) {
+            isLoading = true
+            invalidate()
+        }
     }
 
     private fun getItems(
-        searchResultList: LandmarkList?,
+        searchResultList: List<Landmark>?,
         reference: Coordinates?
     ): ArrayList<GenericListItemModel> {
         if (searchResultList == null) return arrayListOf()
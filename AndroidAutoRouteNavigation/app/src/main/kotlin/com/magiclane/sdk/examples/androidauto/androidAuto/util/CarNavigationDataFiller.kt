@@ -24,6 +24,16 @@ import com.magiclane.sdk.util.GemUtil
 
 @Suppress("MemberVisibilityCanBePrivate")
 object CarNavigationDataFiller {
+    private const val SLOT_TURN = 0
+    private const val SLOT_NEXT_TURN = 1
+    private const val SLOT_LANES = 2
+
+    private const val THEME_TURN = 1
+    private const val THEME_LANES = 2
+
+    /** Rendered maneuver and lane images, the instruction updates mostly show the same ones. */
+    private val renderCache = ImageRenderCache()
+
     fun fillNavData(navigationData: CarNavigationData) {
         navigationData.remainingDistanceInMeters =
             NavigationInstance.remainingDistance.toLong()
@@ -60,7 +70,7 @@ object CarNavigationDataFiller {
             distanceToStepInMeters = distanceInMeters.toLong(),
             maneuver = UIManeuverData(
                 instr?.nextTurnDetails?.event,
-                getTurnImage(instr?.nextTurnDetails, 128, 128),
+                getTurnImage(instr?.nextTurnDetails, 128, 128, SLOT_TURN),
                 instr?.nextTurnDetails?.abstractGeometry?.driveSide,
                 instr?.nextTurnDetails?.roundaboutExitNumber
             ),
@@ -75,7 +85,8 @@ object CarNavigationDataFiller {
             turnImage = getTurnImage(
                 instr?.nextNextTurnDetails,
                 128,
-                128
+                128,
+                SLOT_NEXT_TURN
             ),
             driveSide = instr?.nextNextTurnDetails?.abstractGeometry?.driveSide,
             roundaboutExitNumber = instr?.nextNextTurnDetails?.roundaboutExitNumber
@@ -112,18 +123,20 @@ object CarNavigationDataFiller {
     fun getTurnImage(
         turnDetails: TurnDetails?,
         width: Int,
-        height: Int
+        height: Int,
+        slot: Int = SLOT_TURN
     ): Bitmap? {
         turnDetails ?: return null
+        val image = turnDetails.abstractGeometryImage ?: return null
 
-        val aInner = Rgba(255, 255, 255, 255)
-        val aOuter = Rgba(0, 0, 0, 255)
-        val iInner = Rgba(128, 128, 128, 255)
-        val iOuter = Rgba(128, 128, 128, 255)
+        return renderCache.get(slot, image.uid, width, height, THEME_TURN) {
+            val aInner = Rgba(255, 255, 255, 255)
+            val aOuter = Rgba(0, 0, 0, 255)
+            val iInner = Rgba(128, 128, 128, 255)
+            val iOuter = Rgba(128, 128, 128, 255)
 
-        return turnDetails.abstractGeometryImage?.asBitmap(
-            width, height, aInner, aOuter, iInner, iOuter
-        )
+            image.asBitmap(width, height, aInner, aOuter, iInner, iOuter)
+        }
     }
 
     fun getLanesImage(
@@ -132,16 +145,20 @@ object CarNavigationDataFiller {
         height: Int
     ): Bitmap? {
         instr ?: return null
-        val bkColor = Rgba(0, 0, 0, 0)
-        val activeColor = Rgba(255, 255, 255, 255)
-        val inactiveColor = Rgba(100, 100, 100, 255)
-
-        return instr.laneImage?.asBitmap(
-            width,
-            height,
-            bkColor,
-            activeColor,
-            inactiveColor
-        )
+        val image = instr.laneImage ?: return null
+
+        return renderCache.get(SLOT_LANES, image.uid, width, height, THEME_LANES) {
+            val bkColor = Rgba(0, 0, 0, 0)
+            val activeColor = Rgba(255, 255, 255, 255)
+            val inactiveColor = Rgba(100, 100, 100, 255)
+
+            image.asBitmap(
+                width,
+                height,
+                bkColor,
+                activeColor,
+                inactiveColor
+            )
+        }
     }
 }
@@ -0,0 +1,191 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.androidauto.androidAuto.util
+
+import android.graphics.Bitmap
+import java.nio.ByteBuffer
+
+/**
+ * Keeps the bitmaps rendered from SDK images (turn arrows, lanes, signposts, road codes, alarm
+ * icons), so an instruction update that shows the same image does not rasterize it again.
+ *
+ * Entries are keyed by the image UID, the size and a theme id that stands for the colors used to
+ * render it, and are evicted in least recently used order once [maxBytes] is exceeded.
+ *
+ * Each caller shows its image in a slot (e.g. the turn image view). The bitmap last returned for a
+ * slot is considered on screen: it is never reused. Other evicted bitmaps go to a small pool, and
+ * an image rendered later with the same size is copied into a pooled bitmap, so the freshly
+ * rendered one is recycled at once instead of waiting for the garbage collector.
+ *
+ * The phone navigation examples (RouteSimulationWithoutMap, BLEServer, ...) use the same cache.
+ */
+class ImageRenderCache(val maxBytes: Long = DEFAULT_MAX_BYTES, val maxPoolBytes: Long = maxBytes / 4) {
+    // ---------------------------------------------------------------------------------------------
+
+    private class TKey(var uid: Long = 0, var width: Int = 0, var height: Int = 0, var theme: Int = 0) {
+        override fun equals(other: Any?): Boolean =
+            (other is TKey) && (uid == other.uid) && (width == other.width) && (height == other.height) && (theme == other.theme)
+
+        override fun hashCode(): Int = ((uid.hashCode() * 31 + width) * 31 + height) * 31 + theme
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private val entries = LinkedHashMap<TKey, Bitmap>(16, 0.75f, true)
+    private var size = 0L
+
+    /** Reused for lookups, a key is only allocated when an entry is added. */
+    private val lookupKey = TKey()
+
+    private val pool = ArrayList<Bitmap>()
+    private var poolSize = 0L
+
+    /** The bitmap on screen in each slot. */
+    private val shown = HashMap<Int, Bitmap>()
+
+    private var copyBuffer: ByteBuffer? = null
+
+    var hits = 0
+        private set
+
+    var misses = 0
+        private set
+
+    /** Number of rendered images copied into a pooled bitmap. */
+    var reused = 0
+        private set
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the bitmap of an image, rendering it with [render] on a miss.
+     *
+     * @param slot Where the bitmap will be shown, the previous bitmap of the slot may be reused.
+     * @param uid Image UID, 0 for images that cannot be cached.
+     * @param theme Identifies the colors the image is rendered with.
+     */
+    @Synchronized
+    fun get(slot: Int, uid: Long, width: Int, height: Int, theme: Int = 0, render: () -> Bitmap?): Bitmap? {
+        if ((uid == 0L) || (width <= 0) || (height <= 0)) {
+            return show(slot, render())
+        }
+
+        lookupKey.uid = uid
+        lookupKey.width = width
+        lookupKey.height = height
+        lookupKey.theme = theme
+
+        entries[lookupKey]?.let {
+            hits++
+            return show(slot, it)
+        }
+
+        misses++
+        val bitmap = render()?.let { adopt(it) } ?: return show(slot, null)
+
+        entries[TKey(uid, width, height, theme)] = bitmap
+        size += bitmap.allocationByteCount
+        trim()
+
+        return show(slot, bitmap)
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Marks a slot as empty, e.g. when its view is hidden.
+     */
+    @Synchronized
+    fun clearSlot(slot: Int) {
+        shown.remove(slot)
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+        pool.clear()
+        shown.clear()
+        size = 0
+        poolSize = 0
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun show(slot: Int, bitmap: Bitmap?): Bitmap? {
+        if (bitmap != null) {
+            shown[slot] = bitmap
+        } else {
+            shown.remove(slot)
+        }
+
+        return bitmap
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun trim() {
+        val iterator = entries.values.iterator()
+        while ((size > maxBytes) && iterator.hasNext()) {
+            val bitmap = iterator.next()
+            iterator.remove()
+            size -= bitmap.allocationByteCount
+
+            if (!shown.containsValue(bitmap) && bitmap.isMutable && !bitmap.isRecycled) {
+                pool.add(bitmap)
+                poolSize += bitmap.allocationByteCount
+            }
+        }
+
+        while (poolSize > maxPoolBytes) {
+            poolSize -= pool.removeAt(0).allocationByteCount
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Copies a freshly rendered bitmap into a pooled one of the same size and recycles it.
+     */
+    private fun adopt(rendered: Bitmap): Bitmap {
+        val index = pool.indexOfFirst {
+            (it.width == rendered.width) && (it.height == rendered.height) && (it.config == rendered.config)
+        }
+
+        if (index < 0) {
+            return rendered
+        }
+
+        val pooled = pool.removeAt(index)
+        poolSize -= pooled.allocationByteCount
+
+        val byteCount = rendered.byteCount
+        val buffer = copyBuffer?.takeIf { it.capacity() >= byteCount } ?: ByteBuffer.allocate(byteCount).also { copyBuffer = it }
+
+        buffer.clear()
+        rendered.copyPixelsToBuffer(buffer)
+        buffer.rewind()
+        pooled.copyPixelsFromBuffer(buffer)
+        pooled.setHasAlpha(rendered.hasAlpha())
+
+        rendered.recycle()
+        reused++
+
+        return pooled
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    companion object {
+        /** About thirty 200 x 200 images. */
+        const val DEFAULT_MAX_BYTES = 5L * 1024 * 1024
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
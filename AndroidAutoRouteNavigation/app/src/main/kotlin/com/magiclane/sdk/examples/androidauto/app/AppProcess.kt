@@ -12,10 +12,7 @@ package com.magiclane.sdk.examples.androidauto.app
 import android.app.Application
 import android.content.Context
 import android.content.res.Resources
-import android.graphics.Bitmap
 import android.widget.Toast
-import androidx.core.content.ContextCompat
-import androidx.core.graphics.drawable.toBitmap
 import com.magiclane.sdk.core.DataBuffer
 import com.magiclane.sdk.core.ErrorCode
 import com.magiclane.sdk.core.GemSdk
@@ -25,6 +22,7 @@ import com.magiclane.sdk.core.SdkSettings
 import com.magiclane.sdk.d3scene.MapCamera
 import com.magiclane.sdk.examples.androidauto.R
 import com.magiclane.sdk.examples.androidauto.activities.BaseActivity
+import com.magiclane.sdk.examples.androidauto.androidAuto.util.AssetLoader
 import com.magiclane.sdk.examples.androidauto.services.FavouritesInstance
 import com.magiclane.sdk.examples.androidauto.services.HistoryInstance
 import com.magiclane.sdk.examples.androidauto.services.NavigationInstance
@@ -37,7 +35,6 @@ import com.magiclane.sdk.routesandnavigation.EImageFileFormat
 import com.magiclane.sdk.sensordatasource.*
 import com.magiclane.sdk.util.SdkCall
 import com.magiclane.sdk.util.Util
-import java.io.ByteArrayOutputStream
 
 const val REQUEST_PERMISSIONS = 110
 
@@ -238,19 +235,10 @@ class AppProcess : Application() {
                 landmark.coordinates = referencePoint
                 landmark.name = name
                 
-                val bmp = ContextCompat.getDrawable(
-                    instance,
-                    R.drawable.search_for_latitude_longitude
-                )?.toBitmap()
-            
-                bmp?.let {
-                    val stream = ByteArrayOutputStream()
-                    it.compress(Bitmap.CompressFormat.PNG, 100, stream)
-                    val byteArray = stream.toByteArray()
-                    it.recycle()
-
+                // encoded once, later previews reuse the PNG bytes
+                AssetLoader.iconPngBytes(instance, R.drawable.search_for_latitude_longitude)?.let {
                     landmark.image = Image.Companion.produceWithDataBuffer(
-                        DataBuffer(byteArray), EImageFileFormat.Bmp
+                        DataBuffer(it), EImageFileFormat.Png
                     )
                 }
 
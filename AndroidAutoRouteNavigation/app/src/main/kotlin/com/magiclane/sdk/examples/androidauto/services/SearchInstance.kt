@@ -9,12 +9,17 @@
 
 package com.magiclane.sdk.examples.androidauto.services
 
+import com.magiclane.sdk.core.GemError
 import com.magiclane.sdk.core.OnStarted
 import com.magiclane.sdk.core.ProgressListener
 import com.magiclane.sdk.core.SettingsService
+import com.magiclane.sdk.places.Coordinates
+import com.magiclane.sdk.places.Landmark
 import com.magiclane.sdk.places.LandmarkList
 import com.magiclane.sdk.places.OnSearchCompleted
 import com.magiclane.sdk.places.SearchService
+import com.magiclane.sdk.util.GemUtil
+import com.magiclane.sdk.util.SdkCall
 
 
 object SearchInstance {
@@ -43,6 +48,61 @@ object SearchInstance {
         listeners.onEach { it.notifyComplete(errorCode, hint) }
     }
 
+    // ---------------------------------------------------------------------------------------------
+    // Text search
+
+    /**
+     * Runs the text searches with a service of its own, so they do not mix with the other searches
+     * done through [service], but with the same preferences.
+     */
+    private val textSearchBackend = object : ISearchBackend<Landmark> {
+        private val requests = SearchRequestQueue<Landmark>(GemError.Cancel)
+
+        private val textService = SearchService(onCompleted = { results, errorCode, _ ->
+            // Matched to the search it belongs to, results of cancelled searches are dropped.
+            requests.completed(results, errorCode)
+        })
+
+        override fun search(filter: String, latitude: Double, longitude: Double, onResult: (List<Landmark>, Int) -> Unit): Int {
+            val request = requests.add(onResult)
+            val error = SdkCall.execute {
+                textService.preferences.searchAddressesEnabled = service.preferences.searchAddressesEnabled
+                textService.preferences.searchMapPOIsEnabled = service.preferences.searchMapPOIsEnabled
+
+                val reference = if (latitude.isNaN()) null else Coordinates(latitude, longitude)
+                textService.searchByFilter(filter, reference)
+            } ?: GemError.General
+
+            if (GemError.isError(error))
+                requests.remove(request)
+
+            return error
+        }
+
+        override fun cancel() {
+            requests.cancel()
+            SdkCall.execute { textService.cancelSearch() }
+        }
+
+        override fun searchText(results: List<Landmark>): Array<String> = SdkCall.execute {
+            Array(results.size) {
+                val details = GemUtil.pairFormatLandmarkDetails(results[it])
+                "${details.first} ${details.second}"
+            }
+        } ?: arrayOf()
+    }
+
+    /**
+     * Debounces and caches the text searches, kept here so the cache outlives the search screen.
+     */
+    val textSearch = SearchPipeline(textSearchBackend)
+
+    /**
+     * The cache key part of the search preferences.
+     */
+    val textSearchScope: String
+        get() = "${service.preferences.searchAddressesEnabled}:${service.preferences.searchMapPOIsEnabled}"
+
     // ---------------------------------------------------------------------------------------------
 
     fun init() {
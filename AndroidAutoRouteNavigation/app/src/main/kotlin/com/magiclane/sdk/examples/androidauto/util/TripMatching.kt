@@ -0,0 +1,66 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.androidauto.util
+
+import kotlin.math.abs
+import kotlin.math.floor
+
+/**
+ * How [TripModel.equals] compares waypoint coordinates, and the keys [TripsHistory] indexes the
+ * stored trips by.
+ *
+ * A key holds the transport mode, the number of waypoints and the grid cell of the first
+ * waypoint. The cells are larger than the tolerance, so the first waypoints of two equal trips
+ * are in the same or in neighbouring cells: looking up the keys of the 3 x 3 cells around a trip
+ * finds every stored trip equal to it, the candidates are then compared with [TripModel.equals].
+ */
+object TripMatching {
+    /**
+     * Largest difference, in degrees, between the coordinates of equal waypoints.
+     */
+    const val TOLERANCE = 1e-4
+
+    /**
+     * Size of the grid cells, in degrees.
+     */
+    private const val CELL_SIZE = 1e-3
+
+    fun isSameCoordinate(a: Double, b: Double): Boolean = abs(a - b) <= TOLERANCE
+
+    fun cell(value: Double): Long = floor(value / CELL_SIZE).toLong()
+
+    /**
+     * Key of a trip whose first waypoint is in the given cell.
+     */
+    fun key(transportMode: Any?, waypointCount: Int, latitudeCell: Long, longitudeCell: Long): String =
+        "$transportMode;$waypointCount;$latitudeCell,$longitudeCell"
+
+    /**
+     * Key of a trip whose first waypoint is at [latitude], [longitude].
+     */
+    fun key(transportMode: Any?, waypointCount: Int, latitude: Double, longitude: Double): String =
+        key(transportMode, waypointCount, cell(latitude), cell(longitude))
+
+    /**
+     * Keys of every trip that can be equal to a trip whose first waypoint is at [latitude],
+     * [longitude].
+     */
+    fun candidateKeys(transportMode: Any?, waypointCount: Int, latitude: Double, longitude: Double): List<String> {
+        val latitudeCell = cell(latitude)
+        val longitudeCell = cell(longitude)
+        val keys = ArrayList<String>(9)
+
+        for (dLat in -1L..1L) {
+            for (dLon in -1L..1L) {
+                keys.add(key(transportMode, waypointCount, latitudeCell + dLat, longitudeCell + dLon))
+            }
+        }
+
+        return keys
+    }
+}
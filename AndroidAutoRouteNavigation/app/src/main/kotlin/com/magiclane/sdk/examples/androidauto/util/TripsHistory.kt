@@ -19,7 +19,7 @@ import com.magiclane.sdk.routesandnavigation.RouteBookmarks
 import com.magiclane.sdk.routesandnavigation.RoutePreferences
 import com.magiclane.sdk.util.GemUtil
 import com.magiclane.sdk.util.Util
-import kotlin.math.abs
+import java.util.BitSet
 
 /**
  * Trip model. Used in [TripsHistory].
@@ -109,7 +109,7 @@ class TripModel {
         }
 
         val equal = { x: Double, y: Double ->
-            (abs(x - y) <= 1e-4)
+            TripMatching.isSameCoordinate(x, y)
         }
 
         var bEquals: Boolean
@@ -130,6 +130,31 @@ class TripModel {
         return true
     }
 
+    /**
+     * Index key of this trip, see [TripMatching]. Null if there are no waypoints.
+     */
+    val fingerprint: String?
+        get() = fingerprint(preferences)
+
+    /**
+     * Index key of this trip as stored with the given [preferences].
+     */
+    fun fingerprint(preferences: RoutePreferences?): String? {
+        val coordinates = waypoints.firstOrNull()?.coordinates ?: return null
+
+        return TripMatching.key(preferences?.transportMode, waypoints.size, coordinates.latitude, coordinates.longitude)
+    }
+
+    /**
+     * Index keys of the trips that can be equal to this one. Empty if there are no waypoints.
+     */
+    val candidateFingerprints: List<String>
+        get() {
+            val coordinates = waypoints.firstOrNull()?.coordinates ?: return emptyList()
+
+            return TripMatching.candidateKeys(preferences?.transportMode, waypoints.size, coordinates.latitude, coordinates.longitude)
+        }
+
     fun clear() {
         preferences = null
         waypoints.clear()
@@ -250,29 +275,110 @@ class TripModel {
 
 /**
  * Trips history manager.
+ *
+ * Keeps an in-memory index of the stored trips, keyed by name and by waypoints fingerprint, so
+ * saving and deduplicating a trip does not load every stored trip. Waypoints and preferences are
+ * loaded only when a trip is needed and stay cached until the trip is updated or removed.
  */
 class TripsHistory {
     private companion object {
         private const val ROUTE_NAME = "Route"
     }
 
+    /**
+     * Index entry of a stored trip. Holds what can be read from the stored name, the other data
+     * is filled in when needed.
+     */
+    private class TripIndexEntry(val name: String) {
+        private val tokens = name.split(';')
+
+        /**
+         * Position in the route bookmarks.
+         */
+        var index = 0
+
+        /**
+         * N of the "RouteN" name prefix, 0 if the name has none.
+         */
+        val routeNumber: Int = tokens[0].replace(ROUTE_NAME, "").toIntOrNull() ?: 0
+
+        /**
+         * Departure flag encoded in the name, null if the name does not contain it.
+         */
+        val fromAToB: Boolean? = if (tokens.size > 1) tokens[1].toIntOrNull()?.let { it > 0 } else null
+
+        /**
+         * Hexa encoded alias, null if the trip has none.
+         */
+        val aliasHexa: String? = tokens.firstOrNull { it.contains("0x") || it.contains("0X") }
+
+        /**
+         * Loaded trip, null until needed.
+         */
+        var trip: TripModel? = null
+
+        /**
+         * Display name (alias or default name), null until needed.
+         */
+        var displayName: String? = null
+
+        /**
+         * Waypoints fingerprint, valid if [hasFingerprint].
+         */
+        var fingerprint: String? = null
+            set(value) {
+                field = value
+                hasFingerprint = true
+            }
+
+        var hasFingerprint = false
+            private set
+    }
+
     private lateinit var routeBookmarks: RouteBookmarks
 
+    /**
+     * Index entries, in the order of the route bookmarks.
+     */
+    private val indexEntries = ArrayList<TripIndexEntry>()
+
+    /**
+     * First index entry for each lower case name.
+     */
+    private val entriesByName = HashMap<String, TripIndexEntry>()
+
+    /**
+     * Index entries for each fingerprint, complete if [hasAllFingerprints].
+     */
+    private val entriesByFingerprint = HashMap<String, ArrayList<TripIndexEntry>>()
+
+    /**
+     * "RouteN" numbers in use.
+     */
+    private val usedRouteNumbers = BitSet()
+
+    private var isIndexValid = false
+
+    private var hasAllFingerprints = false
+
     fun init() {
         routeBookmarks = RouteBookmarks.produce("Trips")!!
+        invalidateIndex()
     }
 
     fun isInitialized(): Boolean = this::routeBookmarks.isInitialized
 
     /**
-     * List of trips already saved.
+     * List of trips already saved. The trips are cached, do not modify them.
      */
     val trips: ArrayList<TripModel>
         get() {
-            val list = ArrayList<TripModel>()
+            ensureIndex()
 
-            for (i in 0 until tripsCount)
-                loadTrip(i)?.let { list.add(it) }
+            val list = ArrayList<TripModel>(indexEntries.size)
+
+            for (i in indexEntries.indices)
+                getCachedTrip(i)?.let { list.add(it) }
 
             return list
         }
@@ -289,6 +395,14 @@ class TripsHistory {
     fun removeTrip(index: Int): Boolean {
         if (index in 0 until routeBookmarks.size) {
             routeBookmarks.remove(index)
+
+            if (isIndexValid && (index < indexEntries.size)) {
+                indexEntries.removeAt(index)
+                rebuildLookups()
+            } else {
+                invalidateIndex()
+            }
+
             return true
         }
 
@@ -300,61 +414,47 @@ class TripsHistory {
      * @param trip Trip to be saved.
      */
     fun saveTrip(trip: TripModel) {
-        val nTrips = routeBookmarks.size
-
-        val filledIndexes = IntArray(nTrips) { Int.MAX_VALUE }
+        ensureIndex()
 
-        var processed = 0
+        val index = if (trip.name.isEmpty()) {
+            // new trip
+            findSameTrip(trip)
+        } else {
+            // existing trip
+            entriesByName[trip.name.lowercase()]?.index ?: -1
+        }
 
-        for (i in 0 until nTrips) {
-            val loaded = loadTrip(i)
-            val bRouteExists = loaded != null
-            val tmpRoute = loaded ?: TripModel()
+        if (index >= 0) {
+            var routeName = indexEntries[index].name
+            if (trip.ignoreDeparture != isFromAToB(index)) {
+                val pos = routeName.indexOfFirst { it == ';' }
+                if (pos > 0) {
+                    val subString = routeName.subSequence(0, pos)
+                    val ignoreDeparture = (if (trip.ignoreDeparture) 1 else 0)
 
-            val bIsSameRoute: Boolean = if (trip.name.isEmpty()) {
-                // new trip
-                trip == tmpRoute
-            } else {
-                // existing trip
-                trip.name.compareTo(tmpRoute.name, true) == 0
+                    routeName = "$subString;$ignoreDeparture;"
+                }
             }
 
-            if (bIsSameRoute) {
-                var routeName = tmpRoute.name
-                if (trip.ignoreDeparture != tmpRoute.ignoreDeparture) {
-                    val pos = routeName.indexOfFirst { it == ';' }
-                    if (pos > 0) {
-                        val subString = routeName.subSequence(0, pos)
-                        val ignoreDeparture = (if (trip.ignoreDeparture) 1 else 0)
+            val preferences = indexEntries[index].trip?.preferences ?: routeBookmarks.getPreferences(index)
 
-                        routeName = "$subString;$ignoreDeparture;"
-                    }
-                }
-
-                routeBookmarks.update(i, routeName, trip.waypoints, tmpRoute.preferences)
-                trip.name = routeName
-                break
-            }
+            routeBookmarks.update(index, routeName, trip.waypoints, preferences)
+            trip.name = routeName
 
-            sortAscending(filledIndexes, nTrips, i, bRouteExists)
-            processed++
+            // stored with the preferences of the stored trip
+            onTripUpdated(index, routeName, trip.fingerprint(preferences))
+            return
         }
 
-        if (processed == nTrips) {
-            var nFirstFree = 1 // find the first available index
-            for (i in 0 until nTrips) {
-                if (filledIndexes[i] == nFirstFree) {
-                    nFirstFree++
-                }
-            }
+        // first available "RouteN" number
+        val routeName = "$ROUTE_NAME${usedRouteNumbers.nextClearBit(1)};${(if (trip.ignoreDeparture) 1 else 0)};"
 
-            val routeName = "$ROUTE_NAME$nFirstFree;${(if (trip.ignoreDeparture) 1 else 0)};"
+        routeBookmarks.add(routeName, trip.waypoints, trip.preferences)
 
-            routeBookmarks.add(routeName, trip.waypoints, trip.preferences)
+        // update trip's name
+        trip.name = routeName
 
-            // update trip's name
-            trip.name = routeName
-        }
+        onTripAdded(routeName, trip.fingerprint)
     }
 
     /**
@@ -418,35 +518,165 @@ class TripsHistory {
 
         routeBookmarks.update(index, encodedTripName, waypoints)
 
+        // the fingerprint also depends on the stored preferences, it is computed again when needed
+        onTripUpdated(index, encodedTripName, null)
+
         return GemError.NoError
     }
 
     // --------------------------------------------------
 
-    private fun sortAscending(nNames: IntArray, nTrips: Int, i: Int, bRouteExists: Boolean) {
-        var nTmp = 0
+    private fun invalidateIndex() {
+        isIndexValid = false
+    }
 
-        val routeName = routeBookmarks.getName(i)
+    /**
+     * Brings the index in sync with the route bookmarks. Only the names are read, entries of
+     * trips whose name did not change keep their loaded data.
+     */
+    private fun ensureIndex() {
+        if (isIndexValid && (indexEntries.size == routeBookmarks.size)) {
+            return
+        }
 
-        if (bRouteExists && !routeName.isNullOrEmpty()) {
-            val tokens = routeName.split(";")
+        val previousEntries = HashMap<String, TripIndexEntry>()
+        for (entry in indexEntries) {
+            previousEntries.getOrPut(entry.name) { entry }
+        }
+
+        indexEntries.clear()
+        for (i in 0 until routeBookmarks.size) {
+            val name = routeBookmarks.getName(i) ?: ""
+            indexEntries.add(previousEntries.remove(name) ?: TripIndexEntry(name))
+        }
 
-            if (tokens.isNotEmpty()) {
-                val strName = tokens[0].replace(ROUTE_NAME, "")
-                nTmp = strName.toInt()
+        hasAllFingerprints = indexEntries.all { it.hasFingerprint }
+        rebuildLookups()
+
+        isIndexValid = true
+    }
+
+    private fun rebuildLookups() {
+        entriesByName.clear()
+        entriesByFingerprint.clear()
+        usedRouteNumbers.clear()
+
+        for (i in indexEntries.indices) {
+            val entry = indexEntries[i]
+            entry.index = i
+
+            entriesByName.getOrPut(entry.name.lowercase()) { entry }
+
+            entry.fingerprint?.let { entriesByFingerprint.getOrPut(it) { ArrayList(1) }.add(entry) }
+
+            if (entry.routeNumber > 0) {
+                usedRouteNumbers.set(entry.routeNumber)
             }
         }
+    }
+
+    /**
+     * Adds the index entry of a trip just added to the route bookmarks.
+     */
+    private fun onTripAdded(routeName: String, fingerprint: String?) {
+        val index = indexEntries.size
+
+        if (!isIndexValid || (routeBookmarks.size != index + 1) || (routeBookmarks.getName(index) != routeName)) {
+            // not appended at the end, the positions are read again when needed
+            invalidateIndex()
+            return
+        }
+
+        val entry = TripIndexEntry(routeName)
+        entry.index = index
+        entry.fingerprint = fingerprint
+
+        indexEntries.add(entry)
+
+        entriesByName.getOrPut(routeName.lowercase()) { entry }
+        fingerprint?.let { entriesByFingerprint.getOrPut(it) { ArrayList(1) }.add(entry) }
+        usedRouteNumbers.set(entry.routeNumber)
+    }
+
+    /**
+     * Replaces the index entry of a trip just updated in the route bookmarks.
+     */
+    private fun onTripUpdated(index: Int, routeName: String, fingerprint: String?) {
+        if (!isIndexValid || (routeBookmarks.size != indexEntries.size) || (routeBookmarks.getName(index) != routeName)) {
+            invalidateIndex()
+            return
+        }
+
+        val entry = TripIndexEntry(routeName)
+        if (fingerprint != null) {
+            entry.fingerprint = fingerprint
+        } else {
+            hasAllFingerprints = false
+        }
+
+        indexEntries[index] = entry
+        rebuildLookups()
+    }
+
+    /**
+     * Returns the index of the first stored trip equal to [trip], -1 if there is none. Only the
+     * trips in the neighbouring cells of the index are compared.
+     */
+    private fun findSameTrip(trip: TripModel): Int {
+        val fingerprints = trip.candidateFingerprints
+        if (fingerprints.isEmpty()) {
+            return -1
+        }
+
+        ensureFingerprints()
 
-        if (nTmp > 0) { // sort ascending
-            for (j in 0 until nTrips) {
-                if (nTmp <= nNames[j]) {
-                    for (k in nTrips - 1 downTo (j + 1))
-                        nNames[k] = nNames[k - 1]
-                    nNames[j] = nTmp
-                    break
+        var result = -1
+
+        for (fingerprint in fingerprints) {
+            val entries = entriesByFingerprint[fingerprint] ?: continue
+
+            for (entry in entries) {
+                if (((result < 0) || (entry.index < result)) && (trip == getCachedTrip(entry.index))) {
+                    result = entry.index
                 }
             }
         }
+
+        return result
+    }
+
+    /**
+     * Computes the missing fingerprints. Done once, afterwards they are kept up to date.
+     */
+    private fun ensureFingerprints() {
+        if (hasAllFingerprints) {
+            return
+        }
+
+        for (i in indexEntries.indices) {
+            val entry = indexEntries[i]
+
+            if (!entry.hasFingerprint) {
+                // only the fingerprint is kept, the waypoints are loaded again when needed
+                entry.fingerprint = (entry.trip ?: loadTrip(i))?.fingerprint
+            }
+        }
+
+        hasAllFingerprints = true
+        rebuildLookups()
+    }
+
+    /**
+     * Returns the trip at [index], loading it on first use.
+     */
+    private fun getCachedTrip(index: Int): TripModel? {
+        val entry = indexEntries[index]
+
+        return entry.trip ?: loadTrip(index)?.also { entry.trip = it }
+    }
+
+    private fun isFromAToB(index: Int): Boolean {
+        return indexEntries[index].fromAToB ?: getCachedTrip(index)?.ignoreDeparture ?: false
     }
 
     private fun encodeTripName(
@@ -454,10 +684,10 @@ class TripsHistory {
         tripName: String,
         isFromAToB: Boolean
     ): Pair<Int, String?> {
-        if (tripName.isNotEmpty()) {
-            val nTrips = routeBookmarks.size
+        ensureIndex()
 
-            for (i in 0 until nTrips) {
+        if (tripName.isNotEmpty()) {
+            for (i in indexEntries.indices) {
                 if (i == index) { // skip current route
                     continue
                 }
@@ -470,7 +700,7 @@ class TripsHistory {
             }
         }
 
-        val trip = loadTrip(index) ?: return Pair(GemError.InvalidInput, null)
+        val trip = getCachedTrip(index) ?: return Pair(GemError.InvalidInput, null)
 
         val name = trip.name
         val tokens = name.split(";")
@@ -481,7 +711,7 @@ class TripsHistory {
         }
 
         if (tokens.isNotEmpty()) {
-            val encodedTripName = String.format("%s;%d;%s;", tokens[0], isFromAToB, aliasHexa)
+            val encodedTripName = String.format("%s;%d;%s;", tokens[0], (if (isFromAToB) 1 else 0), aliasHexa)
             return Pair(GemError.NoError, encodedTripName)
         }
 
@@ -489,31 +719,32 @@ class TripsHistory {
     }
 
     private fun getTripName(index: Int): String? {
+        val entry = indexEntries[index]
+
+        entry.displayName?.let { return it }
+
         val routeAlias = getRouteAlias(index)
-        if (routeAlias?.isNotEmpty() == true)
-            return routeAlias
+        val name = if (routeAlias?.isNotEmpty() == true) {
+            routeAlias
+        } else {
+            val trip = getCachedTrip(index) ?: return null
+            TripModel.getDefaultTripName(trip.waypoints, trip.ignoreDeparture)
+        }
 
-        val trip = loadTrip(index) ?: return null
-        return TripModel.getDefaultTripName(trip.waypoints, trip.ignoreDeparture)
+        entry.displayName = name
+        return name
     }
 
     private fun getRouteAlias(index: Int, returnDecodedValue: Boolean = true): String? {
-        if (index !in 0 until routeBookmarks.size)
+        if (index !in indexEntries.indices)
             return null
 
-        val route = loadTrip(index) ?: return null
-        val tokens = route.name.split(";")
+        val token = indexEntries[index].aliasHexa ?: return null
 
-        for (token in tokens) {
-            if (token.contains("0x") || token.contains("0X")) {
-                if (returnDecodedValue) {
-                    return Util.hexaToString(token)
-                }
-
-                return token
-            }
+        if (returnDecodedValue) {
+            return Util.hexaToString(token)
         }
 
-        return null
+        return token
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.androidauto.util
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+
+class TripMatchingTest {
+
+    @Test
+    fun equalCoordinatesAcrossACellBoundaryAreFound() {
+        // equal within the tolerance, on both sides of a cell boundary in both directions
+        val stored = TripMatching.key("car", 2, 44.42999995, 26.09999995)
+        val latitude = 44.43000005
+        val longitude = 26.10000005
+
+        assertTrue(TripMatching.isSameCoordinate(44.42999995, latitude))
+        assertNotEquals(stored, TripMatching.key("car", 2, latitude, longitude))
+        assertTrue(TripMatching.candidateKeys("car", 2, latitude, longitude).contains(stored))
+    }
+
+    @Test
+    fun candidatesCoverEveryEqualCoordinate() {
+        val random = Random(11)
+
+        for (i in 0 until 100000) {
+            val latitude = random.nextDouble() * 180 - 90
+            val longitude = random.nextDouble() * 360 - 180
+            val otherLatitude = latitude + (random.nextDouble() * 2 - 1) * TripMatching.TOLERANCE
+            val otherLongitude = longitude + (random.nextDouble() * 2 - 1) * TripMatching.TOLERANCE
+
+            if (!TripMatching.isSameCoordinate(latitude, otherLatitude) || !TripMatching.isSameCoordinate(longitude, otherLongitude))
+                continue
+
+            val stored = TripMatching.key("car", 3, otherLatitude, otherLongitude)
+            assertTrue(TripMatching.candidateKeys("car", 3, latitude, longitude).contains(stored))
+        }
+    }
+
+    @Test
+    fun keysKeepModesAndWaypointCountsApart() {
+        val keys = TripMatching.candidateKeys("car", 2, 44.43, 26.1)
+
+        assertEquals(9, keys.toSet().size)
+        assertFalse(keys.contains(TripMatching.key("pedestrian", 2, 44.43, 26.1)))
+        assertFalse(keys.contains(TripMatching.key("car", 3, 44.43, 26.1)))
+    }
+}
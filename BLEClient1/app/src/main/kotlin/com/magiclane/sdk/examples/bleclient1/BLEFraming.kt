@@ -0,0 +1,445 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.bleclient1
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import java.nio.ByteBuffer
+import java.util.zip.CRC32
+import kotlin.math.max
+import kotlin.math.min
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Framing of the messages the navigation server sends as characteristic notifications.
+ *
+ * A message is split into fragments that fit the negotiated ATT MTU. Every fragment starts with
+ * the message type, the message sequence number and the fragment index:
+ *
+ *     [type: u8][sequence: u8][fragment index: u16][data...]
+ *
+ * The first fragment (index 0) also carries the payload length and its CRC32:
+ *
+ *     [type: u8][sequence: u8][0: u16][length: u32][crc32: u32][data...]
+ *
+ * The receiver drops a message when a fragment is missing, comes out of order or the CRC does
+ * not match, instead of showing corrupted data. All values are big endian.
+ *
+ * This file is kept identical in the BLEServer1 and BLEClient1 examples.
+ */
+object BLEFraming
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    const val TYPE_TURN_INSTRUCTION = 0
+    const val TYPE_TURN_DISTANCE = 1
+    const val TYPE_TURN_IMAGE = 2
+    const val MESSAGE_TYPE_COUNT = 3
+
+    /** MTU every connection starts with. */
+    const val DEFAULT_MTU = 23
+
+    /** Largest MTU the ATT protocol allows, the value requested by the client. */
+    const val MAX_MTU = 517
+
+    /** Opcode and attribute handle of a notification. */
+    const val ATT_HEADER_SIZE = 3
+
+    const val FRAGMENT_HEADER_SIZE = 4
+    const val FIRST_FRAGMENT_HEADER_SIZE = FRAGMENT_HEADER_SIZE + 8
+
+    const val MAX_PAYLOAD_SIZE = 64 * 1024
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the largest notification value that fits the given MTU.
+     */
+    fun maxFrameSize(mtu: Int): Int
+    {
+        return mtu.coerceIn(DEFAULT_MTU, MAX_MTU) - ATT_HEADER_SIZE
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Decodes the remaining bytes of a message payload as an UTF-8 string.
+     */
+    fun readString(payload: ByteBuffer): String
+    {
+        val value = String(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(), Charsets.UTF_8)
+        payload.position(payload.limit())
+        return value
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    internal fun putInt(frame: ByteArray, offset: Int, value: Int)
+    {
+        frame[offset] = (value shr 24).toByte()
+        frame[offset + 1] = (value shr 16).toByte()
+        frame[offset + 2] = (value shr 8).toByte()
+        frame[offset + 3] = value.toByte()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    internal fun getInt(frame: ByteArray, offset: Int): Int
+    {
+        return (frame[offset].toInt() shl 24) or
+                (frame[offset + 1].toInt() and 0xff shl 16) or
+                (frame[offset + 2].toInt() and 0xff shl 8) or
+                (frame[offset + 3].toInt() and 0xff)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Delivers the frames of a message, e.g. as GATT notifications. The frame array is reused for
+ * the next frame, so it must be consumed or copied before returning.
+ */
+fun interface IBLEFrameTransport
+{
+    fun sendFrame(type: Int, frame: ByteArray)
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Receives the reassembled messages. The payload buffer is reused, it is only valid during the call.
+ */
+fun interface IBLEMessageListener
+{
+    fun onMessage(type: Int, payload: ByteBuffer)
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Builds a message in a reusable payload buffer and sends it as frames that fit [mtu].
+ *
+ *     writer.begin(BLEFraming.TYPE_TURN_DISTANCE).putString(distance).send()
+ *
+ * The payload buffer and the frame arrays are kept between messages, so sending does not
+ * allocate once the buffers have grown to the largest message.
+ */
+class BLEFrameWriter(private val transport: IBLEFrameTransport)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /** The MTU negotiated with the receiver. */
+    var mtu = BLEFraming.DEFAULT_MTU
+
+    private var payload: ByteBuffer = ByteBuffer.allocate(256)
+    private var messageType = -1
+    private val sequences = IntArray(BLEFraming.MESSAGE_TYPE_COUNT)
+    private val crc = CRC32()
+
+    /** Frame arrays indexed by their size, the last fragment of a message is usually shorter. */
+    private val frames = arrayOfNulls<ByteArray>(BLEFraming.maxFrameSize(BLEFraming.MAX_MTU) + 1)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun begin(type: Int): BLEFrameWriter
+    {
+        require((type >= 0) && (type < BLEFraming.MESSAGE_TYPE_COUNT)) { "Invalid message type: $type" }
+
+        messageType = type
+        payload.clear()
+        return this
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun putByte(value: Int): BLEFrameWriter
+    {
+        ensureRemaining(1).put(value.toByte())
+        return this
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun putShort(value: Int): BLEFrameWriter
+    {
+        ensureRemaining(2).putShort(value.toShort())
+        return this
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun putInt(value: Int): BLEFrameWriter
+    {
+        ensureRemaining(4).putInt(value)
+        return this
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun putBytes(src: ByteArray, offset: Int = 0, length: Int = src.size - offset): BLEFrameWriter
+    {
+        ensureRemaining(length).put(src, offset, length)
+        return this
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun putString(value: String): BLEFrameWriter
+    {
+        return putBytes(value.toByteArray(Charsets.UTF_8))
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Sends the message started with [begin].
+     *
+     * @return The number of frames sent.
+     */
+    fun send(): Int
+    {
+        val type = messageType
+        check(type >= 0) { "send() called without begin()" }
+        messageType = -1
+
+        val data = payload.array()
+        val length = payload.position()
+
+        crc.reset()
+        crc.update(data, 0, length)
+
+        val sequence = sequences[type]
+        sequences[type] = (sequence + 1) and 0xff
+
+        val maxFrameSize = BLEFraming.maxFrameSize(mtu)
+        var offset = 0
+        var index = 0
+
+        do
+        {
+            val headerSize = if (index == 0) BLEFraming.FIRST_FRAGMENT_HEADER_SIZE else BLEFraming.FRAGMENT_HEADER_SIZE
+            val chunkSize = min(maxFrameSize - headerSize, length - offset)
+            val frame = obtainFrame(headerSize + chunkSize)
+
+            frame[0] = type.toByte()
+            frame[1] = sequence.toByte()
+            frame[2] = (index shr 8).toByte()
+            frame[3] = index.toByte()
+
+            if (index == 0)
+            {
+                BLEFraming.putInt(frame, 4, length)
+                BLEFraming.putInt(frame, 8, crc.value.toInt())
+            }
+
+            System.arraycopy(data, offset, frame, headerSize, chunkSize)
+            transport.sendFrame(type, frame)
+
+            offset += chunkSize
+            index++
+        }
+        while (offset < length)
+
+        return index
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun ensureRemaining(count: Int): ByteBuffer
+    {
+        if (payload.remaining() < count)
+        {
+            val required = payload.position() + count
+            check(required <= BLEFraming.MAX_PAYLOAD_SIZE) { "Message exceeds ${BLEFraming.MAX_PAYLOAD_SIZE} bytes" }
+
+            val grown = ByteBuffer.allocate(min(max(payload.capacity() * 2, required), BLEFraming.MAX_PAYLOAD_SIZE))
+            payload.flip()
+            grown.put(payload)
+            payload = grown
+        }
+
+        return payload
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun obtainFrame(size: Int): ByteArray
+    {
+        return frames[size] ?: ByteArray(size).also { frames[size] = it }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Reassembles the frames written by [BLEFrameWriter]. Each message type has its own reassembly
+ * slot, so messages of different types may interleave.
+ */
+class BLEFrameReader(private val listener: IBLEMessageListener)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private class TMessage
+    {
+        var inProgress = false
+        var sequence = 0
+        var nextFragment = 0
+        var length = 0
+        var received = 0
+        var crc = 0
+        var data = ByteArray(256)
+        var view: ByteBuffer = ByteBuffer.wrap(data)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private val messages = Array(BLEFraming.MESSAGE_TYPE_COUNT) { TMessage() }
+    private val crc = CRC32()
+
+    /** Number of messages dropped because of a missing fragment or a CRC mismatch. */
+    var droppedMessages = 0
+        private set
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Discards the partially received messages, e.g. after a reconnection.
+     */
+    fun reset()
+    {
+        for (message in messages)
+        {
+            message.inProgress = false
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Processes a received frame.
+     *
+     * @return Return false if the frame was rejected.
+     */
+    fun onFrame(frame: ByteArray, length: Int = frame.size): Boolean
+    {
+        if (length < BLEFraming.FRAGMENT_HEADER_SIZE)
+        {
+            return false
+        }
+
+        val type = frame[0].toInt() and 0xff
+        if (type >= BLEFraming.MESSAGE_TYPE_COUNT)
+        {
+            return false
+        }
+
+        val sequence = frame[1].toInt() and 0xff
+        val index = ((frame[2].toInt() and 0xff) shl 8) or (frame[3].toInt() and 0xff)
+        val message = messages[type]
+        val headerSize: Int
+
+        if (index == 0)
+        {
+            if (message.inProgress)
+            {
+                drop(message)
+            }
+
+            if (length < BLEFraming.FIRST_FRAGMENT_HEADER_SIZE)
+            {
+                return false
+            }
+
+            val payloadLength = BLEFraming.getInt(frame, 4)
+            if ((payloadLength < 0) || (payloadLength > BLEFraming.MAX_PAYLOAD_SIZE))
+            {
+                return false
+            }
+
+            if (message.data.size < payloadLength)
+            {
+                message.data = ByteArray(max(message.data.size * 2, payloadLength))
+                message.view = ByteBuffer.wrap(message.data)
+            }
+
+            message.inProgress = true
+            message.sequence = sequence
+            message.length = payloadLength
+            message.crc = BLEFraming.getInt(frame, 8)
+            message.received = 0
+            headerSize = BLEFraming.FIRST_FRAGMENT_HEADER_SIZE
+        }
+        else
+        {
+            if (!message.inProgress)
+            {
+                return false
+            }
+
+            if ((sequence != message.sequence) || (index != message.nextFragment))
+            {
+                drop(message)
+                return false
+            }
+
+            headerSize = BLEFraming.FRAGMENT_HEADER_SIZE
+        }
+
+        val chunkSize = length - headerSize
+        if (message.received + chunkSize > message.length)
+        {
+            drop(message)
+            return false
+        }
+
+        System.arraycopy(frame, headerSize, message.data, message.received, chunkSize)
+        message.received += chunkSize
+        message.nextFragment = index + 1
+
+        if (message.received == message.length)
+        {
+            message.inProgress = false
+
+            crc.reset()
+            crc.update(message.data, 0, message.length)
+
+            if (crc.value.toInt() != message.crc)
+            {
+                droppedMessages++
+                return false
+            }
+
+            message.view.clear()
+            message.view.limit(message.length)
+            listener.onMessage(type, message.view)
+        }
+
+        return true
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun drop(message: TMessage)
+    {
+        message.inProgress = false
+        droppedMessages++
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
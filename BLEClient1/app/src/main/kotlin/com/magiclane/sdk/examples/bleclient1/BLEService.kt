@@ -26,6 +26,7 @@ import com.magiclane.sdk.examples.bleclient1.SampleGattAttributes.CLIENT_CONFIG
 import com.magiclane.sdk.examples.bleclient1.SampleGattAttributes.TURN_DISTANCE
 import com.magiclane.sdk.examples.bleclient1.SampleGattAttributes.TURN_IMAGE
 import com.magiclane.sdk.examples.bleclient1.SampleGattAttributes.TURN_INSTRUCTION
+import java.nio.ByteBuffer
 
 // -------------------------------------------------------------------------------------------------------------------------------
 
@@ -52,17 +53,9 @@ class BLEService : Service()
     private lateinit var context: Context
     private lateinit var tag: String
     private var bleServiceObserver: IBLEServiceObserver? = null
-    private var turnImageDataOffset = 0
-    private var turnImageLineSize = 0
-    private var minX = 0
-    private var minX1 = 0
-    private var maxX = 0
-    private var maxX1 = 0
-    var turnImageSize = 0
-    private var turnImageData = byteArrayOf()
-    private var turnInstructionSize = 0
-    private var turnInstructionDataOffset = 0
-    private var turnInstructionData = byteArrayOf()
+    var turnImageWidth = 0
+    var turnImageHeight = 0
+    private val frameReader = BLEFrameReader { type, payload -> broadcastMessage(type, payload) }
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
@@ -82,13 +75,18 @@ class BLEService : Service()
                 intentAction = ACTION_GATT_CONNECTED
                 connectionState = STATE_CONNECTED
                 broadcastUpdate(intentAction)
-                Log.i(tag, "Connected to GATT server.") // Attempts to discover services after successful connection.
+                Log.i(tag, "Connected to GATT server.")
+                frameReader.reset()
+
+                // Larger notifications need fewer packets, services are discovered once the MTU is negotiated.
                 if ((Build.VERSION.SDK_INT < Build.VERSION_CODES.S) ||
                     (ActivityCompat.checkSelfPermission(context, Manifest.permission.BLUETOOTH_CONNECT) == PackageManager.PERMISSION_GRANTED))
                 {
                     bluetoothGatt?.let {
-                        val result = it.discoverServices()
-                        Log.i(tag, "BluetoothGattCallback.onConnectionStateChange(): attempting to start service discovery:" + result)
+                        if (!it.requestMtu(BLEFraming.MAX_MTU))
+                        {
+                            discoverServices()
+                        }
                     }
                 }
             }
@@ -103,6 +101,14 @@ class BLEService : Service()
 
         // -----------------------------------------------------------------------------------------------------------------------
 
+        override fun onMtuChanged(gatt: BluetoothGatt, mtu: Int, status: Int)
+        {
+            Log.i(tag, "BluetoothGattCallback.onMtuChanged(): mtu = $mtu, status = $status")
+            discoverServices()
+        }
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
         override fun onServicesDiscovered(gatt: BluetoothGatt, status: Int)
         {
             if (status == BluetoothGatt.GATT_SUCCESS)
@@ -121,7 +127,7 @@ class BLEService : Service()
         {
             if (status == BluetoothGatt.GATT_SUCCESS)
             {
-                broadcastUpdate(ACTION_DATA_AVAILABLE, characteristic)
+                broadcastReadValue(characteristic)
             }
 
             if ((characteristic.properties or BluetoothGattCharacteristic.PROPERTY_NOTIFY) > 0)
@@ -139,7 +145,12 @@ class BLEService : Service()
 
         override fun onCharacteristicChanged(gatt: BluetoothGatt, characteristic: BluetoothGattCharacteristic)
         {
-            broadcastUpdate(ACTION_DATA_AVAILABLE, characteristic)
+            characteristic.value?.let {
+                if (!frameReader.onFrame(it))
+                {
+                    Log.d(tag, "onCharacteristicChanged(): frame rejected, dropped messages = ${frameReader.droppedMessages}")
+                }
+            }
         }
 
         // -----------------------------------------------------------------------------------------------------------------------
@@ -180,232 +191,98 @@ class BLEService : Service()
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
-    private fun broadcastUpdate(action: String, characteristic: BluetoothGattCharacteristic)
+    private fun discoverServices()
     {
-        val intent = Intent(action)
+        if ((Build.VERSION.SDK_INT < Build.VERSION_CODES.S) ||
+            (ActivityCompat.checkSelfPermission(context, Manifest.permission.BLUETOOTH_CONNECT) == PackageManager.PERMISSION_GRANTED))
+        {
+            bluetoothGatt?.let {
+                val result = it.discoverServices()
+                Log.i(tag, "discoverServices(): attempting to start service discovery:" + result)
+            }
+        }
+    }
 
-        // This is special handling for the Heart Rate Measurement profile.  Data parsing is
-        // carried out as per profile specifications:
-        // http://developer.bluetooth.org/gatt/characteristics/Pages/CharacteristicViewer.aspx?u=org.bluetooth.characteristic.heart_rate_measurement.xml
+    // ---------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Handles the value of a characteristic read. Read values are not framed, only the notifications are.
+     */
+    private fun broadcastReadValue(characteristic: BluetoothGattCharacteristic)
+    {
         val data = characteristic.value
-        if ((data != null) && data.isNotEmpty())
+        if ((data == null) || data.isEmpty())
         {
-            if (TURN_INSTRUCTION == characteristic.uuid)
+            return
+        }
+
+        if (TURN_IMAGE == characteristic.uuid)
+        {
+            if (data.size == 8)
             {
-                if ((turnInstructionSize == 0) && (data.size == 1))
-                {
-                    turnInstructionDataOffset = 0
-                    turnInstructionSize = data[0].toInt()
-                    turnInstructionData = ByteArray(turnInstructionSize)
+                turnImageWidth = read4BytesFromBuffer(data, 0)
+                turnImageHeight = read4BytesFromBuffer(data, 4)
+            }
+        }
+        else if (TURN_DISTANCE == characteristic.uuid)
+        {
+            val intent = Intent(ACTION_DATA_AVAILABLE)
+            intent.putExtra(EXTRA_TYPE, 1)
+            intent.putExtra(EXTRA_DATA, String(data))
+            sendBroadcast(intent)
+        }
+    }
 
-                    return
-                }
-                else
-                {
-                    if ((turnInstructionDataOffset + data.size) <= turnInstructionData.size)
-                    {
-                        System.arraycopy(data, 0, turnInstructionData, turnInstructionDataOffset, data.size)
-                        turnInstructionDataOffset += data.size
+    // ---------------------------------------------------------------------------------------------------------------------------
 
-                        if (turnInstructionDataOffset == turnInstructionData.size)
-                        {
-                            turnInstructionSize = 0
+    private fun broadcastMessage(type: Int, payload: ByteBuffer)
+    {
+        val intent = Intent(ACTION_DATA_AVAILABLE)
 
-                            intent.putExtra(EXTRA_TYPE, 0)
-                            intent.putExtra(EXTRA_DATA, String(turnInstructionData))
-                        }
-                        else
-                        {
-                            return
-                        }
-                    }
-                    else
-                    {
-                        return
-                    }
-                }
+        when (type)
+        {
+            BLEFraming.TYPE_TURN_INSTRUCTION ->
+            {
+                intent.putExtra(EXTRA_TYPE, 0)
+                intent.putExtra(EXTRA_DATA, BLEFraming.readString(payload))
             }
-            else if (TURN_DISTANCE == characteristic.uuid)
+            BLEFraming.TYPE_TURN_DISTANCE ->
             {
                 intent.putExtra(EXTRA_TYPE, 1)
-                intent.putExtra(EXTRA_DATA, String(data))
+                intent.putExtra(EXTRA_DATA, BLEFraming.readString(payload))
             }
-            else if (TURN_IMAGE == characteristic.uuid)
+            BLEFraming.TYPE_TURN_IMAGE ->
             {
-                if ((data.size == 8) && (turnImageLineSize == 0))
-                {
-                    turnImageSize = read4BytesFromBuffer(data, 0)
-                    turnImageData = ByteArray(read4BytesFromBuffer(data, 4))
-                    turnImageDataOffset = 0
-                    return
-                }
-                else if ((data.size == 1) && (turnImageLineSize == 0))
-                {
-                    if (data[0].toInt() == 0)
-                    {
-                        intent.putExtra(EXTRA_TYPE, 2)
-                        intent.putExtra(EXTRA_DATA, data)
-                    }
-                    else
-                    {
-                        turnImageDataOffset = 0
-                        return
-                    }
-                }
-                else if ((data.size == 2) && (turnImageLineSize == 0))
-                {
-                    minX = data[0].toInt()
-                    maxX = data[1].toInt()
-                    minX1 = 0
-                    maxX1 = 0
+                intent.putExtra(EXTRA_TYPE, 2)
 
-                    if (maxX == minX)
-                    {
-                        for (i in 0 until turnImageSize)
-                        {
-                            turnImageData[turnImageDataOffset++] = 0
-                        }
-                    }
-                    else if (maxX > minX)
-                    {
-                        turnImageLineSize = maxX - minX + 1
-
-                        for (i in 0 until minX)
-                        {
-                            turnImageData[turnImageDataOffset++] = 0
-                        }
-                    }
-
-                    if (turnImageDataOffset == turnImageData.size)
-                    {
-                        turnImageDataOffset = 0
-
-                        intent.putExtra(EXTRA_TYPE, 2)
-                        intent.putExtra(EXTRA_DATA, turnImageData)
-
-                        // Log.d(tag, "turnImageDataOffset == turnImageData.size!")
-                    }
-                    else
-                    {
-                        return
-                    }
-                }
-                else if ((data.size == 4) && (turnImageLineSize == 0))
+                // an empty turn image means the navigation ended
+                if (!payload.hasRemaining())
                 {
-                    minX = data[0].toInt()
-                    minX1 = data[1].toInt()
-                    maxX1 = data[2].toInt()
-                    maxX = data[3].toInt()
-
-                    for (i in 0 until minX)
-                    {
-                        turnImageData[turnImageDataOffset++] = 0
-                    }
-
-                    if (minX == minX1)
-                    {
-                        for (i in minX1 .. maxX1)
-                        {
-                            turnImageData[turnImageDataOffset++] = 254.toByte()
-                        }
-
-                        if (maxX > maxX1)
-                        {
-                            turnImageLineSize = maxX - maxX1
-                        }
-
-                        minX1 = 0
-                        maxX1 = 0
-                    }
-                    else
-                    {
-                        turnImageLineSize = minX1 - minX
-                    }
-
-                    if (turnImageDataOffset == turnImageData.size)
-                    {
-                        turnImageDataOffset = 0
-
-                        intent.putExtra(EXTRA_TYPE, 2)
-                        intent.putExtra(EXTRA_DATA, turnImageData)
-
-                        // Log.d(tag, "turnImageDataOffset == turnImageData.size!")
-                    }
-                    else
-                    {
-                        return
-                    }
+                    intent.putExtra(EXTRA_DATA, byteArrayOf(0))
                 }
                 else
                 {
-                    // Log.d(tag, "before turnImageDataOffset = $turnImageDataOffset, data.size = ${data.size}")
-                    if ((turnImageDataOffset + data.size) <= turnImageData.size)
-                    {
-                        System.arraycopy(data, 0, turnImageData, turnImageDataOffset, data.size)
-                        turnImageDataOffset += data.size
-                        turnImageLineSize -= data.size
-
-                        if (turnImageLineSize == 0)
-                        {
-                            if (maxX1 > 0)
-                            {
-                                for (i in minX1 .. maxX1)
-                                {
-                                    turnImageData[turnImageDataOffset++] = 254.toByte()
-                                }
-
-                                if (maxX > maxX1)
-                                {
-                                    turnImageLineSize = maxX - maxX1
-                                }
-
-                                minX1 = 0
-                                maxX1 = 0
-                            }
-                            else
-                            {
-                                for (i in (maxX + 1) until turnImageSize)
-                                {
-                                    turnImageData[turnImageDataOffset++] = 0
-                                }
-                            }
-                        }
-
-                        if (turnImageDataOffset == turnImageData.size)
-                        {
-                            turnImageDataOffset = 0
-
-                            intent.putExtra(EXTRA_TYPE, 2)
-                            intent.putExtra(EXTRA_DATA, turnImageData)
-
-                            // Log.d(tag, "turnImageDataOffset == turnImageData.size!")
-                        }
-                        else
-                        {
-                            return
-                        }
-                        /*
-                        else
-                        {
-                            Log.d(tag, "after turnImageDataOffset = $turnImageDataOffset, data.size = ${data.size}")
-                        }
-                        */
-                    }
-                    else
+                    val image = TurnImageCodec.decode(payload)
+                    if (image == null)
                     {
-                        Log.d(tag, "exceed range!!!")
+                        Log.d(tag, "broadcastMessage(): malformed turn image")
                         return
                     }
+
+                    turnImageWidth = image.width
+                    turnImageHeight = image.height
+                    intent.putExtra(EXTRA_DATA, image.pixels)
+                    intent.putExtra(EXTRA_WIDTH, image.width)
+                    intent.putExtra(EXTRA_HEIGHT, image.height)
                 }
             }
-            else
+            else ->
             {
                 return
             }
-
-            sendBroadcast(intent)
         }
+
+        sendBroadcast(intent)
     }
 
     // ---------------------------------------------------------------------------------------------------------------------------
@@ -662,6 +539,8 @@ class BLEService : Service()
         const val ACTION_DATA_AVAILABLE = "com.magiclane.sdk.examples.bleclient1.ACTION_DATA_AVAILABLE"
         const val EXTRA_DATA = "com.magiclane.sdk.examples.bleclient1.EXTRA_DATA"
         const val EXTRA_TYPE = "com.magiclane.sdk.examples.bleclient1.EXTRA_TYPE"
+        const val EXTRA_WIDTH = "com.magiclane.sdk.examples.bleclient1.EXTRA_WIDTH"
+        const val EXTRA_HEIGHT = "com.magiclane.sdk.examples.bleclient1.EXTRA_HEIGHT"
     }
 
     // ---------------------------------------------------------------------------------------------------------------------------
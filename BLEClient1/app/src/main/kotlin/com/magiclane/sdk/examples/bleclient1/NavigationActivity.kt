@@ -17,7 +17,6 @@ import android.bluetooth.BluetoothGattCharacteristic
 import android.bluetooth.BluetoothGattService
 import android.content.*
 import android.graphics.Bitmap
-import android.graphics.Color
 import android.os.Bundle
 import android.os.Handler
 import android.os.IBinder
@@ -145,26 +144,7 @@ class NavigationActivity : AppCompatActivity(), BLEService.IBLEServiceObserver
             return null
         }
 
-        var index = 0
-        var g: Int
-
-        val result = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888)
-
-        for (y in 0 until height)
-        {
-            for (x in 0 until width)
-            {
-                g = img[index++].toUByte().toInt()
-                if (g % 2 == 1)
-                {
-                    result.setPixel(x, y, Color.argb(g, 255, 0, 0))
-                }
-                else
-                {
-                    result.setPixel(x, y, Color.rgb(g, g, g))
-                }
-            }
-        }
+        val result = Bitmap.createBitmap(TurnImageCodec.toArgb(img), width, height, Bitmap.Config.ARGB_8888)
 
         result.density = DisplayMetrics.DENSITY_MEDIUM
         return result
@@ -226,7 +206,9 @@ class NavigationActivity : AppCompatActivity(), BLEService.IBLEServiceObserver
                             bluetoothLeService?.let {
                                 topPanel.visibility = View.VISIBLE
 
-                                val bmp = createBitmap(data, it.turnImageSize, it.turnImageSize)
+                                val width = intent.getIntExtra(BLEService.EXTRA_WIDTH, it.turnImageWidth)
+                                val height = intent.getIntExtra(BLEService.EXTRA_HEIGHT, it.turnImageHeight)
+                                val bmp = createBitmap(data, width, height)
                                 navInstructionIcon.setImageBitmap(bmp)
                             }
                         }
@@ -0,0 +1,346 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.bleclient1
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import java.nio.ByteBuffer
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Codec of the turn images sent over BLE.
+ *
+ * The server converts the ARGB pixels of the turn image to one byte per pixel: even values are
+ * gray levels, odd values are the alpha of the red highlight color, 0 is transparent. The bytes
+ * are run-length encoded in a single pass:
+ *
+ *     [width: u16][height: u16] then tokens of
+ *     [0..127: n - 1] followed by n literal bytes, or
+ *     [128..255: n - 3 + 128] followed by one byte repeated n times (3..130)
+ *
+ * Turn images are mostly transparent or uniform, so whole rows collapse to a couple of bytes.
+ *
+ * This file is kept identical in the BLEServer1 and BLEClient1 examples.
+ */
+object TurnImageCodec
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    class TTurnImage(val width: Int, val height: Int, val pixels: ByteArray)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    const val HEADER_SIZE = 4
+
+    private const val MAX_LITERAL = 128
+    private const val MIN_RUN = 3
+    private const val MAX_RUN = MIN_RUN + 127
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Converts an ARGB pixel to the transmitted gray value.
+     */
+    fun grayValue(pixel: Int, redVal: Float = 0.299f, greenVal: Float = 0.587f, blueVal: Float = 0.114f): Int
+    {
+        val alpha = pixel ushr 24
+        if (alpha == 0)
+        {
+            return 0
+        }
+
+        val r = (pixel shr 16) and 0xff
+        val g = (pixel shr 8) and 0xff
+        val b = pixel and 0xff
+
+        var value = (((redVal * r + greenVal * g + blueVal * b) * alpha) / 255).toInt()
+
+        if ((r == 255) && (r > g) && (r > b))
+        {
+            value = if (alpha % 2 == 0) alpha + 1 else alpha
+        }
+        else if ((r > 200) && (r > g) && (r > b) && (alpha == 255))
+        {
+            value = if (r < 255) r else r - g
+
+            if (value % 2 == 0)
+            {
+                value += 1
+            }
+        }
+        else if (value % 2 == 1)
+        {
+            value++
+            if (value == 256)
+            {
+                value = 254
+            }
+        }
+
+        return value
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Converts the ARGB pixels (as returned by Bitmap.getPixels) to gray values and run-length
+     * encodes them in one pass.
+     */
+    fun encode(pixels: IntArray, width: Int, height: Int): ByteArray
+    {
+        require((width in 1..0xffff) && (height in 1..0xffff) && (pixels.size >= width * height)) { "Invalid image size: $width x $height" }
+
+        val writer = TRunLengthWriter(HEADER_SIZE + width * height / 8 + 16)
+        writer.putHeader(width, height)
+
+        for (i in 0 until width * height)
+        {
+            writer.add(grayValue(pixels[i]))
+        }
+
+        return writer.finish()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Decodes an encoded turn image.
+     *
+     * @return Return the gray values, null if the data is malformed.
+     */
+    fun decode(data: ByteBuffer): TTurnImage?
+    {
+        if (data.remaining() < HEADER_SIZE)
+        {
+            return null
+        }
+
+        val width = data.short.toInt() and 0xffff
+        val height = data.short.toInt() and 0xffff
+        val pixels = ByteArray(width * height)
+        var offset = 0
+
+        while (data.hasRemaining() && (offset < pixels.size))
+        {
+            val control = data.get().toInt() and 0xff
+
+            if (control < MAX_LITERAL)
+            {
+                val count = control + 1
+                if ((count > data.remaining()) || (offset + count > pixels.size))
+                {
+                    return null
+                }
+
+                data.get(pixels, offset, count)
+                offset += count
+            }
+            else
+            {
+                val count = control - MAX_LITERAL + MIN_RUN
+                if (!data.hasRemaining() || (offset + count > pixels.size))
+                {
+                    return null
+                }
+
+                pixels.fill(data.get(), offset, offset + count)
+                offset += count
+            }
+        }
+
+        return if ((offset == pixels.size) && !data.hasRemaining()) TTurnImage(width, height, pixels) else null
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Converts decoded gray values to ARGB pixels for Bitmap.createBitmap.
+     */
+    fun toArgb(gray: ByteArray, out: IntArray = IntArray(gray.size)): IntArray
+    {
+        for (i in gray.indices)
+        {
+            val g = gray[i].toInt() and 0xff
+
+            // odd values are the alpha of the red highlight color
+            out[i] = if (g % 2 == 1) (g shl 24) or 0xff0000 else (0xff shl 24) or (g shl 16) or (g shl 8) or g
+        }
+
+        return out
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private class TRunLengthWriter(initialCapacity: Int)
+    {
+        private var out = ByteArray(initialCapacity)
+        private var size = 0
+
+        private val literals = ByteArray(MAX_LITERAL)
+        private var literalCount = 0
+
+        private var runValue = 0
+        private var runLength = 0
+
+        fun putHeader(width: Int, height: Int)
+        {
+            put(width shr 8)
+            put(width)
+            put(height shr 8)
+            put(height)
+        }
+
+        fun add(value: Int)
+        {
+            if ((runLength > 0) && (value == runValue) && (runLength < MAX_RUN))
+            {
+                runLength++
+                return
+            }
+
+            endRun()
+            runValue = value
+            runLength = 1
+        }
+
+        fun finish(): ByteArray
+        {
+            endRun()
+            flushLiterals()
+            return out.copyOf(size)
+        }
+
+        private fun endRun()
+        {
+            if (runLength >= MIN_RUN)
+            {
+                flushLiterals()
+                put(MAX_LITERAL + runLength - MIN_RUN)
+                put(runValue)
+            }
+            else
+            {
+                // too short to pay off, the bytes join the pending literals
+                for (i in 0 until runLength)
+                {
+                    if (literalCount == MAX_LITERAL)
+                    {
+                        flushLiterals()
+                    }
+
+                    literals[literalCount++] = runValue.toByte()
+                }
+            }
+
+            runLength = 0
+        }
+
+        private fun flushLiterals()
+        {
+            if (literalCount == 0)
+            {
+                return
+            }
+
+            ensureCapacity(literalCount + 1)
+            out[size++] = (literalCount - 1).toByte()
+            System.arraycopy(literals, 0, out, size, literalCount)
+            size += literalCount
+            literalCount = 0
+        }
+
+        private fun put(value: Int)
+        {
+            ensureCapacity(1)
+            out[size++] = value.toByte()
+        }
+
+        private fun ensureCapacity(count: Int)
+        {
+            if (size + count > out.size)
+            {
+                out = out.copyOf(maxOf(out.size * 2, size + count))
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Keeps the encoded form of the last turn images, so a maneuver image seen again (e.g. after
+ * a client subscribes or a route is recalculated) is not converted and encoded again.
+ *
+ * Images are identified by the uid of the SDK image they were rendered from and their size, so a
+ * cached image is found without reading its pixels.
+ */
+class TurnImageCache(private val maxEntries: Int = 8)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private data class TKey(val uid: Long, val width: Int, val height: Int)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private val entries = object : LinkedHashMap<TKey, ByteArray>(maxEntries, 0.75f, true)
+    {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<TKey, ByteArray>?): Boolean
+        {
+            return size > maxEntries
+        }
+    }
+
+    var hits = 0
+        private set
+
+    var misses = 0
+        private set
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the encoded image, from the cache if the image with this uid was encoded before at
+     * this size.
+     *
+     * @param pixels Gives the ARGB pixels of the image, only called when it is not in the cache.
+     */
+    fun getOrEncode(uid: Long, width: Int, height: Int, pixels: () -> IntArray): ByteArray
+    {
+        val key = TKey(uid, width, height)
+
+        val cached = entries[key]
+        if (cached != null)
+        {
+            hits++
+            return cached
+        }
+
+        misses++
+        val encoded = TurnImageCodec.encode(pixels(), width, height)
+        entries[key] = encoded
+        return encoded
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun clear()
+    {
+        entries.clear()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,166 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.bleclient1
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Runs the BLE framing between a writer and a reader connected by an in-memory transport
+ * standing in for the GATT notifications.
+ */
+class BLEFramingTest {
+
+    /**
+     * Copies every frame like the GATT stack does and hands it to the reader, optionally
+     * dropping or corrupting some of them.
+     */
+    private class LoopbackTransport(val reader: BLEFrameReader) : IBLEFrameTransport {
+        private var framesSent = 0
+        var dropFrame = -1
+        var corruptFrame = -1
+
+        override fun sendFrame(type: Int, frame: ByteArray) {
+            val index = framesSent++
+            if (index == dropFrame)
+                return
+
+            val copy = frame.copyOf()
+            if (index == corruptFrame)
+                copy[copy.size - 1] = (copy[copy.size - 1] + 1).toByte()
+
+            reader.onFrame(copy)
+        }
+    }
+
+    private class Received(val type: Int, val payload: ByteArray)
+
+    private val received = mutableListOf<Received>()
+    private val reader = BLEFrameReader { type, payload ->
+        val bytes = ByteArray(payload.remaining())
+        payload.get(bytes)
+        received.add(Received(type, bytes))
+    }
+    private val transport = LoopbackTransport(reader)
+    private val writer = BLEFrameWriter(transport)
+
+    private fun payload(size: Int) = ByteArray(size) { (it * 31 + 7).toByte() }
+
+    @Test
+    fun testRoundTrip() {
+        val data = payload(5000)
+
+        for (mtu in intArrayOf(BLEFraming.DEFAULT_MTU, 185, BLEFraming.MAX_MTU)) {
+            received.clear()
+            writer.mtu = mtu
+
+            val frames = writer.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(data).send()
+
+            val firstChunk = BLEFraming.maxFrameSize(mtu) - BLEFraming.FIRST_FRAGMENT_HEADER_SIZE
+            val chunk = BLEFraming.maxFrameSize(mtu) - BLEFraming.FRAGMENT_HEADER_SIZE
+            assertEquals(1 + (data.size - firstChunk + chunk - 1) / chunk, frames)
+
+            assertEquals(1, received.size)
+            assertEquals(BLEFraming.TYPE_TURN_IMAGE, received[0].type)
+            assertArrayEquals(data, received[0].payload)
+        }
+
+        assertEquals(0, reader.droppedMessages)
+    }
+
+    @Test
+    fun testLongInstruction() {
+        val instruction = "Turn left onto ".repeat(20) + "Straße"
+
+        writer.begin(BLEFraming.TYPE_TURN_INSTRUCTION).putString(instruction).send()
+
+        assertEquals(1, received.size)
+        assertEquals(instruction, String(received[0].payload, Charsets.UTF_8))
+    }
+
+    @Test
+    fun testEmptyMessage() {
+        assertEquals(1, writer.begin(BLEFraming.TYPE_TURN_IMAGE).send())
+
+        assertEquals(1, received.size)
+        assertEquals(0, received[0].payload.size)
+    }
+
+    @Test
+    fun testDroppedFrame() {
+        transport.dropFrame = 3
+        writer.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(payload(200)).send()
+
+        assertTrue(received.isEmpty())
+        assertEquals(1, reader.droppedMessages)
+
+        // the next message is received again
+        writer.begin(BLEFraming.TYPE_TURN_DISTANCE).putString("250 m").send()
+
+        assertEquals(1, received.size)
+        assertEquals("250 m", String(received[0].payload, Charsets.UTF_8))
+    }
+
+    @Test
+    fun testDroppedLastFrame() {
+        transport.dropFrame = BLEFrameWriter { _, _ -> }.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(payload(200)).send() - 1
+
+        // the incomplete message is dropped when the next one starts
+        writer.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(payload(200)).send()
+        writer.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(payload(100)).send()
+
+        assertEquals(1, received.size)
+        assertEquals(100, received[0].payload.size)
+        assertEquals(1, reader.droppedMessages)
+    }
+
+    @Test
+    fun testCorruptedFrame() {
+        transport.corruptFrame = 2
+        writer.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(payload(200)).send()
+
+        assertTrue(received.isEmpty())
+        assertEquals(1, reader.droppedMessages)
+    }
+
+    @Test
+    fun testInterleavedTypes() {
+        val image = payload(300)
+        val frames = mutableListOf<ByteArray>()
+        val bufferingWriter = BLEFrameWriter { _, frame -> frames.add(frame.copyOf()) }
+
+        bufferingWriter.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(image).send()
+        val imageFrames = frames.size
+        bufferingWriter.begin(BLEFraming.TYPE_TURN_DISTANCE).putString("1.2 km").send()
+
+        // the distance arrives in the middle of the image
+        val order = frames.indices.toMutableList()
+        order.add(imageFrames / 2, order.removeAt(imageFrames))
+        for (i in order)
+            reader.onFrame(frames[i])
+
+        assertEquals(2, received.size)
+        assertEquals(BLEFraming.TYPE_TURN_DISTANCE, received[0].type)
+        assertArrayEquals(image, received[1].payload)
+    }
+
+    @Test
+    fun testFramesAreReused() {
+        val sent = mutableSetOf<ByteArray>()
+        val identityWriter = BLEFrameWriter { _, frame -> sent.add(frame) }
+        identityWriter.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(payload(1000)).send()
+        val arrays = sent.size
+        identityWriter.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(payload(1000)).send()
+
+        // a full sized and a last fragment sized array
+        assertTrue(arrays <= 2)
+        assertEquals(arrays, sent.size)
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.bleclient1
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.nio.ByteBuffer
+import java.util.Random
+
+class TurnImageCodecTest {
+
+    private val size = 64
+
+    /**
+     * A turn arrow like image: transparent background, a white arrow with a black outline and
+     * a gray other branch, as produced by GemUtilImages.asBitmap.
+     */
+    private fun arrowImage(): IntArray {
+        val pixels = IntArray(size * size)
+        for (y in 0 until size) {
+            for (x in 0 until size) {
+                pixels[y * size + x] = when {
+                    x in 28..35 && y > 8 -> if (x == 28 || x == 35) 0xff000000.toInt() else 0xffffffff.toInt()
+                    y in 20..26 && x in 8..27 -> 0xff808080.toInt()
+                    y in 2..8 && x in (32 - (y - 2) * 3)..(32 + (y - 2) * 3) -> 0xffffffff.toInt()
+                    else -> 0
+                }
+            }
+        }
+        return pixels
+    }
+
+    private fun grayValues(pixels: IntArray) = ByteArray(pixels.size) { TurnImageCodec.grayValue(pixels[it]).toByte() }
+
+    private fun decode(encoded: ByteArray) = TurnImageCodec.decode(ByteBuffer.wrap(encoded))
+
+    @Test
+    fun testRoundTrip() {
+        val pixels = arrowImage()
+        val encoded = TurnImageCodec.encode(pixels, size, size)
+        val image = decode(encoded)!!
+
+        assertEquals(size, image.width)
+        assertEquals(size, image.height)
+        assertArrayEquals(grayValues(pixels), image.pixels)
+
+        // the arrow collapses to a small fraction of the 4096 raw bytes
+        assertTrue("encoded size ${encoded.size}", encoded.size < 1024)
+    }
+
+    @Test
+    fun testRandomRoundTrip() {
+        val random = Random(7)
+
+        for (t in 0 until 100) {
+            val width = 1 + random.nextInt(80)
+            val height = 1 + random.nextInt(80)
+            val pixels = IntArray(width * height)
+
+            // runs of random length, including runs longer than a single token
+            var i = 0
+            while (i < pixels.size) {
+                val color = when (random.nextInt(4)) {
+                    0 -> 0
+                    1 -> 0xffffffff.toInt()
+                    2 -> 0xffff0000.toInt()
+                    else -> random.nextInt()
+                }
+                val run = 1 + random.nextInt(if (random.nextBoolean()) 4 else 300)
+                for (j in i until minOf(i + run, pixels.size))
+                    pixels[j] = if (color == 0 || random.nextInt(8) > 0) color else random.nextInt()
+                i += run
+            }
+
+            val image = decode(TurnImageCodec.encode(pixels, width, height))!!
+            assertArrayEquals(grayValues(pixels), image.pixels)
+        }
+    }
+
+    @Test
+    fun testMalformed() {
+        val encoded = TurnImageCodec.encode(arrowImage(), size, size)
+
+        assertNull(decode(encoded.copyOf(encoded.size - 1)))
+        assertNull(decode(encoded.copyOf(encoded.size + 1)))
+        assertNull(decode(byteArrayOf(0, 1)))
+    }
+
+    @Test
+    fun testGrayValue() {
+        assertEquals(0, TurnImageCodec.grayValue(0x00ffffff))
+        assertEquals(254, TurnImageCodec.grayValue(0xffffffff.toInt()))
+        assertEquals(0, TurnImageCodec.grayValue(0xff000000.toInt()))
+
+        // red highlight keeps its alpha in an odd value
+        assertEquals(0x81, TurnImageCodec.grayValue(0x80ff0000.toInt()))
+        assertEquals(0xff, TurnImageCodec.grayValue(0xffff0000.toInt()))
+
+        val argb = TurnImageCodec.toArgb(byteArrayOf(0x80.toByte(), 0x81.toByte()))
+        assertEquals(0xff808080.toInt(), argb[0])
+        assertEquals(0x81ff0000.toInt(), argb[1])
+    }
+
+    @Test
+    fun testCache() {
+        val cache = TurnImageCache(2)
+        var reads = 0
+        val pixels = { reads++; arrowImage() }
+
+        val encoded = cache.getOrEncode(1L, size, size, pixels)
+        assertArrayEquals(TurnImageCodec.encode(arrowImage(), size, size), encoded)
+
+        // a cached image is found by its uid, without reading its pixels
+        assertSame(encoded, cache.getOrEncode(1L, size, size, pixels))
+        assertEquals(1, cache.hits)
+        assertEquals(1, reads)
+
+        // the same image rendered at another size is a different image
+        cache.getOrEncode(1L, size, size / 2) { IntArray(size * size / 2) }
+        assertEquals(2, cache.misses)
+
+        // the least recently used image is evicted
+        cache.getOrEncode(2L, size, size, pixels)
+        cache.getOrEncode(1L, size, size / 2) { IntArray(size * size / 2) }
+        assertEquals(2, cache.hits)
+        cache.getOrEncode(1L, size, size, pixels)
+        assertEquals(4, cache.misses)
+        assertEquals(3, reads)
+    }
+
+    @Test
+    fun testArrowFitsInFewFrames() {
+        val encoded = TurnImageCodec.encode(arrowImage(), size, size)
+        val frames = BLEFrameWriter { _, _ -> }.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(encoded).send()
+
+        // the 4096 raw bytes would need more than 200 notifications at the default MTU
+        assertTrue("$frames frames", frames < 50)
+    }
+}
@@ -94,6 +94,7 @@ class MainActivity : AppCompatActivity()
     private lateinit var rtt: TextView
     private lateinit var rtd: TextView
     private var lastTurnImageId: Long = Long.MAX_VALUE
+    private val renderCache = ImageRenderCache()
     private var turnEvent = byteArrayOf(0, 0, 0, 0)
     private var turnImageSize: Int = 0
 
@@ -271,20 +272,22 @@ class MainActivity : AppCompatActivity()
                 lastTurnImageId = image.uid
             }
 
-            val aInner = Rgba(255, 255, 255, 255)
-            val aOuter = Rgba(0, 0, 0, 255)
-            val iInner = Rgba(128, 128, 128, 255)
-            val iOuter = Rgba(128, 128, 128, 255)
-
-            GemUtilImages.asBitmap(
-                image,
-                width,
-                height,
-                aInner,
-                aOuter,
-                iInner,
-                iOuter
-            )
+            renderCache.get(TURN_IMAGE_SLOT, image?.uid ?: 0, width, height) {
+                val aInner = Rgba(255, 255, 255, 255)
+                val aOuter = Rgba(0, 0, 0, 255)
+                val iInner = Rgba(128, 128, 128, 255)
+                val iOuter = Rgba(128, 128, 128, 255)
+
+                GemUtilImages.asBitmap(
+                    image,
+                    width,
+                    height,
+                    aInner,
+                    aOuter,
+                    iInner,
+                    iOuter
+                )
+            }
         }
     }
 
@@ -971,6 +974,8 @@ class MainActivity : AppCompatActivity()
 
     companion object
     {
+        private const val TURN_IMAGE_SLOT = 0
+
         /* Navigation Service UUID */
         val NAVIGATION_SERVICE: UUID = UUID.fromString("00011805-0000-1000-8000-00805f9b34fb")
 
@@ -77,8 +77,12 @@ class MainActivity: AppCompatActivity()
     private lateinit var rtt: TextView
     private lateinit var rtd: TextView
     private var lastTurnImageId: Long = Long.MAX_VALUE
+    private val renderCache = ImageRenderCache()
     private var turnImageSize: Int = 64
     private var turnImage: Bitmap? = null
+    private var turnImageUid: Long = 0
+    private var turnImagePixels = IntArray(0)
+    private val turnImageCache = TurnImageCache()
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
@@ -148,12 +152,8 @@ class MainActivity: AppCompatActivity()
         val newTurnImage = getNextTurnImage(instr, turnImageSize, turnImageSize, sameTurnImage)
         if (!sameTurnImage.value)
         {
-            /*
-            newTurnImage?.let {
-                turnImage = getGrayscaledBitmap(it)
-            } ?: run { turnImage = null }
-            */
             turnImage = newTurnImage
+            turnImageUid = lastTurnImageId
 
             navInstructionIcon.setImageBitmap(newTurnImage)
 
@@ -188,160 +188,16 @@ class MainActivity: AppCompatActivity()
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
-    fun getGrayscaledBitmap(src: Bitmap, redVal: Float = 0.299f, greenVal: Float = 0.587f, blueVal: Float = 0.114f): Bitmap
-    {
-        // create output bitmap
-        val bmOut = Bitmap.createBitmap(src.width, src.height, Bitmap.Config.RGB_565)
-        // pixel information
-        var A: Int
-        var R: Int
-        var G: Int
-        var B: Int
-        var pixel: Int
-        // get image size
-        val width = src.width
-        val height = src.height
-        // scan through every single pixel
-        for (x in 0 until width)
-        {
-            for (y in 0 until height)
-            {
-                // get one pixel color
-                pixel = src.getPixel(x, y)
-                // retrieve color of all channels
-                A = Color.alpha(pixel)
-                R = Color.red(pixel)
-                G = Color.green(pixel)
-                B = Color.blue(pixel)
-                // take conversion up to one single value
-                B = (redVal * R + greenVal * G + blueVal * B).toInt()
-                G = B
-                R = G
-                // set new pixel color to output bitmap
-                bmOut.setPixel(x, y, Color.argb(A, R, G, B))
-            }
-        }
-        // return final image
-        return bmOut
-    }
-
-    // ---------------------------------------------------------------------------------------------------------------------------
-
-    private fun transformBitmapToGrayscale(src: Bitmap, redVal: Float = 0.299f, greenVal: Float = 0.587f, blueVal: Float = 0.114f): ByteBuffer
-    {
-        val size: Int = src.width * src.height
-        val byteBuffer: ByteBuffer = ByteBuffer.allocate(size)
-        var alpha: Int
-        var pixel: Int
-        val width = src.width
-        val height = src.height
-
-        for (y in 0 until height)
-        {
-            for (x in 0 until width)
-            {
-                pixel = src.getPixel(x, y)
-                alpha = Color.alpha(pixel)
-
-                if (alpha == 0)
-                {
-                    byteBuffer.put(0)
-                }
-                else
-                {
-                    val r = Color.red(pixel)
-                    val g = Color.green(pixel)
-                    val b = Color.blue(pixel)
-
-                    var value = (((redVal * r + greenVal * g + blueVal * b) * alpha) / 255).toInt()
-
-                    if ((r == 255) && (r > g) && (r > b))
-                    {
-                        value = if (alpha % 2 == 0)
-                        {
-                            alpha + 1
-                        }
-                        else
-                        {
-                            alpha
-                        }
-                    }
-                    else if ((r > 200) && (r > g) && (r > b) && (alpha == 255))
-                    {
-                        value = if (r < 255)
-                        {
-                            r
-                        }
-                        else
-                        {
-                            r - g
-                        }
-
-                        if (value % 2 == 0)
-                        {
-                            value += 1
-                        }
-                    }
-                    else
-                    {
-                        if (value % 2 == 1)
-                        {
-                            value++
-                            if (value == 256)
-                            {
-                                value = 254
-                            }
-                        }
-                    }
-
-                    byteBuffer.put(value.toByte())
-                }
-            }
-        }
-
-        // return final image
-        return byteBuffer
-    }
-
-    // ---------------------------------------------------------------------------------------------------------------------------
-
     private fun sendTurnInstruction()
     {
         var turnInstruction = navInstruction.text.toString()
-        if (turnInstruction.length > 128)
-        {
-            turnInstruction = turnInstruction.substring(0, 125).plus("...")
-        }
-
         if (turnInstruction.isEmpty())
         {
             turnInstruction = " "
         }
 
-        val byteArray = turnInstruction.toByteArray()
-
-        notifyRegisteredDevices(byteArrayOf(byteArray.size.toByte()), TURN_INSTRUCTION)
-
-        val n = byteArray.size / 20
-        val r = byteArray.size % 20
-        var tmp = ByteArray(20)
-        var index = 0
-
-        for (i in 1..n)
-        {
-            System.arraycopy(byteArray, index, tmp, 0, 20)
-            index += 20
-
-            notifyRegisteredDevices(tmp, TURN_INSTRUCTION)
-        }
-
-        if (r > 0)
-        {
-            tmp = ByteArray(r)
-            System.arraycopy(byteArray, index, tmp, 0, r)
-
-            notifyRegisteredDevices(tmp, TURN_INSTRUCTION)
-        }
+        updateFrameMtu()
+        frameWriter.begin(BLEFraming.TYPE_TURN_INSTRUCTION).putString(turnInstruction).send()
     }
 
     // ---------------------------------------------------------------------------------------------------------------------------
@@ -349,172 +205,35 @@ class MainActivity: AppCompatActivity()
     private fun sendTurnDistance()
     {
         val turnDistance = navInstructionDistance.text ?: " "
-        notifyRegisteredDevices(turnDistance.toString().toByteArray(), TURN_DISTANCE)
+
+        updateFrameMtu()
+        frameWriter.begin(BLEFraming.TYPE_TURN_DISTANCE).putString(turnDistance.toString()).send()
     }
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Sends the turn image as one framed message, encoded with [TurnImageCodec].
+     */
     private fun sendTurnImage()
     {
-        turnImage?.let {
-            val byteBuffer: ByteBuffer = transformBitmapToGrayscale(it)
-            val array = byteBuffer.array()
+        turnImage?.let { image ->
+            val width = image.width
+            val height = image.height
 
-            val tmp = ByteArray(20)
-            var sum = 1
-
-            val sendRange = { offset: Int, itemsCount: Int ->
-                val n = itemsCount / 20
-                val r = itemsCount % 20
-                var index = offset
-
-                sum += itemsCount
-
-                for (i in 1..n)
+            val encoded = turnImageCache.getOrEncode(turnImageUid, width, height) {
+                if (turnImagePixels.size < width * height)
                 {
-                    System.arraycopy(array, index, tmp, 0, 20)
-                    index += 20
-
-                    notifyRegisteredDevices(tmp, TURN_IMAGE)
-                    // Thread.sleep(1)
-                }
-
-                if (r > 0)
-                {
-                    val tmp1 = ByteArray(r)
-                    System.arraycopy(array, index, tmp1, 0, r)
-
-                    notifyRegisteredDevices(tmp1, TURN_IMAGE)
-                    // Thread.sleep(1)
+                    turnImagePixels = IntArray(width * height)
                 }
+                image.getPixels(turnImagePixels, 0, width, 0, 0, width, height)
+                turnImagePixels
             }
 
-            notifyRegisteredDevices(byteArrayOf(1), TURN_IMAGE)
+            updateFrameMtu()
+            val frameCount = frameWriter.begin(BLEFraming.TYPE_TURN_IMAGE).putBytes(encoded).send()
 
-            var offset = 0
-            for (y in 0 until turnImageSize)
-            {
-                var minX = 0
-                var maxX = 0
-                var minX1 = 0
-                var maxX1 = 0
-                var maxDist = 0
-                var minX1Tmp = 0
-                var maxX1Tmp = 0
-                var maxDistTmp: Int
-
-                for (x in 0 until turnImageSize)
-                {
-                    if (array[offset + x].toInt() != 0)
-                    {
-                        minX = x
-                        break
-                    }
-                }
-
-                for (x in (turnImageSize - 1) downTo 0)
-                {
-                    if (array[offset + x].toInt() != 0)
-                    {
-                        maxX = x
-                        break
-                    }
-                }
-
-                if (maxX > minX)
-                {
-                    for (i in minX .. maxX)
-                    {
-                        if (array[offset + i].toUByte().toInt() == 254)
-                        {
-                            if (minX1Tmp == 0)
-                            {
-                                minX1Tmp = i
-                            }
-                            else
-                            {
-                                maxX1Tmp = i
-                            }
-                        }
-                        else if (minX1Tmp > 0)
-                        {
-                            maxDistTmp = maxX1Tmp - minX1Tmp
-                            if (maxDistTmp > maxDist)
-                            {
-                                maxDist = maxDistTmp
-                                minX1 = minX1Tmp
-                                maxX1 = maxX1Tmp
-                            }
-
-                            minX1Tmp = 0
-                            maxX1Tmp = 0
-                        }
-                    }
-
-                    if (maxX1 > minX1)
-                    {
-                        notifyRegisteredDevices(byteArrayOf(minX.toByte(), minX1.toByte(), maxX1.toByte(), maxX.toByte()), TURN_IMAGE)
-                        sum += 4
-
-                        if (minX1 > minX)
-                        {
-                            sendRange(offset + minX, minX1 - minX)
-                        }
-                        if (maxX > maxX1)
-                        {
-                            sendRange(offset + maxX1 + 1, maxX - maxX1)
-                        }
-                    }
-                    else
-                    {
-                        notifyRegisteredDevices(byteArrayOf(minX.toByte(), maxX.toByte()), TURN_IMAGE)
-                        sum += 2
-
-                        sendRange(offset + minX, maxX - minX + 1)
-                    }
-                }
-                else
-                {
-                    notifyRegisteredDevices(byteArrayOf(minX.toByte(), maxX.toByte()), TURN_IMAGE)
-                    sum += 2
-                }
-
-                offset += turnImageSize
-            }
-
-            Log.d(TAG, "sendTurnImage, size = $sum")
-
-            /*
-            Log.d(TAG, "sendTurnImage, size = ${it.width * it.height}")
-
-            val array = byteBuffer.array()
-            val n = array.size / 20
-            val r = array.size % 20
-
-            var offset = 0
-            var tmp = ByteArray(20)
-
-            notifyRegisteredDevices(byteArrayOf(1), TURN_IMAGE)
-            // Thread.sleep(1)
-
-            for (i in 1..n)
-            {
-                System.arraycopy(array, offset, tmp, 0, 20)
-                offset += 20
-
-                notifyRegisteredDevices(tmp, TURN_IMAGE)
-                // Thread.sleep(1)
-            }
-
-            if (r > 0)
-            {
-                tmp = ByteArray(r)
-                System.arraycopy(array, offset, tmp, 0, r)
-
-                notifyRegisteredDevices(tmp, TURN_IMAGE)
-                // Thread.sleep(1)
-            }
-            */
+            Log.d(TAG, "sendTurnImage, size = ${encoded.size}, frames = $frameCount, mtu = ${frameWriter.mtu}")
         }
     }
 
@@ -575,7 +294,9 @@ class MainActivity: AppCompatActivity()
             topPanel.visibility = View.GONE
             bottomPanel.visibility = View.GONE
 
-            notifyRegisteredDevices(byteArrayOf(0), TURN_IMAGE)
+            // an empty turn image tells the clients that the navigation ended
+            updateFrameMtu()
+            frameWriter.begin(BLEFraming.TYPE_TURN_IMAGE).send()
         }
 
         SdkCall.execute {
@@ -605,20 +326,22 @@ class MainActivity: AppCompatActivity()
                 lastTurnImageId = image.uid
             }
 
-            val aInner = Rgba(255, 255, 255, 255)
-            val aOuter = Rgba(0, 0, 0, 255)
-            val iInner = Rgba(128, 128, 128, 255)
-            val iOuter = Rgba(128, 128, 128, 255)
-
-            GemUtilImages.asBitmap(
-                image,
-                width,
-                height,
-                aInner,
-                aOuter,
-                iInner,
-                iOuter
-            )
+            renderCache.get(TURN_IMAGE_SLOT, image?.uid ?: 0, width, height) {
+                val aInner = Rgba(255, 255, 255, 255)
+                val aOuter = Rgba(0, 0, 0, 255)
+                val iInner = Rgba(128, 128, 128, 255)
+                val iOuter = Rgba(128, 128, 128, 255)
+
+                GemUtilImages.asBitmap(
+                    image,
+                    width,
+                    height,
+                    aInner,
+                    aOuter,
+                    iInner,
+                    iOuter
+                )
+            }
         }
     }
     
@@ -651,6 +374,21 @@ class MainActivity: AppCompatActivity()
     /* Collection of notification subscribers */
     private val registeredDevices = mutableSetOf<BluetoothDevice>()
 
+    /* MTU negotiated by each connected device */
+    private val deviceMtus = mutableMapOf<BluetoothDevice, Int>()
+
+    /* Splits the navigation messages into notifications */
+    private val frameWriter = BLEFrameWriter { type, frame ->
+        val uuid = when (type)
+        {
+            BLEFraming.TYPE_TURN_INSTRUCTION -> TURN_INSTRUCTION
+            BLEFraming.TYPE_TURN_DISTANCE -> TURN_DISTANCE
+            else -> TURN_IMAGE
+        }
+
+        notifyRegisteredDevices(frame, uuid)
+    }
+
     // ---------------------------------------------------------------------------------------------------------------------------
 
     /**
@@ -715,11 +453,20 @@ class MainActivity: AppCompatActivity()
             {
                 Log.i(TAG, "BluetoothDevice DISCONNECTED: $device") //Remove device from any active subscriptions
                 registeredDevices.remove(device)
+                deviceMtus.remove(device)
             }
         }
 
         // -----------------------------------------------------------------------------------------------------------------------
 
+        override fun onMtuChanged(device: BluetoothDevice, mtu: Int)
+        {
+            Log.i(TAG, "BluetoothDevice MTU changed: $device, mtu = $mtu")
+            deviceMtus[device] = mtu
+        }
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
         override fun onCharacteristicReadRequest(device: BluetoothDevice, requestId: Int, offset: Int, characteristic: BluetoothGattCharacteristic)
         {
             if ((Build.VERSION.SDK_INT < Build.VERSION_CODES.S) ||
@@ -742,11 +489,16 @@ class MainActivity: AppCompatActivity()
                         Log.i(TAG, "Read turn image")
                         val intToBytes = { i: Int, j: Int -> ByteBuffer.allocate(Int.SIZE_BYTES * 2).putInt(i).putInt(j).array() }
 
+                        // width and height, turn images are not always square
+                        val image = turnImage
+                        val width = image?.width ?: turnImageSize
+                        val height = image?.height ?: turnImageSize
+
                         bluetoothGattServer?.sendResponse(device,
                                                           requestId,
                                                           BluetoothGatt.GATT_SUCCESS,
                                                           0,
-                                                          intToBytes(turnImageSize, turnImageSize * turnImageSize))
+                                                          intToBytes(width, height))
                     }
                     TURN_DISTANCE == characteristic.uuid ->
                     {
@@ -1029,6 +781,16 @@ class MainActivity: AppCompatActivity()
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Frames are sent to all subscribers at once, so they must fit the smallest MTU.
+     */
+    private fun updateFrameMtu()
+    {
+        frameWriter.mtu = registeredDevices.minOfOrNull { deviceMtus[it] ?: BLEFraming.DEFAULT_MTU } ?: BLEFraming.DEFAULT_MTU
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
     private fun notifyRegisteredDevices(data: ByteArray, uuid: UUID)
     {
         if ((Build.VERSION.SDK_INT < Build.VERSION_CODES.S) ||
@@ -1268,6 +1030,8 @@ class MainActivity: AppCompatActivity()
 
     companion object
     {
+        private const val TURN_IMAGE_SLOT = 0
+
         /* Navigation Service UUID */
         val NAVIGATION_SERVICE: UUID = UUID.fromString("00001805-0000-1000-8000-00805f9b34fb")
 
@@ -0,0 +1,346 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.basicshapedrawer
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import com.magiclane.sdk.core.Xy
+import com.magiclane.sdk.d3scene.MapView
+import com.magiclane.sdk.places.Coordinates
+import kotlin.math.PI
+import kotlin.math.ln
+import kotlin.math.max
+import kotlin.math.tan
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Geo-anchored items drawn over the map: a texture and a label at a position.
+ *
+ * Immutable, built once with a [Builder] and handed to a [GeoOverlay]. The values are kept in
+ * primitive arrays, the Mercator ordinate of each position is computed when the item is added.
+ */
+class TOverlayItems private constructor(
+    val size: Int,
+    private val latitudes: DoubleArray,
+    private val longitudes: DoubleArray,
+    private val mercatorY: DoubleArray,
+    private val extents: FloatArray,
+    private val textures: IntArray,
+    private val labels: Array<String?>)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun latitude(index: Int) = latitudes[index]
+
+    fun longitude(index: Int) = longitudes[index]
+
+    /** Texture id from BasicShapeDrawer.createTexture, -1 for none. */
+    fun texture(index: Int) = textures[index]
+
+    fun label(index: Int) = labels[index]
+
+    internal fun mercatorY(index: Int) = mercatorY[index]
+
+    /** Left, top, right and bottom of the item relative to its anchor, in pixels. */
+    internal fun extent(index: Int, side: Int) = extents[index * 4 + side]
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    class Builder(capacity: Int = 16)
+    {
+        private var size = 0
+        private var latitudes = DoubleArray(capacity)
+        private var longitudes = DoubleArray(capacity)
+        private var mercatorY = DoubleArray(capacity)
+        private var extents = FloatArray(capacity * 4)
+        private var textures = IntArray(capacity)
+        private var labels = arrayOfNulls<String>(capacity)
+
+        /**
+         * Adds an item anchored at a position. [left], [top], [right] and [bottom] give the area it
+         * covers around the anchor in pixels, the item is skipped when that area is off screen.
+         */
+        fun add(latitude: Double, longitude: Double, texture: Int, label: String?, left: Float, top: Float, right: Float, bottom: Float): Builder
+        {
+            if (size == latitudes.size)
+            {
+                val capacity = max(size * 2, 16)
+                latitudes = latitudes.copyOf(capacity)
+                longitudes = longitudes.copyOf(capacity)
+                mercatorY = mercatorY.copyOf(capacity)
+                extents = extents.copyOf(capacity * 4)
+                textures = textures.copyOf(capacity)
+                labels = labels.copyOf(capacity)
+            }
+
+            latitudes[size] = latitude
+            longitudes[size] = longitude
+            mercatorY[size] = GeoOverlay.mercatorY(latitude)
+            extents[size * 4] = left
+            extents[size * 4 + 1] = top
+            extents[size * 4 + 2] = right
+            extents[size * 4 + 3] = bottom
+            textures[size] = texture
+            labels[size] = label
+            size++
+
+            return this
+        }
+
+        fun build() = TOverlayItems(size, latitudes.copyOf(size), longitudes.copyOf(size), mercatorY.copyOf(size),
+                                    extents.copyOf(size * 4), textures.copyOf(size), labels.copyOf(size))
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        val EMPTY = Builder(0).build()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * The visible items of a [GeoOverlay] and their screen positions for one camera. Immutable, it can
+ * be read from any thread while the overlay projects the next one.
+ */
+class TOverlayFrame internal constructor(
+    val items: TOverlayItems,
+    /** Number of visible items. */
+    val count: Int,
+    private val indices: IntArray,
+    private val xs: FloatArray,
+    private val ys: FloatArray)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /** Index in [items] of the i-th visible item. */
+    fun index(i: Int) = indices[i]
+
+    fun x(i: Int) = xs[i]
+
+    fun y(i: Int) = ys[i]
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        val EMPTY = TOverlayFrame(TOverlayItems.EMPTY, 0, IntArray(0), FloatArray(0), FloatArray(0))
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Projects many geo-anchored items to the screen with a handful of SDK calls per frame.
+ *
+ * The map is a plane in Mercator coordinates and the camera sees it through a perspective
+ * projection, so Mercator maps to the screen through a homography. Each frame the overlay asks the
+ * map view for the positions under four reference points of the viewport, fits a
+ * [MercatorHomography] to them and projects all items with it in one loop over the arrays. A fifth
+ * point between them checks the fit: when the map is not flat (globe view, terrain) the items are transformed
+ * one by one by the map view instead.
+ *
+ * Items whose area is off screen or behind the camera are culled. When neither the camera nor the
+ * items changed, the previous frame is returned without any work.
+ *
+ * [project] is called on the SDK thread, typically at the start of onDrawFrameCustom. [items] can
+ * be replaced from any thread and [frame] read from any thread.
+ */
+class GeoOverlay
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    @Volatile
+    var items: TOverlayItems = TOverlayItems.EMPTY
+
+    /** The last projected frame. */
+    @Volatile
+    var frame: TOverlayFrame = TOverlayFrame.EMPTY
+        private set
+
+    /** Number of frames projected with the fitted homography, and one item at a time. */
+    var fittedCount = 0
+        private set
+
+    var fallbackCount = 0
+        private set
+
+    // reference points: screen positions and the Mercator positions under them
+    private val screen = DoubleArray(2 * REFERENCE_POINTS)
+    private val mercator = DoubleArray(2 * REFERENCE_POINTS)
+    private val lastMercator = DoubleArray(2 * REFERENCE_POINTS)
+    private var lastLeft = 0
+    private var lastTop = 0
+    private var lastRight = 0
+    private var lastBottom = 0
+
+    private val homography = MercatorHomography()
+    private val point = FloatArray(2)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Projects the items for the current camera and publishes the result as [frame].
+     */
+    fun project(mapView: MapView): TOverlayFrame
+    {
+        val items = items
+        val viewport = mapView.viewport ?: return TOverlayFrame.EMPTY.also { frame = it }
+        val left = viewport.left
+        val top = viewport.top
+        val right = viewport.right
+        val bottom = viewport.bottom
+
+        var referencesValid = true
+        for (i in 0 until REFERENCE_POINTS)
+        {
+            val x = left + ((right - left) * REFERENCE_X[i]).toInt()
+            val y = top + ((bottom - top) * REFERENCE_Y[i]).toInt()
+            screen[2 * i] = x.toDouble()
+            screen[2 * i + 1] = y.toDouble()
+
+            val coordinates = mapView.transformScreenToWgs(Xy(x, y))
+            if ((coordinates == null) || !coordinates.valid())
+            {
+                referencesValid = false
+                break
+            }
+
+            mercator[2 * i] = coordinates.longitude
+            mercator[2 * i + 1] = mercatorY(coordinates.latitude)
+        }
+
+        val previous = frame
+        if (referencesValid && (previous.items === items) && (left == lastLeft) && (top == lastTop) &&
+            (right == lastRight) && (bottom == lastBottom) && mercator.contentEquals(lastMercator))
+        {
+            return previous
+        }
+
+        mercator.copyInto(lastMercator)
+        lastLeft = left
+        lastTop = top
+        lastRight = right
+        lastBottom = bottom
+
+        val projected = if (referencesValid && homography.fit(screen, mercator))
+        {
+            fittedCount++
+            projectFitted(items, left, top, right, bottom)
+        }
+        else
+        {
+            fallbackCount++
+            lastMercator.fill(Double.NaN) // nothing to compare with next time
+            projectEach(mapView, items, left, top, right, bottom)
+        }
+
+        frame = projected
+        return projected
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun projectFitted(items: TOverlayItems, left: Int, top: Int, right: Int, bottom: Int): TOverlayFrame
+    {
+        val indices = IntArray(items.size)
+        val xs = FloatArray(items.size)
+        val ys = FloatArray(items.size)
+        var count = 0
+
+        for (i in 0 until items.size)
+        {
+            if (!homography.project(items.longitude(i), items.mercatorY(i), point))
+            {
+                continue // behind the camera
+            }
+
+            val x = point[0]
+            val y = point[1]
+            if (isVisible(items, i, x, y, left, top, right, bottom))
+            {
+                indices[count] = i
+                xs[count] = x
+                ys[count] = y
+                count++
+            }
+        }
+
+        return TOverlayFrame(items, count, indices, xs, ys)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun projectEach(mapView: MapView, items: TOverlayItems, left: Int, top: Int, right: Int, bottom: Int): TOverlayFrame
+    {
+        val indices = IntArray(items.size)
+        val xs = FloatArray(items.size)
+        val ys = FloatArray(items.size)
+        var count = 0
+
+        for (i in 0 until items.size)
+        {
+            val xy = mapView.transformWgsToScreen(Coordinates(items.latitude(i), items.longitude(i))) ?: continue
+            val x = xy.x.toFloat()
+            val y = xy.y.toFloat()
+            if (isVisible(items, i, x, y, left, top, right, bottom))
+            {
+                indices[count] = i
+                xs[count] = x
+                ys[count] = y
+                count++
+            }
+        }
+
+        return TOverlayFrame(items, count, indices, xs, ys)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun isVisible(items: TOverlayItems, i: Int, x: Float, y: Float, left: Int, top: Int, right: Int, bottom: Int): Boolean =
+        (x + items.extent(i, 2) >= left) && (x + items.extent(i, 0) <= right) &&
+        (y + items.extent(i, 3) >= top) && (y + items.extent(i, 1) <= bottom)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        private const val REFERENCE_POINTS = MercatorHomography.REFERENCE_POINTS
+
+        // four points in the lower part of the viewport, away from the horizon of a tilted map, and
+        // the check point between them
+        private val REFERENCE_X = doubleArrayOf(0.25, 0.75, 0.75, 0.25, 0.5)
+        private val REFERENCE_Y = doubleArrayOf(0.5, 0.5, 0.9, 0.9, 0.7)
+
+        private const val MAX_LATITUDE = 85.05112878
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
+        /** Mercator ordinate of a latitude in degrees, in radians. */
+        fun mercatorY(latitude: Double): Double
+        {
+            val clamped = latitude.coerceIn(-MAX_LATITUDE, MAX_LATITUDE)
+            return ln(tan(PI / 4 + clamped * PI / 360))
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
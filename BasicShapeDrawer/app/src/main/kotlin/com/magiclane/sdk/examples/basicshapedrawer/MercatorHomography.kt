@@ -0,0 +1,220 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.basicshapedrawer
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import kotlin.math.PI
+import kotlin.math.abs
+import kotlin.math.max
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Homography from Mercator positions to the screen, as seen by a perspective camera looking at a
+ * flat map. It is fitted to five reference points: the first four give the homography, the fifth
+ * checks that the map is flat.
+ *
+ * Mercator positions are given as a longitude in degrees and a Mercator ordinate in radians, see
+ * [GeoOverlay.mercatorY].
+ */
+class MercatorHomography
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    // the homography works on coordinates relative to the check point and scaled to about 1
+    private val homography = DoubleArray(8)
+    private val system = Array(8) { DoubleArray(9) }
+    private var mercatorScale = 1.0
+    private var screenScale = 1.0
+
+    private var centerLon = 0.0
+    private var centerY = 0.0
+    private var centerX = 0.0
+    private var centerScreenY = 0.0
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Fits the homography to the first four reference points and checks it on the last one.
+     *
+     * @param screen Screen x and y of the five reference points.
+     * @param mercator Longitude and Mercator ordinate under each reference point.
+     * @return Return false if the points do not give a homography or the check point is more than
+     * [MAX_FIT_ERROR] pixels off, e.g. on a globe or over terrain.
+     */
+    fun fit(screen: DoubleArray, mercator: DoubleArray): Boolean
+    {
+        centerLon = mercator[2 * CHECK]
+        centerY = mercator[2 * CHECK + 1]
+        centerX = screen[2 * CHECK]
+        centerScreenY = screen[2 * CHECK + 1]
+
+        var extent = 0.0
+        for (i in 0 until 4)
+        {
+            extent = max(extent, max(abs(relativeLongitude(mercator[2 * i], centerLon)), abs(mercator[2 * i + 1] - centerY)))
+        }
+
+        if (extent == 0.0)
+        {
+            return false
+        }
+
+        mercatorScale = 1.0 / extent
+        screenScale = max(abs(screen[0] - centerX), abs(screen[1] - centerScreenY)).coerceAtLeast(1.0)
+
+        for (i in 0 until 4)
+        {
+            val u = relativeLongitude(mercator[2 * i], centerLon) * mercatorScale
+            val v = (mercator[2 * i + 1] - centerY) * mercatorScale
+            val x = (screen[2 * i] - centerX) / screenScale
+            val y = (screen[2 * i + 1] - centerScreenY) / screenScale
+
+            system[2 * i].let {
+                it[0] = u; it[1] = v; it[2] = 1.0; it[3] = 0.0; it[4] = 0.0; it[5] = 0.0
+                it[6] = -u * x; it[7] = -v * x; it[8] = x
+            }
+            system[2 * i + 1].let {
+                it[0] = 0.0; it[1] = 0.0; it[2] = 0.0; it[3] = u; it[4] = v; it[5] = 1.0
+                it[6] = -u * y; it[7] = -v * y; it[8] = y
+            }
+        }
+
+        if (!solve(system, homography))
+        {
+            return false
+        }
+
+        // the check point is at (0, 0) on both sides, a flat map projects it there
+        val h = homography
+        return (abs(h[2]) * screenScale <= MAX_FIT_ERROR) && (abs(h[5]) * screenScale <= MAX_FIT_ERROR)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Projects a Mercator position with the last fitted homography into [result] (x, y).
+     *
+     * @return Return false if the position is behind the camera.
+     */
+    fun project(longitude: Double, mercatorY: Double, result: FloatArray): Boolean
+    {
+        val h = homography
+        val u = relativeLongitude(longitude, centerLon) * mercatorScale
+        val v = (mercatorY - centerY) * mercatorScale
+
+        val w = h[6] * u + h[7] * v + 1.0
+        if (w <= MIN_W)
+        {
+            return false
+        }
+
+        result[0] = (centerX + (h[0] * u + h[1] * v + h[2]) / w * screenScale).toFloat()
+        result[1] = (centerScreenY + (h[3] * u + h[4] * v + h[5]) / w * screenScale).toFloat()
+        return true
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        /** Number of reference points given to [fit]. */
+        const val REFERENCE_POINTS = 5
+
+        /** Index of the check point. */
+        const val CHECK = 4
+
+        /** Pixels the fitted homography may be off at the check point. */
+        const val MAX_FIT_ERROR = 1.5
+
+        private const val MIN_W = 1e-6
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
+        /** Longitude difference in radians, across the antimeridian when shorter. */
+        private fun relativeLongitude(longitude: Double, center: Double): Double
+        {
+            var d = longitude - center
+            if (d > 180.0)
+            {
+                d -= 360.0
+            }
+            else if (d < -180.0)
+            {
+                d += 360.0
+            }
+
+            return d * PI / 180.0
+        }
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
+        /**
+         * Solves the augmented 8 x 9 system in place with partial pivoting.
+         */
+        private fun solve(m: Array<DoubleArray>, result: DoubleArray): Boolean
+        {
+            val n = result.size
+            for (column in 0 until n)
+            {
+                var pivot = column
+                for (row in column + 1 until n)
+                {
+                    if (abs(m[row][column]) > abs(m[pivot][column]))
+                    {
+                        pivot = row
+                    }
+                }
+
+                if (abs(m[pivot][column]) < 1e-12)
+                {
+                    return false
+                }
+
+                val swap = m[pivot]
+                m[pivot] = m[column]
+                m[column] = swap
+
+                val pivotRow = m[column]
+                for (row in column + 1 until n)
+                {
+                    val factor = m[row][column] / pivotRow[column]
+                    if (factor != 0.0)
+                    {
+                        val target = m[row]
+                        for (k in column until n + 1)
+                        {
+                            target[k] -= factor * pivotRow[k]
+                        }
+                    }
+                }
+            }
+
+            for (row in n - 1 downTo 0)
+            {
+                var sum = m[row][n]
+                for (k in row + 1 until n)
+                {
+                    sum -= m[row][k] * result[k]
+                }
+                result[row] = sum / m[row][row]
+            }
+
+            return true
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
@@ -13,8 +13,6 @@ package com.magiclane.sdk.examples.basicshapedrawer
 
 // -------------------------------------------------------------------------------------------------------------------------------
 
-import android.graphics.Bitmap
-import android.graphics.BitmapFactory
 import android.os.Bundle
 import android.view.LayoutInflater
 import android.view.View
@@ -29,7 +27,6 @@ import com.magiclane.sdk.core.Image
 import com.magiclane.sdk.core.RectF
 import com.magiclane.sdk.core.Rgba
 import com.magiclane.sdk.core.SdkSettings
-import com.magiclane.sdk.core.Xy
 import com.magiclane.sdk.d3scene.Animation
 import com.magiclane.sdk.d3scene.BasicShapeDrawer
 import com.magiclane.sdk.d3scene.Canvas
@@ -43,7 +40,6 @@ import com.magiclane.sdk.places.Coordinates
 import com.magiclane.sdk.routesandnavigation.EImageFileFormat
 import com.magiclane.sdk.util.SdkCall
 import com.magiclane.sdk.util.Util
-import java.io.ByteArrayOutputStream
 import java.io.FileNotFoundException
 
 // -------------------------------------------------------------------------------------------------------------------------------
@@ -58,6 +54,9 @@ class Population : Fragment()
         val PARIS_LON = 2.351462
         val LONDON_POPULATION = " population: ~ 9,748,000 "
         val PARIS_POPULATION = " population: ~ 11,276,701"
+
+        // room kept right of the anchor for the label, so a label on screen is not culled
+        const val LABEL_WIDTH = 600f
     }
 
     private lateinit var gemSurfaceView: GemSurfaceView
@@ -65,9 +64,7 @@ class Population : Fragment()
     private var canvas: Canvas? = null
     private var shapeDrawer: BasicShapeDrawer? = null
     private var canvasListener = CanvasListener()
-    private var animationEnded = false
-    private lateinit var xyLondon: Xy
-    private lateinit var xyParis: Xy
+    private val overlay = GeoOverlay()
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
@@ -89,19 +86,11 @@ class Population : Fragment()
         }
         gemSurfaceView.onDefaultMapViewCreated = {
             Util.postOnMain { progressBar.isVisible = false }
-            xyLondon = Xy(0, 0)
-            xyParis = Xy(0, 0)
             gemSurfaceView.mapView!!.apply {
                 centerOnCoordinates(Coordinates(PARIS_LAT, PARIS_LON), zoomLevel = 20, animation = Animation(EAnimation.Linear, duration = 0, onCompleted = { err, msg ->
                     if (err != GemError.NoError)
                     {
                         Utils.showDialog(msg, requireActivity())
-                        return@Animation
-                    }
-                    animationEnded = true
-                    SdkCall.execute {
-                        xyLondon = gemSurfaceView.mapView!!.transformWgsToScreen(Coordinates(LONDON_LAT, LONDON_LON))!!
-                        xyParis = gemSurfaceView.mapView!!.transformWgsToScreen(Coordinates(PARIS_LAT, PARIS_LON))!!
                     }
                 }))
 
@@ -110,6 +99,13 @@ class Population : Fragment()
             val h = 50f
             val idUKFlag = createFlagTexture("uk_flag.jpeg", w.toInt(), h.toInt())
             val idFranceFlag = createFlagTexture("france_flag.jpeg", w.toInt(), h.toInt())
+
+            // the flag is left of the anchor, the label right of it
+            overlay.items = TOverlayItems.Builder()
+                .add(LONDON_LAT, LONDON_LON, idUKFlag, LONDON_POPULATION, -w, -h, LABEL_WIDTH, 0f)
+                .add(PARIS_LAT, PARIS_LON, idFranceFlag, PARIS_POPULATION, -w, -h, LABEL_WIDTH, 0f)
+                .build()
+
             val textState = SdkCall.execute {
                 TextState().apply {
                     style = ETextStyle.BoldStyle
@@ -120,43 +116,29 @@ class Population : Fragment()
                     alignment = ETextAlignment.LeftCenter
                 }
             }!!
+            val white = Rgba(255, 255, 255, 255).value
             gemSurfaceView.onDrawFrameCustom = { _ ->
                 shapeDrawer?.run {
-                    if (idUKFlag != -1)
-                    {
-                        val left = xyLondon.x - w
-                        val top = xyLondon.y - h
-                        val bottom = top + h
-                        val right = left + w
-                        drawTexturedRectangle(idUKFlag, left, top, right, bottom, Rgba(255, 255, 255, 255).value, true)
-                        drawText(LONDON_POPULATION, right, top + (bottom - top) / 2, textState)
-                    }
-                    if (idFranceFlag != -1)
+                    // one projection for all the items, only when the camera moved
+                    val frame = gemSurfaceView.mapView?.let { mapView -> overlay.project(mapView) } ?: TOverlayFrame.EMPTY
+                    val items = frame.items
+                    for (i in 0 until frame.count)
                     {
-                        val left = xyParis.x - w
-                        val top = xyParis.y - h
-                        val bottom = top + h
-                        val right = left + w
-                        drawTexturedRectangle(idFranceFlag, left, top, right, bottom, Rgba(255, 255, 255, 255).value, true)
-                        drawText(PARIS_POPULATION, right, top + (bottom - top) / 2, textState)
+                        val index = frame.index(i)
+                        val right = frame.x(i)
+                        val bottom = frame.y(i)
+                        val top = bottom - h
+
+                        val texture = items.texture(index)
+                        if (texture != -1)
+                        {
+                            drawTexturedRectangle(texture, right - w, top, right, bottom, white, true)
+                        }
+                        items.label(index)?.let { drawText(it, right, top + h / 2, textState) }
                     }
                     renderShapes()
                 }
             }
-            gemSurfaceView.mapView?.onMove = { _, _ ->
-                if (animationEnded)
-                    SdkCall.execute {
-                        xyLondon = gemSurfaceView.mapView!!.transformWgsToScreen(Coordinates(LONDON_LAT, LONDON_LON))!!
-                        xyParis = gemSurfaceView.mapView!!.transformWgsToScreen(Coordinates(PARIS_LAT, PARIS_LON))!!
-                    }
-            }
-            gemSurfaceView.mapView?.onPinch = { _, _, _, _, _ ->
-                if (animationEnded)
-                    SdkCall.execute {
-                        xyLondon = gemSurfaceView.mapView!!.transformWgsToScreen(Coordinates(LONDON_LAT, LONDON_LON))!!
-                        xyParis = gemSurfaceView.mapView!!.transformWgsToScreen(Coordinates(PARIS_LAT, PARIS_LON))!!
-                    }
-            }
         }
         return view
     }
@@ -185,10 +167,8 @@ class Population : Fragment()
     {
         try
         {
-            val stream = ByteArrayOutputStream()
-            val bitmap = requireActivity().assets.open(fileName).use { BitmapFactory.decodeStream(it) }
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 100, stream)
-            val imageArray = stream.toByteArray()
+            // the asset is already a JPEG, it is handed over as it is
+            val imageArray = AssetLoader.readBytes(requireActivity().assets, fileName)
             return SdkCall.execute { DataBuffer(imageArray) }!!
         } catch (e: FileNotFoundException)
         {
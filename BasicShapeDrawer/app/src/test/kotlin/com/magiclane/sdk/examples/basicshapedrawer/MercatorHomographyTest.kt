@@ -0,0 +1,182 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.basicshapedrawer
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+import kotlin.math.PI
+import kotlin.math.abs
+import kotlin.math.cos
+import kotlin.math.sin
+
+class MercatorHomographyTest {
+
+    /**
+     * A pinhole camera above the Mercator plane, looking at ([longitude], [mercatorY]) from
+     * [distance] radians away, tilted by [pitch] degrees from the vertical.
+     */
+    private class SimulatedCamera(
+        private val longitude: Double,
+        private val mercatorY: Double,
+        distance: Double,
+        pitch: Double,
+        val width: Double = 1080.0,
+        val height: Double = 1920.0,
+        private val focal: Double = 1200.0
+    ) {
+        private val sinPitch = sin(pitch * PI / 180)
+        private val cosPitch = cos(pitch * PI / 180)
+
+        // camera position relative to the target, the target is at (0, 0, 0)
+        private val py = -distance * sinPitch
+        private val pz = distance * cosPitch
+
+        /** Screen x, y of a position, null behind the camera. */
+        fun toScreen(lon: Double, y: Double): DoubleArray? {
+            val dx = relativeLongitude(lon)
+            val dy = y - mercatorY - py
+            val dz = -pz
+
+            // forward (0, sin, -cos), up (0, cos, sin), right (1, 0, 0)
+            val depth = dy * sinPitch - dz * cosPitch
+            if (depth <= 0.0) {
+                return null
+            }
+
+            val up = dy * cosPitch + dz * sinPitch
+            return doubleArrayOf(width / 2 + focal * dx / depth, height / 2 - focal * up / depth)
+        }
+
+        /** Longitude in degrees and Mercator ordinate under a screen position, on a flat map. */
+        fun toMercator(x: Double, y: Double): DoubleArray {
+            val rx = (x - width / 2) / focal
+            val ry = -(y - height / 2) / focal
+
+            // ray = forward + rx * right + ry * up
+            val dirY = sinPitch + ry * cosPitch
+            val dirZ = -cosPitch + ry * sinPitch
+            val t = -pz / dirZ
+
+            val lon = longitude + t * rx * 180 / PI
+            return doubleArrayOf(if (lon > 180) lon - 360 else lon, mercatorY + py + t * dirY)
+        }
+
+        private fun relativeLongitude(lon: Double): Double {
+            var d = lon - longitude
+            if (d > 180) d -= 360 else if (d < -180) d += 360
+            return d * PI / 180
+        }
+    }
+
+    private val referenceX = doubleArrayOf(0.25, 0.75, 0.75, 0.25, 0.5)
+    private val referenceY = doubleArrayOf(0.5, 0.5, 0.9, 0.9, 0.7)
+
+    private fun fit(camera: SimulatedCamera, homography: MercatorHomography, checkOffset: Double = 0.0): Boolean {
+        val screen = DoubleArray(2 * MercatorHomography.REFERENCE_POINTS)
+        val mercator = DoubleArray(2 * MercatorHomography.REFERENCE_POINTS)
+
+        for (i in 0 until MercatorHomography.REFERENCE_POINTS) {
+            screen[2 * i] = camera.width * referenceX[i]
+            screen[2 * i + 1] = camera.height * referenceY[i]
+
+            val position = camera.toMercator(screen[2 * i], screen[2 * i + 1])
+            mercator[2 * i] = position[0]
+            mercator[2 * i + 1] = position[1]
+        }
+
+        // a map that is not flat gives another position under the check point
+        mercator[2 * MercatorHomography.CHECK + 1] += checkOffset
+        return homography.fit(screen, mercator)
+    }
+
+    private fun assertMatchesCamera(camera: SimulatedCamera, homography: MercatorHomography, centerLon: Double, centerY: Double, span: Double) {
+        val random = Random(5)
+        val point = FloatArray(2)
+        var checked = 0
+
+        for (i in 0 until 2000) {
+            var lon = centerLon + (random.nextDouble() * 2 - 1) * span * 180 / PI
+            if (lon > 180) lon -= 360 else if (lon < -180) lon += 360
+            val y = centerY + (random.nextDouble() * 2 - 1) * span
+
+            val expected = camera.toScreen(lon, y)
+            val projected = homography.project(lon, y, point)
+
+            if (expected == null) {
+                assertFalse("($lon, $y) is behind the camera", projected)
+                continue
+            }
+
+            assertTrue(projected)
+            // far towards the horizon a float pixel loses precision, compare relative to the distance
+            val tolerance = 0.01 + 1e-5 * maxOf(abs(expected[0]), abs(expected[1]))
+            assertEquals(expected[0], point[0].toDouble(), tolerance)
+            assertEquals(expected[1], point[1].toDouble(), tolerance)
+            checked++
+        }
+
+        assertTrue(checked > 1000)
+    }
+
+    @Test
+    fun flatMapMatchesTheCamera() {
+        for (pitch in doubleArrayOf(0.0, 30.0, 60.0)) {
+            val camera = SimulatedCamera(13.4, 0.95, 2e-4, pitch)
+            val homography = MercatorHomography()
+
+            assertTrue("pitch $pitch", fit(camera, homography))
+            assertMatchesCamera(camera, homography, 13.4, 0.95, 2e-4)
+        }
+    }
+
+    @Test
+    fun pointsBehindTheCameraAreCulled() {
+        val camera = SimulatedCamera(13.4, 0.95, 2e-4, 60.0)
+        val homography = MercatorHomography()
+        val point = FloatArray(2)
+
+        assertTrue(fit(camera, homography))
+
+        // the camera is above 0.95 - 2e-4 * sin(60), the map south of it is behind
+        assertFalse(homography.project(13.4, 0.95 - 5e-4, point))
+        assertFalse(homography.project(13.41, 0.95 - 1e-3, point))
+        assertTrue(homography.project(13.4, 0.95, point))
+        assertEquals(540.0, point[0].toDouble(), 1e-3)
+    }
+
+    @Test
+    fun checkPointRejectsACurvedMap() {
+        val camera = SimulatedCamera(13.4, 0.95, 2e-4, 45.0)
+
+        // about 0.2 pixel off at the check point is within the tolerance, 5 pixels is not
+        val pixel = 2e-4 / 1200
+        assertTrue(fit(camera, MercatorHomography(), 0.2 * pixel))
+        assertFalse(fit(camera, MercatorHomography(), 5 * pixel))
+        assertFalse(fit(camera, MercatorHomography(), -5 * pixel))
+    }
+
+    @Test
+    fun crossesTheAntimeridian() {
+        val camera = SimulatedCamera(179.99, -0.3, 5e-4, 40.0)
+        val homography = MercatorHomography()
+
+        assertTrue(fit(camera, homography))
+        assertMatchesCamera(camera, homography, 179.99, -0.3, 5e-4)
+    }
+
+    @Test
+    fun degenerateReferencesAreRejected() {
+        val screen = DoubleArray(2 * MercatorHomography.REFERENCE_POINTS) { it.toDouble() }
+        val mercator = DoubleArray(2 * MercatorHomography.REFERENCE_POINTS)
+
+        assertFalse(MercatorHomography().fit(screen, mercator))
+    }
+}
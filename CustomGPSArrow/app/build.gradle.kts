@@ -17,6 +17,11 @@ android {
     buildFeatures {
         buildConfig = true
     }
+
+    // stored uncompressed, so the scene objects are read with a known length
+    androidResources {
+        noCompress += "glb"
+    }
 }
 
 dependencies {
@@ -40,8 +40,6 @@ import com.magiclane.sdk.routesandnavigation.NavigationService
 import com.magiclane.sdk.routesandnavigation.Route
 import com.magiclane.sdk.util.SdkCall
 import com.magiclane.sdk.util.Util
-import java.io.ByteArrayOutputStream
-import java.io.InputStream
 import kotlin.system.exitProcess
 
 // -------------------------------------------------------------------------------------------------
@@ -159,19 +157,11 @@ class MainActivity : AppCompatActivity() {
 
     private fun getSceneObjs(vararg filesData: Pair<String, ESceneObjectFileFormat>): SceneObjectDataList {
         val list: SceneObjectDataList = arrayListOf()
-        for (fileData in filesData) {
-            val (fileName, format) = SdkCall.execute { fileData }!!
-            val inputStream: InputStream = assets.open(fileName)
-            var len: Int
-            val data = ByteArray(1024)
-            val buffer = ByteArrayOutputStream()
-            while (inputStream.read(data, 0, data.size).also { len = it } > 0) {
-                buffer.write(data, 0, len)
-            }
-            buffer.flush()
-            inputStream.close()
-            if (buffer.size() > 0) {
-                SdkCall.execute { list.add(SceneObjectData(DataBuffer(buffer.toByteArray()), format)) }
+        for ((fileName, format) in filesData) {
+            // read in one go into an array of the asset size, handed to the SDK without another copy
+            val data = AssetLoader.readBytes(assets, fileName)
+            if (data.isNotEmpty()) {
+                SdkCall.execute { list.add(SceneObjectData(DataBuffer(data), format)) }
             }
         }
         return list
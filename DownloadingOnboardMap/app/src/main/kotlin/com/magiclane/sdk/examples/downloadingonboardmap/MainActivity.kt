@@ -14,7 +14,6 @@ package com.magiclane.sdk.examples.downloadingonboardmap
 // -------------------------------------------------------------------------------------------------------------------------------
 
 import android.annotation.SuppressLint
-import android.graphics.Bitmap
 import android.os.Bundle
 import android.os.Handler
 import android.os.Looper
@@ -40,7 +39,6 @@ import com.magiclane.sdk.content.EContentStoreItemStatus
 import com.magiclane.sdk.content.EContentType
 import com.magiclane.sdk.core.GemError
 import com.magiclane.sdk.core.GemSdk
-import com.magiclane.sdk.core.MapDetails
 import com.magiclane.sdk.core.ProgressListener
 import com.magiclane.sdk.core.SdkSettings
 import com.magiclane.sdk.util.GemUtil
@@ -62,8 +60,6 @@ class MainActivity : AppCompatActivity()
 
     private val contentStore = ContentStore()
 
-    private val flagBitmapsMap = HashMap<String, Bitmap?>()
-
     private val kDefaultToken = "YOUR_TOKEN"
 
     private val progressListener = ProgressListener.create(
@@ -280,6 +276,11 @@ class MainActivity : AppCompatActivity()
     {
         // -----------------------------------------------------------------------------------------------------------------------
 
+        private val thumbnails = ThumbnailCache.getInstance(this@MainActivity)
+        private val flagSize = resources.getDimension(R.dimen.icon_size).toInt()
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
         inner class ViewHolder(view: View) : RecyclerView.ViewHolder(view)
         {
             val text: TextView = view.findViewById(R.id.text)
@@ -306,7 +307,8 @@ class MainActivity : AppCompatActivity()
                 text.text = SdkCall.execute { dataSet[position].name }
                 description.text =
                     SdkCall.execute { GemUtil.formatSizeAsText(dataSet[position].totalSize) }
-                imageView.setImageBitmap(SdkCall.execute { getFlagBitmap(dataSet[position]) })
+                // rasterized in the background the first time, then read from memory or disk
+                thumbnails.loadFlag(imageView, SdkCall.execute { dataSet[position].countryCodes?.firstOrNull() }, flagSize)
 
                 statusImageView.visibility = View.GONE
                 progressBar.visibility = View.INVISIBLE
@@ -335,28 +337,6 @@ class MainActivity : AppCompatActivity()
         override fun getItemCount() = dataSet.size
 
         // -----------------------------------------------------------------------------------------------------------------------
-
-        private fun getFlagBitmap(item: ContentStoreItem): Bitmap?
-        {
-            item.countryCodes?.let { codes ->
-                if (codes.isNotEmpty())
-                {
-                    val isoCode = codes[0]
-                    if (!flagBitmapsMap.containsKey(isoCode))
-                    {
-                        val size = resources.getDimension(R.dimen.icon_size).toInt()
-                        flagBitmapsMap[isoCode] =
-                            MapDetails().getCountryFlag(isoCode)?.asBitmap(size, size)
-                    }
-
-                    return flagBitmapsMap[isoCode]
-                }
-                return null
-            }
-            return null
-        }
-
-        // -----------------------------------------------------------------------------------------------------------------------
     }
 
     // ---------------------------------------------------------------------------------------------------------------------------
@@ -34,7 +34,6 @@ import com.magiclane.sdk.content.EContentType
 import com.magiclane.sdk.core.EUnitSystem
 import com.magiclane.sdk.core.GemError
 import com.magiclane.sdk.core.GemSdk
-import com.magiclane.sdk.core.MapDetails
 import com.magiclane.sdk.core.ProgressListener
 import com.magiclane.sdk.core.SdkSettings
 import com.magiclane.sdk.core.Time
@@ -339,14 +338,9 @@ class MainActivity : AppCompatActivity()
         binding.apply {
             mapContainer.isVisible = true
 
-            var flagBitmap: Bitmap? = null
-            SdkCall.execute {
-                map.countryCodes?.let { codes ->
-                    val size = resources.getDimension(R.dimen.icon_size).toInt()
-                    flagBitmap = MapDetails().getCountryFlag(codes[0])?.asBitmap(size, size)
-                }
-            }
-            flagIcon.setImageBitmap(flagBitmap)
+            val size = resources.getDimension(R.dimen.icon_size).toInt()
+            ThumbnailCache.getInstance(this@MainActivity)
+                .loadFlag(flagIcon, SdkCall.execute { map.countryCodes?.firstOrNull() }, size)
             countryName.text = SdkCall.execute { map.name }
             mapDescription.text = SdkCall.execute { GemUtil.formatSizeAsText(map.totalSize) }
         }
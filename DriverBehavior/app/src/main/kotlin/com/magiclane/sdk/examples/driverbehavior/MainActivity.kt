@@ -92,13 +92,13 @@ class MainActivity : AppCompatActivity()
         lastChart = findViewById(R.id.last_chart)
         combinedChart = findViewById(R.id.combined_chart)
 
+        chartLabels = resources.getStringArray(R.array.chart_labels).toList()
+
         setChartCustomization(instantChart)
         setChartCustomization(ongoingChart)
         setChartCustomization(lastChart)
         setChartCustomization(combinedChart)
 
-        chartLabels = resources.getStringArray(R.array.chart_labels).toList()
-
         SdkSettings.onMapDataReady = { isReady ->
             if (isReady)
             {
@@ -291,11 +291,6 @@ class MainActivity : AppCompatActivity()
         chart.apply {
             data = barData
 
-            xAxis.apply {
-                valueFormatter = XAxisFormatter()
-                labelCount = chartLabels.size
-            }
-
             axisLeft.textColor = if (isDarkThemeOn()) Color.WHITE else Color.BLACK
 
             notifyDataSetChanged()
@@ -328,6 +323,12 @@ class MainActivity : AppCompatActivity()
             setXAxisRenderer(CustomXAxisRenderer(viewPortHandler, xAxis, getTransformer(YAxis.AxisDependency.LEFT)))
 
             xAxis.apply {
+                // the labels only depend on the index, so they are formatted once and not on every score update
+                valueFormatter = XAxisFormatter()
+                isLabelCacheEnabled = true
+                labelCount = chartLabels.size
+                textColor = if (context.isDarkThemeOn()) Color.WHITE else Color.BLACK
+                textSize = 10.5f
                 labelRotationAngle = -45f
                 position = XAxis.XAxisPosition.BOTTOM
                 granularity = 1f
@@ -402,8 +403,6 @@ class MainActivity : AppCompatActivity()
             val index = value.toInt()
             return if (index >= 0 && index < chartLabels.size)
             {
-                axis?.textColor = if (isDarkThemeOn()) Color.WHITE else Color.BLACK
-                axis?.textSize = 10.5f
                 chartLabels[index]
             }
             else
@@ -14,6 +14,31 @@ public class BarBuffer extends AbstractBuffer<IBarDataSet> {
     /** width of the bar on the x-axis, in values (not pixels) */
     protected float mBarWidth = 1f;
 
+    /** number of values of the buffer filled by the last feed */
+    protected int mFilledSize = 0;
+
+    /** number of bars (stack segments count as bars) of the DataSet before the first one in the buffer */
+    protected int mFirstBar = 0;
+
+    /** for stacked DataSets, the number of bars before each entry, built on first use */
+    private int[] mBarsBefore;
+
+    /** data version of the DataSet mBarsBefore was built from */
+    private int mBarsBeforeVersion;
+
+    /**
+     * the values of the last feed, before they were transformed to pixels, and what they were
+     * computed from, so the next feed can copy them instead of computing them again
+     */
+    private float[] mFedValues;
+    private boolean mFedValuesValid = false;
+    private int mFedDataVersion;
+    private int mFedEntryCount;
+    private float mFedPhaseX;
+    private float mFedPhaseY;
+    private float mFedBarWidth;
+    private boolean mFedInverted;
+
     public BarBuffer(int size, int dataSetCount, boolean containsStacks) {
         super(size);
         this.mDataSetCount = dataSetCount;
@@ -40,13 +65,158 @@ public class BarBuffer extends AbstractBuffer<IBarDataSet> {
         buffer[index++] = bottom;
     }
 
+    /**
+     * Returns the number of values of the buffer filled by the last feed, 4 per bar.
+     *
+     * @return
+     */
+    public int getFilledSize() {
+        return mFilledSize;
+    }
+
+    /**
+     * Returns the index of the first entry in the buffer.
+     *
+     * @return
+     */
+    public int getFrom() {
+        return mFrom;
+    }
+
+    /**
+     * Returns the index after the last entry in the buffer.
+     *
+     * @return
+     */
+    public int getTo() {
+        return mTo;
+    }
+
+    /**
+     * Returns the number of bars of the DataSet before the first one in the buffer, stack
+     * segments counted as bars. The index of the color of a bar in the buffer.
+     *
+     * @return
+     */
+    public int getFirstBar() {
+        return mFirstBar;
+    }
+
+    /**
+     * Drops the values kept from the last feed. Not needed after the DataSet changed, its data
+     * version (IDataSet.getDataVersion()) is checked on every feed.
+     */
+    public void invalidate() {
+        mFedValuesValid = false;
+    }
+
     @Override
     public void feed(IBarDataSet data) {
+        feed(data, 0, data.getEntryCount() - 1);
+    }
+
+    /**
+     * Fills the buffer with the bars of the entries from index from to index to (inclusive),
+     * as far as they are within the animation phase. If the entries, the data version of the
+     * DataSet, the phases, the bar width and the orientation are the same as in the last feed,
+     * its values are copied. Entries changed in place are only seen after the DataSet or the
+     * ChartData was told so with notifyDataSetChanged() or notifyDataChanged().
+     *
+     * @param data
+     * @param from
+     * @param to
+     */
+    public void feed(IBarDataSet data, int from, int to) {
+
+        final int entryCount = data.getEntryCount();
+        final int dataVersion = data.getDataVersion();
+
+        from = Math.max(from, 0);
+        to = Math.min(Math.min(to + 1, entryCount), (int) Math.ceil(entryCount * phaseX));
+        if (to < from)
+            to = from;
+
+        if (mFedValuesValid
+                && from == mFrom
+                && to == mTo
+                && dataVersion == mFedDataVersion
+                && entryCount == mFedEntryCount
+                && phaseX == mFedPhaseX
+                && phaseY == mFedPhaseY
+                && mBarWidth == mFedBarWidth
+                && mInverted == mFedInverted) {
+
+            System.arraycopy(mFedValues, 0, buffer, 0, mFilledSize);
+            reset();
+            return;
+        }
+
+        mFrom = from;
+        mTo = to;
+        mFirstBar = getBarsBefore(data, from);
+
+        index = 0;
+        feedRange(data, from, to);
+        mFilledSize = index;
+
+        if (mFedValues == null || mFedValues.length < mFilledSize)
+            mFedValues = new float[Math.min(buffer.length,
+                    Math.max(mFilledSize, mFedValues == null ? 0 : mFedValues.length * 2))];
+
+        System.arraycopy(buffer, 0, mFedValues, 0, mFilledSize);
+        mFedValuesValid = true;
+        mFedDataVersion = dataVersion;
+        mFedEntryCount = entryCount;
+        mFedPhaseX = phaseX;
+        mFedPhaseY = phaseY;
+        mFedBarWidth = mBarWidth;
+        mFedInverted = mInverted;
+
+        reset();
+    }
+
+    /**
+     * Returns the number of bars before the entry at the given index, stack segments counted
+     * as bars.
+     */
+    private int getBarsBefore(IBarDataSet data, int entryIndex) {
+
+        if (!mContainsStacks)
+            return entryIndex;
+
+        final int entryCount = data.getEntryCount();
+        final int dataVersion = data.getDataVersion();
+
+        if (mBarsBefore == null || mBarsBefore.length != entryCount + 1
+                || mBarsBeforeVersion != dataVersion) {
+
+            if (mBarsBefore == null || mBarsBefore.length != entryCount + 1)
+                mBarsBefore = new int[entryCount + 1];
+
+            mBarsBeforeVersion = dataVersion;
+
+            for (int i = 0; i < entryCount; i++) {
+                BarEntry e = data.getEntryForIndex(i);
+                float[] vals = e != null ? e.getYVals() : null;
+                mBarsBefore[i + 1] = mBarsBefore[i] + (e == null ? 0 : vals == null ? 1 : vals.length);
+            }
+        }
+
+        return mBarsBefore[entryIndex];
+    }
+
+    /**
+     * Adds the bars of the entries from index from to index to (exclusive) to the buffer.
+     *
+     * @param data
+     * @param from
+     * @param to
+     */
+    protected void feedRange(IBarDataSet data, int from, int to) {
 
-        float size = data.getEntryCount() * phaseX;
         float barWidthHalf = mBarWidth / 2f;
 
-        for (int i = 0; i < size; i++) {
+        for (int i = from; i < to; i++) {
 
             BarEntry e = data.getEntryForIndex(i);
 
@@ -124,7 +294,5 @@ public class BarBuffer extends AbstractBuffer<IBarDataSet> {
                 }
             }
         }
-
-        reset();
     }
 }
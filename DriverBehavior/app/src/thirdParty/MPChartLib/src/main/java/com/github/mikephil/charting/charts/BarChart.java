@@ -5,6 +5,7 @@ import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.util.Log;
 
+import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.components.YAxis;
 import com.github.mikephil.charting.data.BarData;
 import com.github.mikephil.charting.data.BarEntry;
@@ -13,6 +14,8 @@ import com.github.mikephil.charting.highlight.Highlight;
 import com.github.mikephil.charting.interfaces.dataprovider.BarDataProvider;
 import com.github.mikephil.charting.interfaces.datasets.IBarDataSet;
 import com.github.mikephil.charting.renderer.BarChartRenderer;
+import com.github.mikephil.charting.renderer.DataRenderer;
+import com.github.mikephil.charting.utils.ViewPortHandler;
 
 /**
  * Chart that draws bars.
@@ -62,6 +65,11 @@ public class BarChart extends BarLineChartBase<BarData> implements BarDataProvid
         getXAxis().setSpaceMax(0.5f);
     }
 
+    @Override
+    public DataRenderer createRasterRenderer(ChartAnimator animator, ViewPortHandler viewPortHandler) {
+        return new BarChartRenderer(this, animator, viewPortHandler);
+    }
+
     @Override
     protected void calcMinMax() {
 
@@ -17,6 +17,7 @@ import android.view.MotionEvent;
 import com.github.mikephil.charting.components.XAxis.XAxisPosition;
 import com.github.mikephil.charting.components.YAxis;
 import com.github.mikephil.charting.components.YAxis.AxisDependency;
+import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.data.BarLineScatterCandleBubbleData;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.highlight.ChartHighlighter;
@@ -29,12 +30,15 @@ import com.github.mikephil.charting.jobs.MoveViewJob;
 import com.github.mikephil.charting.jobs.ZoomJob;
 import com.github.mikephil.charting.listener.BarLineChartTouchListener;
 import com.github.mikephil.charting.listener.OnDrawListener;
+import com.github.mikephil.charting.renderer.DataLayerRasterizer;
+import com.github.mikephil.charting.renderer.DataRenderer;
 import com.github.mikephil.charting.renderer.XAxisRenderer;
 import com.github.mikephil.charting.renderer.YAxisRenderer;
 import com.github.mikephil.charting.utils.MPPointD;
 import com.github.mikephil.charting.utils.MPPointF;
 import com.github.mikephil.charting.utils.Transformer;
 import com.github.mikephil.charting.utils.Utils;
+import com.github.mikephil.charting.utils.ViewPortHandler;
 
 /**
  * Base-class of LineChart, BarChart, ScatterChart and CandleStickChart.
@@ -135,6 +139,26 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
 
     protected XAxisRenderer mXAxisRenderer;
 
+    /**
+     * renders the data layer on a background thread, null if disabled
+     */
+    protected DataLayerRasterizer mRasterizer;
+
+    /**
+     * lock held while the data is changed and while it is rendered in the background
+     */
+    private final Object mRenderLock = new Object();
+
+    /**
+     * incremented whenever the data changes, so layers rendered before are rendered again
+     */
+    private volatile int mDataGeneration = 0;
+
+    /**
+     * incremented whenever the DataSets change in a way that needs new renderer buffers
+     */
+    private volatile int mBuffersGeneration = 0;
+
     private  float mRatio = 0;
     private  float mDistanceAroundPin = 0;
     private  boolean mIsPinOnLeftSide = false;
@@ -243,7 +267,10 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
             canvas.clipRect(mViewPortHandler.getContentRect());
         }
 
-        mRenderer.drawData(canvas);
+        if (mRasterizer != null)
+            mRasterizer.drawData(canvas, mRenderer);
+        else
+            mRenderer.drawData(canvas);
 
         if (!mXAxis.isDrawGridLinesBehindDataEnabled())
             mXAxisRenderer.renderGridLines(canvas);
@@ -333,8 +360,23 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
         mLeftAxisTransformer.prepareMatrixOffset(mAxisLeft.isInverted());
     }
 
+    @Override
+    public void setData(T data) {
+        synchronized (mRenderLock) {
+            super.setData(data);
+        }
+    }
+
     @Override
     public void notifyDataSetChanged() {
+        synchronized (mRenderLock) {
+            mDataGeneration++;
+            mBuffersGeneration++;
+            prepareDataSetChanged();
+        }
+    }
+
+    private void prepareDataSetChanged() {
 
         if (mData == null) {
             if (mLogEnabled)
@@ -360,6 +402,32 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
         calculateOffsets();
     }
 
+    /**
+     * Lighter alternative to notifyDataSetChanged() for live-updating charts whose DataSets
+     * only had entries appended (see ChartData.appendEntry(...)). The axes and offsets are
+     * recalculated, the renderer buffers and the legend are kept.
+     */
+    public void notifyDataAppended() {
+        synchronized (mRenderLock) {
+            mDataGeneration++;
+            prepareDataAppended();
+        }
+    }
+
+    private void prepareDataAppended() {
+
+        if (mData == null)
+            return;
+
+        calcMinMax();
+
+        mAxisRendererLeft.computeAxis(mAxisLeft.mAxisMinimum, mAxisLeft.mAxisMaximum, mAxisLeft.isInverted());
+        mAxisRendererRight.computeAxis(mAxisRight.mAxisMinimum, mAxisRight.mAxisMaximum, mAxisRight.isInverted());
+        mXAxisRenderer.computeAxis(mXAxis.mAxisMinimum, mXAxis.mAxisMaximum, false);
+
+        calculateOffsets();
+    }
+
     /**
      * Performs auto scaling of the axis by recalculating the minimum and maximum y-values based on the entries currently in view.
      */
@@ -565,7 +633,9 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
      * @return
      */
     public Transformer getTransformer(AxisDependency which) {
-        if (which == AxisDependency.LEFT)
+        if (mRasterizer != null && mRasterizer.isRendering())
+            return mRasterizer.getTransformer(which);
+        else if (which == AxisDependency.LEFT)
             return mLeftAxisTransformer;
         else
             return mRightAxisTransformer;
@@ -1392,6 +1462,9 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
      */
     @Override
     public float getLowestVisibleX() {
+        if (mRasterizer != null && mRasterizer.isRendering())
+            return mRasterizer.getLowestVisibleX();
+
         getTransformer(AxisDependency.LEFT).getValuesByTouchPoint(mViewPortHandler.contentLeft(),
                 mViewPortHandler.contentBottom(), posForGetLowestVisibleX);
         float result = (float) Math.max(mXAxis.mAxisMinimum, posForGetLowestVisibleX.x);
@@ -1411,6 +1484,9 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
      */
     @Override
     public float getHighestVisibleX() {
+        if (mRasterizer != null && mRasterizer.isRendering())
+            return mRasterizer.getHighestVisibleX();
+
         getTransformer(AxisDependency.LEFT).getValuesByTouchPoint(mViewPortHandler.contentRight(),
                 mViewPortHandler.contentBottom(), posForGetHighestVisibleX);
         float result = (float) Math.min(mXAxis.mAxisMaximum, posForGetHighestVisibleX.x);
@@ -1491,6 +1567,9 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
 
     @Override
     public boolean isInverted(AxisDependency axis) {
+        if (mRasterizer != null && mRasterizer.isRendering())
+            return mRasterizer.isInverted(axis);
+
         return getAxis(axis).isInverted();
     }
 
@@ -1624,6 +1703,99 @@ public abstract class BarLineChartBase<T extends BarLineScatterCandleBubbleData<
         return mAutoScaleMinMaxEnabled;
     }
 
+    /**
+     * If enabled, the data (lines, bars, ...) is rendered on a background thread into a bitmap,
+     * and onDraw() only draws the bitmap, the highlights and the markers. While the chart is
+     * zoomed or scrolled, the last bitmap is moved along until the new one is ready. Useful
+     * for charts with many entries that are redrawn often.
+     * <p/>
+     * The entries must then only be changed while holding getRenderLock(), setData(...),
+     * notifyDataSetChanged() and notifyDataAppended() take it themselves. Has no effect for
+     * charts that do not support it (see createRasterRenderer(...)). Default: false
+     *
+     * @param enabled
+     */
+    public void setAsyncDataRasterizationEnabled(boolean enabled) {
+
+        if (enabled == isAsyncDataRasterizationEnabled())
+            return;
+
+        if (mRasterizer != null)
+            mRasterizer.release();
+
+        DataLayerRasterizer rasterizer = enabled ? new DataLayerRasterizer(this) : null;
+        mRasterizer = rasterizer != null && rasterizer.isSupported() ? rasterizer : null;
+    }
+
+    /**
+     * Returns true if the data is rendered on a background thread.
+     *
+     * @return
+     */
+    public boolean isAsyncDataRasterizationEnabled() {
+        return mRasterizer != null;
+    }
+
+    /**
+     * Returns the lock the data is rendered with on the background thread, if
+     * setAsyncDataRasterizationEnabled(true) was called. Hold it while changing the entries of
+     * the chart.
+     *
+     * @return
+     */
+    public Object getRenderLock() {
+        return mRenderLock;
+    }
+
+    /**
+     * Returns a number that changes whenever the data of the chart is changed.
+     *
+     * @return
+     */
+    public int getDataGeneration() {
+        return mDataGeneration;
+    }
+
+    /**
+     * Returns a number that changes whenever the DataSets of the chart changed in a way that
+     * needs new renderer buffers, i.e. on notifyDataSetChanged() but not on
+     * notifyDataAppended().
+     *
+     * @return
+     */
+    public int getBuffersGeneration() {
+        return mBuffersGeneration;
+    }
+
+    /**
+     * Renders the data again, e.g. after the colors of a DataSet were changed without calling
+     * notifyDataSetChanged(). Call invalidate() afterwards.
+     */
+    public void invalidateDataLayer() {
+        mDataGeneration++;
+    }
+
+    /**
+     * Creates a renderer for the data of this chart that draws with the given animator and
+     * viewport, and with the transformers of the chart. Used to render the data on a
+     * background thread. Returns null if the chart does not support it. Custom renderers set
+     * with setRenderer(...) are not used for this.
+     *
+     * @param animator
+     * @param viewPortHandler
+     * @return
+     */
+    public DataRenderer createRasterRenderer(ChartAnimator animator, ViewPortHandler viewPortHandler) {
+        return null;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mRasterizer != null)
+            mRasterizer.release();
+        super.onDetachedFromWindow();
+    }
+
     @Override
     public void setPaint(Paint p, int which) {
         super.setPaint(p, which);
@@ -4,9 +4,12 @@ package com.github.mikephil.charting.charts;
 import android.content.Context;
 import android.util.AttributeSet;
 
+import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.data.BubbleData;
 import com.github.mikephil.charting.interfaces.dataprovider.BubbleDataProvider;
 import com.github.mikephil.charting.renderer.BubbleChartRenderer;
+import com.github.mikephil.charting.renderer.DataRenderer;
+import com.github.mikephil.charting.utils.ViewPortHandler;
 
 /**
  * The BubbleChart. Draws bubbles. Bubble chart implementation: Copyright 2015
@@ -37,6 +40,11 @@ public class BubbleChart extends BarLineChartBase<BubbleData> implements BubbleD
         mRenderer = new BubbleChartRenderer(this, mAnimator, mViewPortHandler);
     }
 
+    @Override
+    public DataRenderer createRasterRenderer(ChartAnimator animator, ViewPortHandler viewPortHandler) {
+        return new BubbleChartRenderer(this, animator, viewPortHandler);
+    }
+
     public BubbleData getBubbleData() {
         return mData;
     }
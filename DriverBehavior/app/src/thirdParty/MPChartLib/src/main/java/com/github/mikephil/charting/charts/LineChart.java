@@ -4,9 +4,12 @@ package com.github.mikephil.charting.charts;
 import android.content.Context;
 import android.util.AttributeSet;
 
+import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.interfaces.dataprovider.LineDataProvider;
+import com.github.mikephil.charting.renderer.DataRenderer;
 import com.github.mikephil.charting.renderer.LineChartRenderer;
+import com.github.mikephil.charting.utils.ViewPortHandler;
 
 /**
  * Chart that draws lines, surfaces, circles, ...
@@ -34,6 +37,11 @@ public class LineChart extends BarLineChartBase<LineData> implements LineDataPro
         mRenderer = new LineChartRenderer(this, mAnimator, mViewPortHandler);
     }
 
+    @Override
+    public DataRenderer createRasterRenderer(ChartAnimator animator, ViewPortHandler viewPortHandler) {
+        return new LineChartRenderer(this, animator, viewPortHandler);
+    }
+
     @Override
     public LineData getLineData() {
         return mData;
@@ -4,9 +4,12 @@ package com.github.mikephil.charting.charts;
 import android.content.Context;
 import android.util.AttributeSet;
 
+import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.data.ScatterData;
 import com.github.mikephil.charting.interfaces.dataprovider.ScatterDataProvider;
+import com.github.mikephil.charting.renderer.DataRenderer;
 import com.github.mikephil.charting.renderer.ScatterChartRenderer;
+import com.github.mikephil.charting.utils.ViewPortHandler;
 
 /**
  * The ScatterChart. Draws dots, triangles, squares and custom shapes into the
@@ -40,6 +43,11 @@ public class ScatterChart extends BarLineChartBase<ScatterData> implements Scatt
         getXAxis().setSpaceMax(0.5f);
     }
 
+    @Override
+    public DataRenderer createRasterRenderer(ChartAnimator animator, ViewPortHandler viewPortHandler) {
+        return new ScatterChartRenderer(this, animator, viewPortHandler);
+    }
+
     @Override
     public ScatterData getScatterData() {
         return mData;
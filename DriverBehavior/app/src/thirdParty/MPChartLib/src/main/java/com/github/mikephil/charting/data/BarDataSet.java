@@ -192,6 +192,16 @@ public class BarDataSet extends BarLineScatterCandleBubbleDataSet<BarEntry> impl
         }
     }
 
+    @Override
+    protected float getEntryYMin(BarEntry e) {
+        return e.getYVals() == null ? e.getY() : -e.getNegativeSum();
+    }
+
+    @Override
+    protected float getEntryYMax(BarEntry e) {
+        return e.getYVals() == null ? e.getY() : e.getPositiveSum();
+    }
+
     @Override
     public int getStackSize() {
         return mStackSize;
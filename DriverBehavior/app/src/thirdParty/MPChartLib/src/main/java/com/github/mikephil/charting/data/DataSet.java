@@ -1,6 +1,11 @@
 
 package com.github.mikephil.charting.data;
 
+import com.github.mikephil.charting.utils.RangeMinMaxIndex;
+import com.github.mikephil.charting.utils.RingBufferList;
+import com.github.mikephil.charting.utils.SlidingMinMax;
+import com.github.mikephil.charting.utils.SpatialGridIndex;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,6 +44,46 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
      */
     protected float mXMin = Float.MAX_VALUE;
 
+    /**
+     * optional index over the y-values of the entries, used by calcMinMaxY(fromX, toX)
+     */
+    protected RangeMinMaxIndex mYRangeIndex = null;
+
+    /**
+     * true if mYRangeIndex no longer matches the entries and has to be rebuilt
+     */
+    protected boolean mYRangeIndexDirty = true;
+
+    /**
+     * optional index over the x- and y-values of the entries, used by the ChartHighlighter
+     */
+    protected SpatialGridIndex mSpatialIndex = null;
+
+    /**
+     * true if mSpatialIndex no longer matches the entries and has to be rebuilt
+     */
+    protected boolean mSpatialIndexDirty = true;
+
+    /**
+     * maximum number of entries kept when streaming, 0 if the DataSet is not limited
+     */
+    protected int mStreamingCapacity = 0;
+
+    /**
+     * min and max of the y-values of the entries, only used when streaming
+     */
+    protected SlidingMinMax mStreamingMinMax = null;
+
+    /**
+     * index of the first Entry that changed since the last clearDirtyRange()
+     */
+    protected int mDirtyRangeStart = 0;
+
+    /**
+     * changed whenever the entries change, see getDataVersion()
+     */
+    protected int mDataVersion = 0;
+
 
     /**
      * Creates a new DataSet object with the given values (entries) it represents. Also, a
@@ -66,11 +111,23 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
         mXMax = -Float.MAX_VALUE;
         mXMin = Float.MAX_VALUE;
 
+        // the entries may have changed in any way
+        mYRangeIndexDirty = true;
+        mSpatialIndexDirty = true;
+        mDataVersion++;
+        mDirtyRangeStart = 0;
+
+        if (mStreamingMinMax != null)
+            mStreamingMinMax.clear();
+
         if (mEntries == null || mEntries.isEmpty())
             return;
 
         for (T e : mEntries) {
             calcMinMax(e);
+
+            if (mStreamingMinMax != null)
+                mStreamingMinMax.add(getEntryYMin(e), getEntryYMax(e));
         }
     }
 
@@ -87,6 +144,11 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
 
         if (indexTo < indexFrom) return;
 
+        if (mYRangeIndex != null) {
+            calcMinMaxYFromIndex(indexFrom, indexTo);
+            return;
+        }
+
         for (int i = indexFrom; i <= indexTo; i++) {
 
             // only recalculate y
@@ -94,6 +156,267 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
         }
     }
 
+    /**
+     * Enables / disables a precomputed range index over the y-values of this DataSet. When
+     * enabled, calcMinMaxY(fromX, toX) (used by the autoScaleMinMax feature on every viewport
+     * change) costs O(log n) instead of a scan over all visible entries. The index is updated
+     * when entries are appended and rebuilt lazily after any other modification.
+     * Default: disabled
+     *
+     * @param enabled
+     */
+    public void setYRangeIndexEnabled(boolean enabled) {
+
+        if (enabled && mYRangeIndex == null) {
+            mYRangeIndex = new RangeMinMaxIndex(getEntryCount());
+            mYRangeIndexDirty = true;
+        } else if (!enabled) {
+            mYRangeIndex = null;
+        }
+    }
+
+    /**
+     * Returns true if the y-values range index is enabled for this DataSet.
+     *
+     * @return
+     */
+    public boolean isYRangeIndexEnabled() {
+        return mYRangeIndex != null;
+    }
+
+    /**
+     * Enables / disables a grid index over the x- and y-values of this DataSet. When enabled,
+     * the ChartHighlighter selects the entry closest to the touch point in both directions,
+     * instead of the entries closest to the touched x-value, and finds it without scanning the
+     * DataSet or allocating. Meant for scatter and bubble charts with many entries. The index
+     * is rebuilt lazily after the entries changed.
+     * Default: disabled
+     *
+     * @param enabled
+     */
+    public void setSpatialIndexEnabled(boolean enabled) {
+
+        if (enabled && mSpatialIndex == null) {
+            mSpatialIndex = new SpatialGridIndex(getEntryCount());
+            mSpatialIndexDirty = true;
+        } else if (!enabled) {
+            mSpatialIndex = null;
+        }
+    }
+
+    /**
+     * Returns true if the spatial index is enabled for this DataSet.
+     *
+     * @return
+     */
+    public boolean isSpatialIndexEnabled() {
+        return mSpatialIndex != null;
+    }
+
+    @Override
+    public SpatialGridIndex getSpatialIndex() {
+
+        if (mSpatialIndex == null)
+            return null;
+
+        if (mSpatialIndexDirty) {
+            mSpatialIndex.clear();
+            rebuildSpatialIndex();
+            mSpatialIndex.build();
+            mSpatialIndexDirty = false;
+        }
+
+        return mSpatialIndex;
+    }
+
+    /**
+     * Adds all entries of this DataSet to the (cleared) spatial index, in index order.
+     */
+    protected void rebuildSpatialIndex() {
+
+        for (int i = 0; i < mEntries.size(); i++) {
+            T e = mEntries.get(i);
+            mSpatialIndex.add(e.getX(), e.getY());
+        }
+    }
+
+    /**
+     * Limits the DataSet to the given number of entries for live-updating charts. The entries
+     * are kept in a ring buffer, appendEntry(...) drops the first Entry once the DataSet is full
+     * and keeps the minimum and maximum values up to date in amortized O(1). Existing entries
+     * beyond the capacity are dropped from the start. While streaming, the DataSet holds its
+     * own copy of the entries, also for lists given to setEntries(...).
+     * Default: 0 (not limited)
+     *
+     * @param capacity the maximum number of entries, 0 to remove the limit
+     */
+    public void setStreamingCapacity(int capacity) {
+
+        if (capacity > 0) {
+            mEntries = toRingBuffer(mEntries, capacity);
+            mStreamingCapacity = capacity;
+            mStreamingMinMax = new SlidingMinMax();
+        } else {
+            if (mStreamingCapacity > 0)
+                mEntries = new ArrayList<T>(mEntries);
+
+            mStreamingCapacity = 0;
+            mStreamingMinMax = null;
+        }
+
+        calcMinMax();
+    }
+
+    /**
+     * Returns the maximum number of entries kept when streaming, 0 if the DataSet is not
+     * limited.
+     *
+     * @return
+     */
+    public int getStreamingCapacity() {
+        return mStreamingCapacity;
+    }
+
+    private static <T> List<T> toRingBuffer(List<T> entries, int capacity) {
+
+        RingBufferList<T> ringBuffer = new RingBufferList<T>(capacity);
+
+        if (entries != null) {
+            for (int i = Math.max(entries.size() - capacity, 0); i < entries.size(); i++)
+                ringBuffer.add(entries.get(i));
+        }
+
+        return ringBuffer;
+    }
+
+    @Override
+    public boolean appendEntry(T e) {
+
+        if (e == null)
+            return false;
+
+        int count = getEntryCount();
+
+        if (count > 0 && getEntryForIndex(count - 1).getX() > e.getX())
+            return false;
+
+        if (mStreamingMinMax == null)
+            return addEntry(e);
+
+        boolean dropped = false;
+
+        while (mEntries.size() >= mStreamingCapacity) {
+            mEntries.remove(0);
+            mStreamingMinMax.removeFirst();
+            dropped = true;
+        }
+
+        mEntries.add(e);
+        mStreamingMinMax.add(getEntryYMin(e), getEntryYMax(e));
+
+        calcMinMaxX(e);
+
+        if (dropped) {
+            // the indices of all entries changed
+            mXMin = mEntries.get(0).getX();
+            mYRangeIndexDirty = true;
+            mSpatialIndexDirty = true;
+            mDataVersion++;
+            mDirtyRangeStart = 0;
+        } else {
+            onEntryAppended(e);
+        }
+
+        mYMin = mStreamingMinMax.getMin();
+        mYMax = mStreamingMinMax.getMax();
+
+        return true;
+    }
+
+    @Override
+    public int getDirtyRangeStart() {
+        return Math.min(mDirtyRangeStart, getEntryCount());
+    }
+
+    @Override
+    public void clearDirtyRange() {
+        mDirtyRangeStart = getEntryCount();
+    }
+
+    @Override
+    public int getDataVersion() {
+        return mDataVersion;
+    }
+
+    @Override
+    public void invalidateDataVersion() {
+        mDataVersion++;
+    }
+
+    /**
+     * Sets mYMin and mYMax for the entries between the given indices (both inclusive) using
+     * the y-values range index, rebuilding it first if needed.
+     *
+     * @param indexFrom
+     * @param indexTo
+     */
+    protected void calcMinMaxYFromIndex(int indexFrom, int indexTo) {
+
+        if (mYRangeIndexDirty) {
+            mYRangeIndex.clear();
+            rebuildYRangeIndex();
+            mYRangeIndexDirty = false;
+        }
+
+        mYMin = mYRangeIndex.getMin(indexFrom, indexTo);
+        mYMax = mYRangeIndex.getMax(indexFrom, indexTo);
+    }
+
+    /**
+     * Adds all entries of this DataSet to the (cleared) y-values range index.
+     */
+    protected void rebuildYRangeIndex() {
+
+        for (int i = 0; i < mEntries.size(); i++) {
+            T e = mEntries.get(i);
+            mYRangeIndex.add(getEntryYMin(e), getEntryYMax(e));
+        }
+    }
+
+    /**
+     * Keeps the indices up to date after an Entry was appended to the end.
+     *
+     * @param e
+     */
+    protected void onEntryAppended(T e) {
+
+        mSpatialIndexDirty = true;
+        mDataVersion++;
+
+        if (mYRangeIndex != null && !mYRangeIndexDirty)
+            mYRangeIndex.add(getEntryYMin(e), getEntryYMax(e));
+    }
+
+    /**
+     * Returns the lowest y-value the given Entry contributes to calcMinMaxY(...).
+     *
+     * @param e
+     * @return
+     */
+    protected float getEntryYMin(T e) {
+        return e.getY();
+    }
+
+    /**
+     * Returns the highest y-value the given Entry contributes to calcMinMaxY(...).
+     *
+     * @param e
+     * @return
+     */
+    protected float getEntryYMax(T e) {
+        return e.getY();
+    }
+
     /**
      * Updates the min and max x and y value of this DataSet based on the given Entry.
      *
@@ -169,7 +492,7 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
      * @return
      */
     public void setEntries(List<T> entries) {
-        mEntries = entries;
+        mEntries = mStreamingCapacity > 0 ? toRingBuffer(entries, mStreamingCapacity) : entries;
         notifyDataSetChanged();
     }
 
@@ -186,6 +509,9 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
      */
     protected void copy(DataSet dataSet) {
         super.copy(dataSet);
+
+        if (mStreamingCapacity > 0)
+            dataSet.setStreamingCapacity(mStreamingCapacity);
     }
 
     @Override
@@ -244,10 +570,25 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
         calcMinMax(e);
 
         if (mEntries.size() > 0 && mEntries.get(mEntries.size() - 1).getX() > e.getX()) {
-            int closestIndex = getEntryIndex(e.getX(), e.getY(), Rounding.UP);
+
+            if (mStreamingMinMax != null && mEntries.size() >= mStreamingCapacity)
+                mEntries.remove(0);
+
+            int closestIndex = mEntries.isEmpty() ? 0 : getEntryIndex(e.getX(), e.getY(), Rounding.UP);
             mEntries.add(closestIndex, e);
+            mYRangeIndexDirty = true;
+            mSpatialIndexDirty = true;
+            mDataVersion++;
+            mDirtyRangeStart = 0;
+
+            if (mStreamingMinMax != null)
+                calcMinMax();
+
+        } else if (mStreamingMinMax != null) {
+            appendEntry(e);
         } else {
             mEntries.add(e);
+            onEntryAppended(e);
         }
     }
 
@@ -263,6 +604,9 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
         if (e == null)
             return false;
 
+        if (mStreamingMinMax != null)
+            return appendEntry(e);
+
         List<T> values = getEntries();
         if (values == null) {
             values = new ArrayList<>();
@@ -271,7 +615,12 @@ public abstract class DataSet<T extends Entry> extends BaseDataSet<T> {
         calcMinMax(e);
 
         // add the entry
-        return values.add(e);
+        boolean added = values.add(e);
+
+        if (added && values == mEntries)
+            onEntryAppended(e);
+
+        return added;
     }
 
     @Override
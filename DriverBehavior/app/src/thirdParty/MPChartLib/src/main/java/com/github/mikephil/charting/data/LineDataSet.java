@@ -64,6 +64,16 @@ public class LineDataSet extends LineRadarDataSet<Entry> implements ILineDataSet
 
     private boolean mDrawCircleHole = true;
 
+    /**
+     * if true, the drawn line is reduced to min / max per pixel column
+     */
+    private boolean mPixelDownsampling = false;
+
+    /**
+     * if true, appended entries are drawn on top of the previous frame
+     */
+    private boolean mIncrementalDrawing = false;
+
 
     public LineDataSet(List<Entry> yVals, String label) {
         super(yVals, label);
@@ -105,6 +115,8 @@ public class LineDataSet extends LineRadarDataSet<Entry> implements ILineDataSet
         lineDataSet.mDrawCircles = mDrawCircleHole;
         lineDataSet.mFillFormatter = mFillFormatter;
         lineDataSet.mMode = mMode;
+        lineDataSet.mPixelDownsampling = mPixelDownsampling;
+        lineDataSet.mIncrementalDrawing = mIncrementalDrawing;
     }
 
     /**
@@ -389,6 +401,44 @@ public class LineDataSet extends LineRadarDataSet<Entry> implements ILineDataSet
         return mDrawCircleHole;
     }
 
+    /**
+     * Enables / disables reducing the drawn line to the lowest and highest value per pixel
+     * column (LINEAR mode, single color, not stepped). The number of drawn segments is then
+     * limited to about twice the chart width, regardless of the number of visible entries,
+     * while the result looks the same. Recommended for large DataSets. Default: disabled
+     *
+     * @param enabled
+     */
+    public void setPixelDownsamplingEnabled(boolean enabled) {
+        mPixelDownsampling = enabled;
+    }
+
+    @Override
+    public boolean isPixelDownsamplingEnabled() {
+        return mPixelDownsampling;
+    }
+
+    /**
+     * Enables / disables incremental drawing for live-updating charts (LINEAR or STEPPED mode,
+     * not dashed, not filled). The line is kept in a bitmap between frames and, as long as
+     * only entries were appended (appendEntry(...)) and the axes did not move, only the new
+     * segments are drawn. Fixed axis ranges (e.g. setAxisMaximum(...)) make the most of it.
+     * The incremental DataSets of a chart share one bitmap, so they should be next to each
+     * other in the LineData; otherwise they are all drawn directly to keep their order.
+     * Call notifyDataSetChanged() on the DataSet after changing its appearance.
+     * Default: disabled
+     *
+     * @param enabled
+     */
+    public void setIncrementalDrawingEnabled(boolean enabled) {
+        mIncrementalDrawing = enabled;
+    }
+
+    @Override
+    public boolean isIncrementalDrawingEnabled() {
+        return mIncrementalDrawing;
+    }
+
     /**
      * Sets a custom IFillFormatter to the chart that handles the position of the
      * filled-line for each DataSet. Set this to null to use the default logic.
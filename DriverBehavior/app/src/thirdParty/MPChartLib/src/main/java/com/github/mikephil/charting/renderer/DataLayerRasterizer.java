@@ -0,0 +1,539 @@
+package com.github.mikephil.charting.renderer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import com.github.mikephil.charting.animation.ChartAnimator;
+import com.github.mikephil.charting.charts.BarLineChartBase;
+import com.github.mikephil.charting.components.YAxis.AxisDependency;
+import com.github.mikephil.charting.interfaces.datasets.IDataSet;
+import com.github.mikephil.charting.utils.MPPointD;
+import com.github.mikephil.charting.utils.Transformer;
+import com.github.mikephil.charting.utils.ViewPortHandler;
+
+import java.util.ArrayList;
+
+/**
+ * Rasterizes the data layer (lines, bars, ...) of a chart on a background thread, so onDraw()
+ * only has to draw a finished bitmap.
+ * <p/>
+ * The layer is rendered into one of two bitmaps while the other one is shown, the two are
+ * reused for as long as the size of the chart stays the same. Each bitmap remembers the
+ * viewport and matrices it was rendered with. As long as the chart is zoomed or scrolled and
+ * the new layer is not ready, the last one is drawn moved and scaled to the new viewport.
+ * Requests coming in while a layer is being rendered are merged, only the latest one is
+ * rendered next.
+ * <p/>
+ * Everything the background thread needs of the view (the viewport, the transformers, the
+ * animation phases and the state of the axes) is copied on the UI thread into a LayerState,
+ * which is not changed anymore once it is requested. The background thread renders with its
+ * own renderer, so it does not share any drawing state with the UI thread. It does read the
+ * data of the chart: changes to the entries must be made while holding the render lock of the
+ * chart (BarLineChartBase.getRenderLock()), which the background thread holds while
+ * rendering. The chart takes the lock itself in setData(...) and notifyDataSetChanged().
+ * <p/>
+ * One thread is shared by all charts.
+ */
+public class DataLayerRasterizer {
+
+    private static HandlerThread sThread;
+    private static Handler sHandler;
+
+    protected final BarLineChartBase<?> mChart;
+
+    /**
+     * a state of the chart, as needed to render its data layer. Filled on the UI thread and
+     * only read once it is requested.
+     */
+    protected static class LayerState {
+
+        public final ViewPortHandler viewPortHandler = new ViewPortHandler();
+        public final Transformer leftTransformer = new Transformer(viewPortHandler);
+        public final Transformer rightTransformer = new Transformer(viewPortHandler);
+        public final ChartAnimator animator = new ChartAnimator();
+
+        public boolean leftInverted = false;
+        public boolean rightInverted = false;
+        public float xAxisMinimum = 0f;
+        public float xAxisMaximum = 0f;
+
+        /**
+         * true if any DataSet is plotted against the axis
+         */
+        public boolean usesLeftAxis = false;
+        public boolean usesRightAxis = false;
+
+        public int dataGeneration = -1;
+        public int buffersGeneration = -1;
+
+        public void set(BarLineChartBase<?> chart) {
+            viewPortHandler.set(chart.getViewPortHandler());
+            leftTransformer.set(chart.getTransformer(AxisDependency.LEFT));
+            rightTransformer.set(chart.getTransformer(AxisDependency.RIGHT));
+            animator.setPhaseX(chart.getAnimator().getPhaseX());
+            animator.setPhaseY(chart.getAnimator().getPhaseY());
+            leftInverted = chart.getAxisLeft().isInverted();
+            rightInverted = chart.getAxisRight().isInverted();
+            xAxisMinimum = chart.getXAxis().mAxisMinimum;
+            xAxisMaximum = chart.getXAxis().mAxisMaximum;
+
+            if (dataGeneration != chart.getDataGeneration()) {
+
+                usesLeftAxis = false;
+                usesRightAxis = false;
+
+                if (chart.getData() != null) {
+                    for (IDataSet<?> set : chart.getData().getDataSets()) {
+                        if (set.getAxisDependency() == AxisDependency.LEFT)
+                            usesLeftAxis = true;
+                        else
+                            usesRightAxis = true;
+                    }
+                }
+            }
+
+            dataGeneration = chart.getDataGeneration();
+            buffersGeneration = chart.getBuffersGeneration();
+        }
+
+        public void set(LayerState other) {
+            viewPortHandler.set(other.viewPortHandler);
+            leftTransformer.set(other.leftTransformer);
+            rightTransformer.set(other.rightTransformer);
+            animator.setPhaseX(other.animator.getPhaseX());
+            animator.setPhaseY(other.animator.getPhaseY());
+            leftInverted = other.leftInverted;
+            rightInverted = other.rightInverted;
+            xAxisMinimum = other.xAxisMinimum;
+            xAxisMaximum = other.xAxisMaximum;
+            usesLeftAxis = other.usesLeftAxis;
+            usesRightAxis = other.usesRightAxis;
+            dataGeneration = other.dataGeneration;
+            buffersGeneration = other.buffersGeneration;
+        }
+
+        /**
+         * Returns true if a layer rendered for the other state would look the same as one
+         * rendered for this state.
+         */
+        public boolean matches(LayerState other) {
+            return dataGeneration == other.dataGeneration
+                    && animator.getPhaseX() == other.animator.getPhaseX()
+                    && animator.getPhaseY() == other.animator.getPhaseY()
+                    && xAxisMinimum == other.xAxisMinimum
+                    && xAxisMaximum == other.xAxisMaximum
+                    && viewPortHandler.getChartWidth() == other.viewPortHandler.getChartWidth()
+                    && viewPortHandler.getChartHeight() == other.viewPortHandler.getChartHeight()
+                    && viewPortHandler.getContentRect().equals(other.viewPortHandler.getContentRect())
+                    && viewPortHandler.getMatrixTouch().equals(other.viewPortHandler.getMatrixTouch())
+                    && leftTransformer.getValueMatrix().equals(other.leftTransformer.getValueMatrix())
+                    && leftTransformer.getOffsetMatrix().equals(other.leftTransformer.getOffsetMatrix())
+                    && rightTransformer.getValueMatrix().equals(other.rightTransformer.getValueMatrix())
+                    && rightTransformer.getOffsetMatrix().equals(other.rightTransformer.getOffsetMatrix());
+        }
+    }
+
+    /**
+     * the state of the chart in the current onDraw(), only used on the UI thread
+     */
+    private final LayerState mCurrent = new LayerState();
+
+    /**
+     * the latest state a layer was requested for and not yet taken by the background thread,
+     * null if none, guarded by this
+     */
+    private LayerState mRequested;
+    private boolean mJobPosted = false;
+
+    /**
+     * states not in use anymore, reused for the next requests, guarded by this
+     */
+    private final ArrayList<LayerState> mFreeStates = new ArrayList<>(3);
+
+    /**
+     * the state the background thread renders, its renderer draws with the copies in it
+     */
+    private volatile LayerState mRendering;
+    private volatile boolean mRenderingActive = false;
+
+    /**
+     * the renderer of the background thread, kept as long as the chart, its buffers are
+     * prepared again when the DataSets change. It draws with the viewport and phases of the
+     * state being rendered, copied into these.
+     */
+    private final ViewPortHandler mRendererViewPortHandler = new ViewPortHandler();
+    private final ChartAnimator mRendererAnimator = new ChartAnimator();
+    private final DataRenderer mRenderer;
+    private int mRendererBuffersGeneration = -1;
+    private final Canvas mCanvas = new Canvas();
+    private final MPPointD mVisibleXBuffer = MPPointD.getInstance(0, 0);
+
+    /**
+     * the layer shown and the one rendered next, with the state the shown one was rendered for,
+     * guarded by this
+     */
+    private Bitmap mFront;
+    private Bitmap mBack;
+    private LayerState mFrontState;
+
+    /**
+     * incremented by release(), a layer rendered before is dropped
+     */
+    private int mReleaseCount = 0;
+
+    private final Matrix mCorrectionMatrix = new Matrix();
+    private final Matrix mRightCorrectionMatrix = new Matrix();
+    private final Matrix mInverseMatrix = new Matrix();
+    private final float[] mCorrectionValues = new float[9];
+    private final float[] mRightCorrectionValues = new float[9];
+
+    private final Runnable mRenderJob = new Runnable() {
+        @Override
+        public void run() {
+            renderRequests();
+        }
+    };
+
+    public DataLayerRasterizer(BarLineChartBase<?> chart) {
+        mChart = chart;
+        mRenderer = chart.createRasterRenderer(mRendererAnimator, mRendererViewPortHandler);
+    }
+
+    /**
+     * Returns false if the chart cannot render its data in the background, see
+     * BarLineChartBase.createRasterRenderer(...).
+     *
+     * @return
+     */
+    public boolean isSupported() {
+        return mRenderer != null;
+    }
+
+    private static synchronized Handler getHandler() {
+
+        if (sHandler == null) {
+            sThread = new HandlerThread("ChartRasterizer", Process.THREAD_PRIORITY_DISPLAY);
+            sThread.start();
+            sHandler = new Handler(sThread.getLooper());
+        }
+
+        return sHandler;
+    }
+
+    /**
+     * Returns true if called from the background thread while it renders the layer of this
+     * chart. The chart then hands out the copies the layer is rendered with.
+     *
+     * @return
+     */
+    public boolean isRendering() {
+        return mRenderingActive && Thread.currentThread() == sThread;
+    }
+
+    /**
+     * Returns the copy of the given transformer the layer is rendered with.
+     *
+     * @param which
+     * @return
+     */
+    public Transformer getTransformer(AxisDependency which) {
+        return which == AxisDependency.LEFT ? mRendering.leftTransformer : mRendering.rightTransformer;
+    }
+
+    /**
+     * Returns the copy of the viewport the layer is rendered with.
+     *
+     * @return
+     */
+    public ViewPortHandler getViewPortHandler() {
+        return mRendering.viewPortHandler;
+    }
+
+    /**
+     * Returns true if the given axis was inverted when the layer was requested.
+     *
+     * @param which
+     * @return
+     */
+    public boolean isInverted(AxisDependency which) {
+        return which == AxisDependency.LEFT ? mRendering.leftInverted : mRendering.rightInverted;
+    }
+
+    /**
+     * Returns the lowest x-value visible in the viewport the layer is rendered with.
+     *
+     * @return
+     */
+    public float getLowestVisibleX() {
+        LayerState state = mRendering;
+        state.leftTransformer.getValuesByTouchPoint(state.viewPortHandler.contentLeft(),
+                state.viewPortHandler.contentBottom(), mVisibleXBuffer);
+        return (float) Math.max(state.xAxisMinimum, mVisibleXBuffer.x);
+    }
+
+    /**
+     * Returns the highest x-value visible in the viewport the layer is rendered with.
+     *
+     * @return
+     */
+    public float getHighestVisibleX() {
+        LayerState state = mRendering;
+        state.leftTransformer.getValuesByTouchPoint(state.viewPortHandler.contentRight(),
+                state.viewPortHandler.contentBottom(), mVisibleXBuffer);
+        return (float) Math.min(state.xAxisMaximum, mVisibleXBuffer.x);
+    }
+
+    /**
+     * Draws the data layer of the chart on the UI thread, and requests a new one if the chart
+     * changed since it was rendered. The first time, when the size of the chart changed, and
+     * when the shown layer cannot be moved to the current viewport, the data is drawn directly
+     * with the given renderer instead.
+     *
+     * @param c
+     * @param renderer the renderer of the chart
+     */
+    public void drawData(Canvas c, DataRenderer renderer) {
+
+        mCurrent.set(mChart);
+
+        boolean drawn = false;
+
+        synchronized (this) {
+
+            if (mFront != null
+                    && mFrontState.viewPortHandler.getChartWidth() == mCurrent.viewPortHandler.getChartWidth()
+                    && mFrontState.viewPortHandler.getChartHeight() == mCurrent.viewPortHandler.getChartHeight()) {
+
+                drawn = drawFront(c);
+            }
+
+            if ((mFrontState == null || !mFrontState.matches(mCurrent))
+                    && !(mRequested != null && mRequested.matches(mCurrent))) {
+
+                LayerState request = obtainState();
+                request.set(mCurrent);
+
+                if (mRequested != null)
+                    mFreeStates.add(mRequested);
+                mRequested = request;
+
+                if (!mJobPosted) {
+                    mJobPosted = true;
+                    getHandler().post(mRenderJob);
+                }
+            }
+        }
+
+        if (!drawn)
+            renderer.drawData(c);
+    }
+
+    private LayerState obtainState() {
+
+        int size = mFreeStates.size();
+        return size > 0 ? mFreeStates.remove(size - 1) : new LayerState();
+    }
+
+    /**
+     * Draws the shown layer, moved and scaled from the viewport it was rendered for to the
+     * current one. Each axis the data is plotted against needs its own correction, if they
+     * differ, e.g. because only one axis was rescaled, the layer is not drawn.
+     *
+     * @return false if the layer could not be drawn
+     */
+    private boolean drawFront(Canvas c) {
+
+        if (mFrontState.matches(mCurrent)) {
+            c.drawBitmap(mFront, 0f, 0f, null);
+            return true;
+        }
+
+        boolean useLeft = mFrontState.usesLeftAxis || !mFrontState.usesRightAxis;
+
+        if (useLeft && !computeCorrection(mFrontState.leftTransformer, mCurrent.leftTransformer,
+                mCorrectionMatrix))
+            return false;
+
+        if (mFrontState.usesRightAxis) {
+
+            Matrix right = useLeft ? mRightCorrectionMatrix : mCorrectionMatrix;
+
+            if (!computeCorrection(mFrontState.rightTransformer, mCurrent.rightTransformer, right))
+                return false;
+
+            if (useLeft && !isSameCorrection(mCorrectionMatrix, mRightCorrectionMatrix))
+                return false;
+        }
+
+        int count = c.save();
+        c.concat(mCorrectionMatrix);
+        c.drawBitmap(mFront, 0f, 0f, null);
+        c.restoreToCount(count);
+        return true;
+    }
+
+    /**
+     * Computes the matrix from the pixels of the old layer to the values, and from the values to
+     * the new pixels.
+     */
+    private boolean computeCorrection(Transformer rendered, Transformer current, Matrix out) {
+
+        if (!rendered.getValueToPixelMatrix().invert(mInverseMatrix))
+            return false;
+
+        out.set(mInverseMatrix);
+        out.postConcat(current.getValueToPixelMatrix());
+        return true;
+    }
+
+    /**
+     * Returns true if the two corrections place the layer the same, up to a fraction of a
+     * pixel.
+     */
+    private boolean isSameCorrection(Matrix a, Matrix b) {
+
+        a.getValues(mCorrectionValues);
+        b.getValues(mRightCorrectionValues);
+
+        for (int i = 0; i < 9; i++) {
+
+            // translations are in pixels, the other values are factors
+            float tolerance = i == Matrix.MTRANS_X || i == Matrix.MTRANS_Y ? 0.5f : 0.001f;
+
+            if (Math.abs(mCorrectionValues[i] - mRightCorrectionValues[i]) > tolerance)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Renders the requested layers on the background thread, until there is no new request.
+     */
+    private void renderRequests() {
+
+        while (true) {
+
+            LayerState job;
+            Bitmap target;
+            int releaseCount;
+
+            synchronized (this) {
+
+                if (mRequested == null) {
+                    mJobPosted = false;
+                    return;
+                }
+
+                job = mRequested;
+                mRequested = null;
+
+                int width = (int) job.viewPortHandler.getChartWidth();
+                int height = (int) job.viewPortHandler.getChartHeight();
+
+                if (width <= 0 || height <= 0) {
+                    mFreeStates.add(job);
+                    continue;
+                }
+
+                target = mBack;
+                mBack = null;
+
+                if (target != null && (target.getWidth() != width || target.getHeight() != height)) {
+                    target.recycle();
+                    target = null;
+                }
+
+                if (target == null)
+                    target = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+
+                releaseCount = mReleaseCount;
+            }
+
+            mRendering = job;
+
+            synchronized (mChart.getRenderLock()) {
+
+                target.eraseColor(Color.TRANSPARENT);
+
+                if (mRenderer != null && mChart.getData() != null) {
+
+                    mRendererViewPortHandler.set(job.viewPortHandler);
+                    mRendererAnimator.setPhaseX(job.animator.getPhaseX());
+                    mRendererAnimator.setPhaseY(job.animator.getPhaseY());
+                    mCanvas.setBitmap(target);
+                    mRenderingActive = true;
+
+                    try {
+                        if (mRendererBuffersGeneration != job.buffersGeneration) {
+
+                            if (mRenderer instanceof CombinedChartRenderer)
+                                ((CombinedChartRenderer) mRenderer).createRenderers();
+
+                            mRenderer.initBuffers();
+                            mRendererBuffersGeneration = job.buffersGeneration;
+                        }
+
+                        mRenderer.drawData(mCanvas);
+                    } finally {
+                        mRenderingActive = false;
+                        mCanvas.setBitmap(null);
+                    }
+                }
+            }
+
+            target.prepareToDraw();
+
+            synchronized (this) {
+
+                if (releaseCount != mReleaseCount) {
+                    // released while rendering
+                    target.recycle();
+                    mFreeStates.add(job);
+                    continue;
+                }
+
+                mBack = mFront;
+                mFront = target;
+
+                if (mFrontState != null)
+                    mFreeStates.add(mFrontState);
+                mFrontState = job;
+            }
+
+            mChart.postInvalidate();
+        }
+    }
+
+    /**
+     * Drops the layers and any request not yet rendered, e.g. when the chart is detached, and
+     * frees the bitmaps. A layer being rendered is still finished, and then dropped as well.
+     */
+    public synchronized void release() {
+
+        mReleaseCount++;
+
+        if (mRequested != null) {
+            mFreeStates.add(mRequested);
+            mRequested = null;
+        }
+
+        if (mFrontState != null) {
+            mFreeStates.add(mFrontState);
+            mFrontState = null;
+        }
+
+        if (mFront != null)
+            mFront.recycle();
+        if (mBack != null)
+            mBack.recycle();
+
+        mFront = null;
+        mBack = null;
+    }
+}
@@ -46,11 +46,15 @@ public class HorizontalBarChartRenderer extends BarChartRenderer {
 
         for (int i = 0; i < mBarBuffers.length; i++) {
             IBarDataSet set = barData.getDataSetByIndex(i);
-            mBarBuffers[i] = new HorizontalBarBuffer(set.getEntryCount() * 4 * (set.isStacked() ? set.getStackSize() : 1),
-                    barData.getDataSetCount(), set.isStacked());
+            mBarBuffers[i] = createBarBuffer(set, barData.getDataSetCount());
         }
     }
 
+    @Override
+    protected BarBuffer createBarBuffer(IBarDataSet set, int dataSetCount) {
+        return new HorizontalBarBuffer(getBarBufferSize(set), dataSetCount, set.isStacked());
+    }
+
     private RectF mBarShadowRectBuffer = new RectF();
 
     @Override
@@ -103,7 +107,7 @@ public class HorizontalBarChartRenderer extends BarChartRenderer {
         }
 
         // initialize the buffer
-        BarBuffer buffer = mBarBuffers[index];
+        BarBuffer buffer = getBarBuffer(dataSet, index);
         buffer.setPhases(phaseX, phaseY);
         buffer.setDataSet(index);
         buffer.setInverted(mChart.isInverted(dataSet.getAxisDependency()));
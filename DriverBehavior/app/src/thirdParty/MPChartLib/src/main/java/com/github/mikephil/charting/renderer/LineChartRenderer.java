@@ -9,6 +9,7 @@ import android.graphics.drawable.Drawable;
 
 import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.components.YAxis.AxisDependency;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
@@ -19,11 +20,13 @@ import com.github.mikephil.charting.interfaces.datasets.ILineDataSet;
 import com.github.mikephil.charting.utils.ColorTemplate;
 import com.github.mikephil.charting.utils.MPPointD;
 import com.github.mikephil.charting.utils.MPPointF;
+import com.github.mikephil.charting.utils.PixelColumnReducer;
 import com.github.mikephil.charting.utils.Transformer;
 import com.github.mikephil.charting.utils.Utils;
 import com.github.mikephil.charting.utils.ViewPortHandler;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -53,6 +56,29 @@ public class LineChartRenderer extends LineRadarRenderer {
      */
     protected Bitmap.Config mBitmapConfig = Bitmap.Config.ARGB_8888;
 
+    /**
+     * Bitmap keeping the lines of the DataSets with incremental drawing enabled between
+     * frames, so that only appended entries need to be drawn
+     */
+    protected WeakReference<Bitmap> mIncrementalBitmap;
+
+    /**
+     * canvas drawing into mIncrementalBitmap
+     */
+    protected Canvas mIncrementalCanvas;
+
+    /**
+     * the DataSets drawn into mIncrementalBitmap, in drawing order
+     */
+    protected List<ILineDataSet> mIncrementalDataSets = new ArrayList<>();
+
+    /**
+     * the value to pixel matrices (left and right axis) mIncrementalBitmap was drawn with
+     */
+    private float[] mIncrementalMatrixValues = new float[18];
+
+    private float[] mMatrixValuesBuffer = new float[9];
+
     protected Path cubicPath = new Path();
     protected Path cubicFillPath = new Path();
 
@@ -94,15 +120,247 @@ public class LineChartRenderer extends LineRadarRenderer {
 
         LineData lineData = mChart.getLineData();
 
+        // the incremental DataSets share one bitmap, which is drawn in place of the first of them
+        boolean incremental = hasIncrementalRun(lineData);
+        boolean incrementalDrawn = false;
+
+        if (!incremental)
+            mIncrementalDataSets.clear();
+
         for (ILineDataSet set : lineData.getDataSets()) {
 
-            if (set.isVisible())
+            if (!set.isVisible())
+                continue;
+
+            if (incremental && isIncrementalDrawingPossible(set)) {
+
+                if (!incrementalDrawn) {
+                    drawIncrementalDataSets(c, lineData, width, height);
+                    incrementalDrawn = true;
+                }
+            } else
                 drawDataSet(c, set);
         }
 
         c.drawBitmap(drawBitmap, 0, 0, mRenderPaint);
     }
 
+    /**
+     * Returns true if there are visible DataSets for incremental drawing and no other visible
+     * DataSet lies between them, so that drawing their shared bitmap keeps the order of the
+     * DataSets in the LineData. Otherwise all DataSets are drawn directly.
+     *
+     * @param lineData
+     * @return
+     */
+    private boolean hasIncrementalRun(LineData lineData) {
+
+        boolean inRun = false;
+        boolean afterRun = false;
+
+        for (ILineDataSet set : lineData.getDataSets()) {
+
+            if (!set.isVisible())
+                continue;
+
+            if (isIncrementalDrawingPossible(set)) {
+
+                if (afterRun)
+                    return false;
+
+                inRun = true;
+            } else if (inRun) {
+                afterRun = true;
+            }
+        }
+
+        return inRun;
+    }
+
+    /**
+     * Returns true if the given DataSet wants incremental drawing and is drawn in a way that
+     * supports it.
+     *
+     * @param dataSet
+     * @return
+     */
+    protected boolean isIncrementalDrawingPossible(ILineDataSet dataSet) {
+        return dataSet.isIncrementalDrawingEnabled()
+                && (dataSet.getMode() == LineDataSet.Mode.LINEAR || dataSet.getMode() == LineDataSet.Mode.STEPPED)
+                && !dataSet.isDashedLineEnabled()
+                && !dataSet.isDrawFilledEnabled();
+    }
+
+    /**
+     * Draws the DataSets with incremental drawing enabled into mIncrementalBitmap and the bitmap
+     * onto the given canvas. If only entries were appended since the last frame and the axes
+     * did not change, only the new segments are drawn, otherwise all of them.
+     *
+     * @param c
+     * @param lineData
+     * @param width
+     * @param height
+     */
+    protected void drawIncrementalDataSets(Canvas c, LineData lineData, int width, int height) {
+
+        Bitmap bitmap = mIncrementalBitmap == null ? null : mIncrementalBitmap.get();
+
+        boolean redraw = false;
+
+        if (bitmap == null
+                || (bitmap.getWidth() != width)
+                || (bitmap.getHeight() != height)) {
+
+            bitmap = Bitmap.createBitmap(width, height, mBitmapConfig);
+            mIncrementalBitmap = new WeakReference<>(bitmap);
+            mIncrementalCanvas = new Canvas(bitmap);
+            redraw = true;
+        }
+
+        // the matrices are always updated, so they are compared against the last frame
+        if (!updateIncrementalMatrixValues())
+            redraw = true;
+
+        if (mAnimator.getPhaseX() != 1f || mAnimator.getPhaseY() != 1f)
+            redraw = true;
+
+        // the drawn DataSets have to be the same and may only have appended entries
+        int index = 0;
+
+        for (ILineDataSet set : lineData.getDataSets()) {
+
+            if (!set.isVisible() || !isIncrementalDrawingPossible(set))
+                continue;
+
+            if (index >= mIncrementalDataSets.size()
+                    || mIncrementalDataSets.get(index) != set
+                    || set.getDirtyRangeStart() == 0)
+                redraw = true;
+
+            index++;
+        }
+
+        if (index != mIncrementalDataSets.size())
+            redraw = true;
+
+        if (redraw) {
+            bitmap.eraseColor(Color.TRANSPARENT);
+            mIncrementalDataSets.clear();
+        }
+
+        for (ILineDataSet set : lineData.getDataSets()) {
+
+            if (!set.isVisible() || !isIncrementalDrawingPossible(set))
+                continue;
+
+            if (redraw) {
+                mIncrementalDataSets.add(set);
+                drawDataSet(mIncrementalCanvas, set);
+            } else {
+                drawLinearTail(mIncrementalCanvas, set, set.getDirtyRangeStart());
+            }
+
+            set.clearDirtyRange();
+        }
+
+        c.drawBitmap(bitmap, 0, 0, mRenderPaint);
+    }
+
+    /**
+     * Stores the current value to pixel matrices of both axes and returns true if they did not
+     * change since the last call.
+     *
+     * @return
+     */
+    private boolean updateIncrementalMatrixValues() {
+
+        boolean unchanged = true;
+
+        for (int axis = 0; axis < 2; axis++) {
+
+            Transformer trans = mChart.getTransformer(axis == 0 ? AxisDependency.LEFT : AxisDependency.RIGHT);
+            trans.getValueToPixelMatrix().getValues(mMatrixValuesBuffer);
+
+            for (int i = 0; i < 9; i++) {
+                if (mIncrementalMatrixValues[axis * 9 + i] != mMatrixValuesBuffer[i]) {
+                    mIncrementalMatrixValues[axis * 9 + i] = mMatrixValuesBuffer[i];
+                    unchanged = false;
+                }
+            }
+        }
+
+        return unchanged;
+    }
+
+    /**
+     * Draws the segments leading to the entries from the given index on, in LINEAR or STEPPED
+     * mode.
+     *
+     * @param c
+     * @param dataSet
+     * @param from    index of the first new Entry
+     */
+    protected void drawLinearTail(Canvas c, ILineDataSet dataSet, int from) {
+
+        final int entryCount = dataSet.getEntryCount();
+
+        // the segment into the first new entry is included
+        final int start = Math.max(from - 1, 0);
+
+        if (entryCount - start < 2)
+            return;
+
+        final boolean isDrawSteppedEnabled = dataSet.isDrawSteppedEnabled();
+        final int floatsPerSegment = isDrawSteppedEnabled ? 8 : 4;
+        final int segmentCount = entryCount - start - 1;
+
+        if (mLineBuffer.length < segmentCount * floatsPerSegment)
+            mLineBuffer = new float[segmentCount * floatsPerSegment * 2];
+
+        int j = 0;
+        Entry previous = dataSet.getEntryForIndex(start);
+
+        for (int i = start + 1; i < entryCount; i++) {
+
+            Entry e = dataSet.getEntryForIndex(i);
+
+            mLineBuffer[j++] = previous.getX();
+            mLineBuffer[j++] = previous.getY();
+
+            if (isDrawSteppedEnabled) {
+                mLineBuffer[j++] = e.getX();
+                mLineBuffer[j++] = previous.getY();
+                mLineBuffer[j++] = e.getX();
+                mLineBuffer[j++] = previous.getY();
+            }
+
+            mLineBuffer[j++] = e.getX();
+            mLineBuffer[j++] = e.getY();
+
+            previous = e;
+        }
+
+        Transformer trans = mChart.getTransformer(dataSet.getAxisDependency());
+        trans.pointValuesToPixel(mLineBuffer);
+
+        mRenderPaint.setStyle(Paint.Style.STROKE);
+        mRenderPaint.setStrokeWidth(dataSet.getLineWidth());
+        mRenderPaint.setPathEffect(null);
+
+        if (dataSet.getColors().size() > 1) {
+
+            for (int i = 0; i < segmentCount; i++) {
+                mRenderPaint.setColor(dataSet.getColor(start + i));
+                c.drawLines(mLineBuffer, i * floatsPerSegment, floatsPerSegment, mRenderPaint);
+            }
+
+        } else {
+
+            mRenderPaint.setColor(dataSet.getColor());
+            c.drawLines(mLineBuffer, 0, j, mRenderPaint);
+        }
+    }
+
     protected void drawDataSet(Canvas c, ILineDataSet dataSet) {
 
         if (dataSet.getEntryCount() < 1)
@@ -388,6 +646,10 @@ public class LineChartRenderer extends LineRadarRenderer {
                 canvas.drawLines(mLineBuffer, 0, pointsPerEntryPair * 2, mRenderPaint);
             }
 
+        } else if (dataSet.isPixelDownsamplingEnabled() && !isDrawSteppedEnabled) {
+
+            drawLinearDownsampled(canvas, dataSet, trans, phaseY);
+
         } else { // only one color per dataset
 
             if (mLineBuffer.length < Math.max((entryCount) * pointsPerEntryPair, pointsPerEntryPair) * 2)
@@ -436,6 +698,59 @@ public class LineChartRenderer extends LineRadarRenderer {
         mRenderPaint.setPathEffect(null);
     }
 
+    /**
+     * number of entries transformed to pixels at once when downsampling
+     */
+    private static final int DOWNSAMPLE_CHUNK_SIZE = 256;
+
+    protected float[] mDownsampleBuffer = new float[DOWNSAMPLE_CHUNK_SIZE * 2];
+
+    protected PixelColumnReducer mPixelColumnReducer = new PixelColumnReducer();
+
+    /**
+     * Draws the visible part of the line reduced to at most two segments per pixel column.
+     * The entries are transformed in fixed size chunks, so the buffers do not grow with the
+     * number of entries.
+     *
+     * @param c
+     * @param dataSet
+     * @param trans
+     * @param phaseY
+     */
+    protected void drawLinearDownsampled(Canvas c, ILineDataSet dataSet, Transformer trans, float phaseY) {
+
+        final PixelColumnReducer reducer = mPixelColumnReducer;
+        final float[] buffer = mDownsampleBuffer;
+
+        reducer.reset();
+
+        // same range as the regular drawing: the segment into the first visible entry is included
+        final int from = mXBounds.min == 0 ? 0 : mXBounds.min - 1;
+        final int to = mXBounds.min + mXBounds.range;
+
+        for (int start = from; start <= to; start += DOWNSAMPLE_CHUNK_SIZE) {
+
+            final int count = Math.min(DOWNSAMPLE_CHUNK_SIZE, to - start + 1);
+
+            for (int i = 0; i < count; i++) {
+                Entry e = dataSet.getEntryForIndex(start + i);
+                buffer[i * 2] = e.getX();
+                buffer[i * 2 + 1] = e.getY() * phaseY;
+            }
+
+            trans.pointValuesToPixel(buffer, count);
+
+            reducer.add(buffer, count);
+        }
+
+        reducer.finish();
+
+        if (reducer.getSegmentFloatCount() > 0) {
+            mRenderPaint.setColor(dataSet.getColor());
+            c.drawLines(reducer.getSegments(), 0, reducer.getSegmentFloatCount(), mRenderPaint);
+        }
+    }
+
     protected Path mGenerateFilledPathBuffer = new Path();
 
     /**
@@ -760,6 +1075,19 @@ public class LineChartRenderer extends LineRadarRenderer {
             mDrawBitmap.clear();
             mDrawBitmap = null;
         }
+        if (mIncrementalCanvas != null) {
+            mIncrementalCanvas.setBitmap(null);
+            mIncrementalCanvas = null;
+        }
+        if (mIncrementalBitmap != null) {
+            Bitmap incrementalBitmap = mIncrementalBitmap.get();
+            if (incrementalBitmap != null) {
+                incrementalBitmap.recycle();
+            }
+            mIncrementalBitmap.clear();
+            mIncrementalBitmap = null;
+        }
+        mIncrementalDataSets.clear();
     }
 
     private class DataSetImageCache {
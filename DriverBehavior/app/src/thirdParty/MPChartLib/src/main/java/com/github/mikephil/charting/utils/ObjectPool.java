@@ -1,6 +1,11 @@
 package com.github.mikephil.charting.utils;
 
+import java.lang.ref.WeakReference;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * An object pool for recycling of object instances extending Poolable.
@@ -13,6 +18,12 @@ import java.util.List;
  *   Benefit - The pool can grow as needed, if it is empty
  *   Cost - However, refilling the pool when it is empty might incur a time cost with sufficiently large capacity.  Set the replenishPercentage to a lower number if this is a concern.
  *
+ * Thread safety :
+ *   get() and recycle() do not take a lock.  The objects are stored in slots that are taken and
+ *   filled with atomic compare-and-set operations, only growing the pool is synchronized.
+ *   Optionally, each thread keeps a few objects for itself (see setThreadLocalCacheSize(int)),
+ *   so a thread that gets and recycles objects in turn does not touch the shared slots at all.
+ *
  * Created by Tony Patino on 6/20/16.
  */
 public class ObjectPool<T extends ObjectPool.Poolable> {
@@ -20,11 +31,54 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
     private static int ids = 0;
 
     private int poolId;
-    private int desiredCapacity;
-    private Object[] objects;
-    private int objectsPointer;
     private T modelObject;
-    private float replenishPercentage;
+    private volatile float replenishPercentage;
+
+    /**
+     * The shared slots.  The pool grows by adding segments, the first two hold initialCapacity
+     * slots and each further one twice as many as the one before, so the capacity doubles each
+     * time.  A segment is never replaced, so a thread still looking at the old segments when
+     * the pool grows only misses the new slots.
+     */
+    private final int initialCapacity;
+    private volatile AtomicReferenceArray<Object>[] segments;
+    private volatile int capacity;
+    private final Object growLock = new Object();
+
+    /**
+     * number of objects in the shared slots, also where get() and recycle() start looking
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+
+    private volatile int threadLocalCacheSize = 0;
+    private volatile ThreadLocal<LocalCache> localCache;
+
+    /**
+     * the caches of all threads, for the counters, dropped when their thread is collected
+     */
+    private final List<WeakReference<LocalCache>> localCaches = new CopyOnWriteArrayList<>();
+
+    /**
+     * The objects kept by one thread.  Only that thread changes the cache, the counters are
+     * written with lazySet(...) and only read for diagnostics.
+     */
+    private static final class LocalCache {
+
+        final Object[] objects;
+        int size = 0;
+
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicLong hits = new AtomicLong();
+
+        LocalCache(int capacity){
+            objects = new Object[capacity];
+        }
+    }
 
 
     /**
@@ -51,13 +105,14 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
         return result;
     }
 
+    @SuppressWarnings("unchecked")
     private ObjectPool(int withCapacity, T object){
         if(withCapacity <= 0){
             throw new IllegalArgumentException("Object Pool must be instantiated with a capacity greater than 0!");
         }
-        this.desiredCapacity = withCapacity;
-        this.objects = new Object[this.desiredCapacity];
-        this.objectsPointer = 0;
+        this.initialCapacity = withCapacity;
+        this.segments = new AtomicReferenceArray[]{ new AtomicReferenceArray<Object>(withCapacity) };
+        this.capacity = withCapacity;
         this.modelObject = object;
         this.replenishPercentage = 1.0f;
         this.refillPool();
@@ -84,23 +139,82 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
         return replenishPercentage;
     }
 
+    /**
+     * Set the number of objects each thread keeps for itself, 0 (the default) to disable the
+     * thread local caches.  Objects recycled by a thread go to its cache first and are handed
+     * out again by get() on the same thread, only when the cache is full or empty the shared
+     * slots are used.  Should be called right after the pool is created.
+     *
+     * @param size the number of objects per thread
+     */
+    public synchronized void setThreadLocalCacheSize(int size){
+        if(size < 0){
+            size = 0;
+        }
+        if(size > 0 && this.localCache == null){
+            this.localCache = new ThreadLocal<LocalCache>() {
+                @Override
+                protected LocalCache initialValue() {
+                    LocalCache cache = new LocalCache(threadLocalCacheSize);
+                    for(WeakReference<LocalCache> reference : localCaches){
+                        if(reference.get() == null){
+                            localCaches.remove(reference);
+                        }
+                    }
+                    localCaches.add(new WeakReference<>(cache));
+                    return cache;
+                }
+            };
+        }
+        this.threadLocalCacheSize = size;
+    }
+
+    public int getThreadLocalCacheSize(){
+        return threadLocalCacheSize;
+    }
+
+    /**
+     * Moves the objects kept by the calling thread to the shared slots.  The objects kept by a
+     * thread are lost when the thread ends, so a worker thread that is done with the pool
+     * should call this.
+     */
+    public void flushThreadLocalCache(){
+        if(this.localCache == null){
+            return;
+        }
+        LocalCache cache = this.localCache.get();
+        while(cache.size > 0){
+            cache.size--;
+            putShared(cache.objects[cache.size]);
+            cache.objects[cache.size] = null;
+            this.outstanding.decrementAndGet();
+        }
+        cache.count.lazySet(0);
+        this.sharedHits.addAndGet(cache.hits.get());
+        cache.hits.lazySet(0);
+    }
+
     private void refillPool(){
         this.refillPool(this.replenishPercentage);
     }
 
     private void refillPool(float percentage){
-        int portionOfCapacity = (int) (desiredCapacity * percentage);
+        int portionOfCapacity = portionOfCapacity(percentage);
 
-        if(portionOfCapacity < 1){
-            portionOfCapacity = 1;
-        }else if(portionOfCapacity > desiredCapacity){
-            portionOfCapacity = desiredCapacity;
+        for(int i = 0 ; i < portionOfCapacity ; i++){
+            putShared(modelObject.instantiate());
         }
+    }
 
-        for(int i = 0 ; i < portionOfCapacity ; i++){
-            this.objects[i] = modelObject.instantiate();
+    private int portionOfCapacity(float percentage){
+        int portionOfCapacity = (int) (capacity * percentage);
+
+        if(portionOfCapacity < 1){
+            portionOfCapacity = 1;
+        }else if(portionOfCapacity > capacity){
+            portionOfCapacity = capacity;
         }
-        objectsPointer = portionOfCapacity - 1;
+        return portionOfCapacity;
     }
 
     /**
@@ -110,15 +224,45 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
      *
      * @return An instance of Poolable object T
      */
-    public synchronized T get(){
+    @SuppressWarnings("unchecked")
+    public T get(){
+
+        T result = null;
+
+        if(this.threadLocalCacheSize > 0){
+            LocalCache cache = this.localCache.get();
+            if(cache.size > 0){
+                cache.size--;
+                result = (T) cache.objects[cache.size];
+                cache.objects[cache.size] = null;
+                cache.count.lazySet(cache.size);
+                cache.hits.lazySet(cache.hits.get() + 1);
+            }
+        }
 
-        if(this.objectsPointer == -1 && this.replenishPercentage > 0.0f){
-            this.refillPool();
+        if(result == null){
+            result = takeShared();
+            if(result != null){
+                this.sharedHits.incrementAndGet();
+                markTaken();
+            }
+        }
+
+        if(result == null){
+            this.misses.incrementAndGet();
+            markTaken();
+
+            // one new object for the caller, the rest of the replenished portion goes to the pool
+            result = (T) modelObject.instantiate();
+            if(this.replenishPercentage > 0.0f){
+                int portionOfCapacity = portionOfCapacity(this.replenishPercentage);
+                for(int i = 1 ; i < portionOfCapacity ; i++){
+                    putShared(modelObject.instantiate());
+                }
+            }
         }
 
-        T result = (T)objects[this.objectsPointer];
         result.currentOwnerId = Poolable.NO_OWNER;
-        this.objectsPointer--;
 
         return result;
     }
@@ -129,7 +273,39 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
      *
      * @param object An object of type T to recycle
      */
-    public synchronized void recycle(T object){
+    public void recycle(T object){
+        checkOwner(object);
+        object.currentOwnerId = this.poolId;
+
+        if(this.threadLocalCacheSize > 0){
+            LocalCache cache = this.localCache.get();
+            if(cache.size < cache.objects.length && cache.size < this.threadLocalCacheSize){
+                cache.objects[cache.size] = object;
+                cache.size++;
+                cache.count.lazySet(cache.size);
+                return;
+            }
+        }
+
+        putShared(object);
+        this.outstanding.decrementAndGet();
+    }
+
+    /**
+     * Recycle a List of Poolables that this pool is capable of generating.
+     * The T instances passed must not already exist inside this or any other ObjectPool instance.
+     *
+     * @param objects A list of objects of type T to recycle
+     */
+    public void recycle(List<T> objects){
+        final int objectsListSize = objects.size();
+
+        for(int i = 0 ; i < objectsListSize ; i++){
+            recycle(objects.get(i));
+        }
+    }
+
+    private void checkOwner(T object){
         if(object.currentOwnerId != Poolable.NO_OWNER){
             if(object.currentOwnerId == this.poolId){
                 throw new IllegalArgumentException("The object passed is already stored in this pool!");
@@ -137,53 +313,106 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
                 throw new IllegalArgumentException("The object to recycle already belongs to poolId " + object.currentOwnerId + ".  Object cannot belong to two different pool instances simultaneously!");
             }
         }
+    }
 
-        this.objectsPointer++;
-        if(this.objectsPointer >= objects.length){
-            this.resizePool();
+    private void markTaken(){
+        int taken = this.outstanding.incrementAndGet();
+        int mark = this.highWaterMark.get();
+        while(taken > mark && !this.highWaterMark.compareAndSet(mark, taken)){
+            mark = this.highWaterMark.get();
         }
+    }
 
-        object.currentOwnerId = this.poolId;
-        objects[this.objectsPointer] = object;
+    /**
+     * Takes an object out of the shared slots, starting at the top of the stack of filled
+     * slots.  Returns null if all slots are empty.
+     */
+    @SuppressWarnings("unchecked")
+    private T takeShared(){
+        final AtomicReferenceArray<Object>[] segments = this.segments;
+        final int capacity = capacityOf(segments);
+        final int start = Math.min(Math.max(this.count.get() - 1, 0), capacity - 1);
+
+        for(int n = 0 ; n < capacity ; n++){
+            int index = start - n;
+            if(index < 0){
+                index += capacity;
+            }
 
+            final AtomicReferenceArray<Object> segment = segments[segmentOf(index)];
+            final int offset = index - segmentStart(segmentOf(index));
+
+            Object object = segment.get(offset);
+            if(object != null && segment.compareAndSet(offset, object, null)){
+                this.count.decrementAndGet();
+                return (T) object;
+            }
+        }
+        return null;
     }
 
     /**
-     * Recycle a List of Poolables that this pool is capable of generating.
-     * The T instances passed must not already exist inside this or any other ObjectPool instance.
-     *
-     * @param objects A list of objects of type T to recycle
+     * Puts an object into the first empty shared slot above the stack of filled slots, grows
+     * the pool if all slots are filled.
      */
-    public synchronized void recycle(List<T> objects){
-        while(objects.size() + this.objectsPointer + 1 > this.desiredCapacity){
-            this.resizePool();
-        }
-        final int objectsListSize = objects.size();
+    private void putShared(Object object){
+        while(true){
+            final AtomicReferenceArray<Object>[] segments = this.segments;
+            final int capacity = capacityOf(segments);
+            final int start = Math.min(this.count.get(), capacity - 1);
+
+            for(int n = 0 ; n < capacity ; n++){
+                int index = start + n;
+                if(index >= capacity){
+                    index -= capacity;
+                }
 
-        // Not relying on recycle(T object) because this is more performant.
-        for(int i = 0 ; i < objectsListSize ; i++){
-            T object = objects.get(i);
-            if(object.currentOwnerId != Poolable.NO_OWNER){
-                if(object.currentOwnerId == this.poolId){
-                    throw new IllegalArgumentException("The object passed is already stored in this pool!");
-                }else {
-                    throw new IllegalArgumentException("The object to recycle already belongs to poolId " + object.currentOwnerId + ".  Object cannot belong to two different pool instances simultaneously!");
+                final AtomicReferenceArray<Object> segment = segments[segmentOf(index)];
+                final int offset = index - segmentStart(segmentOf(index));
+
+                if(segment.get(offset) == null && segment.compareAndSet(offset, null, object)){
+                    this.count.incrementAndGet();
+                    return;
                 }
             }
-            object.currentOwnerId = this.poolId;
-            this.objects[this.objectsPointer + 1 + i] = object;
+
+            resizePool(segments);
         }
-        this.objectsPointer += objectsListSize;
     }
 
-    private void resizePool() {
-        final int oldCapacity = this.desiredCapacity;
-        this.desiredCapacity *= 2;
-        Object[] temp = new Object[this.desiredCapacity];
-        for(int i = 0 ; i < oldCapacity ; i++){
-            temp[i] = this.objects[i];
+    /**
+     * Doubles the capacity, unless another thread already did since the given segments were read.
+     */
+    @SuppressWarnings("unchecked")
+    private void resizePool(AtomicReferenceArray<Object>[] seen) {
+        synchronized (this.growLock){
+            if(this.segments != seen){
+                return;
+            }
+            final int oldCapacity = this.capacity;
+            AtomicReferenceArray<Object>[] temp = new AtomicReferenceArray[seen.length + 1];
+            System.arraycopy(seen, 0, temp, 0, seen.length);
+            temp[seen.length] = new AtomicReferenceArray<Object>(oldCapacity);
+            this.capacity = oldCapacity * 2;
+            this.segments = temp;
         }
-        this.objects = temp;
+    }
+
+    private int capacityOf(AtomicReferenceArray<Object>[] segments){
+        return this.initialCapacity << (segments.length - 1);
+    }
+
+    /**
+     * Returns the segment of the slot with the given index.  Segment k > 0 starts at
+     * initialCapacity * 2^(k - 1).
+     */
+    private int segmentOf(int index){
+        final int quotient = index / this.initialCapacity;
+        return quotient == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(quotient);
+    }
+
+    private int segmentStart(int segment){
+        return segment == 0 ? 0 : this.initialCapacity << (segment - 1);
     }
 
     /**
@@ -194,16 +423,62 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
      * @return The capacity of the pool.
      */
     public int getPoolCapacity(){
-        return this.objects.length;
+        return this.capacity;
     }
 
     /**
-     * Returns the number of objects remaining in the pool, for diagnostic purposes.
+     * Returns the number of objects remaining in the pool, for diagnostic purposes.  Includes
+     * the objects kept by the thread local caches.
      *
      * @return The number of objects remaining in the pool.
      */
     public int getPoolCount(){
-        return this.objectsPointer + 1;
+        int result = this.count.get();
+        for(WeakReference<LocalCache> reference : this.localCaches){
+            LocalCache cache = reference.get();
+            if(cache != null){
+                result += cache.count.get();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of get() calls that were served with a recycled object, for sizing
+     * the pool.
+     *
+     * @return
+     */
+    public long getHitCount(){
+        long result = this.sharedHits.get();
+        for(WeakReference<LocalCache> reference : this.localCaches){
+            LocalCache cache = reference.get();
+            if(cache != null){
+                result += cache.hits.get();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of get() calls that found the pool empty and had to instantiate a new
+     * object, for sizing the pool.
+     *
+     * @return
+     */
+    public long getMissCount(){
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the largest number of objects that were out of the shared slots at the same time,
+     * in use or kept by the thread local caches.  A capacity of at least this size avoids
+     * replenishing the pool.
+     *
+     * @return
+     */
+    public int getHighWaterMark(){
+        return this.highWaterMark.get();
     }
 
 
@@ -215,4 +490,4 @@ public class ObjectPool<T extends ObjectPool.Poolable> {
         protected abstract Poolable instantiate();
 
     }
-}
\ No newline at end of file
+}
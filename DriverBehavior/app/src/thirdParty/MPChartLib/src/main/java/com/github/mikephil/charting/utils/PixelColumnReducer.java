@@ -0,0 +1,136 @@
+package com.github.mikephil.charting.utils;
+
+import java.util.Arrays;
+
+/**
+ * Turns a polyline given in pixel coordinates into line segments, merging all points that fall
+ * into the same pixel column. Per column only the connection from the previous column and a
+ * vertical min / max segment are emitted, so the number of segments is at most twice the
+ * number of covered columns, no matter how many points are added. The result looks the same
+ * as drawing every segment, since all points of a column lie within that vertical segment.
+ * <p/>
+ * Usage: reset(), add(...) the points in x order (as often as needed), finish(), then draw
+ * getSegments() up to getSegmentFloatCount() with Canvas.drawLines(...).
+ */
+public class PixelColumnReducer {
+
+    /**
+     * the emitted segments, 4 floats (x0, y0, x1, y1) per segment
+     */
+    private float[] mSegments = new float[256];
+
+    private int mSegmentFloatCount = 0;
+
+    private boolean mHasColumn;
+    private boolean mHasPrevious;
+
+    private int mColumn;
+
+    private float mFirstX, mFirstY;
+    private float mLastX, mLastY;
+    private float mMinY, mMaxY;
+
+    private float mPreviousX, mPreviousY;
+
+    /**
+     * Starts a new polyline.
+     */
+    public void reset() {
+        mSegmentFloatCount = 0;
+        mHasColumn = false;
+        mHasPrevious = false;
+    }
+
+    /**
+     * Adds points to the polyline.
+     *
+     * @param pixels interleaved x and y pixel coordinates, ordered by x
+     * @param count  the number of points to take from the array
+     */
+    public void add(float[] pixels, int count) {
+
+        for (int i = 0; i < count; i++) {
+
+            final float x = pixels[i * 2];
+            final float y = pixels[i * 2 + 1];
+            final int column = (int) Math.floor(x);
+
+            if (mHasColumn && column == mColumn) {
+
+                mLastX = x;
+                mLastY = y;
+
+                if (y < mMinY)
+                    mMinY = y;
+
+                if (y > mMaxY)
+                    mMaxY = y;
+
+            } else {
+
+                if (mHasColumn)
+                    closeColumn();
+
+                mHasColumn = true;
+                mColumn = column;
+                mFirstX = mLastX = x;
+                mFirstY = mLastY = mMinY = mMaxY = y;
+            }
+        }
+    }
+
+    /**
+     * Emits the segments of the last pixel column.
+     */
+    public void finish() {
+
+        if (mHasColumn)
+            closeColumn();
+
+        mHasColumn = false;
+    }
+
+    /**
+     * Returns the emitted segments, only the first getSegmentFloatCount() values are valid.
+     *
+     * @return
+     */
+    public float[] getSegments() {
+        return mSegments;
+    }
+
+    /**
+     * Returns the number of valid floats in getSegments(), 4 per segment.
+     *
+     * @return
+     */
+    public int getSegmentFloatCount() {
+        return mSegmentFloatCount;
+    }
+
+    private void closeColumn() {
+
+        // connection from the last point of the previous column
+        if (mHasPrevious)
+            addSegment(mPreviousX, mPreviousY, mFirstX, mFirstY);
+
+        // everything inside the column collapses to one vertical line
+        if (mMinY != mMaxY)
+            addSegment(mFirstX, mMinY, mFirstX, mMaxY);
+
+        mPreviousX = mLastX;
+        mPreviousY = mLastY;
+        mHasPrevious = true;
+    }
+
+    private void addSegment(float x0, float y0, float x1, float y1) {
+
+        if (mSegmentFloatCount + 4 > mSegments.length)
+            mSegments = Arrays.copyOf(mSegments, mSegments.length * 2);
+
+        mSegments[mSegmentFloatCount++] = x0;
+        mSegments[mSegmentFloatCount++] = y0;
+        mSegments[mSegmentFloatCount++] = x1;
+        mSegments[mSegmentFloatCount++] = y1;
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.mikephil.charting.utils;
+
+/**
+ * Lowest min / highest max of a sequence of [min, max] value pairs where values are added at
+ * the end and removed from the front, like the entries of a DataSet with a limited capacity.
+ * Two monotonic queues make add, removeFirst and the min / max queries amortized O(1).
+ * <p/>
+ * NaN values take a place in the sequence but do not contribute to min / max.
+ */
+public class SlidingMinMax {
+
+    /**
+     * sequence number of the first element, elements are numbered in the order they are added
+     */
+    private int mFirst = 0;
+
+    /**
+     * sequence number the next added element gets
+     */
+    private int mNext = 0;
+
+    private final MonotonicQueue mMinQueue = new MonotonicQueue(true);
+    private final MonotonicQueue mMaxQueue = new MonotonicQueue(false);
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        mFirst = mNext = 0;
+        mMinQueue.clear();
+        mMaxQueue.clear();
+    }
+
+    /**
+     * Returns the number of value pairs in the window.
+     *
+     * @return
+     */
+    public int size() {
+        return mNext - mFirst;
+    }
+
+    /**
+     * Appends a value pair to the end of the window.
+     *
+     * @param min the lowest value the element contributes
+     * @param max the highest value the element contributes
+     */
+    public void add(float min, float max) {
+
+        if (!Float.isNaN(min))
+            mMinQueue.add(mNext, min);
+
+        if (!Float.isNaN(max))
+            mMaxQueue.add(mNext, max);
+
+        mNext++;
+    }
+
+    /**
+     * Removes the first value pair of the window.
+     */
+    public void removeFirst() {
+
+        if (mNext == mFirst)
+            return;
+
+        mMinQueue.removeUpTo(mFirst);
+        mMaxQueue.removeUpTo(mFirst);
+        mFirst++;
+    }
+
+    /**
+     * Returns the lowest min value in the window, Float.MAX_VALUE if there is none.
+     *
+     * @return
+     */
+    public float getMin() {
+        return mMinQueue.isEmpty() ? Float.MAX_VALUE : mMinQueue.peekFirst();
+    }
+
+    /**
+     * Returns the highest max value in the window, -Float.MAX_VALUE if there is none.
+     *
+     * @return
+     */
+    public float getMax() {
+        return mMaxQueue.isEmpty() ? -Float.MAX_VALUE : mMaxQueue.peekFirst();
+    }
+
+    /**
+     * Deque of (sequence number, value) pairs in a growing circular array. The values are kept
+     * increasing (min queue) or decreasing (max queue) from front to back, so the front holds
+     * the extreme of the window.
+     */
+    private static final class MonotonicQueue {
+
+        private final boolean mAscending;
+
+        private int[] mSequence = new int[16];
+        private float[] mValues = new float[16];
+
+        private int mHead = 0;
+        private int mSize = 0;
+
+        MonotonicQueue(boolean ascending) {
+            mAscending = ascending;
+        }
+
+        void clear() {
+            mHead = 0;
+            mSize = 0;
+        }
+
+        boolean isEmpty() {
+            return mSize == 0;
+        }
+
+        float peekFirst() {
+            return mValues[mHead];
+        }
+
+        void add(int sequence, float value) {
+
+            // drop the values at the back that can no longer be the extreme
+            while (mSize > 0) {
+                float last = mValues[position(mSize - 1)];
+
+                if (mAscending ? last < value : last > value)
+                    break;
+
+                mSize--;
+            }
+
+            if (mSize == mValues.length)
+                grow();
+
+            int position = position(mSize);
+            mSequence[position] = sequence;
+            mValues[position] = value;
+            mSize++;
+        }
+
+        /**
+         * Removes the front element if its sequence number is not after the given one.
+         *
+         * @param sequence
+         */
+        void removeUpTo(int sequence) {
+
+            // compared by difference, so the sequence numbers may overflow
+            if (mSize > 0 && mSequence[mHead] - sequence <= 0) {
+                mHead = position(1);
+                mSize--;
+            }
+        }
+
+        private int position(int index) {
+            int position = mHead + index;
+            return position < mValues.length ? position : position - mValues.length;
+        }
+
+        private void grow() {
+
+            int[] sequence = new int[mValues.length * 2];
+            float[] values = new float[mValues.length * 2];
+
+            for (int i = 0; i < mSize; i++) {
+                sequence[i] = mSequence[position(i)];
+                values[i] = mValues[position(i)];
+            }
+
+            mSequence = sequence;
+            mValues = values;
+            mHead = 0;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.github.mikephil.charting.utils;
+
+/**
+ * Uniform grid over the (x, y) values of a DataSet that answers "closest entry to a point,
+ * measured in pixels" without scanning all entries and without allocating.
+ *
+ * The grid is built in value space, so it does not change when the chart is zoomed or
+ * scrolled. The value to pixel scale is passed to each query instead, which is exact for the
+ * scale / translate transformations of the bar-line charts. The cells are searched in rings
+ * around the cell of the point, nearest first, until no closer entry can be found.
+ *
+ * Values are added with add(...) and become searchable after build(). Both reuse the
+ * allocated memory, so rebuilding the index for a DataSet of the same size does not allocate.
+ */
+public class SpatialGridIndex {
+
+    /**
+     * the target number of values per cell
+     */
+    private static final int VALUES_PER_CELL = 2;
+
+    /**
+     * the values, in the order they were added
+     */
+    private float[] mX;
+    private float[] mY;
+
+    /**
+     * number of values added so far
+     */
+    private int mSize = 0;
+
+    /**
+     * bounds of the grid, in value space
+     */
+    private float mMinX;
+    private float mMinY;
+    private float mCellWidth;
+    private float mCellHeight;
+
+    private int mColumns = 0;
+    private int mRows = 0;
+
+    /**
+     * start of the values of cell c in mCellValues, the values of cell c end at mCellStart[c + 1]
+     */
+    private int[] mCellStart = new int[1];
+
+    /**
+     * indices of the values, grouped by cell (row by row)
+     */
+    private int[] mCellValues;
+
+    /**
+     * pixel distance of the value found by the last findNearest(...) call
+     */
+    private float mLastDistance = Float.NaN;
+
+    public SpatialGridIndex(int capacity) {
+        capacity = Math.max(capacity, 16);
+        mX = new float[capacity];
+        mY = new float[capacity];
+        mCellValues = new int[capacity];
+    }
+
+    /**
+     * Removes all values, keeps the allocated memory.
+     */
+    public void clear() {
+        mSize = 0;
+        mColumns = 0;
+        mRows = 0;
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Adds a value. Its index is the number of values added before it. Values that are not
+     * finite are kept for the indices, but are never found. Nothing is found until the next
+     * build().
+     *
+     * @param x
+     * @param y
+     */
+    public void add(float x, float y) {
+
+        if (mSize == mX.length) {
+            int capacity = mX.length * 2;
+            mX = copyOf(mX, capacity);
+            mY = copyOf(mY, capacity);
+            mCellValues = new int[capacity];
+        }
+
+        mX[mSize] = x;
+        mY[mSize] = y;
+        mSize++;
+
+        mColumns = 0;
+        mRows = 0;
+    }
+
+    /**
+     * Sorts the values added so far into the cells of the grid.
+     */
+    public void build() {
+
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        int count = 0;
+
+        for (int i = 0; i < mSize; i++) {
+
+            final float x = mX[i];
+            final float y = mY[i];
+
+            if (!isFinite(x) || !isFinite(y))
+                continue;
+
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+            count++;
+        }
+
+        if (count == 0) {
+            mColumns = 0;
+            mRows = 0;
+            return;
+        }
+
+        int side = Math.max((int) Math.ceil(Math.sqrt(count / (double) VALUES_PER_CELL)), 1);
+        mColumns = side;
+        mRows = side;
+        mMinX = minX;
+        mMinY = minY;
+        mCellWidth = maxX > minX ? (maxX - minX) / side : 1f;
+        mCellHeight = maxY > minY ? (maxY - minY) / side : 1f;
+
+        int cells = mColumns * mRows;
+        if (mCellStart.length < cells + 1)
+            mCellStart = new int[cells + 1];
+
+        // counting sort of the value indices by cell
+        for (int c = 0; c <= cells; c++)
+            mCellStart[c] = 0;
+
+        for (int i = 0; i < mSize; i++) {
+
+            final int cell = cellOf(mX[i], mY[i]);
+            if (cell >= 0)
+                mCellStart[cell + 1]++;
+        }
+
+        for (int c = 0; c < cells; c++)
+            mCellStart[c + 1] += mCellStart[c];
+
+        // mCellStart[c] is used as the insert position of cell c and ends up at the start of c + 1
+        for (int i = 0; i < mSize; i++) {
+
+            final int cell = cellOf(mX[i], mY[i]);
+            if (cell >= 0)
+                mCellValues[mCellStart[cell]++] = i;
+        }
+
+        for (int c = cells; c > 0; c--)
+            mCellStart[c] = mCellStart[c - 1];
+
+        mCellStart[0] = 0;
+    }
+
+    /**
+     * Returns the index of the value closest to the given point, or -1 if there is no value
+     * closer than maxDistance. The distance is measured in pixels: a difference of 1 in x is
+     * scaleX pixels, a difference of 1 in y is scaleY pixels. Of values at the same distance,
+     * the one added first is returned.
+     *
+     * @param x           x-value of the point
+     * @param y           y-value of the point
+     * @param scaleX      pixels per x-value
+     * @param scaleY      pixels per y-value
+     * @param maxDistance the maximum distance in pixels, exclusive
+     * @return
+     */
+    public int findNearest(float x, float y, float scaleX, float scaleY, float maxDistance) {
+
+        mLastDistance = Float.NaN;
+
+        if (mColumns == 0 || !isFinite(x) || !isFinite(y) || !(maxDistance > 0f))
+            return -1;
+
+        scaleX = Math.abs(scaleX);
+        scaleY = Math.abs(scaleY);
+
+        // the cell of the point, and the cells that can hold a value closer than maxDistance
+        final int column = clamp(columnOf(x), 0, mColumns - 1);
+        final int row = clamp(rowOf(y), 0, mRows - 1);
+
+        final int fromColumn = scaleX > 0f ? clamp(columnOf(x - maxDistance / scaleX), 0, mColumns - 1) : 0;
+        final int toColumn = scaleX > 0f ? clamp(columnOf(x + maxDistance / scaleX), 0, mColumns - 1) : mColumns - 1;
+        final int fromRow = scaleY > 0f ? clamp(rowOf(y - maxDistance / scaleY), 0, mRows - 1) : 0;
+        final int toRow = scaleY > 0f ? clamp(rowOf(y + maxDistance / scaleY), 0, mRows - 1) : mRows - 1;
+
+        final int maxRing = Math.max(Math.max(column - fromColumn, toColumn - column),
+                Math.max(row - fromRow, toRow - row));
+
+        // any cell of ring r is at least r - 1 whole cells away from the point
+        final float ringDistance = Math.min(mCellWidth * scaleX, mCellHeight * scaleY);
+
+        float bestSquared = maxDistance * maxDistance;
+        int best = -1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+
+            final float bound = (ring - 1) * ringDistance;
+            if (ring > 1 && bound * bound > bestSquared)
+                break;
+
+            final int r0 = Math.max(row - ring, fromRow);
+            final int r1 = Math.min(row + ring, toRow);
+
+            for (int r = r0; r <= r1; r++) {
+
+                // inner rows of the ring only have the two side cells
+                final boolean edge = r == row - ring || r == row + ring;
+                final int step = edge ? 1 : Math.max(2 * ring, 1);
+
+                for (int c = column - ring; c <= column + ring; c += step) {
+
+                    if (c < fromColumn || c > toColumn)
+                        continue;
+
+                    final int cell = r * mColumns + c;
+
+                    for (int k = mCellStart[cell], end = mCellStart[cell + 1]; k < end; k++) {
+
+                        final int i = mCellValues[k];
+                        final float dx = (mX[i] - x) * scaleX;
+                        final float dy = (mY[i] - y) * scaleY;
+                        final float squared = dx * dx + dy * dy;
+
+                        if (squared < bestSquared || (squared == bestSquared && best >= 0 && i < best)) {
+                            bestSquared = squared;
+                            best = i;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (best >= 0)
+            mLastDistance = (float) Math.sqrt(bestSquared);
+
+        return best;
+    }
+
+    /**
+     * Returns the distance in pixels of the value found by the last findNearest(...) call, NaN
+     * if none was found.
+     *
+     * @return
+     */
+    public float getLastDistance() {
+        return mLastDistance;
+    }
+
+    private int cellOf(float x, float y) {
+
+        if (!isFinite(x) || !isFinite(y))
+            return -1;
+
+        return clamp(rowOf(y), 0, mRows - 1) * mColumns + clamp(columnOf(x), 0, mColumns - 1);
+    }
+
+    private int columnOf(float x) {
+        return (int) Math.max(Math.min(Math.floor((x - mMinX) / mCellWidth), Integer.MAX_VALUE / 2), Integer.MIN_VALUE / 2);
+    }
+
+    private int rowOf(float y) {
+        return (int) Math.max(Math.min(Math.floor((y - mMinY) / mCellHeight), Integer.MAX_VALUE / 2), Integer.MIN_VALUE / 2);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    private static boolean isFinite(float value) {
+        return !Float.isNaN(value) && !Float.isInfinite(value);
+    }
+
+    private static float[] copyOf(float[] values, int capacity) {
+        float[] copy = new float[capacity];
+        System.arraycopy(values, 0, copy, 0, values.length);
+        return copy;
+    }
+}
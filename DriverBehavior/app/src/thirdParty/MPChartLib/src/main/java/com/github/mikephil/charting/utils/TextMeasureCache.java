@@ -0,0 +1,210 @@
+package com.github.mikephil.charting.utils;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded cache of text measurements, keyed by the text and everything of the Paint that changes
+ * the size of the text (size, typeface, scale, skew, flags, letter spacing, locale and font
+ * features). Axis and legend labels are measured on every layout pass, mostly with the same
+ * texts and paints, so measuring each of them once saves the calls into the text layout engine.
+ *
+ * When full, the least recently used measurement is dropped. Thread safe.
+ */
+public class TextMeasureCache {
+
+    /**
+     * the measurements of a text
+     */
+    public static final class Measurement {
+
+        /**
+         * the advance width, as returned by Paint.measureText(...)
+         */
+        public final float width;
+
+        /**
+         * the size of the bounds, as returned by Paint.getTextBounds(...)
+         */
+        public final int boundsWidth;
+        public final int boundsHeight;
+
+        public Measurement(float width, int boundsWidth, int boundsHeight) {
+            this.width = width;
+            this.boundsWidth = boundsWidth;
+            this.boundsHeight = boundsHeight;
+        }
+    }
+
+    /**
+     * the text and the fingerprint of the paint it was measured with
+     */
+    private static final class Key {
+
+        private String mText;
+        private float mTextSize;
+        private Typeface mTypeface;
+        private float mTextScaleX;
+        private float mTextSkewX;
+        private int mFlags;
+        private float mLetterSpacing;
+        private Locale mLocale;
+        private String mFontFeatures;
+        private int mHash;
+
+        public void set(String text, float textSize, Typeface typeface, float textScaleX, float textSkewX,
+                        int flags, float letterSpacing, Locale locale, String fontFeatures) {
+            mText = text;
+            mTextSize = textSize;
+            mTypeface = typeface;
+            mTextScaleX = textScaleX;
+            mTextSkewX = textSkewX;
+            mFlags = flags;
+            mLetterSpacing = letterSpacing;
+            mLocale = locale;
+            mFontFeatures = fontFeatures;
+
+            int hash = text.hashCode();
+            hash = 31 * hash + Float.floatToIntBits(textSize);
+            hash = 31 * hash + (typeface != null ? typeface.hashCode() : 0);
+            hash = 31 * hash + Float.floatToIntBits(textScaleX);
+            hash = 31 * hash + Float.floatToIntBits(textSkewX);
+            hash = 31 * hash + flags;
+            hash = 31 * hash + Float.floatToIntBits(letterSpacing);
+            hash = 31 * hash + (locale != null ? locale.hashCode() : 0);
+            hash = 31 * hash + (fontFeatures != null ? fontFeatures.hashCode() : 0);
+            mHash = hash;
+        }
+
+        public Key copy() {
+            Key key = new Key();
+            key.set(mText, mTextSize, mTypeface, mTextScaleX, mTextSkewX, mFlags, mLetterSpacing, mLocale,
+                    mFontFeatures);
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o)
+                return true;
+
+            if (!(o instanceof Key))
+                return false;
+
+            Key other = (Key) o;
+
+            return mHash == other.mHash
+                    && mText.equals(other.mText)
+                    && Float.floatToIntBits(mTextSize) == Float.floatToIntBits(other.mTextSize)
+                    && mTypeface == other.mTypeface
+                    && Float.floatToIntBits(mTextScaleX) == Float.floatToIntBits(other.mTextScaleX)
+                    && Float.floatToIntBits(mTextSkewX) == Float.floatToIntBits(other.mTextSkewX)
+                    && mFlags == other.mFlags
+                    && Float.floatToIntBits(mLetterSpacing) == Float.floatToIntBits(other.mLetterSpacing)
+                    && (mLocale == null ? other.mLocale == null : mLocale.equals(other.mLocale))
+                    && (mFontFeatures == null ? other.mFontFeatures == null : mFontFeatures.equals(other.mFontFeatures));
+        }
+    }
+
+    private final int mMaxSize;
+
+    private final LinkedHashMap<Key, Measurement> mMeasurements;
+
+    /**
+     * reused to look up a text without allocating, only copied when a measurement is added
+     */
+    private final Key mLookupKey = new Key();
+
+    private final Rect mBoundsBuffer = new Rect();
+
+    private int mHitCount = 0;
+    private int mMissCount = 0;
+
+    public TextMeasureCache(final int maxSize) {
+        mMaxSize = Math.max(maxSize, 1);
+        mMeasurements = new LinkedHashMap<Key, Measurement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Measurement> eldest) {
+                return size() > mMaxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the measurements of the text drawn with the given paint, measures the text if it is
+     * not in the cache yet.
+     *
+     * @param paint
+     * @param text
+     * @return
+     */
+    public synchronized Measurement measure(Paint paint, String text) {
+
+        mLookupKey.set(text, paint.getTextSize(), paint.getTypeface(), paint.getTextScaleX(),
+                paint.getTextSkewX(), paint.getFlags(), paint.getLetterSpacing(), paint.getTextLocale(),
+                paint.getFontFeatureSettings());
+
+        Measurement measurement = mMeasurements.get(mLookupKey);
+
+        if (measurement != null) {
+            mHitCount++;
+            return measurement;
+        }
+
+        mMissCount++;
+
+        Rect r = mBoundsBuffer;
+        r.set(0, 0, 0, 0);
+        paint.getTextBounds(text, 0, text.length(), r);
+
+        measurement = new Measurement(paint.measureText(text), r.width(), r.height());
+        mMeasurements.put(mLookupKey.copy(), measurement);
+
+        return measurement;
+    }
+
+    /**
+     * Removes all measurements, e.g. after the fonts changed.
+     */
+    public synchronized void clear() {
+        mMeasurements.clear();
+    }
+
+    /**
+     * Returns the number of cached measurements.
+     *
+     * @return
+     */
+    public synchronized int size() {
+        return mMeasurements.size();
+    }
+
+    /**
+     * Returns the number of measure(...) calls answered from the cache.
+     *
+     * @return
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of measure(...) calls that had to measure the text.
+     *
+     * @return
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+}
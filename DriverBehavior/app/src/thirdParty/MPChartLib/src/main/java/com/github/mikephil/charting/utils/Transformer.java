@@ -6,6 +6,7 @@ import android.graphics.Path;
 import android.graphics.RectF;
 
 import com.github.mikephil.charting.data.CandleEntry;
+import com.github.mikephil.charting.data.ColumnarLineDataSet;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.interfaces.datasets.IBubbleDataSet;
 import com.github.mikephil.charting.interfaces.datasets.ICandleDataSet;
@@ -63,6 +64,8 @@ public class Transformer {
         mMatrixValueToPx.reset();
         mMatrixValueToPx.postTranslate(-xChartMin, -yChartMin);
         mMatrixValueToPx.postScale(scaleX, -scaleY);
+
+        invalidateValueToPixelAffine();
     }
 
     /**
@@ -84,6 +87,8 @@ public class Transformer {
                     .setTranslate(mViewPortHandler.offsetLeft(), -mViewPortHandler.offsetTop());
             mMatrixOffset.postScale(1.0f, -1.0f);
         }
+
+        invalidateValueToPixelAffine();
     }
 
     protected float[] valuePointsForGenerateTransformedValuesScatter = new float[1];
@@ -118,7 +123,7 @@ public class Transformer {
             }
         }
 
-        getValueToPixelMatrix().mapPoints(valuePoints);
+        mapPoints(getValueToPixelAffine(), valuePoints, 0, count / 2);
 
         return valuePoints;
     }
@@ -154,7 +159,7 @@ public class Transformer {
             }
         }
 
-        getValueToPixelMatrix().mapPoints(valuePoints);
+        mapPoints(getValueToPixelAffine(), valuePoints, 0, count / 2);
 
         return valuePoints;
     }
@@ -179,6 +184,13 @@ public class Transformer {
         }
         float[] valuePoints = valuePointsForGenerateTransformedValuesLine;
 
+        if (data instanceof ColumnarLineDataSet) {
+            ColumnarLineDataSet columnar = (ColumnarLineDataSet) data;
+            mapColumns(getValueToPixelAffine(), columnar.getXValues(), columnar.getYValues(),
+                    columnar.getValuesOffset() + min, count / 2, phaseY, valuePoints);
+            return valuePoints;
+        }
+
         for (int j = 0; j < count; j += 2) {
 
             Entry e = data.getEntryForIndex(j / 2 + min);
@@ -192,7 +204,7 @@ public class Transformer {
             }
         }
 
-        getValueToPixelMatrix().mapPoints(valuePoints);
+        mapPoints(getValueToPixelAffine(), valuePoints, 0, count / 2);
 
         return valuePoints;
     }
@@ -229,7 +241,7 @@ public class Transformer {
             }
         }
 
-        getValueToPixelMatrix().mapPoints(valuePoints);
+        mapPoints(getValueToPixelAffine(), valuePoints, 0, count / 2);
 
         return valuePoints;
     }
@@ -267,9 +279,19 @@ public class Transformer {
      */
     public void pointValuesToPixel(float[] pts) {
 
-        mMatrixValueToPx.mapPoints(pts);
-        mViewPortHandler.getMatrixTouch().mapPoints(pts);
-        mMatrixOffset.mapPoints(pts);
+        mapPoints(getValueToPixelAffine(), pts, 0, pts.length / 2);
+    }
+
+    /**
+     * Transforms the first pointCount points (x,y pairs) of the array with all matrices, the
+     * rest of the array is left as it is.
+     *
+     * @param pts
+     * @param pointCount
+     */
+    public void pointValuesToPixel(float[] pts, int pointCount) {
+
+        mapPoints(getValueToPixelAffine(), pts, 0, pointCount);
     }
 
     /**
@@ -433,6 +455,123 @@ public class Transformer {
         return MPPointD.getInstance(xPx, yPx);
     }
 
+    /**
+     * Copies the value and offset matrices of another Transformer. The ViewPortHandler of this
+     * Transformer is kept.
+     *
+     * @param other
+     */
+    public void set(Transformer other) {
+        mMatrixValueToPx.set(other.mMatrixValueToPx);
+        mMatrixOffset.set(other.mMatrixOffset);
+
+        invalidateValueToPixelAffine();
+    }
+
+    private float[] mMatrixValuesBuffer = new float[9];
+
+    protected float[] mValueToPixelAffine = new float[6];
+
+    /**
+     * true if mValueToPixelAffine matches the value and offset matrices
+     */
+    private boolean mValueToPixelAffineValid = false;
+
+    /**
+     * touch matrix version of the ViewPortHandler mValueToPixelAffine was computed with
+     */
+    private int mValueToPixelAffineTouchVersion;
+
+    /**
+     * Returns the value, touch and offset matrices combined into one affine transformation,
+     * as {scaleX, skewX, translateX, skewY, scaleY, translateY}. Pass it to mapPoints(...) or
+     * mapColumns(...) to transform many values with a single pass over the array.
+     * <p/>
+     * The coefficients are computed once and kept until the value or offset matrix is prepared
+     * again or the touch matrix of the ViewPortHandler changes, so all DataSets of a frame share
+     * them. The returned array is reused, it should not be changed.
+     *
+     * @return
+     */
+    public float[] getValueToPixelAffine() {
+
+        final int touchVersion = mViewPortHandler.getMatrixTouchVersion();
+
+        if (!mValueToPixelAffineValid || touchVersion != mValueToPixelAffineTouchVersion) {
+
+            getValueToPixelMatrix().getValues(mMatrixValuesBuffer);
+            System.arraycopy(mMatrixValuesBuffer, 0, mValueToPixelAffine, 0, 6);
+
+            mValueToPixelAffineValid = true;
+            mValueToPixelAffineTouchVersion = touchVersion;
+        }
+
+        return mValueToPixelAffine;
+    }
+
+    /**
+     * Makes getValueToPixelAffine() compute the coefficients again. Needed after the matrices
+     * returned by getValueMatrix() or getOffsetMatrix() were changed directly.
+     */
+    public void invalidateValueToPixelAffine() {
+        mValueToPixelAffineValid = false;
+    }
+
+    /**
+     * Transforms pointCount points (x,y pairs) of the array in place with the given affine
+     * transformation, starting at the given offset.
+     *
+     * @param affine     {scaleX, skewX, translateX, skewY, scaleY, translateY}
+     * @param pts
+     * @param offset     index of the x-value of the first point
+     * @param pointCount
+     */
+    public static void mapPoints(float[] affine, float[] pts, int offset, int pointCount) {
+
+        final float sx = affine[0], kx = affine[1], tx = affine[2];
+        final float ky = affine[3], sy = affine[4], ty = affine[5];
+
+        final int end = offset + pointCount * 2;
+
+        for (int j = offset; j < end; j += 2) {
+
+            final float x = pts[j];
+            final float y = pts[j + 1];
+
+            pts[j] = sx * x + kx * y + tx;
+            pts[j + 1] = ky * x + sy * y + ty;
+        }
+    }
+
+    /**
+     * Transforms count values of the given x- and y-columns with the given affine
+     * transformation, and writes them as x,y pairs to the start of the output array. The
+     * y-values are multiplied with phaseY first.
+     *
+     * @param affine  {scaleX, skewX, translateX, skewY, scaleY, translateY}
+     * @param xValues
+     * @param yValues
+     * @param from    index of the first value to transform
+     * @param count   the number of values to transform
+     * @param phaseY
+     * @param output  must hold at least count * 2 floats
+     */
+    public static void mapColumns(float[] affine, float[] xValues, float[] yValues, int from, int count,
+                                  float phaseY, float[] output) {
+
+        final float sx = affine[0], kx = affine[1], tx = affine[2];
+        final float ky = affine[3], sy = affine[4], ty = affine[5];
+
+        for (int i = 0, j = 0; i < count; i++, j += 2) {
+
+            final float x = xValues[from + i];
+            final float y = yValues[from + i] * phaseY;
+
+            output[j] = sx * x + kx * y + tx;
+            output[j + 1] = ky * x + sy * y + ty;
+        }
+    }
+
     public Matrix getValueMatrix() {
         return mMatrixValueToPx;
     }
@@ -136,6 +136,21 @@ public abstract class Utils {
         return px / mMetrics.density;
     }
 
+    /**
+     * measurements of the label texts, shared by all charts
+     */
+    private static final TextMeasureCache mTextMeasureCache = new TextMeasureCache(512);
+
+    /**
+     * Returns the cache calcTextWidth(...), calcTextHeight(...) and calcTextSize(...) measure
+     * with. Clear it if the fonts change in a way the paints do not reflect.
+     *
+     * @return
+     */
+    public static TextMeasureCache getTextMeasureCache() {
+        return mTextMeasureCache;
+    }
+
     /**
      * calculates the approximate width of a text, depending on a demo text
      * avoid repeated calls (e.g. inside drawing methods)
@@ -145,10 +160,9 @@ public abstract class Utils {
      * @return
      */
     public static int calcTextWidth(Paint paint, String demoText) {
-        return (int) paint.measureText(demoText);
+        return (int) mTextMeasureCache.measure(paint, demoText).width;
     }
 
-    private static Rect mCalcTextHeightRect = new Rect();
     /**
      * calculates the approximate height of a text, depending on a demo text
      * avoid repeated calls (e.g. inside drawing methods)
@@ -158,11 +172,7 @@ public abstract class Utils {
      * @return
      */
     public static int calcTextHeight(Paint paint, String demoText) {
-
-        Rect r = mCalcTextHeightRect;
-        r.set(0,0,0,0);
-        paint.getTextBounds(demoText, 0, demoText.length(), r);
-        return r.height();
+        return mTextMeasureCache.measure(paint, demoText).boundsHeight;
     }
 
     private static Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
@@ -201,7 +211,6 @@ public abstract class Utils {
         return result;
     }
 
-    private static Rect mCalcTextSizeRect = new Rect();
     /**
      * calculates the approximate size of a text, depending on a demo text
      * avoid repeated calls (e.g. inside drawing methods)
@@ -212,12 +221,9 @@ public abstract class Utils {
      */
     public static void calcTextSize(Paint paint, String demoText, FSize outputFSize) {
 
-        Rect r = mCalcTextSizeRect;
-        r.set(0,0,0,0);
-        paint.getTextBounds(demoText, 0, demoText.length(), r);
-        outputFSize.width = r.width();
-        outputFSize.height = r.height();
-
+        TextMeasureCache.Measurement m = mTextMeasureCache.measure(paint, demoText);
+        outputFSize.width = m.boundsWidth;
+        outputFSize.height = m.boundsHeight;
     }
 
 
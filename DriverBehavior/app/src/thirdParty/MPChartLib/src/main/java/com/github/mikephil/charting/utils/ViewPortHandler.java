@@ -18,6 +18,11 @@ public class ViewPortHandler {
      */
     protected final Matrix mMatrixTouch = new Matrix();
 
+    /**
+     * changed whenever the touch matrix is changed through this ViewPortHandler
+     */
+    protected int mMatrixTouchVersion = 0;
+
     /**
      * this rectangle defines the area in which graph values can be drawn
      */
@@ -103,6 +108,28 @@ public class ViewPortHandler {
         restrainViewPort(offsetLeft, offsetTop, offsetRight, offsetBottom);
     }
 
+    /**
+     * Copies the dimensions, the content rect and the touch matrix of another ViewPortHandler,
+     * as they are, without limiting them again. The limits themselves are not copied.
+     *
+     * @param other
+     */
+    public void set(ViewPortHandler other) {
+
+        mChartWidth = other.mChartWidth;
+        mChartHeight = other.mChartHeight;
+        mContentRect.set(other.mContentRect);
+        mMatrixTouch.set(other.mMatrixTouch);
+        mMatrixTouchVersion++;
+
+        mScaleX = other.mScaleX;
+        mScaleY = other.mScaleY;
+        mTransX = other.mTransX;
+        mTransY = other.mTransY;
+        mTransOffsetX = other.mTransOffsetX;
+        mTransOffsetY = other.mTransOffsetY;
+    }
+
     public boolean hasChartDimens() {
         if (mChartHeight > 0 && mChartWidth > 0)
             return true;
@@ -473,6 +500,9 @@ public class ViewPortHandler {
         matrixBuffer[Matrix.MSCALE_Y] = mScaleY;
 
         matrix.setValues(matrixBuffer);
+
+        if (matrix == mMatrixTouch)
+            mMatrixTouchVersion++;
     }
 
     /**
@@ -578,6 +608,17 @@ public class ViewPortHandler {
         return mMatrixTouch;
     }
 
+    /**
+     * Returns a number that changes whenever the touch matrix is changed by refresh(...), by
+     * the limits of scale and translation or by set(...). A touch matrix changed directly counts
+     * once it is passed to refresh(...).
+     *
+     * @return
+     */
+    public int getMatrixTouchVersion() {
+        return mMatrixTouchVersion;
+    }
+
     /**
      * ################ ################ ################ ################
      */
@@ -0,0 +1,150 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.data.filter.ApproximatorN;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class ApproximatorNTest {
+
+    private static final float[] POINTS = new float[]{
+            10, 20,
+            20, 30,
+            25, 25,
+            30, 28,
+            31, 31,
+            33, 33,
+            40, 40,
+            44, 40,
+            48, 23,
+            50, 20,
+            55, 20,
+            60, 25};
+
+    @Test
+    public void testDouglasPeucker() {
+
+        ApproximatorN a = new ApproximatorN();
+
+        float[] reduced = a.reduceWithDouglasPeucker(POINTS, 5);
+
+        assertEquals(10, reduced.length);
+
+        // first, last and the most significant corners stay
+        assertEquals(10f, reduced[0], 0f);
+        assertEquals(60f, reduced[8], 0f);
+        assertTrue(contains(reduced, 40, 40) || contains(reduced, 44, 40));
+        assertTrue(contains(reduced, 50, 20) || contains(reduced, 55, 20));
+
+        // the input is left untouched
+        assertEquals(20f, POINTS[2], 0f);
+
+        assertEquals(POINTS.length, a.reduceWithDouglasPeucker(POINTS, 12).length);
+        assertEquals(POINTS.length, a.reduceWithDouglasPeucker(POINTS, 2).length);
+    }
+
+    @Test
+    public void testDouglasPeuckerInPlace() {
+
+        ApproximatorN a = new ApproximatorN(null);
+
+        float[] points = sine(10000);
+        int count = a.reduceWithDouglasPeucker(points, 10000, 100);
+
+        assertEquals(100, count);
+        assertOrdered(points, count);
+        assertEquals(0f, points[0], 0f);
+        assertEquals(9999f, points[(count - 1) * 2], 0f);
+    }
+
+    @Test
+    public void testDouglasPeuckerParallelMatchesSequential() {
+
+        ApproximatorN sequential = new ApproximatorN(null);
+        ApproximatorN parallel = new ApproximatorN(new ForkJoinPool(4));
+        parallel.setParallelThreshold(1000);
+
+        float[] points1 = sine(50000);
+        float[] points2 = Arrays.copyOf(points1, points1.length);
+
+        int count1 = sequential.reduceWithDouglasPeucker(points1, 50000, 500);
+        int count2 = parallel.reduceWithDouglasPeucker(points2, 50000, 500);
+
+        assertEquals(count1, count2);
+        for (int i = 0; i < count1 * 2; i++)
+            assertEquals(points1[i], points2[i], 0f);
+    }
+
+    @Test
+    public void testLargestTriangleThreeBuckets() {
+
+        ApproximatorN a = new ApproximatorN(null);
+
+        float[] reduced = a.reduceWithLargestTriangleThreeBuckets(POINTS, 6);
+
+        assertEquals(12, reduced.length);
+        assertEquals(10f, reduced[0], 0f);
+        assertEquals(60f, reduced[10], 0f);
+        assertOrdered(reduced, 6);
+
+        float[] points = sine(10000);
+        int count = a.reduceWithLargestTriangleThreeBuckets(points, 10000, 300);
+
+        assertEquals(300, count);
+        assertOrdered(points, count);
+        assertEquals(9999f, points[(count - 1) * 2], 0f);
+
+        // the peaks of the sine survive
+        float max = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++)
+            max = Math.max(max, points[i * 2 + 1]);
+        assertEquals(100f, max, 1f);
+    }
+
+    @Test
+    public void testLargestTriangleThreeBucketsParallel() {
+
+        ApproximatorN a = new ApproximatorN(new ForkJoinPool(4));
+        a.setParallelThreshold(10000);
+
+        float[] points = sine(200000);
+        int count = a.reduceWithLargestTriangleThreeBuckets(points, 200000, 1000);
+
+        // every part keeps its own first and last point
+        assertTrue(count >= 1000);
+        assertTrue(count <= 1000 + 16);
+        assertOrdered(points, count);
+        assertEquals(0f, points[0], 0f);
+        assertEquals(199999f, points[(count - 1) * 2], 0f);
+    }
+
+    private static float[] sine(int count) {
+
+        float[] points = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            points[i * 2] = i;
+            points[i * 2 + 1] = (float) (100 * Math.sin(i / 250.0));
+        }
+        return points;
+    }
+
+    private static boolean contains(float[] points, float x, float y) {
+
+        for (int i = 0; i < points.length; i += 2) {
+            if (points[i] == x && points[i + 1] == y)
+                return true;
+        }
+        return false;
+    }
+
+    private static void assertOrdered(float[] points, int count) {
+
+        for (int i = 1; i < count; i++)
+            assertTrue(points[i * 2] > points[(i - 1) * 2]);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.components.AxisBase;
+import com.github.mikephil.charting.components.YAxis;
+import com.github.mikephil.charting.formatter.IAxisValueFormatter;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+
+public class AxisLabelCacheTest {
+
+    private static class CountingFormatter implements IAxisValueFormatter {
+
+        int calls = 0;
+        String suffix = "";
+
+        @Override
+        public String getFormattedValue(float value, AxisBase axis) {
+            calls++;
+            return (int) value + suffix;
+        }
+    }
+
+    @Test
+    public void testCustomFormatterNotCachedByDefault() {
+
+        YAxis axis = new YAxis();
+        CountingFormatter formatter = new CountingFormatter();
+        axis.setValueFormatter(formatter);
+        axis.mEntries = new float[]{0f, 10f, 20f};
+
+        for (int i = 0; i < 3; i++)
+            axis.getFormattedLabel(i);
+
+        for (int i = 0; i < 3; i++)
+            axis.getFormattedLabel(i);
+
+        assertEquals(6, formatter.calls);
+    }
+
+    @Test
+    public void testLabelsFormattedOnce() {
+
+        YAxis axis = new YAxis();
+        CountingFormatter formatter = new CountingFormatter();
+        axis.setValueFormatter(formatter);
+        axis.setLabelCacheEnabled(true);
+        axis.mEntries = new float[]{0f, 10f, 20f, 30f, 40f};
+
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < axis.mEntries.length; i++)
+                assertEquals(String.valueOf((int) axis.mEntries[i]), axis.getFormattedLabel(i));
+        }
+
+        assertEquals(5, formatter.calls);
+
+        // scrolled by one interval, only the new value is formatted
+        axis.mEntries = new float[]{10f, 20f, 30f, 40f, 50f};
+
+        for (int i = 0; i < axis.mEntries.length; i++)
+            assertEquals(String.valueOf((int) axis.mEntries[i]), axis.getFormattedLabel(i));
+
+        assertEquals(6, formatter.calls);
+    }
+
+    @Test
+    public void testInvalidate() {
+
+        YAxis axis = new YAxis();
+        CountingFormatter formatter = new CountingFormatter();
+        axis.setValueFormatter(formatter);
+        axis.setLabelCacheEnabled(true);
+        axis.mEntries = new float[]{0f, 10f};
+
+        assertEquals("10", axis.getFormattedLabel(1));
+
+        formatter.suffix = " m";
+        assertEquals("10", axis.getFormattedLabel(1));
+
+        axis.invalidateLabelCache();
+        assertEquals("10 m", axis.getFormattedLabel(1));
+
+        // a new formatter drops the labels of the old one
+        CountingFormatter other = new CountingFormatter();
+        other.suffix = " km";
+        axis.setValueFormatter(other);
+        assertEquals("10 km", axis.getFormattedLabel(1));
+    }
+
+    @Test
+    public void testDefaultFormatterCached() {
+
+        YAxis axis = new YAxis();
+        axis.mDecimals = 1;
+        axis.mEntries = new float[]{0.5f, 1.5f};
+
+        String label = axis.getFormattedLabel(1);
+        assertEquals(label, axis.getFormattedLabel(1));
+        assertSame(label, axis.getFormattedLabel(1));
+
+        // the default formatter is replaced when the decimals change
+        axis.mDecimals = 2;
+        assertEquals(false, label.equals(axis.getFormattedLabel(1)));
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.buffer.BarBuffer;
+import com.github.mikephil.charting.data.BarData;
+import com.github.mikephil.charting.data.BarDataSet;
+import com.github.mikephil.charting.data.BarEntry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+
+public class BarBufferTest {
+
+    private static BarDataSet createDataSet(int count, boolean stacked) {
+
+        List<BarEntry> values = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            if (stacked && i % 2 == 0)
+                values.add(new BarEntry(i, new float[]{i, 1f, 2f}));
+            else
+                values.add(new BarEntry(i, i % 5 - 2));
+        }
+
+        return new BarDataSet(values, "");
+    }
+
+    private static BarBuffer createBuffer(BarDataSet set) {
+        BarBuffer buffer = new BarBuffer(set.getEntryCount() * 4 * set.getStackSize(), 1, set.isStacked());
+        buffer.setBarWidth(0.8f);
+        return buffer;
+    }
+
+    @Test
+    public void testFeedRange() {
+
+        BarDataSet set = createDataSet(100, false);
+
+        BarBuffer full = createBuffer(set);
+        full.feed(set);
+
+        assertEquals(400, full.getFilledSize());
+        assertEquals(0, full.getFirstBar());
+
+        BarBuffer window = createBuffer(set);
+        window.feed(set, 10, 19);
+
+        assertEquals(10, window.getFrom());
+        assertEquals(20, window.getTo());
+        assertEquals(10, window.getFirstBar());
+        assertEquals(40, window.getFilledSize());
+
+        for (int j = 0; j < window.getFilledSize(); j++)
+            assertEquals(full.buffer[40 + j], window.buffer[j], 0f);
+
+        // out of range indices are clamped
+        window.feed(set, -5, 1000);
+        assertEquals(0, window.getFrom());
+        assertEquals(100, window.getTo());
+        assertEquals(400, window.getFilledSize());
+    }
+
+    @Test
+    public void testFeedRangeStacked() {
+
+        BarDataSet set = createDataSet(50, true);
+
+        BarBuffer full = createBuffer(set);
+        full.feed(set);
+
+        // 25 stacks of 3 and 25 single bars
+        assertEquals(100 * 4, full.getFilledSize());
+
+        BarBuffer window = createBuffer(set);
+        window.feed(set, 5, 8);
+
+        // entries 0, 2, 4 are stacks, 1 and 3 single bars
+        assertEquals(11, window.getFirstBar());
+
+        // entries 6 and 8 are stacks, 5 and 7 single bars
+        assertEquals(8 * 4, window.getFilledSize());
+
+        for (int j = 0; j < window.getFilledSize(); j++)
+            assertEquals(full.buffer[11 * 4 + j], window.buffer[j], 0f);
+    }
+
+    @Test
+    public void testPhaseX() {
+
+        BarDataSet set = createDataSet(100, false);
+
+        BarBuffer buffer = createBuffer(set);
+        buffer.setPhases(0.5f, 1f);
+        buffer.feed(set, 40, 60);
+
+        assertEquals(40, buffer.getFrom());
+        assertEquals(50, buffer.getTo());
+        assertEquals(40, buffer.getFilledSize());
+    }
+
+    @Test
+    public void testReuse() {
+
+        BarDataSet set = createDataSet(100, false);
+
+        BarBuffer buffer = createBuffer(set);
+        buffer.feed(set, 10, 19);
+
+        float top = buffer.buffer[1];
+
+        // the buffer is transformed to pixels by the renderer
+        for (int j = 0; j < buffer.getFilledSize(); j++)
+            buffer.buffer[j] = -1f;
+
+        // the same entries again, the values are restored without looking at the entries
+        set.getEntryForIndex(10).setY(100f);
+        buffer.feed(set, 10, 19);
+        assertEquals(top, buffer.buffer[1], 0f);
+
+        // the phase changed, computed again
+        buffer.setPhases(1f, 0.5f);
+        buffer.feed(set, 10, 19);
+        assertEquals(50f, buffer.buffer[1], 0f);
+
+        buffer.setPhases(1f, 1f);
+        buffer.invalidate();
+        buffer.feed(set, 10, 19);
+        assertEquals(100f, buffer.buffer[1], 0f);
+    }
+
+    @Test
+    public void testDataChanges() {
+
+        BarDataSet set = createDataSet(100, false);
+
+        BarBuffer buffer = createBuffer(set);
+        buffer.feed(set, 10, 19);
+
+        // entries changed in place, the DataSet is notified
+        set.getEntryForIndex(10).setY(100f);
+        set.notifyDataSetChanged();
+        buffer.feed(set, 10, 19);
+        assertEquals(100f, buffer.buffer[1], 0f);
+
+        // a full streaming DataSet drops the first Entry for each appended one, the entry
+        // count stays the same but every entry moves by one index
+        set.setStreamingCapacity(100);
+        buffer.feed(set, 10, 19);
+        assertEquals(100f, buffer.buffer[1], 0f);
+
+        set.appendEntry(new BarEntry(100, 7f));
+        assertEquals(100, set.getEntryCount());
+        buffer.feed(set, 10, 19);
+        assertEquals(11f - 0.4f, buffer.buffer[0], 0f);
+        assertEquals(11 % 5 - 2, buffer.buffer[3], 0f);
+
+        buffer.feed(set, 90, 99);
+        assertEquals(7f, buffer.buffer[9 * 4 + 1], 0f);
+    }
+
+    @Test
+    public void testDataChangesNotifiedToChartData() {
+
+        BarDataSet set = createDataSet(100, false);
+        BarData data = new BarData(set);
+
+        BarBuffer buffer = createBuffer(set);
+        buffer.feed(set, 10, 19);
+
+        // entries changed in place, only the ChartData is notified
+        set.getEntryForIndex(10).setY(100f);
+        data.notifyDataChanged();
+        buffer.feed(set, 10, 19);
+        assertEquals(100f, buffer.buffer[1], 0f);
+    }
+
+    @Test
+    public void testDataChangesStacked() {
+
+        BarDataSet set = createDataSet(50, true);
+
+        BarBuffer buffer = createBuffer(set);
+        buffer.feed(set, 5, 8);
+        assertEquals(11, buffer.getFirstBar());
+
+        // entry 1 becomes a stack of 3, the bars before entry 5 are counted again
+        set.getEntryForIndex(1).setVals(new float[]{1f, 1f, 1f});
+        set.notifyDataSetChanged();
+        buffer.feed(set, 5, 8);
+        assertEquals(13, buffer.getFirstBar());
+    }
+}
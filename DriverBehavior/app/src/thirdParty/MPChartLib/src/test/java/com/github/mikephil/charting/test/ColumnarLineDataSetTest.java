@@ -0,0 +1,360 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.data.ColumnarLineDataSet;
+import com.github.mikephil.charting.data.DataSet;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineDataSet;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class ColumnarLineDataSetTest {
+
+    @Test
+    public void testCalcMinMax() {
+
+        float[] x = new float[]{10, 15, 21};
+        float[] y = new float[]{10, 2, 5};
+
+        ColumnarLineDataSet set = new ColumnarLineDataSet(x, y, 3, "");
+
+        assertEquals(10f, set.getXMin(), 0.01f);
+        assertEquals(21f, set.getXMax(), 0.01f);
+
+        assertEquals(2f, set.getYMin(), 0.01f);
+        assertEquals(10f, set.getYMax(), 0.01f);
+
+        assertEquals(3, set.getEntryCount());
+
+        set.addEntry(new Entry(25, 1));
+
+        assertEquals(25f, set.getXMax(), 0.01f);
+        assertEquals(1f, set.getYMin(), 0.01f);
+        assertEquals(4, set.getEntryCount());
+
+        set.removeEntry(3);
+
+        assertEquals(21, set.getXMax(), 0.01f);
+        assertEquals(2f, set.getYMin(), 0.01f);
+
+        set.calcMinMaxY(15, 22);
+
+        assertEquals(2f, set.getYMin(), 0.01f);
+        assertEquals(5f, set.getYMax(), 0.01f);
+    }
+
+    @Test
+    public void testAddRemoveEntry() {
+
+        ColumnarLineDataSet set = new ColumnarLineDataSet(new float[]{10, 15, 21}, new float[]{10, 2, 5}, 3, "");
+
+        set.addEntryOrdered(new Entry(5, 1));
+
+        assertEquals(4, set.getEntryCount());
+        assertEquals(5, set.getXMin(), 0.01f);
+        assertEquals(5, set.getEntryForIndex(0).getX(), 0.01f);
+        assertEquals(1, set.getEntryForIndex(0).getY(), 0.01f);
+
+        set.addEntryOrdered(new Entry(20, 50));
+
+        assertEquals(5, set.getEntryCount());
+        assertEquals(20, set.getEntryForIndex(3).getX(), 0.01f);
+        assertEquals(50, set.getEntryForIndex(3).getY(), 0.01f);
+
+        Entry last = set.getEntryForIndex(4);
+
+        assertTrue(set.removeEntry(set.getEntryForIndex(3)));
+
+        assertEquals(4, set.getEntryCount());
+        assertSame(last, set.getEntryForIndex(3));
+        assertEquals(21, set.getEntryForIndex(3).getX(), 0.01f);
+
+        assertTrue(set.removeFirst());
+        assertEquals(10, set.getEntryForIndex(0).getX(), 0.01f);
+
+        assertTrue(set.removeLast());
+        assertTrue(set.removeLast());
+        assertTrue(set.removeLast());
+
+        assertEquals(0, set.getEntryCount());
+
+        assertFalse(set.removeLast());
+        assertFalse(set.removeFirst());
+    }
+
+    @Test
+    public void testSetValuesReusesEntries() {
+
+        ColumnarLineDataSet set = new ColumnarLineDataSet(null);
+        set.setValues(new float[]{0, 1, 2, 3}, new float[]{5, 6, 7, 8}, 1, 3);
+
+        assertEquals(3, set.getEntryCount());
+        assertEquals(1f, set.getXMin(), 0.01f);
+        assertEquals(8f, set.getYMax(), 0.01f);
+
+        Entry first = set.getEntryForIndex(0);
+
+        set.setValues(new float[]{100, 200}, new float[]{-1, -2}, 2);
+
+        assertEquals(2, set.getEntryCount());
+        assertSame(first, set.getEntryForIndex(0));
+        assertEquals(100f, first.getX(), 0.01f);
+        assertEquals(-1f, first.getY(), 0.01f);
+        assertEquals(-2f, set.getYMin(), 0.01f);
+
+        set.clear();
+
+        assertEquals(0, set.getEntryCount());
+        assertNull(set.getEntryForXValue(100, Float.NaN));
+    }
+
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+
+        final int count = 20000;
+        float[] x = new float[count];
+        float[] y = new float[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = i;
+            y[i] = i * 2;
+        }
+
+        final ColumnarLineDataSet set = new ColumnarLineDataSet(x, y, count, "");
+        final Entry[][] seen = new Entry[2][count];
+        final boolean[] wrong = new boolean[2];
+
+        // e.g. the highlighter on the UI thread and the rasterizer, both filling the cache
+        Thread[] readers = new Thread[2];
+        for (int t = 0; t < readers.length; t++) {
+            final int reader = t;
+            readers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        Entry e = set.getEntryForIndex(i);
+                        seen[reader][i] = e;
+                        if (e.getX() != i || e.getY() != i * 2)
+                            wrong[reader] = true;
+                    }
+                }
+            });
+        }
+
+        for (Thread reader : readers)
+            reader.start();
+        for (Thread reader : readers)
+            reader.join();
+
+        assertFalse(wrong[0] || wrong[1]);
+
+        // both readers got the one cached view of each value
+        for (int i = 0; i < count; i++)
+            assertSame(seen[0][i], seen[1][i]);
+    }
+
+    @Test
+    public void testMatchesListBackedDataSet() {
+
+        // sorted values (by x position) with duplicates
+        float[] x = new float[]{0, 1, 2, 3, 3, 4, 4, 5, 6, 7, 8, 8};
+        float[] y = new float[]{10, 20, 30, 40, 50, 60, 70, 80, 90, 100, 110, 120};
+
+        List<Entry> entries = new ArrayList<Entry>();
+        for (int i = 0; i < x.length; i++)
+            entries.add(new Entry(x[i], y[i]));
+
+        LineDataSet listSet = new LineDataSet(entries, "");
+        ColumnarLineDataSet columnarSet = new ColumnarLineDataSet(x, y, x.length, "");
+
+        float[] queries = new float[]{-1f, 0f, 2.5f, 3f, 3.5f, 4f, 4.6f, 5.4f, 7f, 8f, 9f};
+
+        for (float q : queries) {
+            for (DataSet.Rounding rounding : DataSet.Rounding.values()) {
+                assertEquals(listSet.getEntryIndex(q, Float.NaN, rounding),
+                        columnarSet.getEntryIndex(q, Float.NaN, rounding));
+                assertEquals(listSet.getEntryIndex(q, 65f, rounding),
+                        columnarSet.getEntryIndex(q, 65f, rounding));
+            }
+
+            assertEquals(listSet.getEntriesForXValue(q).size(), columnarSet.getEntriesForXValue(q).size());
+
+            listSet.calcMinMaxY(q, q + 2);
+            columnarSet.calcMinMaxY(q, q + 2);
+
+            assertEquals(listSet.getYMin(), columnarSet.getYMin(), 0.01f);
+            assertEquals(listSet.getYMax(), columnarSet.getYMax(), 0.01f);
+        }
+
+        Entry e = columnarSet.getEntryForXValue(4f, 70f);
+        assertEquals(6, columnarSet.getEntryIndex(e));
+        assertEquals(-1, columnarSet.getEntryIndex(new Entry(4.5f, 70f)));
+    }
+
+    /**
+     * Refilling a columnar DataSet with new values, the way a chart does on every zoom, gives the
+     * same results as clearing and refilling a list-backed one.
+     */
+    @Test
+    public void testRefillMatchesListBacked() {
+
+        final int count = 1000;
+
+        Random random = new Random(42);
+        float[] x = new float[count];
+        float[] y = new float[count];
+
+        LineDataSet listSet = new LineDataSet(new ArrayList<Entry>(), "");
+        ColumnarLineDataSet columnarSet = new ColumnarLineDataSet(null);
+
+        for (int r = 0; r < 3; r++) {
+
+            for (int i = 0; i < count; i++) {
+                x[i] = i + r;
+                y[i] = random.nextFloat() * 3000f;
+            }
+
+            assertEquals(refillList(listSet, x, y, count), refillColumnar(columnarSet, x, y, count), 0f);
+
+            assertEquals(listSet.getEntryCount(), columnarSet.getEntryCount());
+            assertEquals(listSet.getYMin(), columnarSet.getYMin(), 0f);
+            assertEquals(listSet.getYMax(), columnarSet.getYMax(), 0f);
+            assertEquals(x[0], columnarSet.getEntryForIndex(0).getX(), 0f);
+            assertEquals(y[count - 1], columnarSet.getEntryForIndex(count - 1).getY(), 0f);
+        }
+    }
+
+    @Test
+    public void testStreamingCapacity() {
+
+        ColumnarLineDataSet set = new ColumnarLineDataSet(new float[]{0, 1, 2, 3, 4}, new float[]{0, 10, 20, 30, 40}, 5, "");
+        set.setStreamingCapacity(3);
+
+        // only the last values are kept
+        assertEquals(3, set.getEntryCount());
+        assertEquals(2f, set.getXMin(), 0.01f);
+        assertEquals(20f, set.getYMin(), 0.01f);
+        assertEquals(40f, set.getYMax(), 0.01f);
+        assertEquals(2f, set.getEntryForIndex(0).getX(), 0.01f);
+
+        set.clearDirtyRange();
+
+        assertTrue(set.appendEntry(new Entry(5, -10)));
+        assertFalse(set.appendEntry(new Entry(1, 0)));
+
+        assertEquals(3, set.getEntryCount());
+        assertEquals(3f, set.getXMin(), 0.01f);
+        assertEquals(5f, set.getXMax(), 0.01f);
+        assertEquals(-10f, set.getYMin(), 0.01f);
+        assertEquals(40f, set.getYMax(), 0.01f);
+        assertEquals(0, set.getDirtyRangeStart());
+
+        // the columns hold the values from the offset on
+        int offset = set.getValuesOffset();
+        assertEquals(3f, set.getXValues()[offset], 0.01f);
+        assertEquals(-10f, set.getYValues()[offset + 2], 0.01f);
+        assertEquals(1, set.getEntryIndex(4f, Float.NaN, DataSet.Rounding.CLOSEST));
+        assertEquals(1, set.getEntriesForXValue(4f).size());
+
+        set.addEntryOrdered(new Entry(4.5f, 100));
+
+        assertEquals(3, set.getEntryCount());
+        assertEquals(4f, set.getEntryForIndex(0).getX(), 0.01f);
+        assertEquals(4.5f, set.getEntryForIndex(1).getX(), 0.01f);
+        assertEquals(100f, set.getYMax(), 0.01f);
+        assertEquals(-10f, set.getYMin(), 0.01f);
+
+        set.setStreamingCapacity(0);
+        set.addEntry(new Entry(8, 1));
+
+        assertEquals(4, set.getEntryCount());
+        assertEquals(8f, set.getEntryForIndex(3).getX(), 0.01f);
+
+        // copies keep the capacity
+        set.setStreamingCapacity(2);
+        DataSet<Entry> copy = set.copy();
+        assertEquals(2, copy.getEntryCount());
+        assertEquals(2, copy.getStreamingCapacity());
+        assertEquals(5f, copy.getEntryForIndex(0).getX(), 0.01f);
+    }
+
+    @Test
+    public void testStreamingMatchesListBacked() {
+
+        final int capacity = 50;
+
+        ColumnarLineDataSet columnar = new ColumnarLineDataSet("");
+        columnar.setStreamingCapacity(capacity);
+
+        LineDataSet list = new LineDataSet(null, "");
+        list.setStreamingCapacity(capacity);
+
+        Random random = new Random(11);
+
+        for (int i = 0; i < 1000; i++) {
+
+            Entry e = new Entry(i, random.nextFloat() * 200f - 100f);
+            columnar.appendEntry(e);
+            list.appendEntry(new Entry(e.getX(), e.getY()));
+
+            assertEquals(list.getEntryCount(), columnar.getEntryCount());
+            assertEquals(list.getXMin(), columnar.getXMin(), 0f);
+            assertEquals(list.getXMax(), columnar.getXMax(), 0f);
+            assertEquals(list.getYMin(), columnar.getYMin(), 0f);
+            assertEquals(list.getYMax(), columnar.getYMax(), 0f);
+
+            // the columns never grow beyond twice the capacity
+            assertTrue(columnar.getXValues().length <= 2 * capacity + capacity / 2);
+
+            if (i % 97 == 0) {
+                for (int j = 0; j < list.getEntryCount(); j++) {
+                    assertEquals(list.getEntryForIndex(j).getY(), columnar.getEntryForIndex(j).getY(), 0f);
+                    assertEquals(list.getEntryForIndex(j).getY(),
+                            columnar.getYValues()[columnar.getValuesOffset() + j], 0f);
+                }
+
+                columnar.calcMinMaxY(i - 20, i - 10);
+                list.calcMinMaxY(i - 20, i - 10);
+                assertEquals(list.getYMin(), columnar.getYMin(), 0f);
+                assertEquals(list.getYMax(), columnar.getYMax(), 0f);
+                columnar.calcMinMax();
+                list.calcMinMax();
+            }
+        }
+
+        columnar.removeFirst();
+        list.removeFirst();
+        assertEquals(list.getEntryCount(), columnar.getEntryCount());
+        assertEquals(list.getYMin(), columnar.getYMin(), 0f);
+
+        columnar.clear();
+        assertEquals(0, columnar.getEntryCount());
+        assertEquals(0, columnar.getValuesOffset());
+    }
+
+    private static float refillList(LineDataSet set, float[] x, float[] y, int count) {
+
+        set.clear();
+        for (int i = 0; i < count; i++)
+            set.addEntry(new Entry(x[i], y[i]));
+
+        set.calcMinMaxY(count / 4f, count / 2f);
+        return set.getEntryForXValue(count / 3f, Float.NaN).getY();
+    }
+
+    private static float refillColumnar(ColumnarLineDataSet set, float[] x, float[] y, int count) {
+
+        set.setValues(x, y, count);
+
+        set.calcMinMaxY(count / 4f, count / 2f);
+        return set.getEntryForXValue(count / 3f, Float.NaN).getY();
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.mikephil.charting.test;
 
+import com.github.mikephil.charting.data.BarDataSet;
+import com.github.mikephil.charting.data.BarEntry;
 import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.ScatterDataSet;
@@ -8,9 +10,11 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 
 /**
@@ -235,4 +239,203 @@ public class DataSetTest {
         assertEquals(1, entries.size());
         assertEquals(30, entries.get(0).getY(), 0.01f);
     }
+
+    @Test
+    public void testCalcMinMaxYWithRangeIndex() {
+
+        List<Entry> entries = new ArrayList<Entry>();
+        entries.add(new Entry(0, 10));
+        entries.add(new Entry(1, 40));
+        entries.add(new Entry(2, 5));
+        entries.add(new Entry(3, 20));
+
+        ScatterDataSet set = new ScatterDataSet(entries, "");
+        set.setYRangeIndexEnabled(true);
+
+        assertTrue(set.isYRangeIndexEnabled());
+
+        set.calcMinMaxY(1, 2);
+
+        assertEquals(5f, set.getYMin(), 0.01f);
+        assertEquals(40f, set.getYMax(), 0.01f);
+
+        // appended entries are added to the index
+        set.addEntry(new Entry(4, 100));
+        set.calcMinMaxY(3, 4);
+
+        assertEquals(20f, set.getYMin(), 0.01f);
+        assertEquals(100f, set.getYMax(), 0.01f);
+
+        // inserted and removed entries force a rebuild
+        set.addEntryOrdered(new Entry(2.5f, -7));
+        set.calcMinMaxY(2, 3);
+
+        assertEquals(-7f, set.getYMin(), 0.01f);
+        assertEquals(20f, set.getYMax(), 0.01f);
+
+        set.removeEntry(3);
+        set.calcMinMaxY(2, 3);
+
+        assertEquals(5f, set.getYMin(), 0.01f);
+        assertEquals(20f, set.getYMax(), 0.01f);
+
+        set.setYRangeIndexEnabled(false);
+        set.calcMinMaxY(0, 4);
+
+        assertEquals(5f, set.getYMin(), 0.01f);
+        assertEquals(100f, set.getYMax(), 0.01f);
+    }
+
+    @Test
+    public void testSpatialIndex() {
+
+        List<Entry> entries = new ArrayList<Entry>();
+        entries.add(new Entry(1, 10));
+        entries.add(new Entry(2, 40));
+        entries.add(new Entry(3, 20));
+
+        ScatterDataSet set = new ScatterDataSet(entries, "");
+
+        assertNull(set.getSpatialIndex());
+
+        set.setSpatialIndexEnabled(true);
+
+        assertTrue(set.isSpatialIndexEnabled());
+        assertEquals(1, set.getSpatialIndex().findNearest(2.1f, 38f, 1f, 1f, 5f));
+
+        // the index follows added, inserted and removed entries
+        set.addEntry(new Entry(4, 100));
+        assertEquals(3, set.getSpatialIndex().findNearest(4f, 99f, 1f, 1f, 5f));
+
+        set.addEntryOrdered(new Entry(2.5f, -7));
+        assertEquals(2, set.getSpatialIndex().findNearest(2.5f, -6f, 1f, 1f, 5f));
+
+        set.removeEntry(2);
+        assertEquals(-1, set.getSpatialIndex().findNearest(2.5f, -6f, 1f, 1f, 5f));
+
+        set.getEntryForIndex(0).setY(-50);
+        set.notifyDataSetChanged();
+        assertEquals(0, set.getSpatialIndex().findNearest(1f, -50f, 1f, 1f, 5f));
+
+        set.setSpatialIndexEnabled(false);
+        assertNull(set.getSpatialIndex());
+    }
+
+    @Test
+    public void testAppendEntry() {
+
+        List<Entry> entries = new ArrayList<Entry>();
+        entries.add(new Entry(1, 10));
+        entries.add(new Entry(2, 20));
+
+        ScatterDataSet set = new ScatterDataSet(entries, "");
+        set.clearDirtyRange();
+
+        assertEquals(2, set.getDirtyRangeStart());
+
+        assertTrue(set.appendEntry(new Entry(3, 5)));
+        assertTrue(set.appendEntry(new Entry(3, 50)));
+
+        // appending is only allowed at the end
+        assertFalse(set.appendEntry(new Entry(2.5f, 0)));
+
+        assertEquals(4, set.getEntryCount());
+        assertEquals(2, set.getDirtyRangeStart());
+        assertEquals(5f, set.getYMin(), 0.01f);
+        assertEquals(50f, set.getYMax(), 0.01f);
+        assertEquals(3f, set.getXMax(), 0.01f);
+
+        set.clearDirtyRange();
+        set.removeLast();
+
+        assertEquals(0, set.getDirtyRangeStart());
+    }
+
+    @Test
+    public void testStreamingCapacity() {
+
+        List<Entry> entries = new ArrayList<Entry>();
+        for (int i = 0; i < 5; i++)
+            entries.add(new Entry(i, i * 10));
+
+        ScatterDataSet set = new ScatterDataSet(entries, "");
+        set.setStreamingCapacity(3);
+
+        // only the last entries are kept
+        assertEquals(3, set.getEntryCount());
+        assertEquals(2f, set.getXMin(), 0.01f);
+        assertEquals(20f, set.getYMin(), 0.01f);
+        assertEquals(40f, set.getYMax(), 0.01f);
+
+        set.clearDirtyRange();
+
+        assertTrue(set.appendEntry(new Entry(5, -10)));
+
+        assertEquals(3, set.getEntryCount());
+        assertEquals(3f, set.getXMin(), 0.01f);
+        assertEquals(5f, set.getXMax(), 0.01f);
+        assertEquals(-10f, set.getYMin(), 0.01f);
+        assertEquals(40f, set.getYMax(), 0.01f);
+
+        // dropping an entry moves all indices
+        assertEquals(0, set.getDirtyRangeStart());
+
+        // addEntry keeps the capacity as well
+        set.addEntry(new Entry(6, 0));
+        set.addEntry(new Entry(7, 0));
+
+        assertEquals(3, set.getEntryCount());
+        assertEquals(5f, set.getXMin(), 0.01f);
+        assertEquals(-10f, set.getYMin(), 0.01f);
+        assertEquals(0f, set.getYMax(), 0.01f);
+
+        set.addEntryOrdered(new Entry(5.5f, 100));
+
+        assertEquals(3, set.getEntryCount());
+        assertEquals(5.5f, set.getEntryForIndex(0).getX(), 0.01f);
+        assertEquals(100f, set.getYMax(), 0.01f);
+        assertEquals(0f, set.getYMin(), 0.01f);
+
+        set.setStreamingCapacity(0);
+        set.addEntry(new Entry(8, 1));
+
+        assertEquals(4, set.getEntryCount());
+    }
+
+    @Test
+    public void testStreamingMinMaxMatchesFullScan() {
+
+        final int capacity = 50;
+
+        ScatterDataSet set = new ScatterDataSet(null, "");
+        set.setStreamingCapacity(capacity);
+
+        Random random = new Random(7);
+
+        for (int i = 0; i < 1000; i++) {
+
+            set.appendEntry(new Entry(i, random.nextFloat() * 200f - 100f));
+
+            float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+            for (int j = 0; j < set.getEntryCount(); j++) {
+                min = Math.min(min, set.getEntryForIndex(j).getY());
+                max = Math.max(max, set.getEntryForIndex(j).getY());
+            }
+
+            assertEquals(Math.min(i + 1, capacity), set.getEntryCount());
+            assertEquals(min, set.getYMin(), 0f);
+            assertEquals(max, set.getYMax(), 0f);
+            assertEquals(Math.max(i - capacity + 1, 0), set.getXMin(), 0f);
+        }
+
+        BarDataSet bars = new BarDataSet(new ArrayList<BarEntry>(), "");
+        bars.setStreamingCapacity(2);
+
+        bars.appendEntry(new BarEntry(0, new float[]{-5, 10}));
+        bars.appendEntry(new BarEntry(1, 3));
+        bars.appendEntry(new BarEntry(2, 4));
+
+        assertEquals(3f, bars.getYMin(), 0.01f);
+        assertEquals(4f, bars.getYMax(), 0.01f);
+    }
 }
@@ -0,0 +1,117 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.utils.SpatialGridIndex;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class SpatialGridIndexTest {
+
+    @Test
+    public void testMatchesLinearScan() {
+
+        Random random = new Random(11);
+        float[] xs = new float[2000];
+        float[] ys = new float[2000];
+
+        // small initial capacity to exercise growing
+        SpatialGridIndex index = new SpatialGridIndex(1);
+
+        for (int i = 0; i < xs.length; i++) {
+            // clustered values, like a scatter chart
+            xs[i] = (float) (random.nextGaussian() * 1000.0);
+            ys[i] = (float) (random.nextGaussian() * 5.0);
+            index.add(xs[i], ys[i]);
+        }
+
+        index.build();
+
+        assertEquals(xs.length, index.size());
+
+        for (int q = 0; q < 2000; q++) {
+
+            // includes points outside of the values
+            float x = random.nextFloat() * 8000f - 4000f;
+            float y = random.nextFloat() * 40f - 20f;
+            float scaleX = 0.01f + random.nextFloat();
+            float scaleY = 1f + random.nextFloat() * 100f;
+            float maxDistance = 5f + random.nextFloat() * 300f;
+
+            int expected = -1;
+            float expectedDistance = maxDistance;
+            for (int i = 0; i < xs.length; i++) {
+                float distance = (float) Math.sqrt(sq((xs[i] - x) * scaleX) + sq((ys[i] - y) * scaleY));
+                if (distance < expectedDistance) {
+                    expectedDistance = distance;
+                    expected = i;
+                }
+            }
+
+            int found = index.findNearest(x, y, scaleX, scaleY, maxDistance);
+
+            assertEquals(expected, found);
+
+            if (found >= 0)
+                assertEquals(expectedDistance, index.getLastDistance(), 0.001f);
+            else
+                assertTrue(Float.isNaN(index.getLastDistance()));
+        }
+    }
+
+    @Test
+    public void testLineValues() {
+
+        // ordered by x with a single y per x, like the elevation profile
+        SpatialGridIndex index = new SpatialGridIndex(100);
+
+        for (int i = 0; i < 10000; i++)
+            index.add(i * 10f, (float) Math.sin(i / 100.0) * 300f);
+
+        index.build();
+
+        assertEquals(5000, index.findNearest(50001f, (float) Math.sin(50.0) * 300f, 0.05f, 0.5f, 100f));
+        assertEquals(0, index.findNearest(-100f, 0f, 0.05f, 0.5f, 100f));
+        assertEquals(-1, index.findNearest(-10000f, 0f, 0.05f, 0.5f, 100f));
+
+        // a scale of 0 ignores a direction
+        assertEquals(5000, index.findNearest(50001f, 10000f, 1f, 0f, 100f));
+    }
+
+    @Test
+    public void testEdgeCases() {
+
+        SpatialGridIndex index = new SpatialGridIndex(4);
+
+        // nothing before build()
+        index.add(1f, 1f);
+        assertEquals(-1, index.findNearest(1f, 1f, 1f, 1f, 10f));
+
+        index.add(Float.NaN, 2f);
+        index.add(1f, 1f);
+        index.add(3f, 1f);
+        index.build();
+
+        // equal distances return the value added first, NaN values are never found
+        assertEquals(0, index.findNearest(1f, 2f, 1f, 1f, 10f));
+        assertEquals(3, index.findNearest(3f, 1f, 1f, 1f, 10f));
+
+        // the maximum distance is exclusive
+        assertEquals(-1, index.findNearest(1f, 3f, 1f, 1f, 2f));
+        assertEquals(0, index.findNearest(1f, 3f, 1f, 1f, 2.01f));
+        assertEquals(-1, index.findNearest(Float.NaN, 1f, 1f, 1f, 10f));
+
+        index.clear();
+        index.build();
+
+        assertEquals(0, index.size());
+        assertEquals(-1, index.findNearest(1f, 1f, 1f, 1f, 10f));
+    }
+
+    private static float sq(float value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.data.ColumnarLineDataSet;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.utils.Transformer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+
+public class TransformerKernelTest {
+
+    /**
+     * value, touch and offset matrices like the ones of a zoomed and scrolled chart, each
+     * {scaleX, skewX, translateX, skewY, scaleY, translateY}
+     */
+    private static final float[] VALUE = {2.5f, 0f, -25f, 0f, -0.4f, 120f};
+    private static final float[] TOUCH = {3f, 0f, -410f, 0f, 1.5f, -35f};
+    private static final float[] OFFSET = {1f, 0f, 48f, 0f, 1f, 620f};
+
+    /**
+     * Returns the affine transformation that applies first, then second.
+     */
+    private static float[] concat(float[] first, float[] second) {
+        return new float[]{
+                second[0] * first[0] + second[1] * first[3],
+                second[0] * first[1] + second[1] * first[4],
+                second[0] * first[2] + second[1] * first[5] + second[2],
+                second[3] * first[0] + second[4] * first[3],
+                second[3] * first[1] + second[4] * first[4],
+                second[3] * first[2] + second[4] * first[5] + second[5]
+        };
+    }
+
+    private static float[] combined() {
+        return concat(concat(VALUE, TOUCH), OFFSET);
+    }
+
+    private static double[] applyOne(float[] m, double x, double y) {
+        return new double[]{m[0] * x + m[1] * y + m[2], m[3] * x + m[4] * y + m[5]};
+    }
+
+    @Test
+    public void testMapPoints() {
+
+        float[] pts = new float[]{0f, 0f, 10f, 100f, -3.5f, 42f, 1000f, -7f, 99f, 99f};
+
+        float[] expected = new float[pts.length];
+
+        for (int j = 0; j < pts.length; j += 2) {
+            // the matrices applied one after the other, as Transformer used to
+            double[] p = applyOne(VALUE, pts[j], pts[j + 1]);
+            p = applyOne(TOUCH, p[0], p[1]);
+            p = applyOne(OFFSET, p[0], p[1]);
+            expected[j] = (float) p[0];
+            expected[j + 1] = (float) p[1];
+        }
+
+        // the last point is not transformed
+        Transformer.mapPoints(combined(), pts, 0, 4);
+
+        for (int j = 0; j < 8; j++)
+            assertEquals(expected[j], pts[j], 0.01f);
+
+        assertEquals(99f, pts[8], 0f);
+        assertEquals(99f, pts[9], 0f);
+    }
+
+    @Test
+    public void testMapColumns() {
+
+        Random random = new Random(7);
+        float[] x = new float[50];
+        float[] y = new float[50];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i * 0.5f;
+            y[i] = random.nextFloat() * 300f - 100f;
+        }
+
+        final float phaseY = 0.75f;
+        final int from = 10;
+        final int count = 25;
+
+        float[] interleaved = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            interleaved[i * 2] = x[from + i];
+            interleaved[i * 2 + 1] = y[from + i] * phaseY;
+        }
+        Transformer.mapPoints(combined(), interleaved, 0, count);
+
+        float[] output = new float[count * 2 + 4];
+        output[count * 2] = -1f;
+        Transformer.mapColumns(combined(), x, y, from, count, phaseY, output);
+
+        for (int j = 0; j < count * 2; j++)
+            assertEquals(interleaved[j], output[j], 0f);
+
+        assertEquals(-1f, output[count * 2], 0f);
+    }
+
+    @Test
+    public void testColumnarDataSetValues() {
+
+        ColumnarLineDataSet set = new ColumnarLineDataSet(new float[]{1f, 2f, 3f}, new float[]{4f, 5f, 6f}, 3, "");
+
+        float[] output = new float[6];
+        Transformer.mapColumns(combined(), set.getXValues(), set.getYValues(), 0, set.getEntryCount(), 1f, output);
+
+        for (int i = 0; i < 3; i++) {
+            double[] p = applyOne(combined(), set.getEntryForIndex(i).getX(), set.getEntryForIndex(i).getY());
+            assertEquals((float) p[0], output[i * 2], 0.01f);
+            assertEquals((float) p[1], output[i * 2 + 1], 0.01f);
+        }
+    }
+
+    /**
+     * Copying the values of a list-backed DataSet and transforming them, as done for every DataSet
+     * on every frame of a zoom animation, gives the same pixels as transforming the columns of a
+     * columnar DataSet directly.
+     */
+    @Test
+    public void testListAndColumnarTransformsMatch() {
+
+        final int count = 10000;
+
+        Random random = new Random(42);
+        float[] x = new float[count];
+        float[] y = new float[count];
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            x[i] = i;
+            y[i] = random.nextFloat() * 3000f;
+            entries.add(new Entry(x[i], y[i]));
+        }
+
+        LineDataSet listSet = new LineDataSet(entries, "");
+        ColumnarLineDataSet columnarSet = new ColumnarLineDataSet(x, y, count, "");
+
+        float[] affine = combined();
+        float[] listPoints = new float[count * 2];
+        float[] columnarPoints = new float[count * 2];
+
+        transformList(listSet, affine, listPoints);
+        transformColumnar(columnarSet, affine, columnarPoints);
+
+        for (int j = 0; j < count * 2; j++)
+            assertEquals(listPoints[j], columnarPoints[j], 0f);
+    }
+
+    private static void transformList(LineDataSet set, float[] affine, float[] points) {
+
+        final int count = set.getEntryCount();
+
+        for (int j = 0; j < count * 2; j += 2) {
+            Entry e = set.getEntryForIndex(j / 2);
+            points[j] = e.getX();
+            points[j + 1] = e.getY() * 0.5f;
+        }
+
+        Transformer.mapPoints(affine, points, 0, count);
+    }
+
+    private static void transformColumnar(ColumnarLineDataSet set, float[] affine, float[] points) {
+
+        Transformer.mapColumns(affine, set.getXValues(), set.getYValues(), 0, set.getEntryCount(), 0.5f, points);
+    }
+}
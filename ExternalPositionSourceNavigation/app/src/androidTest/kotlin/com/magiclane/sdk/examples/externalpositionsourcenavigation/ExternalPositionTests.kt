@@ -165,13 +165,13 @@ class ExternalPositionTests
                     SdkCall.execute {
                         val externalPosition = PositionData.produce(
                             System.currentTimeMillis(),
-                            MainActivity.positions[index].first,
-                            MainActivity.positions[index].second,
+                            MainActivity.positions[2 * index],
+                            MainActivity.positions[2 * index + 1],
                             -1.0,
-                            MainActivity.positions.getBearing(index).also {
+                            MainActivity.trackMetrics.bearings[index].also {
                                 if (index > 0) assert(it < 180 && it > -180)
                             },
-                            MainActivity.positions.getSpeed(index).also {
+                            MainActivity.trackMetrics.speeds[index].also {
                                 if (index > 0) assert(it > 0)
                             }
                         )
@@ -181,7 +181,7 @@ class ExternalPositionTests
 
                     }
                     index++
-                    if (index == MainActivity.positions.size)
+                    if (index == MainActivity.trackMetrics.pointCount)
                     {
                         index = 0
                         launch { channel.send(Unit) }
@@ -0,0 +1,436 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.externalpositionsourcenavigation
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import android.util.Log
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.LockSupport
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * A position to push into the data source.
+ */
+class TPositionSample
+{
+    /** Recording time in milliseconds. */
+    var timestamp = 0L
+    var latitude = 0.0
+    var longitude = 0.0
+
+    /** Altitude in meters, NaN if unknown. */
+    var altitude = Double.NaN
+
+    /** Speed in m/s. */
+    var speed = 0.0
+
+    /** Bearing in degrees. */
+    var bearing = 0.0
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Receives the samples of a feed on the feed thread. The sample is reused once the call returns.
+ */
+fun interface IPositionSink
+{
+    fun push(sample: TPositionSample)
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Resamples the fixes of a recording to a fixed rate. Positions and altitudes are interpolated
+ * linearly between the two surrounding fixes. Speed and bearing are taken from the recording
+ * when it has them, otherwise derived from the segment.
+ *
+ * Only the two fixes around the current sample are kept, the recording is read as the samples
+ * are consumed.
+ */
+class PositionInterpolator(private val reader: IPositionReader, rate: Int)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private val period = 1000.0 / rate.coerceIn(MIN_RATE, MAX_RATE)
+
+    private val from = TPositionFix()
+    private val to = TPositionFix()
+
+    private var started = false
+    private var ended = false
+    private var lastTime = TPositionFix.NO_TIME
+    private var startTime = 0L
+    private var sampleIndex = 0L
+
+    private var segmentSpeed = 0.0
+    private var segmentBearing = 0.0
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Computes the next sample.
+     *
+     * @return Return false at the end of the recording.
+     */
+    fun next(sample: TPositionSample): Boolean
+    {
+        if (!started)
+        {
+            started = true
+            ended = !start()
+        }
+
+        if (ended)
+        {
+            return false
+        }
+
+        val time = startTime + sampleIndex * period
+        while (time > to.timestamp)
+        {
+            from.set(to)
+            if (!readFix(to))
+            {
+                ended = true
+                return false
+            }
+
+            updateSegment()
+        }
+
+        val duration = to.timestamp - from.timestamp
+        val fraction = if (duration > 0) ((time - from.timestamp) / duration).coerceIn(0.0, 1.0) else 1.0
+
+        var dLon = to.longitude - from.longitude
+        if (dLon > 180.0)
+        {
+            dLon -= 360.0
+        }
+        else if (dLon < -180.0)
+        {
+            dLon += 360.0
+        }
+
+        var longitude = from.longitude + dLon * fraction
+        if (longitude > 180.0)
+        {
+            longitude -= 360.0
+        }
+        else if (longitude < -180.0)
+        {
+            longitude += 360.0
+        }
+
+        sample.timestamp = time.toLong()
+        sample.latitude = from.latitude + (to.latitude - from.latitude) * fraction
+        sample.longitude = longitude
+        sample.altitude = if (from.altitude.isNaN() || to.altitude.isNaN()) to.altitude else from.altitude + (to.altitude - from.altitude) * fraction
+        sample.speed = segmentSpeed
+        sample.bearing = segmentBearing
+
+        sampleIndex++
+        return true
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun start(): Boolean
+    {
+        if (!readFix(to))
+        {
+            return false
+        }
+
+        from.set(to)
+        startTime = to.timestamp
+
+        if (readFix(to))
+        {
+            updateSegment()
+        }
+        else
+        {
+            segmentSpeed = if (from.speed.isNaN()) 0.0 else from.speed
+            segmentBearing = if (from.bearing.isNaN()) 0.0 else from.bearing
+        }
+
+        return true
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the next fix with a time after the previous one. Fixes without time are [DEFAULT_INTERVAL] apart.
+     */
+    private fun readFix(fix: TPositionFix): Boolean
+    {
+        while (reader.next(fix))
+        {
+            if (fix.timestamp == TPositionFix.NO_TIME)
+            {
+                fix.timestamp = if (lastTime == TPositionFix.NO_TIME) 0L else lastTime + DEFAULT_INTERVAL
+            }
+            else if ((lastTime != TPositionFix.NO_TIME) && (fix.timestamp <= lastTime))
+            {
+                continue
+            }
+
+            lastTime = fix.timestamp
+            return true
+        }
+
+        return false
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun updateSegment()
+    {
+        val distance = Geodesy.haversineDistance(from.latitude, from.longitude, to.latitude, to.longitude)
+
+        segmentSpeed = if (!to.speed.isNaN()) to.speed else distance * 1000.0 / (to.timestamp - from.timestamp)
+
+        // standing still keeps the previous heading instead of a random one
+        if (!to.bearing.isNaN())
+        {
+            segmentBearing = to.bearing
+        }
+        else if (distance >= MIN_BEARING_DISTANCE)
+        {
+            segmentBearing = Geodesy.bearing(from.latitude, from.longitude, to.latitude, to.longitude)
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        const val MIN_RATE = 1
+        const val MAX_RATE = 50
+
+        private const val DEFAULT_INTERVAL = 1000L
+        private const val MIN_BEARING_DISTANCE = 0.5
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Replays a recording into a sink at a fixed rate on its own threads.
+ *
+ * A reader thread parses and interpolates ahead into a small bounded queue, the feed thread takes
+ * the samples and pushes each one at its deadline. Deadlines are computed from the start time, not
+ * from the previous push, so the rate does not drift. The queue gives back-pressure both ways: the
+ * reader blocks when it is [PREFETCH] samples ahead, and a sink that blocks (e.g. SdkCall.execute)
+ * slows the feed down instead of piling up pending pushes like a Timer does. When the feed falls
+ * more than [MAX_LAG_MS] behind, the schedule restarts from the current time instead of pushing a
+ * burst of late samples.
+ *
+ * @param openReader Opens the recording, called again for every loop.
+ * @param rate Samples per second, between [PositionInterpolator.MIN_RATE] and [PositionInterpolator.MAX_RATE].
+ * @param loop Start over at the end of the recording.
+ */
+class PositionFeedPlayer(private val openReader: () -> IPositionReader,
+                         rate: Int,
+                         private val loop: Boolean,
+                         private val sink: IPositionSink)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    val rate = rate.coerceIn(PositionInterpolator.MIN_RATE, PositionInterpolator.MAX_RATE)
+
+    private val periodNanos = TimeUnit.SECONDS.toNanos(1) / this.rate
+
+    /** Samples waiting to be pushed, filled by the reader thread. */
+    private val ready = ArrayBlockingQueue<TPositionSample>(PREFETCH)
+
+    /** Pushed samples the reader thread can fill again. */
+    private val free = ArrayBlockingQueue<TPositionSample>(PREFETCH)
+
+    /** Marks the end of the recording in [ready]. */
+    private val endOfFeed = TPositionSample()
+
+    @Volatile
+    private var running = false
+
+    private var readerThread: Thread? = null
+    private var feedThread: Thread? = null
+
+    /** Number of samples pushed. */
+    @Volatile
+    var pushedCount = 0L
+        private set
+
+    /** Number of samples pushed after their deadline. */
+    @Volatile
+    var lateCount = 0L
+        private set
+
+    /** Called on the feed thread once a recording without [loop] has been pushed entirely. */
+    var onFinished: (() -> Unit)? = null
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    val isRunning: Boolean
+        get() = running
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun start()
+    {
+        if (running)
+        {
+            return
+        }
+
+        running = true
+        ready.clear()
+        free.clear()
+        repeat(PREFETCH - 1) { free.add(TPositionSample()) }
+
+        readerThread = Thread({ readLoop() }, "PositionFeedReader").also { it.start() }
+        feedThread = Thread({ feedLoop() }, "PositionFeed").also {
+            it.priority = Thread.MAX_PRIORITY
+            it.start()
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun stop()
+    {
+        running = false
+        readerThread?.interrupt()
+        feedThread?.interrupt()
+        readerThread = null
+        feedThread = null
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun readLoop()
+    {
+        try
+        {
+            do
+            {
+                var count = 0
+                openReader().use { reader ->
+                    val interpolator = PositionInterpolator(reader, rate)
+                    while (running)
+                    {
+                        val sample = free.take()
+                        if (!interpolator.next(sample))
+                        {
+                            free.put(sample)
+                            break
+                        }
+
+                        ready.put(sample)
+                        count++
+                    }
+                }
+            }
+            while (loop && running && (count > 0))
+
+            ready.put(endOfFeed)
+        }
+        catch (e: InterruptedException)
+        {
+            // stopped
+        }
+        catch (e: Exception)
+        {
+            Log.e(TAG, "Reading the position feed failed", e)
+            ready.offer(endOfFeed)
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun feedLoop()
+    {
+        try
+        {
+            var scheduleStart = System.nanoTime()
+            var index = 0L
+
+            while (running)
+            {
+                val sample = ready.take()
+                if (sample === endOfFeed)
+                {
+                    running = false
+                    onFinished?.invoke()
+                    break
+                }
+
+                var deadline = scheduleStart + index * periodNanos
+                var now = System.nanoTime()
+
+                if (now - deadline > MAX_LAG_NANOS)
+                {
+                    scheduleStart = now
+                    index = 0
+                    deadline = now
+                }
+
+                while (deadline - now > 0)
+                {
+                    LockSupport.parkNanos(deadline - now)
+                    if (Thread.interrupted())
+                    {
+                        throw InterruptedException()
+                    }
+                    now = System.nanoTime()
+                }
+
+                if (now - deadline > periodNanos)
+                {
+                    lateCount++
+                }
+
+                sink.push(sample)
+                pushedCount++
+                index++
+
+                free.put(sample)
+            }
+        }
+        catch (e: InterruptedException)
+        {
+            // stopped
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        private const val TAG = "PositionFeedPlayer"
+
+        const val PREFETCH = 64
+        const val MAX_LAG_MS = 1000L
+
+        private val MAX_LAG_NANOS = TimeUnit.MILLISECONDS.toNanos(MAX_LAG_MS)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
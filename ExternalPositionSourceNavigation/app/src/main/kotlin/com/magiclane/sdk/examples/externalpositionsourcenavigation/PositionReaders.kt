@@ -0,0 +1,633 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.externalpositionsourcenavigation
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import java.io.BufferedReader
+import java.io.Closeable
+import java.io.File
+import java.io.Reader
+import java.util.Locale
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * A recorded position. Readers fill the instance passed to [IPositionReader.next], so a whole
+ * drive is streamed without keeping it in memory.
+ */
+class TPositionFix
+{
+    /** Time of the fix in milliseconds since the epoch, [NO_TIME] if the source has none. */
+    var timestamp = NO_TIME
+    var latitude = 0.0
+    var longitude = 0.0
+
+    /** Altitude in meters, NaN if unknown. */
+    var altitude = Double.NaN
+
+    /** Speed in m/s as recorded by the source, NaN if it has to be derived. */
+    var speed = Double.NaN
+
+    /** Course in degrees as recorded by the source, NaN if it has to be derived. */
+    var bearing = Double.NaN
+
+    fun reset()
+    {
+        timestamp = NO_TIME
+        latitude = 0.0
+        longitude = 0.0
+        altitude = Double.NaN
+        speed = Double.NaN
+        bearing = Double.NaN
+    }
+
+    fun set(other: TPositionFix)
+    {
+        timestamp = other.timestamp
+        latitude = other.latitude
+        longitude = other.longitude
+        altitude = other.altitude
+        speed = other.speed
+        bearing = other.bearing
+    }
+
+    companion object
+    {
+        const val NO_TIME = Long.MIN_VALUE
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Reads the fixes of a recorded drive one at a time.
+ */
+interface IPositionReader : Closeable
+{
+    /**
+     * Reads the next fix into [fix].
+     *
+     * @return Return false at the end of the recording.
+     */
+    fun next(fix: TPositionFix): Boolean
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+object PositionReaders
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Opens a recording, the format is chosen by the file extension (gpx, nmea / txt or csv).
+     */
+    fun open(file: File): IPositionReader
+    {
+        val reader = file.bufferedReader()
+        return when (file.extension.lowercase(Locale.ROOT))
+        {
+            "gpx" -> GpxPositionReader(reader)
+            "nmea", "txt", "log" -> NmeaPositionReader(reader)
+            "csv" -> CsvPositionReader(reader)
+            else ->
+            {
+                reader.close()
+                throw IllegalArgumentException("Unsupported recording format: ${file.name}")
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parses an ISO 8601 UTC or offset date time, e.g. 2024-05-01T10:15:30.250Z, without
+     * java.time, which needs API level 26.
+     *
+     * @return Return the time in milliseconds since the epoch, [TPositionFix.NO_TIME] if the text is malformed.
+     */
+    fun parseIsoTime(text: CharSequence): Long
+    {
+        val length = text.length
+        if ((length < 19) || (text[4] != '-') || (text[7] != '-') || ((text[10] != 'T') && (text[10] != ' ')))
+        {
+            return TPositionFix.NO_TIME
+        }
+
+        val year = parseDigits(text, 0, 4)
+        val month = parseDigits(text, 5, 2)
+        val day = parseDigits(text, 8, 2)
+        val hour = parseDigits(text, 11, 2)
+        val minute = parseDigits(text, 14, 2)
+        val second = parseDigits(text, 17, 2)
+        if ((year < 0) || (month !in 1..12) || (day !in 1..31) || (hour < 0) || (minute < 0) || (second < 0))
+        {
+            return TPositionFix.NO_TIME
+        }
+
+        var index = 19
+        var millis = 0
+        if ((index < length) && (text[index] == '.'))
+        {
+            index++
+            var scale = 100
+            while ((index < length) && text[index].isDigit())
+            {
+                millis += (text[index] - '0') * scale
+                scale /= 10
+                index++
+            }
+        }
+
+        var offsetMinutes = 0
+        if ((index < length) && ((text[index] == '+') || (text[index] == '-')))
+        {
+            val sign = if (text[index] == '+') 1 else -1
+            val offsetHours = parseDigits(text, index + 1, 2)
+            val offsetMins = if ((index + 3 < length) && (text[index + 3] == ':')) parseDigits(text, index + 4, 2) else parseDigits(text, index + 3, 2)
+            if ((offsetHours < 0) || (offsetMins < 0))
+            {
+                return TPositionFix.NO_TIME
+            }
+
+            offsetMinutes = sign * (offsetHours * 60 + offsetMins)
+        }
+
+        val days = daysFromCivil(year, month, day)
+        return (((days * 24 + hour) * 60 + minute - offsetMinutes) * 60 + second) * 1000 + millis
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    internal fun daysFromCivil(year: Int, month: Int, day: Int): Long
+    {
+        val y = (if (month <= 2) year - 1 else year).toLong()
+        val era = Math.floorDiv(y, 400L)
+        val yearOfEra = y - era * 400
+        val dayOfYear = (153 * (if (month > 2) month - 3 else month + 9) + 2) / 5 + day - 1
+        val dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear
+
+        return era * 146097 + dayOfEra - 719468
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    internal fun parseDigits(text: CharSequence, start: Int, count: Int): Int
+    {
+        if (start + count > text.length)
+        {
+            return -1
+        }
+
+        var value = 0
+        for (i in start until start + count)
+        {
+            val c = text[i]
+            if (!c.isDigit())
+            {
+                return -1
+            }
+
+            value = value * 10 + (c - '0')
+        }
+
+        return value
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Reads a track kept in memory as interleaved latitudes and longitudes, with the fixes
+ * [interval] milliseconds apart.
+ */
+class ArrayPositionReader(private val coordinates: DoubleArray, private val interval: Long = 1000L) : IPositionReader
+{
+    private var index = 0
+
+    override fun next(fix: TPositionFix): Boolean
+    {
+        if (2 * index + 1 >= coordinates.size)
+        {
+            return false
+        }
+
+        fix.reset()
+        fix.timestamp = index * interval
+        fix.latitude = coordinates[2 * index]
+        fix.longitude = coordinates[2 * index + 1]
+        index++
+        return true
+    }
+
+    override fun close()
+    {
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Streams the track points (trkpt, rtept or wpt) of a GPX file. The file is scanned tag by tag
+ * instead of being parsed into a document, so recordings of any length are read in constant
+ * memory.
+ */
+class GpxPositionReader(reader: Reader) : IPositionReader
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private val input = if (reader is BufferedReader) reader else BufferedReader(reader)
+    private val tag = StringBuilder()
+    private val text = StringBuilder()
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    override fun next(fix: TPositionFix): Boolean
+    {
+        var inPoint = false
+        var element = ""
+
+        while (true)
+        {
+            // text up to the next tag
+            text.setLength(0)
+            var c = input.read()
+            while ((c >= 0) && (c != '<'.code))
+            {
+                text.append(c.toChar())
+                c = input.read()
+            }
+
+            if (c < 0)
+            {
+                return false
+            }
+
+            if (inPoint && element.isNotEmpty())
+            {
+                when (element)
+                {
+                    "ele" -> fix.altitude = text.trim().toString().toDoubleOrNull() ?: Double.NaN
+                    "time" -> fix.timestamp = PositionReaders.parseIsoTime(text.trim())
+                }
+                element = ""
+            }
+
+            tag.setLength(0)
+            c = input.read()
+            while ((c >= 0) && (c != '>'.code))
+            {
+                tag.append(c.toChar())
+                c = input.read()
+            }
+
+            if ((c < 0) || tag.isEmpty() || (tag[0] == '?') || (tag[0] == '!'))
+            {
+                if (c < 0)
+                {
+                    return false
+                }
+                continue
+            }
+
+            val closing = tag[0] == '/'
+            val name = tagName(if (closing) 1 else 0)
+
+            if (isPointElement(name))
+            {
+                if (closing)
+                {
+                    if (inPoint)
+                    {
+                        return true
+                    }
+                }
+                else
+                {
+                    fix.reset()
+                    val latitude = attribute("lat")
+                    val longitude = attribute("lon")
+                    if ((latitude == null) || (longitude == null))
+                    {
+                        continue
+                    }
+
+                    fix.latitude = latitude
+                    fix.longitude = longitude
+
+                    // <trkpt lat=".." lon=".."/> has no children
+                    if (tag[tag.length - 1] == '/')
+                    {
+                        return true
+                    }
+                    inPoint = true
+                }
+            }
+            else if (inPoint && !closing)
+            {
+                element = name
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    override fun close()
+    {
+        input.close()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun isPointElement(name: String): Boolean
+    {
+        return (name == "trkpt") || (name == "rtept") || (name == "wpt")
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun tagName(start: Int): String
+    {
+        var end = start
+        while ((end < tag.length) && !tag[end].isWhitespace() && (tag[end] != '/'))
+        {
+            end++
+        }
+
+        // ignore a namespace prefix, e.g. gpx:trkpt
+        val colon = tag.lastIndexOf(":", end)
+        return tag.substring(if ((colon >= start) && (colon < end)) colon + 1 else start, end)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun attribute(name: String): Double?
+    {
+        var index = tag.indexOf(name)
+        while (index >= 0)
+        {
+            val afterName = index + name.length
+            val isWholeName = ((index == 0) || tag[index - 1].isWhitespace()) &&
+                    (afterName < tag.length) && ((tag[afterName] == '=') || tag[afterName].isWhitespace())
+
+            if (isWholeName)
+            {
+                var quote = afterName
+                while ((quote < tag.length) && (tag[quote] != '"') && (tag[quote] != '\''))
+                {
+                    quote++
+                }
+
+                val end = if (quote < tag.length) tag.indexOf(tag[quote].toString(), quote + 1) else -1
+                return if (end > quote) tag.substring(quote + 1, end).trim().toDoubleOrNull() else null
+            }
+
+            index = tag.indexOf(name, afterName)
+        }
+
+        return null
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Streams the fixes of an NMEA 0183 log. Positions, speed and course come from the RMC
+ * sentences, the altitude from the GGA sentence of the same time.
+ */
+class NmeaPositionReader(reader: Reader) : IPositionReader
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private val input = if (reader is BufferedReader) reader else BufferedReader(reader)
+    private val fields = ArrayList<String>(20)
+    private var altitude = Double.NaN
+    private var altitudeTime = ""
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    override fun next(fix: TPositionFix): Boolean
+    {
+        while (true)
+        {
+            val line = input.readLine() ?: return false
+            if (!split(line))
+            {
+                continue
+            }
+
+            val type = fields[0]
+            if (type.endsWith("GGA") && (fields.size > 9))
+            {
+                altitudeTime = fields[1]
+                altitude = fields[9].toDoubleOrNull() ?: Double.NaN
+            }
+            else if (type.endsWith("RMC") && (fields.size > 9) && (fields[2] == "A"))
+            {
+                val latitude = parseCoordinate(fields[3], fields[4], 2)
+                val longitude = parseCoordinate(fields[5], fields[6], 3)
+                if (latitude.isNaN() || longitude.isNaN())
+                {
+                    continue
+                }
+
+                fix.reset()
+                fix.latitude = latitude
+                fix.longitude = longitude
+                fix.timestamp = parseTime(fields[1], fields[9])
+                fix.speed = (fields[7].toDoubleOrNull() ?: Double.NaN) * KNOTS_TO_MPS
+                fix.bearing = fields[8].toDoubleOrNull() ?: Double.NaN
+
+                if (altitudeTime == fields[1])
+                {
+                    fix.altitude = altitude
+                }
+
+                return true
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    override fun close()
+    {
+        input.close()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Splits a sentence into its fields, after checking the checksum when there is one.
+     */
+    private fun split(line: String): Boolean
+    {
+        val start = line.indexOf('$')
+        if (start < 0)
+        {
+            return false
+        }
+
+        var end = line.indexOf('*', start)
+        if (end >= 0)
+        {
+            val expected = line.substring(end + 1).trim().take(2).toIntOrNull(16) ?: return false
+            var checksum = 0
+            for (i in start + 1 until end)
+            {
+                checksum = checksum xor line[i].code
+            }
+
+            if (checksum != expected)
+            {
+                return false
+            }
+        }
+        else
+        {
+            end = line.trimEnd().length
+        }
+
+        fields.clear()
+        var fieldStart = start + 1
+        for (i in start + 1..end)
+        {
+            if ((i == end) || (line[i] == ','))
+            {
+                fields.add(line.substring(fieldStart, i))
+                fieldStart = i + 1
+            }
+        }
+
+        return true
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Converts ddmm.mmmm / dddmm.mmmm and the hemisphere to signed degrees.
+     */
+    private fun parseCoordinate(value: String, hemisphere: String, degreeDigits: Int): Double
+    {
+        if (value.length <= degreeDigits)
+        {
+            return Double.NaN
+        }
+
+        val degrees = value.substring(0, degreeDigits).toIntOrNull() ?: return Double.NaN
+        val minutes = value.substring(degreeDigits).toDoubleOrNull() ?: return Double.NaN
+        val result = degrees + minutes / 60.0
+
+        return if ((hemisphere == "S") || (hemisphere == "W")) -result else result
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Converts hhmmss.sss and ddmmyy to milliseconds since the epoch.
+     */
+    private fun parseTime(time: String, date: String): Long
+    {
+        val hour = PositionReaders.parseDigits(time, 0, 2)
+        val minute = PositionReaders.parseDigits(time, 2, 2)
+        val second = PositionReaders.parseDigits(time, 4, 2)
+        val day = PositionReaders.parseDigits(date, 0, 2)
+        val month = PositionReaders.parseDigits(date, 2, 2)
+        val year = PositionReaders.parseDigits(date, 4, 2)
+        if ((hour < 0) || (minute < 0) || (second < 0) || (day < 1) || (month !in 1..12) || (year < 0))
+        {
+            return TPositionFix.NO_TIME
+        }
+
+        val fraction = if ((time.length > 7) && (time[6] == '.')) (("0" + time.substring(6)).toDoubleOrNull() ?: 0.0) else 0.0
+        // two digit years, as GPS receivers do: 80..99 are the last century
+        val days = PositionReaders.daysFromCivil(if (year >= 80) 1900 + year else 2000 + year, month, day)
+
+        return ((days * 24 + hour) * 60 + minute) * 60_000 + second * 1000 + (fraction * 1000).toLong()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        private const val KNOTS_TO_MPS = 1852.0 / 3600.0
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Streams the fixes of a CSV file with the columns time, latitude, longitude and an optional
+ * altitude. The time is either epoch milliseconds or an ISO 8601 date time; a header line and
+ * lines that do not parse are skipped.
+ */
+class CsvPositionReader(reader: Reader, private val separator: Char = ',') : IPositionReader
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private val input = if (reader is BufferedReader) reader else BufferedReader(reader)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    override fun next(fix: TPositionFix): Boolean
+    {
+        while (true)
+        {
+            val line = input.readLine() ?: return false
+            val columns = line.split(separator)
+            if (columns.size < 3)
+            {
+                continue
+            }
+
+            val time = columns[0].trim()
+            val timestamp = time.toLongOrNull() ?: PositionReaders.parseIsoTime(time)
+            val latitude = columns[1].trim().toDoubleOrNull()
+            val longitude = columns[2].trim().toDoubleOrNull()
+            if ((timestamp == TPositionFix.NO_TIME) || (latitude == null) || (longitude == null))
+            {
+                continue
+            }
+
+            fix.reset()
+            fix.timestamp = timestamp
+            fix.latitude = latitude
+            fix.longitude = longitude
+            if (columns.size > 3)
+            {
+                fix.altitude = columns[3].trim().toDoubleOrNull() ?: Double.NaN
+            }
+
+            return true
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    override fun close()
+    {
+        input.close()
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
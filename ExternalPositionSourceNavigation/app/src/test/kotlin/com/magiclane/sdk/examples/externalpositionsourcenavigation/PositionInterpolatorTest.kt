@@ -0,0 +1,154 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.externalpositionsourcenavigation
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class PositionInterpolatorTest {
+
+    private class ListPositionReader(private val fixes: List<TPositionFix>) : IPositionReader {
+        private var index = 0
+
+        override fun next(fix: TPositionFix): Boolean {
+            if (index >= fixes.size) {
+                return false
+            }
+            fix.set(fixes[index++])
+            return true
+        }
+
+        override fun close() {
+        }
+    }
+
+    private fun fix(timestamp: Long, latitude: Double, longitude: Double, altitude: Double = Double.NaN): TPositionFix {
+        val result = TPositionFix()
+        result.timestamp = timestamp
+        result.latitude = latitude
+        result.longitude = longitude
+        result.altitude = altitude
+        return result
+    }
+
+    private fun samples(interpolator: PositionInterpolator): List<TPositionSample> {
+        val result = ArrayList<TPositionSample>()
+        while (true) {
+            val sample = TPositionSample()
+            if (!interpolator.next(sample)) {
+                break
+            }
+            result.add(sample)
+        }
+        return result
+    }
+
+    @Test
+    fun resamplesLinearlyAtTheRate() {
+        val reader = ListPositionReader(listOf(fix(10_000, 0.0, 0.0, 100.0), fix(11_000, 0.001, 0.0, 110.0), fix(12_000, 0.002, 0.0, 130.0)))
+
+        val samples = samples(PositionInterpolator(reader, 4))
+
+        assertEquals(9, samples.size)
+        for (i in samples.indices) {
+            assertEquals(10_000L + i * 250, samples[i].timestamp)
+            assertEquals(0.00025 * i, samples[i].latitude, 1e-12)
+            assertEquals(0.0, samples[i].longitude, 0.0)
+        }
+        assertEquals(102.5, samples[1].altitude, 1e-9)
+        assertEquals(120.0, samples[6].altitude, 1e-9)
+
+        // speed and bearing are derived from the segment
+        val metres = Geodesy.haversineDistance(0.0, 0.0, 0.001, 0.0)
+        assertEquals(metres, samples[2].speed, 1e-9)
+        assertEquals(0.0, samples[2].bearing, 1e-9)
+    }
+
+    @Test
+    fun recordedSpeedAndBearingAreKept() {
+        val first = fix(0, 0.0, 0.0)
+        val second = fix(1000, 0.0, 0.001)
+        second.speed = 3.0
+        second.bearing = 45.0
+
+        val samples = samples(PositionInterpolator(ListPositionReader(listOf(first, second)), 2))
+
+        assertEquals(3, samples.size)
+        assertEquals(3.0, samples[1].speed, 0.0)
+        assertEquals(45.0, samples[1].bearing, 0.0)
+    }
+
+    @Test
+    fun standingStillKeepsTheHeading() {
+        val reader = ListPositionReader(listOf(fix(0, 0.0, 0.0), fix(1000, 0.0, 0.001), fix(2000, 0.0, 0.001)))
+
+        val samples = samples(PositionInterpolator(reader, 1))
+
+        assertEquals(3, samples.size)
+        assertEquals(90.0, samples[1].bearing, 1e-6)
+        assertEquals(90.0, samples[2].bearing, 1e-6)
+        assertEquals(0.0, samples[2].speed, 0.0)
+    }
+
+    @Test
+    fun crossesTheAntimeridian() {
+        val reader = ListPositionReader(listOf(fix(0, 0.0, 179.9995), fix(1000, 0.0, -179.9995)))
+
+        val samples = samples(PositionInterpolator(reader, 2))
+
+        assertEquals(3, samples.size)
+        assertEquals(180.0, Math.abs(samples[1].longitude), 1e-9)
+        assertEquals(-179.9995, samples[2].longitude, 1e-9)
+    }
+
+    @Test
+    fun fixesOutOfOrderAreSkippedAndMissingTimesAreSpaced() {
+        val reader = ListPositionReader(listOf(fix(5000, 0.0, 0.0), fix(4000, 1.0, 1.0), fix(TPositionFix.NO_TIME, 0.0, 0.001)))
+
+        val samples = samples(PositionInterpolator(reader, 1))
+
+        // the fix without time comes one second after the last fix
+        assertEquals(2, samples.size)
+        assertEquals(5000L, samples[0].timestamp)
+        assertEquals(6000L, samples[1].timestamp)
+        assertEquals(0.001, samples[1].longitude, 1e-12)
+        assertEquals(0.0, samples[1].latitude, 0.0)
+    }
+
+    @Test
+    fun singleFixAndEmptyRecording() {
+        val single = fix(0, 1.0, 2.0)
+        single.speed = 4.0
+
+        val samples = samples(PositionInterpolator(ListPositionReader(listOf(single)), 10))
+
+        assertEquals(1, samples.size)
+        assertEquals(4.0, samples[0].speed, 0.0)
+        assertEquals(0.0, samples[0].bearing, 0.0)
+
+        val interpolator = PositionInterpolator(ListPositionReader(emptyList()), 10)
+        assertFalse(interpolator.next(TPositionSample()))
+        assertFalse(interpolator.next(TPositionSample()))
+    }
+
+    @Test
+    fun arrayReaderSpacesTheFixes() {
+        val reader = ArrayPositionReader(doubleArrayOf(1.0, 2.0, 3.0, 4.0, 5.0), 500)
+        val fix = TPositionFix()
+
+        assertTrue(reader.next(fix))
+        assertEquals(0L, fix.timestamp)
+        assertTrue(reader.next(fix))
+        assertEquals(500L, fix.timestamp)
+        assertEquals(3.0, fix.latitude, 0.0)
+        assertEquals(4.0, fix.longitude, 0.0)
+        assertFalse(reader.next(fix))
+    }
+}
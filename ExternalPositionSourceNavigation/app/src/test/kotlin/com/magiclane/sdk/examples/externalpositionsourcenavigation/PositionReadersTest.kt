@@ -0,0 +1,192 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.externalpositionsourcenavigation
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.StringReader
+import java.time.Instant
+import java.time.LocalDate
+import java.time.OffsetDateTime
+
+class PositionReadersTest {
+
+    private fun readAll(reader: IPositionReader): List<TPositionFix> {
+        val result = ArrayList<TPositionFix>()
+        reader.use {
+            while (true) {
+                val fix = TPositionFix()
+                if (!it.next(fix)) {
+                    break
+                }
+                result.add(fix)
+            }
+        }
+        return result
+    }
+
+    private fun nmea(body: String): String {
+        var checksum = 0
+        for (c in body) {
+            checksum = checksum xor c.code
+        }
+        return "$" + body + "*" + String.format("%02X", checksum)
+    }
+
+    @Test
+    fun daysFromCivilMatchesTheCalendar() {
+        for (date in listOf("1970-01-01", "1969-12-31", "1900-03-01", "2000-02-29", "2024-12-31", "2100-03-01", "1600-01-01")) {
+            val expected = LocalDate.parse(date)
+            assertEquals(date, expected.toEpochDay(), PositionReaders.daysFromCivil(expected.year, expected.monthValue, expected.dayOfMonth))
+        }
+    }
+
+    @Test
+    fun parseIsoTimeMatchesJavaTime() {
+        assertEquals(Instant.parse("2024-05-01T10:15:30.250Z").toEpochMilli(), PositionReaders.parseIsoTime("2024-05-01T10:15:30.250Z"))
+        assertEquals(Instant.parse("2024-05-01T10:15:30Z").toEpochMilli(), PositionReaders.parseIsoTime("2024-05-01T10:15:30Z"))
+        assertEquals(Instant.parse("2024-05-01T10:15:30.100Z").toEpochMilli(), PositionReaders.parseIsoTime("2024-05-01 10:15:30.1"))
+        assertEquals(OffsetDateTime.parse("2024-05-01T10:15:30+02:00").toInstant().toEpochMilli(), PositionReaders.parseIsoTime("2024-05-01T10:15:30+02:00"))
+        assertEquals(OffsetDateTime.parse("2024-05-01T10:15:30-05:30").toInstant().toEpochMilli(), PositionReaders.parseIsoTime("2024-05-01T10:15:30-0530"))
+    }
+
+    @Test
+    fun parseIsoTimeRejectsMalformedText() {
+        assertEquals(TPositionFix.NO_TIME, PositionReaders.parseIsoTime(""))
+        assertEquals(TPositionFix.NO_TIME, PositionReaders.parseIsoTime("2024-05-01"))
+        assertEquals(TPositionFix.NO_TIME, PositionReaders.parseIsoTime("2024-13-01T10:15:30Z"))
+        assertEquals(TPositionFix.NO_TIME, PositionReaders.parseIsoTime("2024-05-01T1x:15:30Z"))
+        assertEquals(TPositionFix.NO_TIME, PositionReaders.parseIsoTime("2024-05-01T10:15:30+0"))
+    }
+
+    @Test
+    fun gpxReadsSelfClosingAndNestedPoints() {
+        val gpx = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <gpx:gpx xmlns:gpx="http://www.topografix.com/GPX/1/1">
+              <!-- recorded -->
+              <gpx:trk><gpx:trkseg>
+                <gpx:trkpt lat="45.5" lon="-73.25">
+                  <gpx:ele>12.5</gpx:ele>
+                  <gpx:time>2024-05-01T10:15:30Z</gpx:time>
+                </gpx:trkpt>
+                <gpx:trkpt lon='-73.5' lat='45.75'/>
+                <gpx:trkpt latitude="1" lon="2"/>
+                <gpx:trkpt lat="46" lon="-74"><gpx:time>2024-05-01T10:15:32.5Z</gpx:time></gpx:trkpt>
+              </gpx:trkseg></gpx:trk>
+            </gpx:gpx>
+        """.trimIndent()
+
+        val fixes = readAll(GpxPositionReader(StringReader(gpx)))
+
+        assertEquals(3, fixes.size)
+        assertEquals(45.5, fixes[0].latitude, 0.0)
+        assertEquals(-73.25, fixes[0].longitude, 0.0)
+        assertEquals(12.5, fixes[0].altitude, 0.0)
+        assertEquals(Instant.parse("2024-05-01T10:15:30Z").toEpochMilli(), fixes[0].timestamp)
+
+        assertEquals(45.75, fixes[1].latitude, 0.0)
+        assertEquals(-73.5, fixes[1].longitude, 0.0)
+        assertEquals(TPositionFix.NO_TIME, fixes[1].timestamp)
+        assertTrue(fixes[1].altitude.isNaN())
+
+        assertEquals(46.0, fixes[2].latitude, 0.0)
+        assertEquals(Instant.parse("2024-05-01T10:15:32.500Z").toEpochMilli(), fixes[2].timestamp)
+    }
+
+    @Test
+    fun nmeaReadsRmcAndGga() {
+        val log = listOf(
+            "\$GPGGA,123519,4807.038,N,01131.000,E,1,08,0.9,545.4,M,46.9,M,,*47",
+            "\$GPRMC,123519,A,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W*6A"
+        ).joinToString("\r\n")
+
+        val fixes = readAll(NmeaPositionReader(StringReader(log)))
+
+        assertEquals(1, fixes.size)
+        assertEquals(48 + 7.038 / 60, fixes[0].latitude, 1e-12)
+        assertEquals(11 + 31.0 / 60, fixes[0].longitude, 1e-12)
+        assertEquals(545.4, fixes[0].altitude, 0.0)
+        assertEquals(22.4 * 1852 / 3600, fixes[0].speed, 1e-9)
+        assertEquals(84.4, fixes[0].bearing, 0.0)
+        assertEquals(Instant.parse("1994-03-23T12:35:19Z").toEpochMilli(), fixes[0].timestamp)
+    }
+
+    @Test
+    fun nmeaSkipsBadChecksumsAndVoidFixes() {
+        val log = listOf(
+            "\$GPRMC,123519,A,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W*6B",
+            nmea("GPRMC,123520,V,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W"),
+            "garbage",
+            nmea("GNRMC,123521.50,A,3354.000,S,15112.000,W,0.0,,230394,,"),
+            // no checksum is accepted
+            "\$GPRMC,123522,A,3354.000,S,15112.000,W,0.0,,230394,,"
+        ).joinToString("\n")
+
+        val fixes = readAll(NmeaPositionReader(StringReader(log)))
+
+        assertEquals(2, fixes.size)
+        assertEquals(-(33 + 54.0 / 60), fixes[0].latitude, 1e-12)
+        assertEquals(-(151 + 12.0 / 60), fixes[0].longitude, 1e-12)
+        assertEquals(Instant.parse("1994-03-23T12:35:21.500Z").toEpochMilli(), fixes[0].timestamp)
+        assertTrue(fixes[0].bearing.isNaN())
+        assertTrue(fixes[0].altitude.isNaN())
+        assertEquals(Instant.parse("1994-03-23T12:35:22Z").toEpochMilli(), fixes[1].timestamp)
+    }
+
+    @Test
+    fun nmeaTimeRollsOverWithTheDate() {
+        val log = listOf(
+            nmea("GPRMC,235959.50,A,4807.038,N,01131.000,E,0.0,0.0,311299,,"),
+            nmea("GPRMC,000000.50,A,4807.038,N,01131.000,E,0.0,0.0,010100,,"),
+            nmea("GPRMC,000001,A,4807.038,N,01131.000,E,0.0,0.0,010180,,")
+        ).joinToString("\n")
+
+        val fixes = readAll(NmeaPositionReader(StringReader(log)))
+
+        assertEquals(Instant.parse("1999-12-31T23:59:59.500Z").toEpochMilli(), fixes[0].timestamp)
+        assertEquals(1000L, fixes[1].timestamp - fixes[0].timestamp)
+        assertEquals(Instant.parse("1980-01-01T00:00:01Z").toEpochMilli(), fixes[2].timestamp)
+    }
+
+    @Test
+    fun csvReadsEpochAndIsoTimes() {
+        val csv = """
+            time,latitude,longitude,altitude
+            1714558530250, 45.5 ,-73.25,12.5
+            2024-05-01T10:15:31Z,45.6,-73.3
+            not a time,45.7,-73.4
+            1714558532000,45.8
+            1714558533000,45.9,-73.6,unknown
+        """.trimIndent()
+
+        val fixes = readAll(CsvPositionReader(StringReader(csv)))
+
+        assertEquals(3, fixes.size)
+        assertEquals(1714558530250L, fixes[0].timestamp)
+        assertEquals(45.5, fixes[0].latitude, 0.0)
+        assertEquals(-73.25, fixes[0].longitude, 0.0)
+        assertEquals(12.5, fixes[0].altitude, 0.0)
+
+        assertEquals(Instant.parse("2024-05-01T10:15:31Z").toEpochMilli(), fixes[1].timestamp)
+        assertTrue(fixes[1].altitude.isNaN())
+
+        assertEquals(45.9, fixes[2].latitude, 0.0)
+        assertTrue(fixes[2].altitude.isNaN())
+    }
+
+    @Test
+    fun csvUsesTheGivenSeparator() {
+        val fixes = readAll(CsvPositionReader(StringReader("1000;45.5;-73.25;7"), ';'))
+
+        assertEquals(1, fixes.size)
+        assertEquals(7.0, fixes[0].altitude, 0.0)
+        assertTrue(readAll(CsvPositionReader(StringReader("1000;45.5;-73.25"))).isEmpty())
+    }
+}
@@ -0,0 +1,367 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.fingerroute
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import android.view.MotionEvent
+import kotlin.math.max
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Collects the screen positions of a finger stroke and simplifies them while the finger moves.
+ *
+ * Every sample of a [MotionEvent] is read, including the historical ones the system batches
+ * between two events. Samples closer than half the [tolerance] to the previous kept one are
+ * dropped (radial distance). The kept samples are simplified with Douglas-Peucker to the other half,
+ * in chunks of a few dozen points: the points found up to the last segment of a chunk are final,
+ * the last segment is simplified again with the samples that follow. Every sample of the stroke
+ * stays within [tolerance] pixels of the simplified line.
+ *
+ * The positions are kept in primitive arrays, so a stroke of thousands of samples allocates only
+ * when the arrays grow. Used on the UI thread.
+ */
+class GestureCapture(tolerance: Float)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    // half of the tolerance each for the radial distance and Douglas-Peucker
+    private val toleranceSquared = (tolerance / 2) * (tolerance / 2)
+
+    // simplified points, x and y interleaved
+    private var points = FloatArray(2 * 64)
+    private var pointCount = 0
+
+    // samples since the last simplified point, which is the first of them
+    private var pending = FloatArray(2 * 2 * CHUNK)
+    private var pendingCount = 0
+    private var nextSimplify = CHUNK
+
+    // the latest sample, when it was dropped by the radial distance filter
+    private var tailX = 0f
+    private var tailY = 0f
+    private var hasTail = false
+
+    private var keep = BooleanArray(2 * CHUNK)
+    private var stack = IntArray(2 * 2 * CHUNK)
+
+    /** Number of samples passed to [add] since [begin]. */
+    var sampleCount = 0
+        private set
+
+    /** Number of simplified points, valid after [finish]. */
+    val size: Int
+        get() = pointCount
+
+    fun x(index: Int) = points[2 * index]
+
+    fun y(index: Int) = points[2 * index + 1]
+
+    /** Number of points of the preview line: the simplified points, the pending samples and the latest sample. */
+    val previewSize: Int
+        get() = pointCount + max(pendingCount - 1, 0) + (if (hasTail) 1 else 0)
+
+    fun previewX(index: Int) = previewValue(index, 0)
+
+    fun previewY(index: Int) = previewValue(index, 1)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Starts a new stroke, drops the points of the previous one.
+     */
+    fun begin()
+    {
+        pointCount = 0
+        pendingCount = 0
+        nextSimplify = CHUNK
+        hasTail = false
+        sampleCount = 0
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Adds the historical samples of the event and its current position.
+     */
+    fun add(event: MotionEvent)
+    {
+        for (h in 0 until event.historySize)
+        {
+            add(event.getHistoricalX(h), event.getHistoricalY(h))
+        }
+
+        add(event.x, event.y)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Adds a sample. The first sample after [finish] starts a new stroke, also when [begin] was
+     * not called, e.g. for a move event whose down event went elsewhere.
+     */
+    fun add(x: Float, y: Float)
+    {
+        if (pendingCount == 0)
+        {
+            begin()
+            sampleCount = 1
+            appendPoint(x, y)
+            appendPending(x, y)
+            return
+        }
+
+        sampleCount++
+
+        val lastX = pending[2 * pendingCount - 2]
+        val lastY = pending[2 * pendingCount - 1]
+        val dx = x - lastX
+        val dy = y - lastY
+        if (dx * dx + dy * dy < toleranceSquared)
+        {
+            tailX = x
+            tailY = y
+            hasTail = true
+            return
+        }
+
+        hasTail = false
+        appendPending(x, y)
+
+        if (pendingCount >= nextSimplify)
+        {
+            simplifyPending(false)
+            nextSimplify = pendingCount + CHUNK
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Ends the stroke: the latest sample becomes the last point and the remaining samples are
+     * simplified. Returns the number of simplified points.
+     */
+    fun finish(): Int
+    {
+        if (hasTail)
+        {
+            // the end of the stroke is kept even when it is close to the previous sample
+            appendPending(tailX, tailY)
+            hasTail = false
+        }
+
+        if (pendingCount > 1)
+        {
+            simplifyPending(true)
+        }
+
+        pendingCount = 0
+        return pointCount
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns a copy of the simplified points, x and y interleaved.
+     */
+    fun toArray(): FloatArray = points.copyOf(2 * pointCount)
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Simplifies the pending samples and moves the points found to the simplified ones. Unless
+     * [all], the last segment stays pending, since the samples that follow may still change it.
+     */
+    private fun simplifyPending(all: Boolean)
+    {
+        val count = pendingCount
+        if (keep.size < count)
+        {
+            keep = BooleanArray(count * 2)
+            stack = IntArray(count * 4)
+        }
+
+        douglasPeucker(count)
+
+        var lastKept = 0
+        var secondLastKept = 0
+        for (i in 1 until count)
+        {
+            if (keep[i])
+            {
+                secondLastKept = lastKept
+                lastKept = i
+            }
+        }
+
+        var end = if (all) count - 1 else secondLastKept
+        if (!all && (end == 0) && (count >= MAX_PENDING))
+        {
+            // a long straight stroke, the end of the chunk is a point of the line anyway
+            end = count - 1
+        }
+
+        for (i in 1..end)
+        {
+            if (keep[i])
+            {
+                appendPoint(pending[2 * i], pending[2 * i + 1])
+            }
+        }
+
+        if (end > 0)
+        {
+            pending.copyInto(pending, 0, 2 * end, 2 * count)
+            pendingCount = count - end
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Marks in [keep] the pending samples a Douglas-Peucker simplification keeps. Iterative, the
+     * segments still to split are kept in [stack].
+     */
+    private fun douglasPeucker(count: Int)
+    {
+        keep.fill(false, 0, count)
+        keep[0] = true
+        keep[count - 1] = true
+
+        var top = 0
+        stack[top++] = 0
+        stack[top++] = count - 1
+
+        while (top > 0)
+        {
+            val last = stack[--top]
+            val first = stack[--top]
+
+            var maxDistance = 0f
+            var index = -1
+            for (i in first + 1 until last)
+            {
+                val distance = segmentDistanceSquared(i, first, last)
+                if (distance > maxDistance)
+                {
+                    maxDistance = distance
+                    index = i
+                }
+            }
+
+            if ((index >= 0) && (maxDistance > toleranceSquared))
+            {
+                keep[index] = true
+                stack[top++] = first
+                stack[top++] = index
+                stack[top++] = index
+                stack[top++] = last
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Squared distance of pending sample [i] to the segment between samples [a] and [b].
+     */
+    private fun segmentDistanceSquared(i: Int, a: Int, b: Int): Float
+    {
+        val px = pending[2 * i]
+        val py = pending[2 * i + 1]
+        var x = pending[2 * a]
+        var y = pending[2 * a + 1]
+        var dx = pending[2 * b] - x
+        var dy = pending[2 * b + 1] - y
+
+        if ((dx != 0f) || (dy != 0f))
+        {
+            val t = ((px - x) * dx + (py - y) * dy) / (dx * dx + dy * dy)
+            if (t > 1f)
+            {
+                x = pending[2 * b]
+                y = pending[2 * b + 1]
+            }
+            else if (t > 0f)
+            {
+                x += dx * t
+                y += dy * t
+            }
+        }
+
+        dx = px - x
+        dy = py - y
+        return dx * dx + dy * dy
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun previewValue(index: Int, coordinate: Int): Float
+    {
+        if (index < pointCount)
+        {
+            return points[2 * index + coordinate]
+        }
+
+        val pendingIndex = index - pointCount + 1
+        if (pendingIndex < pendingCount)
+        {
+            return pending[2 * pendingIndex + coordinate]
+        }
+
+        return if (coordinate == 0) tailX else tailY
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun appendPoint(x: Float, y: Float)
+    {
+        if (2 * pointCount + 2 > points.size)
+        {
+            points = points.copyOf(points.size * 2)
+        }
+
+        points[2 * pointCount] = x
+        points[2 * pointCount + 1] = y
+        pointCount++
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun appendPending(x: Float, y: Float)
+    {
+        if (2 * pendingCount + 2 > pending.size)
+        {
+            pending = pending.copyOf(pending.size * 2)
+        }
+
+        pending[2 * pendingCount] = x
+        pending[2 * pendingCount + 1] = y
+        pendingCount++
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        /** Number of new samples after which the pending ones are simplified. */
+        private const val CHUNK = 64
+
+        /** Pending samples after which a straight stroke is cut, so each simplification stays short. */
+        private const val MAX_PENDING = 4 * CHUNK
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,77 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.fingerroute
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import android.content.Context
+import android.graphics.Canvas
+import android.graphics.Color
+import android.graphics.Paint
+import android.graphics.Path
+import android.util.AttributeSet
+import android.util.TypedValue
+import android.view.View
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Draws the stroke of a [GestureCapture] over the map while the finger moves, in screen
+ * coordinates, so nothing has to be projected before the finger is lifted.
+ */
+class GesturePreviewView @JvmOverloads constructor(
+    context: Context,
+    attrs: AttributeSet? = null,
+    defStyleAttr: Int = 0
+) : View(context, attrs, defStyleAttr)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    var capture: GestureCapture? = null
+
+    private val path = Path()
+
+    private val paint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+        style = Paint.Style.STROKE
+        color = Color.MAGENTA
+        strokeWidth = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_MM, 1.5f, resources.displayMetrics)
+        strokeJoin = Paint.Join.ROUND
+        strokeCap = Paint.Cap.ROUND
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    override fun onDraw(canvas: Canvas)
+    {
+        super.onDraw(canvas)
+
+        val capture = capture ?: return
+        val count = capture.previewSize
+        if (count < 2)
+        {
+            return
+        }
+
+        path.rewind()
+        path.moveTo(capture.previewX(0), capture.previewY(0))
+        for (i in 1 until count)
+        {
+            path.lineTo(capture.previewX(i), capture.previewY(i))
+        }
+
+        canvas.drawPath(path, paint)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
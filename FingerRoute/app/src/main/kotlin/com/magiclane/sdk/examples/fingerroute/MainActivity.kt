@@ -64,6 +64,9 @@ class MainActivity : AppCompatActivity()
     {
         private const val emailAddress = "support@magiclane.com"
         private const val emailSubject = "Finger route GPX"
+
+        /** Distance in dp a finger stroke may be simplified by. */
+        private const val strokeToleranceDp = 3f
     }
 
     enum class TopLeftButtonState
@@ -112,7 +115,8 @@ class MainActivity : AppCompatActivity()
 
     private var fingerRouteIsVisible = true
 
-    private val fingerPolyline: ArrayList<Pair<Float, Float>> = arrayListOf()
+    private lateinit var gestureCapture: GestureCapture
+    private var strokeActive = false
 
     private lateinit var polylineCollection: MarkerCollection
 
@@ -242,6 +246,9 @@ class MainActivity : AppCompatActivity()
 
         inset = resources.getDimension(R.dimen.inset).toInt()
 
+        gestureCapture = GestureCapture(strokeToleranceDp * resources.displayMetrics.density)
+        binding.gesturePreview.capture = gestureCapture
+
         mapSurface.onDefaultMapViewCreated = {
             polylineCollection = MarkerCollection(EMarkerType.Polyline, "Polyline")
             polylineSettings = MarkerCollectionRenderSettings(polylineInnerColor = Rgba.magenta())
@@ -259,11 +266,46 @@ class MainActivity : AppCompatActivity()
             if (fingerRouteMode)
             {
                 event?.let {
-                    fingerPolyline.add(Pair(it.x, it.y))
-                    if (it.action == MotionEvent.ACTION_UP)
+                    when (it.actionMasked)
                     {
-                        prepareMarker()
-                        fingerPolyline.clear()
+                        MotionEvent.ACTION_DOWN ->
+                        {
+                            strokeActive = true
+                            gestureCapture.begin()
+                            gestureCapture.add(it)
+                            binding.gesturePreview.isVisible = true
+                            binding.gesturePreview.invalidate()
+                        }
+
+                        // ignored without a down event, e.g. when the mode was turned on while a finger was down
+                        MotionEvent.ACTION_MOVE ->
+                        {
+                            if (strokeActive)
+                            {
+                                gestureCapture.add(it)
+                                binding.gesturePreview.invalidate()
+                            }
+                        }
+
+                        MotionEvent.ACTION_UP ->
+                        {
+                            if (strokeActive)
+                            {
+                                strokeActive = false
+                                gestureCapture.add(it)
+                                gestureCapture.finish()
+                                binding.gesturePreview.isVisible = false
+
+                                prepareMarker(gestureCapture.toArray())
+                            }
+                        }
+
+                        MotionEvent.ACTION_CANCEL ->
+                        {
+                            strokeActive = false
+                            gestureCapture.begin()
+                            binding.gesturePreview.isVisible = false
+                        }
                     }
                 }
                 false
@@ -280,6 +322,7 @@ class MainActivity : AppCompatActivity()
             else
             {
                 fingerRouteMode = !fingerRouteMode
+                strokeActive = false
                 setupTopLeftButton(
                     if (fingerRouteMode)
                         TopLeftButtonState.ROUTING_ON
@@ -417,13 +460,17 @@ class MainActivity : AppCompatActivity()
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
-    private fun prepareMarker() = SdkCall.execute {
+    /**
+     * Projects the simplified stroke, given as screen x and y interleaved, to WGS in a single pass
+     * on the SDK thread and starts routing along it.
+     */
+    private fun prepareMarker(points: FloatArray) = SdkCall.execute {
         mapSurface.mapView?.let { mapView ->
             polylineCollection.clear()
             Marker().run {
 
-                for (point in fingerPolyline)
-                    mapView.transformScreenToWgs(Xy(point.first, point.second))
+                for (i in 0 until points.size / 2)
+                    mapView.transformScreenToWgs(Xy(points[2 * i], points[2 * i + 1]))
                         ?.let { coordinates -> add(coordinates) }
 
                 polylineCollection.add(this)
@@ -0,0 +1,140 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.fingerroute
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+import kotlin.math.cos
+import kotlin.math.sin
+import kotlin.math.sqrt
+
+class GestureCaptureTest {
+
+    private val tolerance = 8f
+
+    /** A wavy stroke with some jitter, like a finger drawing a route. */
+    private fun stroke(count: Int): FloatArray {
+        val random = Random(3)
+        val samples = FloatArray(2 * count)
+        for (i in 0 until count) {
+            val t = i / 20f
+            samples[2 * i] = 100f + 3f * t * 10f + 40f * sin(t / 3f) + random.nextFloat() * 2f
+            samples[2 * i + 1] = 800f - 2f * t * 10f + 120f * cos(t / 5f) + random.nextFloat() * 2f
+        }
+        return samples
+    }
+
+    private fun capture(samples: FloatArray): GestureCapture {
+        val capture = GestureCapture(tolerance)
+        capture.begin()
+        for (i in 0 until samples.size / 2)
+            capture.add(samples[2 * i], samples[2 * i + 1])
+        capture.finish()
+        return capture
+    }
+
+    private fun distanceToSegment(px: Float, py: Float, ax: Float, ay: Float, bx: Float, by: Float): Float {
+        val dx = bx - ax
+        val dy = by - ay
+        var t = if (dx == 0f && dy == 0f) 0f else ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy)
+        t = t.coerceIn(0f, 1f)
+        val x = ax + dx * t - px
+        val y = ay + dy * t - py
+        return sqrt(x * x + y * y)
+    }
+
+    private fun distanceToLine(capture: GestureCapture, px: Float, py: Float): Float {
+        var best = Float.MAX_VALUE
+        for (i in 0 until capture.size - 1)
+            best = minOf(best, distanceToSegment(px, py, capture.x(i), capture.y(i), capture.x(i + 1), capture.y(i + 1)))
+        return best
+    }
+
+    @Test
+    fun simplifiedLineStaysWithinTolerance() {
+        val samples = stroke(3000)
+        val capture = capture(samples)
+
+        assertEquals(3000, capture.sampleCount)
+        assertTrue(capture.size in 3 until 300)
+
+        // the stroke starts and ends where the finger did
+        assertEquals(samples[0], capture.x(0))
+        assertEquals(samples[1], capture.y(0))
+        assertEquals(samples[samples.size - 2], capture.x(capture.size - 1))
+        assertEquals(samples[samples.size - 1], capture.y(capture.size - 1))
+
+        for (i in 0 until samples.size / 2)
+            assertTrue(distanceToLine(capture, samples[2 * i], samples[2 * i + 1]) <= tolerance + 0.01f)
+    }
+
+    @Test
+    fun straightStrokeKeepsFewPoints() {
+        val capture = GestureCapture(tolerance)
+        capture.begin()
+        for (i in 0 until 5000)
+            capture.add(10f + i * 0.5f, 20f + i * 0.25f)
+        capture.finish()
+
+        assertTrue(capture.size <= 12)
+        for (i in 0 until capture.size)
+            assertEquals(20f + (capture.x(i) - 10f) * 0.5f, capture.y(i), 0.01f)
+    }
+
+    @Test
+    fun previewFollowsTheFinger() {
+        val capture = GestureCapture(tolerance)
+        capture.begin()
+        capture.add(0f, 0f)
+        capture.add(50f, 0f)
+        capture.add(100f, 0f)
+
+        // closer than the tolerance to the last kept sample, still drawn
+        capture.add(102f, 1f)
+
+        assertEquals(4, capture.previewSize)
+        assertEquals(0f, capture.previewX(0))
+        assertEquals(100f, capture.previewX(2))
+        assertEquals(102f, capture.previewX(3))
+        assertEquals(1f, capture.previewY(3))
+
+        // the end of the stroke is kept, the straight middle is not
+        assertEquals(2, capture.finish())
+        assertEquals(102f, capture.x(1))
+        assertEquals(4, capture.toArray().size)
+
+        capture.begin()
+        assertEquals(0, capture.previewSize)
+        assertEquals(0, capture.finish())
+    }
+
+    @Test
+    fun addAfterFinishStartsANewStroke() {
+        val capture = capture(stroke(100))
+        assertTrue(capture.size > 1)
+
+        // no begin(), e.g. a move event whose down event was not seen
+        capture.add(5f, 6f)
+        capture.add(55f, 6f)
+
+        assertEquals(2, capture.sampleCount)
+        assertEquals(2, capture.finish())
+        assertEquals(5f, capture.x(0))
+        assertEquals(55f, capture.x(1))
+    }
+
+    @Test
+    fun longStrokeIsReduced() {
+        val capture = capture(stroke(10000))
+
+        assertEquals(10000, capture.sampleCount)
+        assertTrue(capture.size in 3 until 1000)
+    }
+}
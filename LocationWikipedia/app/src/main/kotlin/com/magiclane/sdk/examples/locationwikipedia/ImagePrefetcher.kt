@@ -0,0 +1,599 @@
+// -------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.locationwikipedia
+
+// -------------------------------------------------------------------------------------------------
+
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+// -------------------------------------------------------------------------------------------------
+
+enum class TLoadState {
+    ENotRequested,
+    ELoading,
+    EPendingReloading,
+    EFailed,
+    ELoaded,
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Fetches the images of a gallery.
+ */
+fun interface IImageSource<V>
+{
+    /**
+     * Starts fetching the image at [index]. At most one request runs per [slot], so a source can
+     * keep one listener per slot. [onResult] is called once, on any thread, with null on failure.
+     */
+    fun request(index: Int, slot: Int, onResult: (V?) -> Unit)
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Converts images to and from their file form for the disk cache.
+ */
+interface IImageCodec<V>
+{
+    fun encode(value: V, output: OutputStream): Boolean
+
+    fun decode(file: File): V?
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Least recently used images, bounded by their size in bytes rather than by their count, so a few
+ * large images cannot exhaust the heap.
+ */
+class ImageMemoryCache<V>(val maxBytes: Long, private val byteCount: (V) -> Int)
+{
+    // ---------------------------------------------------------------------------------------------
+
+    private val entries = LinkedHashMap<String, V>(16, 0.75f, true)
+
+    var size = 0L
+        private set
+
+    var hits = 0
+        private set
+
+    var misses = 0
+        private set
+
+    var evictions = 0
+        private set
+
+    // ---------------------------------------------------------------------------------------------
+
+    @Synchronized
+    fun get(key: String): V?
+    {
+        val value = entries[key]
+        if (value != null) hits++ else misses++
+        return value
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Adds an image, evicting the least recently used ones to stay within [maxBytes].
+     *
+     * @return Return false if the image alone is larger than the cache.
+     */
+    @Synchronized
+    fun put(key: String, value: V): Boolean
+    {
+        val bytes = byteCount(value).toLong()
+        if (bytes > maxBytes)
+        {
+            return false
+        }
+
+        entries.put(key, value)?.let { size -= byteCount(it) }
+        size += bytes
+
+        trimTo(maxBytes)
+        return true
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    @Synchronized
+    fun clear()
+    {
+        entries.clear()
+        size = 0
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun trimTo(bytes: Long)
+    {
+        val iterator = entries.values.iterator()
+        while ((size > bytes) && iterator.hasNext())
+        {
+            size -= byteCount(iterator.next())
+            iterator.remove()
+            evictions++
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Encoded images in a directory, bounded by their total file size. Images evicted from memory are
+ * read back from here instead of being downloaded again, also across app restarts.
+ *
+ * The files are written to a temporary name and renamed, so a crash never leaves a truncated
+ * image behind.
+ */
+class ImageDiskCache<V>(private val directory: File, val maxBytes: Long, private val codec: IImageCodec<V>)
+{
+    // ---------------------------------------------------------------------------------------------
+
+    /** File sizes in least recently used order, loaded from the directory on first use. */
+    private var entries: LinkedHashMap<String, Long>? = null
+
+    var size = 0L
+        private set
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Reads and decodes an image, null if it is not cached or does not decode.
+     */
+    fun read(key: String): V?
+    {
+        val file = File(directory, fileName(key))
+
+        synchronized(this) {
+            if (index()[file.name] == null)
+            {
+                return null
+            }
+        }
+
+        val value = codec.decode(file)
+        if (value == null)
+        {
+            remove(file)
+        }
+
+        return value
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Encodes and stores an image, evicting the least recently used files to stay within [maxBytes].
+     */
+    fun write(key: String, value: V): Boolean
+    {
+        val file = File(directory, fileName(key))
+        val temp = File(directory, file.name + TEMP_SUFFIX)
+
+        try
+        {
+            directory.mkdirs()
+            val encoded = FileOutputStream(temp).buffered().use { codec.encode(value, it) }
+            if (!encoded || !temp.renameTo(file))
+            {
+                temp.delete()
+                return false
+            }
+        }
+        catch (e: IOException)
+        {
+            temp.delete()
+            return false
+        }
+
+        synchronized(this) {
+            val entries = index()
+            entries.remove(file.name)?.let { size -= it }
+            entries[file.name] = file.length()
+            size += file.length()
+
+            val iterator = entries.entries.iterator()
+            while ((size > maxBytes) && iterator.hasNext())
+            {
+                val eldest = iterator.next()
+                if (eldest.key == file.name)
+                {
+                    continue
+                }
+
+                File(directory, eldest.key).delete()
+                size -= eldest.value
+                iterator.remove()
+            }
+        }
+
+        return true
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    @Synchronized
+    fun clear()
+    {
+        directory.listFiles()?.forEach { it.delete() }
+        entries = LinkedHashMap(16, 0.75f, true)
+        size = 0
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    @Synchronized
+    private fun remove(file: File)
+    {
+        index().remove(file.name)?.let { size -= it }
+        file.delete()
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun index(): LinkedHashMap<String, Long>
+    {
+        entries?.let { return it }
+
+        val result = LinkedHashMap<String, Long>(16, 0.75f, true)
+        size = 0
+
+        directory.listFiles()?.sortedBy { it.lastModified() }?.forEach { file ->
+            if (file.name.endsWith(TEMP_SUFFIX))
+            {
+                file.delete()
+            }
+            else
+            {
+                result[file.name] = file.length()
+                size += file.length()
+            }
+        }
+
+        entries = result
+        return result
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        private const val TEMP_SUFFIX = ".tmp"
+
+        /**
+         * Keeps the readable part of the key and adds its hash, so different keys cannot map to
+         * the same file after the unsafe characters are replaced.
+         */
+        fun fileName(key: String): String
+        {
+            val name = StringBuilder(key.length + 9)
+            for (c in key.take(64))
+            {
+                name.append(if (c.isLetterOrDigit() || (c == '-')) c else '_')
+            }
+
+            return name.append('_').append(Integer.toHexString(key.hashCode())).toString()
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Loads the images of a gallery with up to [maxConcurrent] requests at a time.
+ *
+ * The visible items are fetched first, then the [prefetchCount] items after them and half as many
+ * before them. Images are looked up in memory, then on disk on the [ioExecutor], and only then
+ * requested from the [source]. A failed request is retried [maxRetries] times, after the other
+ * pending items.
+ *
+ * [onChanged] is called with the index of an item whose state changed, on the thread that
+ * completed it.
+ */
+class ImagePrefetcher<V>(private val source: IImageSource<V>,
+                         private val memoryCache: ImageMemoryCache<V>,
+                         private val diskCache: ImageDiskCache<V>?,
+                         private val ioExecutor: Executor,
+                         val maxConcurrent: Int = 3,
+                         val prefetchCount: Int = 4,
+                         val maxRetries: Int = 3,
+                         private val onChanged: (Int) -> Unit)
+{
+    // ---------------------------------------------------------------------------------------------
+
+    private var keyPrefix = ""
+    private var states = arrayOf<TLoadState>()
+    private var failures = IntArray(0)
+
+    /** Busy request slots, see [IImageSource.request]. */
+    private val slots = BooleanArray(maxConcurrent)
+
+    /** Changed by [reset], results of requests started before are dropped. */
+    private var generation = 0
+
+    private var firstVisible = 0
+    private var lastVisible = 0
+
+    /** Number of requests made to the source. */
+    var requestCount = 0
+        private set
+
+    /** Number of images read back from the disk cache. */
+    var diskHitCount = 0
+        private set
+
+    // ---------------------------------------------------------------------------------------------
+
+    val itemCount: Int
+        @Synchronized get() = states.size
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Starts a new gallery of [count] images. [key] identifies the gallery in the caches, e.g. the
+     * landmark and the image quality.
+     */
+    fun reset(key: String, count: Int)
+    {
+        synchronized(this) {
+            generation++
+            keyPrefix = key
+            states = Array(count) { TLoadState.ENotRequested }
+            failures = IntArray(count)
+            firstVisible = 0
+            lastVisible = 0
+        }
+
+        schedule()
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Moves the priority to the items shown on screen.
+     */
+    fun setVisibleRange(first: Int, last: Int)
+    {
+        synchronized(this) {
+            if ((first < 0) || (last < first) || ((first == firstVisible) && (last == lastVisible)))
+            {
+                return
+            }
+
+            firstVisible = first
+            lastVisible = last
+        }
+
+        schedule()
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the image at [index] if it is in memory. An image evicted from memory is loaded
+     * again, from disk when possible.
+     */
+    fun get(index: Int): V?
+    {
+        synchronized(this) {
+            if (index !in states.indices)
+            {
+                return null
+            }
+
+            val value = memoryCache.get(key(index))
+            if ((value != null) || (states[index] != TLoadState.ELoaded))
+            {
+                return value
+            }
+
+            states[index] = TLoadState.ENotRequested
+        }
+
+        schedule()
+        return null
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    @Synchronized
+    fun state(index: Int): TLoadState = if (index in states.indices) states[index] else TLoadState.ENotRequested
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Starts the next requests while there are free slots.
+     */
+    private fun schedule()
+    {
+        while (true)
+        {
+            val index: Int
+            val slot: Int
+            val requestGeneration: Int
+            val key: String
+
+            synchronized(this) {
+                slot = slots.indexOf(false)
+                index = if (slot >= 0) nextIndex() else -1
+                if (index < 0)
+                {
+                    return
+                }
+
+                slots[slot] = true
+                states[index] = TLoadState.ELoading
+                requestGeneration = generation
+                key = key(index)
+            }
+
+            onChanged(index)
+
+            if (diskCache != null)
+            {
+                val started = executeIo {
+                    val value = diskCache.read(key)
+                    if (value != null)
+                    {
+                        synchronized(this) { diskHitCount++ }
+                        complete(requestGeneration, index, slot, key, value, false)
+                    }
+                    else
+                    {
+                        request(requestGeneration, index, slot, key)
+                    }
+                }
+
+                if (!started)
+                {
+                    // shut down, nothing more is loaded
+                    synchronized(this) {
+                        slots[slot] = false
+                        if (requestGeneration == generation)
+                        {
+                            states[index] = TLoadState.ENotRequested
+                        }
+                    }
+                    return
+                }
+            }
+            else
+            {
+                request(requestGeneration, index, slot, key)
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun request(requestGeneration: Int, index: Int, slot: Int, key: String)
+    {
+        synchronized(this) { requestCount++ }
+        source.request(index, slot) { value -> complete(requestGeneration, index, slot, key, value, true) }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Runs [task] on the [ioExecutor]. Returns false if the executor was shut down, e.g. in
+     * onDestroy() while requests were still completing; the task is then dropped.
+     */
+    private fun executeIo(task: () -> Unit): Boolean
+    {
+        return try
+        {
+            ioExecutor.execute(task)
+            true
+        }
+        catch (e: RejectedExecutionException)
+        {
+            false
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun complete(requestGeneration: Int, index: Int, slot: Int, key: String, value: V?, downloaded: Boolean)
+    {
+        val current = synchronized(this) {
+            slots[slot] = false
+
+            if (requestGeneration != generation)
+            {
+                value?.let { memoryCache.put(key, it) }
+            }
+            else if (value != null)
+            {
+                states[index] = if (memoryCache.put(key, value)) TLoadState.ELoaded else TLoadState.EFailed
+            }
+            else
+            {
+                failures[index]++
+                states[index] = if (failures[index] > maxRetries) TLoadState.EFailed else TLoadState.EPendingReloading
+            }
+
+            requestGeneration == generation
+        }
+
+        if ((value != null) && downloaded && (diskCache != null))
+        {
+            executeIo { diskCache.write(key, value) }
+        }
+
+        if (current)
+        {
+            onChanged(index)
+        }
+
+        schedule()
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * The most urgent item to load: visible ones, then the ones ahead, then the ones behind.
+     * Retries only come after every other item in range was started.
+     */
+    private fun nextIndex(): Int
+    {
+        if (states.isEmpty())
+        {
+            return -1
+        }
+
+        val last = minOf(lastVisible, states.size - 1)
+        val first = minOf(firstVisible, last)
+
+        for (state in arrayOf(TLoadState.ENotRequested, TLoadState.EPendingReloading))
+        {
+            for (i in first..last)
+            {
+                if (states[i] == state) return i
+            }
+
+            for (i in last + 1..minOf(last + prefetchCount, states.size - 1))
+            {
+                if (states[i] == state) return i
+            }
+
+            for (i in first - 1 downTo maxOf(first - prefetchCount / 2, 0))
+            {
+                if (states[i] == state) return i
+            }
+        }
+
+        return -1
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun key(index: Int) = "$keyPrefix/$index"
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
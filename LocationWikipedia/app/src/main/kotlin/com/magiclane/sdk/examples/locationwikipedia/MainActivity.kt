@@ -17,6 +17,7 @@ import android.annotation.SuppressLint
 import android.content.Intent
 import android.content.res.Resources
 import android.graphics.Bitmap
+import android.graphics.BitmapFactory
 import android.net.Uri
 import android.os.Bundle
 import android.util.TypedValue
@@ -53,6 +54,10 @@ import com.magiclane.sdk.util.GemUtil
 import com.magiclane.sdk.util.SdkCall
 import com.magiclane.sdk.util.Util
 import com.google.android.material.bottomsheet.BottomSheetDialog
+import java.io.File
+import java.io.OutputStream
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 import kotlin.system.exitProcess
 
 // -------------------------------------------------------------------------------------------------
@@ -69,8 +74,6 @@ class MainActivity : AppCompatActivity()
     private lateinit var wikipediaTitle: TextView
     private lateinit var wikipediaDescription: TextView
     
-    private var wikipediaImagesList = mutableListOf<WikipediaImageModel>()
-
     private val externalInfoService = ExternalInfo()
     
     private var standardHeight = 0
@@ -119,7 +122,11 @@ class MainActivity : AppCompatActivity()
         postOnMain = true
     )
     
-    private val wikipediaImagesProgressListener = WikipediaImagesProgressListener()
+    private val imageRequests = Array(MAX_CONCURRENT_REQUESTS) { WikipediaImageRequest() }
+
+    private val imagesIoExecutor: ExecutorService = Executors.newSingleThreadExecutor()
+
+    private lateinit var imagePrefetcher: ImagePrefetcher<Bitmap>
 
     // ---------------------------------------------------------------------------------------------
 
@@ -140,6 +147,16 @@ class MainActivity : AppCompatActivity()
         
         standardHeight = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_MM, 30f, resources.displayMetrics).toInt()
 
+        imagePrefetcher = ImagePrefetcher(
+            source = { index, slot, onResult -> imageRequests[slot].start(index, onResult) },
+            memoryCache = ImageMemoryCache(Runtime.getRuntime().maxMemory() / 8) { it.allocationByteCount },
+            diskCache = ImageDiskCache(File(cacheDir, "wikipedia_images"), DISK_CACHE_SIZE, BitmapCodec),
+            ioExecutor = imagesIoExecutor,
+            maxConcurrent = MAX_CONCURRENT_REQUESTS
+        ) { index ->
+            Util.postOnMain { wikipediaListAdapter?.notifyItemChanged(index) }
+        }
+
         SdkSettings.onMapDataReady = onMapDataReady@{ isReady ->
             if (!isReady) return@onMapDataReady
 
@@ -170,6 +187,7 @@ class MainActivity : AppCompatActivity()
     override fun onDestroy()
     {
         super.onDestroy()
+        imagesIoExecutor.shutdown()
 
         // Release the SDK.
         GemSdk.release()
@@ -191,22 +209,11 @@ class MainActivity : AppCompatActivity()
 
     // ---------------------------------------------------------------------------------------------
     
-    private fun fetchItemAtIndex(index: Int) = SdkCall.execute { 
-        if (index < 0 || index >= wikipediaImagesList.size) return@execute
-
-        wikipediaImagesProgressListener.apply {
-            retryCount = 3
-            this.index = index
-
-            image?.let {
-                externalInfoService.requestWikiImage(wikipediaImagesProgressListener,
-                    it,
-                    index,
-                    imageQuality
-                )
-            }
+    private fun updateVisibleImages()
+    {
+        (wikipediaImagesRecyclerView.layoutManager as? LinearLayoutManager)?.let {
+            imagePrefetcher.setVisibleRange(it.findFirstVisibleItemPosition(), it.findLastVisibleItemPosition())
         }
-        
     }
     
     // ---------------------------------------------------------------------------------------------
@@ -232,12 +239,14 @@ class MainActivity : AppCompatActivity()
         var wikipediaDescriptionString = ""
         var wikipediaUrl = ""
         var wikipediaImagesCount = 0
+        var wikipediaImagesKey = ""
         
         SdkCall.execute {
             wikipediaTitleString = getString(R.string.wikipedia)
             wikipediaDescriptionString = externalInfoService.wikiPageDescription.toString()
             wikipediaUrl = externalInfoService.wikiPageURL.toString()
             wikipediaImagesCount = externalInfoService.wikiImagesCount
+            wikipediaImagesKey = "$wikipediaUrl/${imageQuality.name}"
         }
         
         wikipediaTitle.apply {
@@ -250,15 +259,21 @@ class MainActivity : AppCompatActivity()
         
         if (wikipediaImagesCount > 0)
         {
-            wikipediaImagesList = MutableList(wikipediaImagesCount) { WikipediaImageModel() }
+            imagePrefetcher.reset(wikipediaImagesKey, wikipediaImagesCount)
             
             wikipediaImagesRecyclerView.apply {
                 itemAnimator = null
                 layoutManager = LinearLayoutManager(this@MainActivity, LinearLayoutManager.HORIZONTAL, false)
-                adapter = WikipediaListAdapter(wikipediaImagesList).also { wikipediaListAdapter = it }
+                adapter = WikipediaListAdapter(wikipediaImagesCount).also { wikipediaListAdapter = it }
+                addOnScrollListener(object : RecyclerView.OnScrollListener()
+                {
+                    override fun onScrolled(recyclerView: RecyclerView, dx: Int, dy: Int)
+                    {
+                        updateVisibleImages()
+                    }
+                })
+                post { updateVisibleImages() }
             }
-
-            fetchItemAtIndex(0)
         }
         
         wikipediaContainer.visibility = View.VISIBLE
@@ -286,24 +301,7 @@ class MainActivity : AppCompatActivity()
 
     // ---------------------------------------------------------------------------------------------
 
-    enum class TLoadState {
-        ENotRequested,
-        ELoading,
-        EPendingReloading,
-        EFailed,
-        ELoaded,
-    }
-
-    // ---------------------------------------------------------------------------------------------
-    
-    data class WikipediaImageModel(
-        var status: TLoadState = TLoadState.ENotRequested, 
-        var bitmap: Bitmap? = null
-    )
-    
-    // ---------------------------------------------------------------------------------------------
-    
-    inner class WikipediaListAdapter(private val dataSet: MutableList<WikipediaImageModel>): RecyclerView.Adapter<WikipediaListAdapter.ImageViewHolder>()
+    inner class WikipediaListAdapter(private val imagesCount: Int): RecyclerView.Adapter<WikipediaListAdapter.ImageViewHolder>()
     {
         override fun onBindViewHolder(holder: ImageViewHolder, position: Int)
         {
@@ -316,7 +314,7 @@ class MainActivity : AppCompatActivity()
             return ImageViewHolder(view)
         }
 
-        override fun getItemCount(): Int = dataSet.size
+        override fun getItemCount(): Int = imagesCount
         
         inner class ImageViewHolder(view: View): RecyclerView.ViewHolder(view)
         {
@@ -325,8 +323,8 @@ class MainActivity : AppCompatActivity()
             
             fun bind(position: Int)
             {
-                dataSet[position].apply { 
-                    if (status == TLoadState.ELoaded)
+                imagePrefetcher.get(position).let { bitmap -> 
+                    if (bitmap != null)
                     {
                         imageView.apply { 
                             layoutParams.apply { 
@@ -360,61 +358,69 @@ class MainActivity : AppCompatActivity()
     
     // ---------------------------------------------------------------------------------------------
     
-    inner class WikipediaImagesProgressListener : ProgressListener()
+    /**
+     * One image request at a time, each concurrent request of the prefetcher has its own.
+     */
+    inner class WikipediaImageRequest : ProgressListener()
     {
-        var index = 0
-        var retryCount = 0
-        var image: Image? = SdkCall.execute { Image() }
-
-        override fun notifyComplete(errorCode: ErrorCode, hint: String)
-        {
-            if (errorCode != GemError.NoError)
-            {
-                if (retryCount > 0)
-                {
-                    // retry
-                    retryCount--
-                    wikipediaImagesList[index].status = TLoadState.EPendingReloading
-                    image?.let { externalInfoService.requestWikiImage(this, it, index, imageQuality) }
-                }
-                else
-                {
-                    // fail
-                    wikipediaImagesList[index].status = TLoadState.EFailed
+        private var index = 0
+        private var onResult: ((Bitmap?) -> Unit)? = null
+        private val image: Image? = SdkCall.execute { Image() }
 
-                    // start fetching next item
-                    if (index + 1 < wikipediaImagesList.size)
-                    {
-                        fetchItemAtIndex(index + 1)
-                    }
-                }
+        fun start(index: Int, onResult: (Bitmap?) -> Unit) = SdkCall.execute {
+            this.index = index
+            this.onResult = onResult
 
-                return
+            val image = image
+            if (image != null)
+            {
+                externalInfoService.requestWikiImage(this, image, index, imageQuality)
+            }
+            else
+            {
+                complete(null)
             }
+        }
 
-            // success
-            wikipediaImagesList[index].status = TLoadState.ELoaded
-            SdkCall.execute {
+        override fun notifyComplete(errorCode: ErrorCode, hint: String)
+        {
+            val bitmap = if (errorCode == GemError.NoError) SdkCall.execute {
                 val imageWidth = image?.size?.let { (it.width.toFloat() / it.height * standardHeight).toInt() } ?: 0
-                wikipediaImagesList[index].bitmap = image?.asBitmap(imageWidth, standardHeight)
-            }
-            
-            Util.postOnMain { wikipediaListAdapter?.notifyItemRangeChanged(0, index + 1) }
+                image?.asBitmap(imageWidth, standardHeight)
+            } else null
 
-            // start fetching next item
-            if (index + 1 < wikipediaImagesList.size)
-            {
-                fetchItemAtIndex(index + 1)
-            }
+            complete(bitmap)
         }
 
-        override fun notifyStart(hasProgress: Boolean)
+        private fun complete(bitmap: Bitmap?)
         {
-            wikipediaImagesList[index].status = TLoadState.ELoading
+            val callback = onResult
+            onResult = null
+            callback?.invoke(bitmap)
         }
     }
     
     // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Stores the downloaded images as JPEG in the disk cache.
+     */
+    object BitmapCodec : IImageCodec<Bitmap>
+    {
+        override fun encode(value: Bitmap, output: OutputStream): Boolean = value.compress(Bitmap.CompressFormat.JPEG, 90, output)
+
+        override fun decode(file: File): Bitmap? = BitmapFactory.decodeFile(file.path)
+    }
+    
+    // ---------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        private const val MAX_CONCURRENT_REQUESTS = 3
+        private const val DISK_CACHE_SIZE = 32L * 1024 * 1024
+    }
+    
+    // ---------------------------------------------------------------------------------------------
 }
 //region --------------------------------------------------FOR TESTING--------------------------------------------------------------
 // ---------------------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,231 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.locationwikipedia
+
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.io.File
+import java.io.OutputStream
+import java.nio.file.Files
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class ImagePrefetcherTest {
+
+    /**
+     * Completes the requests only when told to, so the test controls the order of the callbacks.
+     */
+    private class FakeSource : IImageSource<ByteArray> {
+        val pending = mutableListOf<Pair<Int, (ByteArray?) -> Unit>>()
+        val requested = mutableListOf<Int>()
+        val failing = mutableSetOf<Int>()
+
+        override fun request(index: Int, slot: Int, onResult: (ByteArray?) -> Unit) {
+            requested.add(index)
+            pending.add(index to onResult)
+        }
+
+        /** Completes the requests pending now, the ones they start stay pending. */
+        fun completePending() {
+            val current = pending.toList()
+            pending.clear()
+            for ((index, onResult) in current)
+                onResult(if (index in failing) null else image(index))
+        }
+    }
+
+    private object Codec : IImageCodec<ByteArray> {
+        override fun encode(value: ByteArray, output: OutputStream): Boolean {
+            output.write(value)
+            return true
+        }
+
+        override fun decode(file: File): ByteArray? = file.readBytes()
+    }
+
+    private lateinit var directory: File
+
+    @Before
+    fun setUp() {
+        directory = Files.createTempDirectory("images").toFile()
+    }
+
+    @After
+    fun tearDown() {
+        directory.deleteRecursively()
+    }
+
+    private fun prefetcher(source: FakeSource, memoryBytes: Long = 1000, disk: ImageDiskCache<ByteArray>? = null,
+                           changed: MutableList<Int> = mutableListOf()) =
+        ImagePrefetcher(source, ImageMemoryCache(memoryBytes) { it.size }, disk, { it.run() },
+            maxConcurrent = 3, prefetchCount = 4, maxRetries = 1) { changed.add(it) }
+
+    @Test
+    fun testConcurrencyAndPriority() {
+        val source = FakeSource()
+        val prefetcher = prefetcher(source)
+
+        // nothing is shown yet, the first items are fetched
+        prefetcher.reset("landmark/Medium", 20)
+        assertEquals(listOf(0, 1, 2), source.requested)
+
+        // no free slot, the scroll only changes what comes next
+        prefetcher.setVisibleRange(8, 9)
+        assertEquals(3, source.requested.size)
+
+        source.completePending()
+        assertEquals(listOf(8, 9, 10), source.requested.drop(3))
+        assertEquals(TLoadState.ELoading, prefetcher.state(8))
+
+        // then the items ahead, then the ones behind
+        source.completePending()
+        source.completePending()
+        assertEquals(listOf(8, 9, 10, 11, 12, 13, 7, 6), source.requested.drop(3))
+
+        source.completePending()
+        assertEquals(TLoadState.ELoaded, prefetcher.state(13))
+        assertArrayEquals(image(9), prefetcher.get(9))
+
+        // out of range items are not loaded
+        assertEquals(TLoadState.ENotRequested, prefetcher.state(14))
+        assertEquals(TLoadState.ENotRequested, prefetcher.state(5))
+    }
+
+    @Test
+    fun testRetry() {
+        val source = FakeSource()
+        val prefetcher = prefetcher(source)
+        source.failing.add(1)
+
+        prefetcher.reset("landmark/Medium", 3)
+        prefetcher.setVisibleRange(0, 2)
+        source.completePending()
+        source.completePending()
+
+        // one retry, then failed
+        assertEquals(2, source.requested.count { it == 1 })
+        assertEquals(TLoadState.EFailed, prefetcher.state(1))
+        assertEquals(TLoadState.ELoaded, prefetcher.state(2))
+    }
+
+    @Test
+    fun testMemoryCacheIsBoundedByBytes() {
+        val cache = ImageMemoryCache<ByteArray>(250) { it.size }
+
+        assertTrue(cache.put("a", ByteArray(100)))
+        assertTrue(cache.put("b", ByteArray(100)))
+        cache.get("a")
+        assertTrue(cache.put("c", ByteArray(100)))
+
+        // b was the least recently used
+        assertNull(cache.get("b"))
+        assertEquals(200, cache.size)
+        assertEquals(1, cache.evictions)
+
+        // larger than the whole cache
+        assertTrue(!cache.put("d", ByteArray(300)))
+        assertEquals(200, cache.size)
+    }
+
+    @Test
+    fun testEvictedImagesComeBackFromDisk() {
+        val source = FakeSource()
+        val disk = ImageDiskCache(directory, 10_000, Codec)
+        val changed = mutableListOf<Int>()
+
+        // room for two images in memory
+        val prefetcher = prefetcher(source, 2 * IMAGE_SIZE.toLong(), disk, changed)
+        prefetcher.reset("landmark/Medium", 4)
+        prefetcher.setVisibleRange(0, 3)
+        source.completePending()
+        source.completePending()
+        assertEquals(4, source.requested.size)
+
+        // evicted from memory, loaded again without a request
+        assertNull(prefetcher.get(0))
+        assertArrayEquals(image(0), prefetcher.get(0))
+        assertEquals(4, source.requested.size)
+        assertEquals(1, prefetcher.diskHitCount)
+        assertTrue(changed.contains(0))
+
+        // a new prefetcher, e.g. after a restart, reads everything from disk
+        val restarted = prefetcher(FakeSource(), 10_000, ImageDiskCache(directory, 10_000, Codec))
+        restarted.reset("landmark/Medium", 4)
+        restarted.setVisibleRange(0, 3)
+        assertEquals(4, restarted.diskHitCount)
+        assertEquals(0, restarted.requestCount)
+    }
+
+    @Test
+    fun testDiskCacheIsBoundedByBytes() {
+        val disk = ImageDiskCache(directory, 250, Codec)
+
+        disk.write("a/0", ByteArray(100))
+        disk.write("a/1", ByteArray(100))
+        disk.read("a/0")
+        disk.write("a/2", ByteArray(100))
+
+        assertNull(disk.read("a/1"))
+        assertEquals(200, disk.size)
+        assertEquals(2, directory.list()!!.size)
+
+        // unsafe characters do not collide
+        assertTrue(ImageDiskCache.fileName("a/b") != ImageDiskCache.fileName("a_b"))
+    }
+
+    @Test
+    fun testResetDropsOldResults() {
+        val source = FakeSource()
+        val changed = mutableListOf<Int>()
+        val prefetcher = prefetcher(source, changed = changed)
+
+        prefetcher.reset("first", 2)
+        prefetcher.reset("second", 2)
+        assertEquals(listOf(0, 1, 0), source.requested)
+        changed.clear()
+
+        // the old requests free their slots without touching the new gallery
+        source.completePending()
+        assertEquals(listOf(0, 1, 0, 1), source.requested)
+        assertEquals(listOf(1, 0), changed)
+        assertEquals(TLoadState.ELoaded, prefetcher.state(0))
+        assertEquals(TLoadState.ELoading, prefetcher.state(1))
+    }
+
+    @Test
+    fun testLateResultsAfterShutdownAreDropped() {
+        val source = FakeSource()
+        val executor = Executors.newSingleThreadExecutor()
+        val prefetcher = ImagePrefetcher(source, ImageMemoryCache(1000L) { it.size }, ImageDiskCache(directory, 10_000, Codec),
+            executor, maxConcurrent = 3, prefetchCount = 4, maxRetries = 1) { }
+
+        prefetcher.reset("landmark/Medium", 4)
+        executor.submit { }.get()
+        assertEquals(3, source.requested.size)
+
+        // e.g. onDestroy(), the requests still complete afterwards
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS))
+        source.completePending()
+
+        assertEquals(TLoadState.ELoaded, prefetcher.state(0))
+        assertEquals(TLoadState.ENotRequested, prefetcher.state(3))
+        assertEquals(0, directory.list()!!.size)
+    }
+
+    companion object {
+        private const val IMAGE_SIZE = 100
+
+        fun image(index: Int) = ByteArray(IMAGE_SIZE) { (index * 31 + it).toByte() }
+    }
+}
@@ -0,0 +1,159 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.markercollectiondisplayicon
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import android.content.Context
+import android.content.res.AssetManager
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.util.LruCache
+import androidx.core.content.res.ResourcesCompat
+import java.io.ByteArrayOutputStream
+import java.io.FileNotFoundException
+import java.io.IOException
+import java.io.InputStream
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Loads the bytes handed to the SDK as a DataBuffer (scene objects, textures, marker icons).
+ *
+ * Assets already in a format the SDK reads are passed as they are, without decoding and encoding
+ * them again, and are read straight into an array of their exact size instead of being copied
+ * through a growing stream. Drawables have to be encoded to PNG, the encoded bytes are kept so each
+ * icon is encoded once per process.
+ *
+ * The same loader is used in the CustomGPSArrow, BasicShapeDrawer, MarkerCollectionDisplayIcon and
+ * AndroidAutoRouteNavigation examples.
+ */
+object AssetLoader
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /** Bytes of the encoded icons, bounded in size. */
+    private val icons = object : LruCache<String, ByteArray>(MAX_ICON_BYTES)
+    {
+        override fun sizeOf(key: String, value: ByteArray): Int = value.size
+    }
+
+    private const val MAX_ICON_BYTES = 1024 * 1024
+    private const val UNKNOWN_LENGTH = -1L
+    private const val MIN_GROW = 4096
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads an asset into an array of its exact size.
+     *
+     * The length is known up front for assets stored uncompressed in the APK (images, and any
+     * extension listed in noCompress). For compressed assets the stream tells the remaining
+     * length, the array only grows if it is wrong.
+     *
+     * @throws FileNotFoundException If there is no such asset.
+     */
+    @Throws(IOException::class)
+    fun readBytes(assets: AssetManager, fileName: String): ByteArray
+    {
+        val length = try
+        {
+            assets.openFd(fileName).use { it.length }
+        }
+        catch (e: FileNotFoundException)
+        {
+            // compressed in the APK, or missing; open() tells which
+            UNKNOWN_LENGTH
+        }
+
+        return assets.open(fileName, AssetManager.ACCESS_STREAMING).use { input ->
+            val expected = if (length >= 0) length.toInt() else input.available()
+            readFully(input, expected)
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns a drawable rendered at its intrinsic size (or [width] x [height]) and encoded to PNG.
+     * The bytes are computed once and shared, they must not be modified.
+     */
+    fun iconPngBytes(context: Context, drawableRes: Int, width: Int = 0, height: Int = 0): ByteArray?
+    {
+        val resources = context.resources
+        val key = "$drawableRes:$width:$height:${resources.displayMetrics.densityDpi}"
+        icons.get(key)?.let { return it }
+
+        val drawable = ResourcesCompat.getDrawable(resources, drawableRes, context.theme) ?: return null
+        val bitmapWidth = if (width > 0) width else drawable.intrinsicWidth
+        val bitmapHeight = if (height > 0) height else drawable.intrinsicHeight
+        if ((bitmapWidth <= 0) || (bitmapHeight <= 0))
+        {
+            return null
+        }
+
+        val bitmap = Bitmap.createBitmap(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888)
+        drawable.setBounds(0, 0, bitmapWidth, bitmapHeight)
+        drawable.draw(Canvas(bitmap))
+
+        // an encoded icon rarely takes more than a byte per pixel, so the stream does not grow
+        val stream = ByteArrayOutputStream(bitmap.width * bitmap.height)
+        val encoded = bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream)
+        bitmap.recycle()
+
+        if (!encoded)
+        {
+            return null
+        }
+
+        val bytes = stream.toByteArray()
+        icons.put(key, bytes)
+
+        return bytes
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun readFully(input: InputStream, expected: Int): ByteArray
+    {
+        var data = ByteArray(maxOf(expected, 0))
+        var size = 0
+
+        while (true)
+        {
+            if (size == data.size)
+            {
+                // the expected length was the end of the asset, unless there is more to read
+                val next = input.read()
+                if (next < 0)
+                {
+                    return data
+                }
+
+                data = data.copyOf(maxOf(data.size * 2, MIN_GROW))
+                data[size++] = next.toByte()
+            }
+
+            val count = input.read(data, size, data.size - size)
+            if (count < 0)
+            {
+                return if (size == data.size) data else data.copyOf(size)
+            }
+
+            size += count
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
@@ -13,12 +13,9 @@ package com.magiclane.sdk.examples.markercollectiondisplayicon
 
 // -------------------------------------------------------------------------------------------------------------------------------
 
-import android.graphics.Bitmap
-import android.graphics.Canvas
 import android.os.Bundle
 import androidx.activity.addCallback
 import androidx.appcompat.app.AppCompatActivity
-import androidx.core.content.res.ResourcesCompat
 import com.magiclane.sdk.core.CircleGeographicArea
 import com.magiclane.sdk.core.DataBuffer
 import com.magiclane.sdk.core.GemSdk
@@ -33,7 +30,6 @@ import com.magiclane.sdk.d3scene.MarkerCollectionRenderSettings
 import com.magiclane.sdk.examples.markercollectiondisplayicon.databinding.ActivityMainBinding
 import com.magiclane.sdk.places.Coordinates
 import com.magiclane.sdk.routesandnavigation.EImageFileFormat
-import java.io.ByteArrayOutputStream
 import kotlin.system.exitProcess
 
 // -------------------------------------------------------------------------------------------------------------------------------
@@ -75,8 +71,9 @@ class MainActivity : AppCompatActivity()
                 }
             }
 
-            val image = getBitmap(R.drawable.ic_restaurant_foreground)?.let {
-                Image.produceWithDataBuffer(DataBuffer(toPngByteArray(it)), EImageFileFormat.Png)
+            // encoded once, recreating the activity reuses the PNG bytes
+            val image = AssetLoader.iconPngBytes(this, R.drawable.ic_restaurant_foreground)?.let {
+                Image.produceWithDataBuffer(DataBuffer(it), EImageFileFormat.Png)
             }
 
             val imageTextsSettings = MarkerCollectionRenderSettings(image)
@@ -120,39 +117,6 @@ class MainActivity : AppCompatActivity()
 
     // ---------------------------------------------------------------------------------------------------------------------------
 
-    private fun toPngByteArray(bmp: Bitmap): ByteArray
-    {
-        val stream = ByteArrayOutputStream()
-        bmp.compress(Bitmap.CompressFormat.PNG, 100, stream)
-        val byteArray: ByteArray = stream.toByteArray()
-        bmp.recycle()
-
-        return byteArray
-    }
-
-    // ---------------------------------------------------------------------------------------------------------------------------
-
-    private fun getBitmap(drawableRes: Int): Bitmap?
-    {
-        val drawable =
-            ResourcesCompat.getDrawable(resources, drawableRes, theme)
-
-        drawable ?: return null
-
-        val canvas = Canvas()
-        val bitmap = Bitmap.createBitmap(
-            drawable.intrinsicWidth,
-            drawable.intrinsicHeight,
-            Bitmap.Config.ARGB_8888
-        )
-        canvas.setBitmap(bitmap)
-        drawable.setBounds(0, 0, drawable.intrinsicWidth, drawable.intrinsicHeight)
-        drawable.draw(canvas)
-        return bitmap
-    }
-
-    // ---------------------------------------------------------------------------------------------------------------------------
-
     override fun onDestroy()
     {
         super.onDestroy()
@@ -117,8 +117,24 @@ class MainActivity : AppCompatActivity(), SoundUtils.ITTSPlayerInitializationLis
     companion object
     {
         const val RESOURCE = "GLOBAL"
+
+        // image cache slots
+        private const val SLOT_TURN = 0
+        private const val SLOT_SIGNPOST = 1
+        private const val SLOT_NEXT_ROAD_CODE = 2
+        private const val SLOT_CURRENT_ROAD_CODE = 3
+        private const val SLOT_LANES = 4
+        private const val SLOT_ALARM = 5
+        private const val SLOT_TRAFFIC = 6
+
+        // image cache themes, one per set of render colors
+        private const val THEME_TURN = 1
+        private const val THEME_LANES = 2
     }
 
+    /** Rendered navigation images, instruction updates mostly show the same ones again. */
+    private val imageCache = ImageRenderCache()
+
     private var mainActivityIdlingResource = CountingIdlingResource(RESOURCE, true)
 
     private val navigationService = NavigationService()
@@ -555,14 +571,16 @@ class MainActivity : AppCompatActivity(), SoundUtils.ITTSPlayerInitializationLis
             if (image != null)
                 lastTurnImageId = image.uid
 
-            val aInner = Rgba(255, 255, 255, 255)
-            val aOuter = Rgba(0, 0, 0, 255)
-            val iInner = Rgba(128, 128, 128, 255)
-            val iOuter = Rgba(128, 128, 128, 255)
+            imageCache.get(SLOT_TURN, image?.uid ?: 0, width, height, THEME_TURN) {
+                val aInner = Rgba(255, 255, 255, 255)
+                val aOuter = Rgba(0, 0, 0, 255)
+                val iInner = Rgba(128, 128, 128, 255)
+                val iOuter = Rgba(128, 128, 128, 255)
 
-            GemUtilImages.asBitmap(
-                image, width, height, aInner, aOuter, iInner, iOuter
-            )
+                GemUtilImages.asBitmap(
+                    image, width, height, aInner, aOuter, iInner, iOuter
+                )
+            }
         }
     }
 
@@ -579,9 +597,11 @@ class MainActivity : AppCompatActivity(), SoundUtils.ITTSPlayerInitializationLis
             if (navInstr.hasSignpostInfo())
             {
                 navInstr.signpostDetails?.image?.let {
-                    result = GemUtilImages.asBitmap(it, width, height)
+                    result = imageCache.get(SLOT_SIGNPOST, it.uid, width, height) { GemUtilImages.asBitmap(it, width, height) }
                 }
             }
+            if (result == null)
+                imageCache.clearSlot(SLOT_SIGNPOST)
         }
         return result
     }
@@ -608,8 +628,11 @@ class MainActivity : AppCompatActivity(), SoundUtils.ITTSPlayerInitializationLis
                     resultWidth = (2.5 * height).toInt()
 
                 val image = navInstr.getRoadInfoImage(roadsInfo)
+                val slot = if (nextRoadCode) SLOT_NEXT_ROAD_CODE else SLOT_CURRENT_ROAD_CODE
 
-                GemUtilImages.asBitmap(image, resultWidth, height)
+                imageCache.get(slot, image?.uid ?: 0, resultWidth, height) {
+                    GemUtilImages.asBitmap(image, resultWidth, height)
+                }
             } else
                 null
         }
@@ -628,20 +651,22 @@ class MainActivity : AppCompatActivity(), SoundUtils.ITTSPlayerInitializationLis
             if (resultWidth == 0)
                 resultWidth = (2.5 * height).toInt()
 
-            val bkColor = Rgba(0, 0, 0, 255)
-            val activeColor = Rgba(255, 255, 255, 255)
-            val inactiveColor = Rgba(100, 100, 100, 255)
-
             val image = navInstr.laneImage
 
-            val bmp = GemUtilImages.asBitmap(
-                image,
-                resultWidth,
-                height,
-                bkColor,
-                activeColor,
-                inactiveColor
-            )
+            val bmp = imageCache.get(SLOT_LANES, image?.uid ?: 0, resultWidth, height, THEME_LANES) {
+                val bkColor = Rgba(0, 0, 0, 255)
+                val activeColor = Rgba(255, 255, 255, 255)
+                val inactiveColor = Rgba(100, 100, 100, 255)
+
+                GemUtilImages.asBitmap(
+                    image,
+                    resultWidth,
+                    height,
+                    bkColor,
+                    activeColor,
+                    inactiveColor
+                )
+            }
             
             return@execute bmp
         }
@@ -901,7 +926,9 @@ class MainActivity : AppCompatActivity(), SoundUtils.ITTSPlayerInitializationLis
         if (image != null)
             lastAlarmImageId = image.uid
 
-        return@execute Pair(actualWidth, GemUtilImages.asBitmap(image, actualWidth, height))
+        return@execute Pair(actualWidth, imageCache.get(SLOT_ALARM, image?.uid ?: 0, actualWidth, height) {
+            GemUtilImages.asBitmap(image, actualWidth, height)
+        })
     } ?: Pair(0, null)
 
     // ---------------------------------------------------------------------------------------------------------------------------
@@ -936,7 +963,7 @@ class MainActivity : AppCompatActivity(), SoundUtils.ITTSPlayerInitializationLis
         if (image != null)
             lastTrafficImageId = image.uid
 
-        GemUtilImages.asBitmap(image, width, height)
+        imageCache.get(SLOT_TRAFFIC, image?.uid ?: 0, width, height) { GemUtilImages.asBitmap(image, width, height) }
     }
 
     // ---------------------------------------------------------------------------------------------------------------------------
@@ -40,10 +40,12 @@ import com.github.mikephil.charting.components.Legend
 import com.github.mikephil.charting.components.XAxis
 import com.github.mikephil.charting.components.YAxis
 import com.github.mikephil.charting.data.BubbleData
+import com.github.mikephil.charting.data.ColumnarLineDataSet
 import com.github.mikephil.charting.data.CombinedData
 import com.github.mikephil.charting.data.Entry
 import com.github.mikephil.charting.data.LineData
 import com.github.mikephil.charting.data.LineDataSet
+import com.github.mikephil.charting.data.filter.ApproximatorN
 import com.github.mikephil.charting.formatter.DefaultFillFormatter
 import com.github.mikephil.charting.formatter.IAxisValueFormatter
 import com.github.mikephil.charting.formatter.IValueFormatter
@@ -77,6 +79,8 @@ import java.text.DecimalFormat
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
 import kotlin.math.abs
+import kotlin.math.ceil
+import kotlin.math.floor
 import kotlin.math.round
 
 // -------------------------------------------------------------------------------------------------
@@ -186,6 +190,14 @@ class RouteProfile(
     private val highlightColorSelected = Color.rgb(239, 38, 81)
     private val highlightColorUnselected = Color.rgb(100, 100, 100)
     private var elevationChartPlottedValuesCount: Int = 0 // number of y values which will be visible on the chart after each zoom
+    private var elevationChartXValues = FloatArray(0)
+    private var elevationChartYValues = FloatArray(0)
+    private val elevationBandDataSets = mutableMapOf<Int, ColumnarLineDataSet>()
+    private var elevationChartRawPoints = FloatArray(0) // interleaved x, y of the raw elevation samples
+    private val elevationChartMaxRawSamples = 100_000
+    private var elevationProfile = FloatArray(0) // elevation samples of the whole route, fetched once
+    private var elevationProfileStep = 0f // distance in metres between two elevation profile samples
+    private val elevationApproximator = ApproximatorN()
 
     private var surfacesTypes = mutableMapOf<ESurfaceType, ArrayList<CSectionItem>>()
     private var roadsTypes = mutableMapOf<ERoadType, ArrayList<CSectionItem>>()
@@ -642,6 +654,7 @@ class RouteProfile(
             data = null
             highlightValue(null)
             _lastElevationChartValueSelected = null
+            elevationBandDataSets.clear()
             
             val minX = xAxis.axisMinimum
             val maxX = xAxis.axisMaximum
@@ -847,64 +860,110 @@ class RouteProfile(
     
     private fun updateElevationChart(minX: Float, maxX: Float)
     {
-        val initialLineDataSet: LineDataSet
-        var elevationLineDataSet: LineDataSet
-        
-        val initialLineValues = ArrayList<Entry>()
-        val elevationArrayGroup = ArrayList<List<Entry>>()
-        
-        var yValues: IntArray? = null
         var verticalBandsCount = 0
         SdkCall.execute { 
-            yValues = getElevationChartYValues(elevationChartPlottedValuesCount)
+            if (elevationProfile.isEmpty())
+                loadElevationProfile()
             verticalBandsCount = getElevationChartVerticalBandsCount()
         }
         
-        val step = (maxX - minX) / (elevationChartPlottedValuesCount - 1)
-        var x = minX
-        val lastItemIndex = elevationChartPlottedValuesCount - 1
+        // the cached samples of the interval are reduced to about one value per pixel of the chart
+        val contentWidth = elevationChart.viewPortHandler.contentWidth().toInt()
+        val reducedCount = if (contentWidth > 0) contentWidth else elevationChartPlottedValuesCount
+        
+        var valuesCount = 0
+        if (elevationProfile.size > 1)
+        {
+            // one sample beyond each side of the interval keeps the line going to the chart edges
+            val lastIndex = elevationProfile.size - 1
+            val first = floor(minX / elevationProfileStep).toInt().coerceIn(0, lastIndex)
+            val last = ceil(maxX / elevationProfileStep).toInt().coerceIn(first, lastIndex)
+            val rawSamplesCount = last - first + 1
+            
+            if (elevationChartRawPoints.size < rawSamplesCount * 2)
+                elevationChartRawPoints = FloatArray(rawSamplesCount * 2)
+            
+            for (i in 0 until rawSamplesCount)
+            {
+                elevationChartRawPoints[i * 2] = (first + i) * elevationProfileStep
+                elevationChartRawPoints[i * 2 + 1] = elevationProfile[first + i]
+            }
+            
+            valuesCount = elevationApproximator.reduceWithLargestTriangleThreeBuckets(elevationChartRawPoints, rawSamplesCount, reducedCount)
+        }
         
-        for (i in 0 until lastItemIndex)
+        // the value columns are reused between zooms, only the data sets copy them
+        if (elevationChartXValues.size < valuesCount)
         {
-            yValues?.get(i)?.toFloat()?.let { Entry(x, it) }?.let { initialLineValues.add(it) }
-            x += step
+            elevationChartXValues = FloatArray(valuesCount)
+            elevationChartYValues = FloatArray(valuesCount)
         }
-        yValues?.get(lastItemIndex)?.toFloat()?.let { Entry(maxX, it) }?.let {
-            initialLineValues.add(it)
+        
+        for (i in 0 until valuesCount)
+        {
+            elevationChartXValues[i] = elevationChartRawPoints[i * 2]
+            elevationChartYValues[i] = elevationChartRawPoints[i * 2 + 1]
         }
         
-        if (verticalBandsCount > 0)
+        // the ranges of the bands are looked up first, the data sets are only changed while the
+        // chart is not rendering them in the background
+        val bandRanges = IntArray(verticalBandsCount * 2)
+        
+        for (i in 0 until verticalBandsCount)
         {
+            var verticalBandMinX = 0.0
+            var verticalBandMaxX = 0.0
+            SdkCall.execute { 
+                verticalBandMinX = getElevationChartVerticalBandMinX(i)
+                verticalBandMaxX = getElevationChartVerticalBandMaxX(i)
+            }
+            
+            // x values are ascending, so every band is a contiguous range of the columns
+            var from = 0
+            while (from < valuesCount && elevationChartXValues[from] < verticalBandMinX)
+                from++
+            
+            var to = from
+            while (to < valuesCount && elevationChartXValues[to] <= verticalBandMaxX)
+                to++
+            
+            bandRanges[i * 2] = from
+            bandRanges[i * 2 + 1] = to
+        }
+        
+        synchronized(elevationChart.renderLock) {
+            val elevationDataSets = ArrayList<ILineDataSet>()
+            
             for (i in 0 until verticalBandsCount)
             {
-                val valuesLineSteepness = ArrayList<Entry>()
-                
-                var verticalBandMinX = 0.0
-                var verticalBandMaxX = 0.0
-                SdkCall.execute { 
-                    verticalBandMinX = getElevationChartVerticalBandMinX(i)
-                    verticalBandMaxX = getElevationChartVerticalBandMaxX(i)
-                }
+                val from = bandRanges[i * 2]
+                val to = bandRanges[i * 2 + 1]
                 
-                for (entry in initialLineValues)
+                if (to > from)
                 {
-                    if (entry.x in verticalBandMinX..verticalBandMaxX)
-                    {
-                        valuesLineSteepness.add(entry)
+                    val elevationLineDataSet = elevationBandDataSets.getOrPut(i) {
+                        ColumnarLineDataSet(null).also { customizeElevationDataSet(it, i) }
                     }
+                    elevationLineDataSet.setValues(elevationChartXValues, elevationChartYValues, from, to - from)
+                    elevationDataSets.add(elevationLineDataSet)
                 }
-                
-                elevationArrayGroup.add(i, valuesLineSteepness)
             }
+            
+            updateElevationChartData(elevationDataSets, valuesCount)
         }
+    }
+    
+    // ---------------------------------------------------------------------------------------------
+    
+    private fun updateElevationChartData(elevationDataSets: ArrayList<ILineDataSet>, valuesCount: Int)
+    {
+        val initialLineDataSet: ColumnarLineDataSet
         
         elevationChart.apply { 
             if (data != null && data.dataSetCount > 0)
             {
-                initialLineDataSet = data.getDataSetByIndex(0) as LineDataSet
-                initialLineDataSet.clear()
-                initialLineValues.forEach { initialLineDataSet.addEntry(it) }
-                //initialLineDataSet.entries = initialLineValues
+                initialLineDataSet = data.getDataSetByIndex(0) as ColumnarLineDataSet
+                initialLineDataSet.setValues(elevationChartXValues, elevationChartYValues, valuesCount)
                 
                 data.lineData?.let {
                     val count = data.dataSetCount
@@ -913,18 +972,7 @@ class RouteProfile(
                         it.removeDataSet(i)
                     }
                     
-                    if (verticalBandsCount > 0)
-                    {
-                        for (i in 0 until verticalBandsCount)
-                        {
-                            if (elevationArrayGroup[i].isNotEmpty())
-                            {
-                                elevationLineDataSet = LineDataSet(elevationArrayGroup[i], null)
-                                customizeElevationDataSet(elevationLineDataSet, i)
-                                it.addDataSet(elevationLineDataSet)
-                            }
-                        }
-                    }
+                    elevationDataSets.forEach { dataSet -> it.addDataSet(dataSet) }
                 }
                 
                 data.notifyDataChanged()
@@ -936,22 +984,10 @@ class RouteProfile(
                 val dataSets = ArrayList<ILineDataSet>()
                 val bubbleData = BubbleData()
                 
-                initialLineDataSet = LineDataSet(initialLineValues, null)
+                initialLineDataSet = ColumnarLineDataSet(elevationChartXValues, elevationChartYValues, valuesCount, null)
                 customizeInitialDataSet(initialLineDataSet)
                 dataSets.add(initialLineDataSet)
-                
-                if (verticalBandsCount > 0)
-                {
-                    for (i in 0 until verticalBandsCount)
-                    {
-                        if (elevationArrayGroup[i].isNotEmpty())
-                        {
-                            elevationLineDataSet = LineDataSet(elevationArrayGroup[i], null)
-                            customizeElevationDataSet(elevationLineDataSet, i)
-                            dataSets.add(elevationLineDataSet)
-                        }
-                    }
-                }
+                dataSets.addAll(elevationDataSets)
                 
                 val lineData = LineData(dataSets)
                 combinedData.apply { 
@@ -1303,6 +1339,7 @@ class RouteProfile(
             this.color = color
             fillColor = color
             setDrawValues(false)
+            isPixelDownsamplingEnabled = true
             setDrawHorizontalHighlightIndicator(false)
             setDrawVerticalHighlightIndicator(false)
             isHighlightEnabled = true
@@ -1600,6 +1637,8 @@ class RouteProfile(
             isDoubleTapToZoomEnabled = false
             setPinchZoom(false)
             setDrawBorders(false)
+            // the elevation lines are rendered in the background, the data is changed under renderLock
+            isAsyncDataRasterizationEnabled = true
             xAxis.setDrawGridLines(false)
             setExtraOffsets(
                 0f,
@@ -2277,22 +2316,21 @@ class RouteProfile(
     
     // ---------------------------------------------------------------------------------------------
     
-    private fun getElevationChartYValues(valuesCount: Int) : IntArray
+    private fun loadElevationProfile()
     {
-        val yValuesArray = IntArray(valuesCount)
+        // one sample per metre of the route, zooms and scrolls only reduce the cached samples
+        val samplesCount = routeLength.coerceIn(elevationChartPlottedValuesCount, elevationChartMaxRawSamples)
+        if (samplesCount < 2)
+            return
         
-        val samples = routeTerrainProfile.getElevationSamples(valuesCount, chartMinX.toInt(), chartMaxX.toInt())
+        val samples = routeTerrainProfile.getElevationSamples(samplesCount, 0, routeLength)
         samples?.first?.size?.let { 
-            if (valuesCount <= it)
+            if (samplesCount <= it)
             {
-                for (i in 0 until valuesCount)
-                {
-                    yValuesArray[i] = (samples.first[i]).toInt()
-                }
+                elevationProfile = FloatArray(samplesCount) { i -> samples.first[i].toFloat() }
+                elevationProfileStep = routeLength.toFloat() / (samplesCount - 1)
             }
         }
-        
-        return yValuesArray
     }
     
     // ---------------------------------------------------------------------------------------------
@@ -2738,6 +2776,7 @@ class RouteProfile(
             setPinchZoom(false)
             setDrawBorders(false)
             setDrawGridBackground(false)
+            isAsyncDataRasterizationEnabled = true
             isDoubleTapToZoomEnabled = false
             isHighlightPerDragEnabled = true
             isHighlightPerTapEnabled = true
@@ -11,12 +11,11 @@ public class HorizontalBarBuffer extends BarBuffer {
     }
 
     @Override
-    public void feed(IBarDataSet data) {
+    protected void feedRange(IBarDataSet data, int from, int to) {
 
-        float size = data.getEntryCount() * phaseX;
         float barWidthHalf = mBarWidth / 2f;
 
-        for (int i = 0; i < size; i++) {
+        for (int i = from; i < to; i++) {
 
             BarEntry e = data.getEntryForIndex(i);
 
@@ -88,7 +87,5 @@ public class HorizontalBarBuffer extends BarBuffer {
                 }
             }
         }
-
-        reset();
     }
 }
@@ -4,9 +4,12 @@ package com.github.mikephil.charting.charts;
 import android.content.Context;
 import android.util.AttributeSet;
 
+import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.data.CandleData;
 import com.github.mikephil.charting.interfaces.dataprovider.CandleDataProvider;
 import com.github.mikephil.charting.renderer.CandleStickChartRenderer;
+import com.github.mikephil.charting.renderer.DataRenderer;
+import com.github.mikephil.charting.utils.ViewPortHandler;
 
 /**
  * Financial chart type that draws candle-sticks (OHCL chart).
@@ -37,6 +40,11 @@ public class CandleStickChart extends BarLineChartBase<CandleData> implements Ca
         getXAxis().setSpaceMax(0.5f);
     }
 
+    @Override
+    public DataRenderer createRasterRenderer(ChartAnimator animator, ViewPortHandler viewPortHandler) {
+        return new CandleStickChartRenderer(this, animator, viewPortHandler);
+    }
+
     @Override
     public CandleData getCandleData() {
         return mData;
@@ -6,6 +6,7 @@ import android.graphics.Canvas;
 import android.util.AttributeSet;
 import android.util.Log;
 
+import com.github.mikephil.charting.animation.ChartAnimator;
 import com.github.mikephil.charting.data.BarData;
 import com.github.mikephil.charting.data.BubbleData;
 import com.github.mikephil.charting.data.CandleData;
@@ -18,6 +19,8 @@ import com.github.mikephil.charting.highlight.Highlight;
 import com.github.mikephil.charting.interfaces.dataprovider.CombinedDataProvider;
 import com.github.mikephil.charting.interfaces.datasets.IDataSet;
 import com.github.mikephil.charting.renderer.CombinedChartRenderer;
+import com.github.mikephil.charting.renderer.DataRenderer;
+import com.github.mikephil.charting.utils.ViewPortHandler;
 
 /**
  * This chart class allows the combination of lines, bars, scatter and candle
@@ -84,6 +87,11 @@ public class CombinedChart extends BarLineChartBase<CombinedData> implements Com
         mRenderer = new CombinedChartRenderer(this, mAnimator, mViewPortHandler);
     }
 
+    @Override
+    public DataRenderer createRasterRenderer(ChartAnimator animator, ViewPortHandler viewPortHandler) {
+        return new CombinedChartRenderer(this, animator, viewPortHandler);
+    }
+
     @Override
     public CombinedData getCombinedData() {
         return mData;
@@ -52,6 +52,27 @@ public abstract class AxisBase extends ComponentBase {
      */
     public int mDecimals;
 
+    /**
+     * number of formatted labels kept per axis, a power of two
+     */
+    private static final int LABEL_CACHE_SIZE = 32;
+
+    /**
+     * if true, labels of custom formatters are cached too
+     */
+    private boolean mLabelCacheEnabled = false;
+
+    /**
+     * formatted labels by value, in slots picked by the hash of the value
+     */
+    private final float[] mLabelCacheValues = new float[LABEL_CACHE_SIZE];
+    private final String[] mLabelCacheLabels = new String[LABEL_CACHE_SIZE];
+
+    /**
+     * the formatter the cached labels were formatted with
+     */
+    private IAxisValueFormatter mLabelCacheFormatter;
+
     /**
      * the number of label entries the axis should have, default 6
      */
@@ -518,8 +539,61 @@ public abstract class AxisBase extends ComponentBase {
 
         if (index < 0 || index >= mEntries.length)
             return "";
-        else
-            return getValueFormatter().getFormattedValue(mEntries[index], this);
+
+        IAxisValueFormatter formatter = getValueFormatter();
+        float value = mEntries[index];
+
+        if (!mLabelCacheEnabled && formatter.getClass() != DefaultAxisValueFormatter.class)
+            return formatter.getFormattedValue(value, this);
+
+        if (formatter != mLabelCacheFormatter) {
+            invalidateLabelCache();
+            mLabelCacheFormatter = formatter;
+        }
+
+        // as long as the interval stays the same, the labels are formatted once
+        int bits = Float.floatToIntBits(value);
+        int slot = (bits * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(LABEL_CACHE_SIZE));
+
+        String label = mLabelCacheLabels[slot];
+
+        if (label == null || Float.floatToIntBits(mLabelCacheValues[slot]) != bits) {
+            label = formatter.getFormattedValue(value, this);
+            mLabelCacheValues[slot] = value;
+            mLabelCacheLabels[slot] = label;
+        }
+
+        return label;
+    }
+
+    /**
+     * If enabled, the labels formatted by a custom formatter are cached, so each label is only
+     * formatted once while the axis shows the same values. Only enable it for formatters that
+     * always return the same label for the same value, or call invalidateLabelCache() when their
+     * labels change. Labels of the default formatter are always cached. Default: false
+     *
+     * @param enabled
+     */
+    public void setLabelCacheEnabled(boolean enabled) {
+        mLabelCacheEnabled = enabled;
+        invalidateLabelCache();
+    }
+
+    /**
+     * Returns true if the labels of custom formatters are cached.
+     *
+     * @return
+     */
+    public boolean isLabelCacheEnabled() {
+        return mLabelCacheEnabled;
+    }
+
+    /**
+     * Drops the cached labels, so they are formatted again when drawn next.
+     */
+    public void invalidateLabelCache() {
+        for (int i = 0; i < LABEL_CACHE_SIZE; i++)
+            mLabelCacheLabels[i] = null;
     }
 
     /**
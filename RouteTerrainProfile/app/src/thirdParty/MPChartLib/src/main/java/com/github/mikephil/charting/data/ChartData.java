@@ -104,6 +104,13 @@ public abstract class ChartData<T extends IDataSet<? extends Entry>> {
      * the contained data has changed.
      */
     public void notifyDataChanged() {
+
+        // the entries may have been changed in place, values kept for them are outdated
+        if (mDataSets != null) {
+            for (T set : mDataSets)
+                set.invalidateDataVersion();
+        }
+
         calcMinMax();
     }
 
@@ -445,6 +452,36 @@ public abstract class ChartData<T extends IDataSet<? extends Entry>> {
         }
     }
 
+    /**
+     * Appends an Entry to the end of the DataSet at the specified index, see
+     * IDataSet.appendEntry(...). The minimum and maximum values are combined from the
+     * DataSets again without iterating their entries, which also accounts for entries dropped
+     * by DataSets with a streaming capacity.
+     *
+     * @param e
+     * @param dataSetIndex
+     * @return true if the Entry was appended
+     */
+    public boolean appendEntry(Entry e, int dataSetIndex) {
+
+        if (mDataSets.size() > dataSetIndex && dataSetIndex >= 0) {
+
+            // the DataSets take the Entry type the chart data is filled with, as with addEntry(...)
+            @SuppressWarnings("unchecked")
+            IDataSet<Entry> set = (IDataSet<Entry>) mDataSets.get(dataSetIndex);
+
+            if (!set.appendEntry(e))
+                return false;
+
+            calcMinMax();
+            return true;
+
+        } else {
+            Log.e("appendEntry", "Cannot append Entry because dataSetIndex too high or too low.");
+            return false;
+        }
+    }
+
     /**
      * Adjusts the current minimum and maximum values based on the provided Entry object.
      *
@@ -0,0 +1,783 @@
+package com.github.mikephil.charting.data;
+
+import com.github.mikephil.charting.utils.SlidingMinMax;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LineDataSet variant that stores its values in two parallel primitive columns (x and y)
+ * instead of a List of Entry objects. Values are expected to be ordered by x.
+ * <p/>
+ * Entry objects are only created when a caller asks for them (renderers, highlighter) and are
+ * cached per index, so refilling the DataSet with new values (e.g. on every zoom) does not
+ * allocate anything once the columns and the cache have grown to the needed size.
+ * The returned entries are read-only views: changing their values does not change the DataSet.
+ * <p/>
+ * Entries may be asked for from two threads at once, e.g. by the highlighter on the UI thread
+ * while the data is rendered in the background (see
+ * BarLineChartBase.setAsyncDataRasterizationEnabled(...)), so the cache is guarded by its own
+ * lock. The values themselves must only be changed while holding the render lock of the chart.
+ * <p/>
+ * With a streaming capacity (setStreamingCapacity(int)) the values are a window that slides
+ * through columns of twice the capacity: appending to a full DataSet drops the first value by
+ * moving the start of the window, and the window is moved back to the start of the columns once
+ * it reaches their end, so appending stays amortized O(1).
+ */
+public class ColumnarLineDataSet extends LineDataSet {
+
+    /**
+     * the x-values column, only the mCount values from mOffset on are valid
+     */
+    protected float[] mXValues;
+
+    /**
+     * the y-values column, only the mCount values from mOffset on are valid
+     */
+    protected float[] mYValues;
+
+    /**
+     * index in the columns of the first value, only moved when streaming
+     */
+    protected int mOffset = 0;
+
+    /**
+     * the number of values this DataSet holds
+     */
+    protected int mCount = 0;
+
+    /**
+     * Entry views created so far, index aligned with the value columns (mOffset included),
+     * read and filled while holding mEntryCacheLock
+     */
+    private Entry[] mEntryCache;
+
+    private final Object mEntryCacheLock = new Object();
+
+    /**
+     * List view over the columns, returned by getEntries()
+     */
+    private List<Entry> mEntriesView;
+
+    public ColumnarLineDataSet(String label) {
+        this(null, null, 0, 0, label);
+    }
+
+    /**
+     * Creates a new ColumnarLineDataSet with a copy of the given values.
+     *
+     * @param xValues the x-values, in ascending order
+     * @param yValues the y-values
+     * @param count   the number of values to take from the arrays
+     * @param label
+     */
+    public ColumnarLineDataSet(float[] xValues, float[] yValues, int count, String label) {
+        this(xValues, yValues, 0, count, label);
+    }
+
+    /**
+     * Creates a new ColumnarLineDataSet with a copy of the given values.
+     *
+     * @param xValues the x-values, in ascending order
+     * @param yValues the y-values
+     * @param offset  index of the first value to take from the arrays
+     * @param count   the number of values to take from the arrays
+     * @param label
+     */
+    public ColumnarLineDataSet(float[] xValues, float[] yValues, int offset, int count, String label) {
+        super(null, label);
+
+        mXValues = new float[Math.max(count, 16)];
+        mYValues = new float[Math.max(count, 16)];
+        mEntryCache = new Entry[mXValues.length];
+
+        if (xValues != null && yValues != null)
+            setValues(xValues, yValues, offset, count);
+    }
+
+    /**
+     * Replaces the values of this DataSet with a copy of the given ones and recalculates
+     * the min and max values. The columns are only reallocated if they are too small.
+     *
+     * @param xValues the x-values, in ascending order
+     * @param yValues the y-values
+     * @param count   the number of values to take from the arrays
+     */
+    public void setValues(float[] xValues, float[] yValues, int count) {
+        setValues(xValues, yValues, 0, count);
+    }
+
+    /**
+     * Replaces the values of this DataSet with a copy of the given ones and recalculates
+     * the min and max values. The columns are only reallocated if they are too small.
+     *
+     * @param xValues the x-values, in ascending order
+     * @param yValues the y-values
+     * @param offset  index of the first value to take from the arrays
+     * @param count   the number of values to take from the arrays
+     */
+    public void setValues(float[] xValues, float[] yValues, int offset, int count) {
+
+        if (offset < 0 || count < 0 || offset + count > xValues.length || offset + count > yValues.length)
+            throw new IllegalArgumentException("Value range [" + offset + ", " + (offset + count)
+                    + ") is out of the given arrays bounds.");
+
+        if (mStreamingCapacity > 0 && count > mStreamingCapacity) {
+            // only the last values are kept
+            offset += count - mStreamingCapacity;
+            count = mStreamingCapacity;
+        }
+
+        mOffset = 0;
+        mCount = 0;
+        ensureCapacity(count);
+
+        System.arraycopy(xValues, offset, mXValues, 0, count);
+        System.arraycopy(yValues, offset, mYValues, 0, count);
+        mCount = count;
+
+        calcMinMax();
+    }
+
+    /**
+     * Makes sure the value columns can hold at least the given number of values without
+     * being reallocated.
+     *
+     * @param capacity
+     */
+    public void ensureCapacity(int capacity) {
+
+        if (mXValues != null && mOffset + capacity <= mXValues.length)
+            return;
+
+        if (mXValues != null && capacity <= mXValues.length) {
+            // room at the start of the columns, move the values there
+            compact();
+            return;
+        }
+
+        int newCapacity = mXValues == null ? capacity : Math.max(capacity, mXValues.length + (mXValues.length >> 1));
+
+        float[] xValues = new float[newCapacity];
+        float[] yValues = new float[newCapacity];
+        Entry[] entryCache = new Entry[newCapacity];
+
+        if (mXValues != null) {
+            System.arraycopy(mXValues, mOffset, xValues, 0, mCount);
+            System.arraycopy(mYValues, mOffset, yValues, 0, mCount);
+            System.arraycopy(mEntryCache, mOffset, entryCache, 0, mCount);
+        }
+
+        mXValues = xValues;
+        mYValues = yValues;
+        mEntryCache = entryCache;
+        mOffset = 0;
+    }
+
+    /**
+     * Moves the values to the start of the columns.
+     */
+    private void compact() {
+
+        if (mOffset == 0)
+            return;
+
+        System.arraycopy(mXValues, mOffset, mXValues, 0, mCount);
+        System.arraycopy(mYValues, mOffset, mYValues, 0, mCount);
+        System.arraycopy(mEntryCache, mOffset, mEntryCache, 0, mCount);
+        Arrays.fill(mEntryCache, mCount, mOffset + mCount, null);
+        mOffset = 0;
+    }
+
+    /**
+     * Returns the x-value at the given index without creating an Entry.
+     *
+     * @param index
+     * @return
+     */
+    public float getXValue(int index) {
+        return mXValues[mOffset + index];
+    }
+
+    /**
+     * Returns the y-value at the given index without creating an Entry.
+     *
+     * @param index
+     * @return
+     */
+    public float getYValue(int index) {
+        return mYValues[mOffset + index];
+    }
+
+    /**
+     * Returns the x-values column. Only the getEntryCount() values from getValuesOffset() on are
+     * valid, and the array is replaced when the DataSet grows, so it should not be kept.
+     *
+     * @return
+     */
+    public float[] getXValues() {
+        return mXValues;
+    }
+
+    /**
+     * Returns the y-values column. Only the getEntryCount() values from getValuesOffset() on are
+     * valid, and the array is replaced when the DataSet grows, so it should not be kept.
+     *
+     * @return
+     */
+    public float[] getYValues() {
+        return mYValues;
+    }
+
+    /**
+     * Returns the index in getXValues() and getYValues() of the value at index 0. Always 0
+     * unless the DataSet has a streaming capacity.
+     *
+     * @return
+     */
+    public int getValuesOffset() {
+        return mOffset;
+    }
+
+    @Override
+    public void calcMinMax() {
+
+        mYMax = -Float.MAX_VALUE;
+        mYMin = Float.MAX_VALUE;
+        mXMax = -Float.MAX_VALUE;
+        mXMin = Float.MAX_VALUE;
+
+        mYRangeIndexDirty = true;
+        mSpatialIndexDirty = true;
+        mDataVersion++;
+        mDirtyRangeStart = 0;
+
+        if (mStreamingMinMax != null)
+            mStreamingMinMax.clear();
+
+        // called by the super constructor before the columns exist
+        if (mXValues == null || mCount == 0)
+            return;
+
+        for (int i = mOffset; i < mOffset + mCount; i++) {
+            calcMinMax(mXValues[i], mYValues[i]);
+
+            if (mStreamingMinMax != null)
+                mStreamingMinMax.add(mYValues[i], mYValues[i]);
+        }
+    }
+
+    @Override
+    public void calcMinMaxY(float fromX, float toX) {
+        mYMax = -Float.MAX_VALUE;
+        mYMin = Float.MAX_VALUE;
+
+        if (mCount == 0)
+            return;
+
+        int indexFrom = getEntryIndex(fromX, Float.NaN, Rounding.DOWN);
+        int indexTo = getEntryIndex(toX, Float.NaN, Rounding.UP);
+
+        if (indexTo < indexFrom) return;
+
+        if (mYRangeIndex != null) {
+            calcMinMaxYFromIndex(indexFrom, indexTo);
+            return;
+        }
+
+        final float[] yValues = mYValues;
+
+        for (int i = mOffset + indexFrom; i <= mOffset + indexTo; i++) {
+
+            final float y = yValues[i];
+
+            if (y < mYMin)
+                mYMin = y;
+
+            if (y > mYMax)
+                mYMax = y;
+        }
+    }
+
+    @Override
+    protected void rebuildYRangeIndex() {
+
+        for (int i = mOffset; i < mOffset + mCount; i++) {
+            mYRangeIndex.add(mYValues[i], mYValues[i]);
+        }
+    }
+
+    @Override
+    protected void rebuildSpatialIndex() {
+
+        for (int i = mOffset; i < mOffset + mCount; i++) {
+            mSpatialIndex.add(mXValues[i], mYValues[i]);
+        }
+    }
+
+    @Override
+    protected void calcMinMax(Entry e) {
+
+        if (e == null)
+            return;
+
+        calcMinMax(e.getX(), e.getY());
+    }
+
+    private void calcMinMax(float x, float y) {
+
+        if (x < mXMin)
+            mXMin = x;
+
+        if (x > mXMax)
+            mXMax = x;
+
+        if (y < mYMin)
+            mYMin = y;
+
+        if (y > mYMax)
+            mYMax = y;
+    }
+
+    @Override
+    public int getEntryCount() {
+        return mCount;
+    }
+
+    /**
+     * Returns a read-only list view over the values of this DataSet.
+     *
+     * @return
+     */
+    @Override
+    public List<Entry> getEntries() {
+
+        if (mEntriesView == null) {
+            mEntriesView = new AbstractList<Entry>() {
+                @Override
+                public Entry get(int index) {
+                    return getEntryForIndex(index);
+                }
+
+                @Override
+                public int size() {
+                    return mCount;
+                }
+            };
+        }
+
+        return mEntriesView;
+    }
+
+    /**
+     * Replaces the values of this DataSet with the values of the given entries, and calls
+     * notifyDataSetChanged(). The entries must be ordered by x.
+     *
+     * @param entries
+     */
+    @Override
+    public void setEntries(List<Entry> entries) {
+
+        mOffset = 0;
+        mCount = 0;
+
+        if (entries != null) {
+            int first = mStreamingCapacity > 0 ? Math.max(entries.size() - mStreamingCapacity, 0) : 0;
+            ensureCapacity(entries.size() - first);
+
+            for (int i = first; i < entries.size(); i++) {
+                Entry e = entries.get(i);
+                mXValues[mCount] = e.getX();
+                mYValues[mCount] = e.getY();
+                mCount++;
+            }
+        }
+
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public Entry getEntryForIndex(int index) {
+
+        if (index < 0 || index >= mCount)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mCount);
+
+        final int i = mOffset + index;
+        final float x = mXValues[i];
+        final float y = mYValues[i];
+
+        synchronized (mEntryCacheLock) {
+
+            Entry e = mEntryCache[i];
+
+            if (e == null) {
+                e = new Entry(x, y);
+                mEntryCache[i] = e;
+            } else if (e.getX() != x || e.getY() != y) {
+                // the columns were refilled since the view was created
+                e.setX(x);
+                e.setY(y);
+            }
+
+            return e;
+        }
+    }
+
+    @Override
+    public Entry getEntryForXValue(float xValue, float closestToY, Rounding rounding) {
+
+        int index = getEntryIndex(xValue, closestToY, rounding);
+        if (index > -1)
+            return getEntryForIndex(index);
+        return null;
+    }
+
+    @Override
+    public int getEntryIndex(Entry e) {
+
+        if (e == null || mCount == 0)
+            return -1;
+
+        // entries handed out by this DataSet are found by identity next to their x-value
+        int index = getEntryIndex(e.getX(), Float.NaN, Rounding.CLOSEST);
+
+        if (index < 0 || getXValue(index) != e.getX())
+            return -1;
+
+        while (index > 0 && getXValue(index - 1) == e.getX())
+            index--;
+
+        int firstEqual = -1;
+
+        for (; index < mCount && getXValue(index) == e.getX(); index++) {
+
+            synchronized (mEntryCacheLock) {
+                if (mEntryCache[mOffset + index] == e)
+                    return index;
+            }
+
+            if (firstEqual < 0 && getYValue(index) == e.getY())
+                firstEqual = index;
+        }
+
+        return firstEqual;
+    }
+
+    @Override
+    public int getEntryIndex(float xValue, float closestToY, Rounding rounding) {
+
+        if (mCount == 0)
+            return -1;
+
+        final float[] xValues = mXValues;
+        final float[] yValues = mYValues;
+        final int offset = mOffset;
+
+        int low = 0;
+        int high = mCount - 1;
+        int closest = high;
+
+        while (low < high) {
+            int m = (low + high) / 2;
+
+            final float d1 = xValues[offset + m] - xValue,
+                    d2 = xValues[offset + m + 1] - xValue,
+                    ad1 = Math.abs(d1), ad2 = Math.abs(d2);
+
+            if (ad2 < ad1) {
+                // [m + 1] is closer to xValue
+                low = m + 1;
+            } else if (ad1 < ad2) {
+                // [m] is closer to xValue
+                high = m;
+            } else {
+                // multiple sequential x-values with the same distance
+                if (d1 >= 0.0) {
+                    high = m;
+                } else {
+                    low = m + 1;
+                }
+            }
+
+            closest = high;
+        }
+
+        float closestXValue = xValues[offset + closest];
+        if (rounding == Rounding.UP) {
+            if (closestXValue < xValue && closest < mCount - 1) {
+                ++closest;
+            }
+        } else if (rounding == Rounding.DOWN) {
+            if (closestXValue > xValue && closest > 0) {
+                --closest;
+            }
+        }
+
+        // Search by closest to y-value
+        if (!Float.isNaN(closestToY)) {
+            while (closest > 0 && xValues[offset + closest - 1] == closestXValue)
+                closest -= 1;
+
+            float closestYValue = yValues[offset + closest];
+            int closestYIndex = closest;
+
+            while (true) {
+                closest += 1;
+                if (closest >= mCount)
+                    break;
+
+                if (xValues[offset + closest] != closestXValue)
+                    break;
+
+                if (Math.abs(yValues[offset + closest] - closestToY) <= Math.abs(closestYValue - closestToY)) {
+                    closestYValue = closestToY;
+                    closestYIndex = closest;
+                }
+            }
+
+            closest = closestYIndex;
+        }
+
+        return closest;
+    }
+
+    @Override
+    public List<Entry> getEntriesForXValue(float xValue) {
+
+        List<Entry> entries = new ArrayList<Entry>();
+
+        int index = Arrays.binarySearch(mXValues, mOffset, mOffset + mCount, xValue) - mOffset;
+
+        if (index < 0)
+            return entries;
+
+        while (index > 0 && getXValue(index - 1) == xValue)
+            index--;
+
+        for (; index < mCount && getXValue(index) == xValue; index++) {
+            entries.add(getEntryForIndex(index));
+        }
+
+        return entries;
+    }
+
+    @Override
+    public boolean appendEntry(Entry e) {
+
+        if (e == null)
+            return false;
+
+        if (mCount > 0 && getXValue(mCount - 1) > e.getX())
+            return false;
+
+        return addEntry(e);
+    }
+
+    @Override
+    public boolean addEntry(Entry e) {
+
+        if (e == null)
+            return false;
+
+        boolean dropped = false;
+
+        if (mStreamingCapacity > 0 && mCount >= mStreamingCapacity) {
+            dropFirst();
+            dropped = true;
+        }
+
+        if (mOffset + mCount == mXValues.length) {
+            if (mStreamingCapacity > 0 && mXValues.length < 2 * mStreamingCapacity)
+                ensureCapacity(mXValues.length + 1);
+            else
+                ensureCapacity(mCount + 1);
+        }
+
+        final int i = mOffset + mCount;
+        mXValues[i] = e.getX();
+        mYValues[i] = e.getY();
+        mEntryCache[i] = null;
+        mCount++;
+
+        if (mStreamingMinMax != null)
+            mStreamingMinMax.add(e.getY(), e.getY());
+
+        if (dropped) {
+            // the indices of all values changed
+            mXMin = mXValues[mOffset];
+
+            if (e.getX() > mXMax)
+                mXMax = e.getX();
+
+            mYMin = mStreamingMinMax.getMin();
+            mYMax = mStreamingMinMax.getMax();
+
+            mYRangeIndexDirty = true;
+            mSpatialIndexDirty = true;
+            mDataVersion++;
+            mDirtyRangeStart = 0;
+        } else {
+            calcMinMax(e);
+            onEntryAppended(e);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void addEntryOrdered(Entry e) {
+
+        if (e == null)
+            return;
+
+        if (mCount > 0 && getXValue(mCount - 1) > e.getX()) {
+
+            if (mStreamingCapacity > 0 && mCount >= mStreamingCapacity)
+                dropFirst();
+
+            int index = mCount == 0 ? 0 : getEntryIndex(e.getX(), e.getY(), Rounding.UP);
+            insert(index, e.getX(), e.getY());
+
+            if (mStreamingMinMax != null)
+                calcMinMax();
+            else
+                calcMinMax(e);
+        } else {
+            addEntry(e);
+        }
+    }
+
+    private void insert(int index, float x, float y) {
+
+        ensureCapacity(mCount + 1);
+
+        final int i = mOffset + index;
+        int moved = mCount - index;
+        System.arraycopy(mXValues, i, mXValues, i + 1, moved);
+        System.arraycopy(mYValues, i, mYValues, i + 1, moved);
+        System.arraycopy(mEntryCache, i, mEntryCache, i + 1, moved);
+
+        mXValues[i] = x;
+        mYValues[i] = y;
+        mEntryCache[i] = null;
+        mCount++;
+
+        mYRangeIndexDirty = true;
+        mSpatialIndexDirty = true;
+        mDataVersion++;
+        mDirtyRangeStart = 0;
+    }
+
+    /**
+     * Drops the first value of a streaming DataSet by moving the start of the window.
+     */
+    private void dropFirst() {
+
+        mEntryCache[mOffset] = null;
+        mOffset++;
+        mCount--;
+
+        mStreamingMinMax.removeFirst();
+    }
+
+    /**
+     * Limits the DataSet to the given number of values for live-updating charts. Adding to a
+     * full DataSet drops its first value, in amortized O(1) (see the class description), and
+     * the minimum and maximum values are kept up to date without a scan. Existing values beyond
+     * the capacity are dropped from the start. The columns grow up to twice the capacity.
+     * Default: 0 (not limited)
+     *
+     * @param capacity the maximum number of values, 0 to remove the limit
+     */
+    @Override
+    public void setStreamingCapacity(int capacity) {
+
+        if (capacity > 0) {
+
+            if (mCount > capacity) {
+                int dropped = mCount - capacity;
+                Arrays.fill(mEntryCache, mOffset, mOffset + dropped, null);
+                mOffset += dropped;
+                mCount = capacity;
+            }
+
+            mStreamingCapacity = capacity;
+            mStreamingMinMax = new SlidingMinMax();
+        } else {
+            mStreamingCapacity = 0;
+            mStreamingMinMax = null;
+        }
+
+        calcMinMax();
+    }
+
+    @Override
+    public boolean removeEntry(Entry e) {
+        return removeEntry(getEntryIndex(e));
+    }
+
+    @Override
+    public boolean removeEntry(int index) {
+
+        if (index < 0 || index >= mCount)
+            return false;
+
+        final int i = mOffset + index;
+        int moved = mCount - index - 1;
+        System.arraycopy(mXValues, i + 1, mXValues, i, moved);
+        System.arraycopy(mYValues, i + 1, mYValues, i, moved);
+        System.arraycopy(mEntryCache, i + 1, mEntryCache, i, moved);
+
+        mCount--;
+        mEntryCache[mOffset + mCount] = null;
+
+        calcMinMax();
+
+        return true;
+    }
+
+    @Override
+    public boolean removeFirst() {
+        return removeEntry(0);
+    }
+
+    @Override
+    public boolean removeLast() {
+        return removeEntry(mCount - 1);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(mEntryCache, mOffset, mOffset + mCount, null);
+        mOffset = 0;
+        mCount = 0;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public DataSet<Entry> copy() {
+        ColumnarLineDataSet copied = new ColumnarLineDataSet(mXValues, mYValues, mOffset, mCount, getLabel());
+        copy(copied);
+        return copied;
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer buffer = new StringBuffer();
+        buffer.append(toSimpleString());
+        for (int i = 0; i < mCount; i++) {
+            buffer.append("Entry, x: " + getXValue(i) + " y: " + getYValue(i) + " ");
+        }
+        return buffer.toString();
+    }
+
+    @Override
+    public String toSimpleString() {
+        StringBuffer buffer = new StringBuffer();
+        buffer.append("DataSet, label: " + (getLabel() == null ? "" : getLabel()) + ", entries: " + mCount +
+                "\n");
+        return buffer.toString();
+    }
+}
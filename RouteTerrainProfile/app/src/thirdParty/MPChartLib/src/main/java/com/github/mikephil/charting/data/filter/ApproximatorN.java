@@ -1,14 +1,66 @@
-
 package com.github.mikephil.charting.data.filter;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
- * Implemented according to modified Douglas Peucker {@link}
- * http://psimpl.sourceforge.net/douglas-peucker.html
+ * Reduces a series of points to a given number of points. The points are stored interleaved
+ * in a float array (x0, y0, x1, y1, ...) and, for the in-place variants, the reduced points are
+ * written to the beginning of the same array.
+ * <p/>
+ * Two algorithms are available:
+ * - Douglas Peucker, implemented according to the modified version at
+ *   http://psimpl.sourceforge.net/douglas-peucker.html (keeps the points that deviate the most)
+ * - Largest-Triangle-Three-Buckets (Sveinn Steinarsson, "Downsampling Time Series for Visual
+ *   Representation"), which keeps the visual shape of a series when reducing it to pixel width
+ * <p/>
+ * Large series are processed in parallel on a ForkJoinPool.
  */
 public class ApproximatorN
 {
+    /**
+     * default number of points from which the work is split across the pool
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    private final ForkJoinPool mPool;
+
+    private int mParallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    public ApproximatorN() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool the pool used for large series, null to always work on the calling thread
+     */
+    public ApproximatorN(ForkJoinPool pool) {
+        mPool = pool;
+    }
+
+    /**
+     * Sets the number of points from which the work is split across the pool.
+     *
+     * @param threshold
+     */
+    public void setParallelThreshold(int threshold) {
+        mParallelThreshold = Math.max(threshold, 16);
+    }
+
+    public int getParallelThreshold() {
+        return mParallelThreshold;
+    }
+
+    /**
+     * Returns a new array with the given points reduced to resultCount points using
+     * Douglas Peucker. The given array is not modified.
+     *
+     * @param points      interleaved x and y values
+     * @param resultCount the number of points to keep
+     * @return
+     */
     public float[] reduceWithDouglasPeucker(float[] points, float resultCount) {
 
         int pointCount = points.length / 2;
@@ -17,6 +69,27 @@ public class ApproximatorN
         if (resultCount <= 2 || resultCount >= pointCount)
             return points;
 
+        float[] reduced = Arrays.copyOf(points, points.length);
+        int count = reduceWithDouglasPeucker(reduced, pointCount, (int) resultCount);
+
+        return Arrays.copyOf(reduced, count * 2);
+    }
+
+    /**
+     * Reduces the first pointCount points of the given array to resultCount points using
+     * Douglas Peucker. The kept points are moved to the beginning of the array, in order.
+     *
+     * @param points      interleaved x and y values
+     * @param pointCount  the number of points in the array
+     * @param resultCount the number of points to keep
+     * @return the number of points kept
+     */
+    public int reduceWithDouglasPeucker(float[] points, int pointCount, int resultCount) {
+
+        // if a shape has 2 or less points it cannot be reduced
+        if (resultCount <= 2 || resultCount >= pointCount)
+            return pointCount;
+
         boolean[] keep = new boolean[pointCount];
 
         // first and last always stay
@@ -25,122 +98,400 @@ public class ApproximatorN
 
         int currentStoredPoints = 2;
 
-        ArrayList<Line> queue = new ArrayList<>();
-        Line line = new Line(0, pointCount - 1, points);
-        queue.add(line);
+        // every split stores one point and adds at most two segments
+        SegmentQueue queue = new SegmentQueue(resultCount);
+        pushSegment(queue, points, 0, pointCount - 1);
 
-        do {
-            line = queue.remove(queue.size() - 1);
+        while (currentStoredPoints < resultCount && !queue.isEmpty()) {
+
+            int start = queue.start[0];
+            int end = queue.end[0];
+            int index = queue.index[0];
+            queue.pop();
 
             // store the key
-            keep[line.index] = true;
+            keep[index] = true;
+            currentStoredPoints++;
 
-            // check point count tolerance
-            currentStoredPoints += 1;
+            // split the polyline at the key and continue with the parts
+            pushSegment(queue, points, start, index);
+            pushSegment(queue, points, index, end);
+        }
 
-            if (currentStoredPoints == resultCount)
-                break;
+        int written = 0;
 
-            // split the polyline at the key and recurse
-            Line left = new Line(line.start, line.index, points);
-            if (left.index > 0) {
-                int insertionIndex = insertionIndex(left, queue);
-                queue.add(insertionIndex, left);
+        for (int i = 0; i < pointCount; i++) {
+            if (keep[i]) {
+                points[written * 2] = points[i * 2];
+                points[written * 2 + 1] = points[i * 2 + 1];
+                written++;
             }
+        }
 
-            Line right = new Line(line.index, line.end, points);
-            if (right.index > 0) {
-                int insertionIndex = insertionIndex(right, queue);
-                queue.add(insertionIndex, right);
-            }
-        } while (queue.isEmpty());
+        return written;
+    }
 
-        float[] reducedEntries = new float[currentStoredPoints * 2];
+    /**
+     * Returns a new array with the given points reduced to about resultCount points using
+     * Largest-Triangle-Three-Buckets. The given array is not modified.
+     *
+     * @param points      interleaved x and y values
+     * @param resultCount the number of points to keep
+     * @return
+     */
+    public float[] reduceWithLargestTriangleThreeBuckets(float[] points, int resultCount) {
 
-        for (int i = 0, i2 = 0, r2 = 0; i < currentStoredPoints; i++, r2 += 2) {
-            if (keep[i]) {
-                reducedEntries[i2++] = points[r2];
-                reducedEntries[i2++] = points[r2 + 1];
-            }
-        }
+        int pointCount = points.length / 2;
 
-        return reducedEntries;
+        if (resultCount < 3 || resultCount >= pointCount)
+            return points;
+
+        float[] reduced = Arrays.copyOf(points, points.length);
+        int count = reduceWithLargestTriangleThreeBuckets(reduced, pointCount, resultCount);
+
+        return Arrays.copyOf(reduced, count * 2);
     }
 
-    private static float distanceToLine(
-            float ptX, float ptY, float[]
-            fromLinePoint1, float[] fromLinePoint2) {
-        float dx = fromLinePoint2[0] - fromLinePoint1[0];
-        float dy = fromLinePoint2[1] - fromLinePoint1[1];
+    /**
+     * Reduces the first pointCount points of the given array using Largest-Triangle-Three-Buckets.
+     * The kept points are moved to the beginning of the array, in order.
+     * <p/>
+     * Series of at least getParallelThreshold() points are split into consecutive parts that
+     * are reduced in parallel, each one keeping its first and last point. The result then
+     * contains resultCount points plus at most one point per part.
+     *
+     * @param points      interleaved x and y values, ordered by x
+     * @param pointCount  the number of points in the array
+     * @param resultCount the number of points to keep
+     * @return the number of points kept
+     */
+    public int reduceWithLargestTriangleThreeBuckets(float[] points, int pointCount, int resultCount) {
+
+        if (resultCount < 3 || resultCount >= pointCount)
+            return pointCount;
+
+        if (mPool == null || pointCount < mParallelThreshold)
+            return lttb(points, 0, pointCount, resultCount);
+
+        // every part needs enough buckets to make the split worth it
+        int parts = Math.min(mPool.getParallelism() * 4, Math.min(pointCount / (mParallelThreshold / 4), resultCount / 16));
+
+        if (parts < 2)
+            return lttb(points, 0, pointCount, resultCount);
+
+        int[] partStart = new int[parts + 1];
+        int[] partThreshold = new int[parts];
+        int[] partResult = new int[parts];
+
+        for (int i = 0; i <= parts; i++) {
+            partStart[i] = (int) ((long) pointCount * i / parts);
+        }
+
+        for (int i = 0; i < parts; i++) {
+            int from = Math.round((float) resultCount * partStart[i] / pointCount);
+            int to = Math.round((float) resultCount * partStart[i + 1] / pointCount);
+            partThreshold[i] = Math.max(to - from, 3);
+        }
+
+        mPool.invoke(new LttbPartsTask(points, partStart, partThreshold, partResult, 0, parts));
 
-        float dividend = Math.abs(
-                dy * ptX -
-                        dx * ptY -
-                        fromLinePoint1[0] * fromLinePoint2[1] +
-                        fromLinePoint2[0] * fromLinePoint1[1]);
-        double divisor = Math.sqrt(dx * dx + dy * dy);
+        // move the reduced parts next to each other
+        int written = partResult[0];
 
-        return (float)(dividend / divisor);
+        for (int i = 1; i < parts; i++) {
+            System.arraycopy(points, partStart[i] * 2, points, written * 2, partResult[i] * 2);
+            written += partResult[i];
+        }
+
+        return written;
     }
 
-    private static class Line {
-        int start;
-        int end;
+    /**
+     * Runs Largest-Triangle-Three-Buckets on count points starting at index from, and writes the
+     * kept points starting at the same index. Every point is read before its slot can be
+     * overwritten, because bucket i is never located before output slot i.
+     *
+     * @return the number of points kept
+     */
+    private static int lttb(float[] points, int from, int count, int threshold) {
 
-        float distance = 0;
-        int index = 0;
+        if (threshold >= count || threshold < 3)
+            return count;
 
-        Line(int start, int end, float[] points) {
-            this.start = start;
-            this.end = end;
+        final double every = (double) (count - 2) / (threshold - 2);
+
+        int first = from * 2;
+
+        // the first point always stays where it is
+        float ax = points[first];
+        float ay = points[first + 1];
+        int written = 1;
+
+        for (int i = 0; i < threshold - 2; i++) {
 
-            float[] startPoint = new float[]{points[start * 2], points[start * 2 + 1]};
-            float[] endPoint = new float[]{points[end * 2], points[end * 2 + 1]};
+            // average of the next bucket, the third point of the triangle
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, count);
 
-            if (end <= start + 1) return;
+            double avgX = 0;
+            double avgY = 0;
 
-            for (int i = start + 1, i2 = i * 2; i < end; i++, i2 += 2) {
-                float distance = distanceToLine(
-                        points[i2], points[i2 + 1],
-                        startPoint, endPoint);
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += points[first + j * 2];
+                avgY += points[first + j * 2 + 1];
+            }
+
+            int avgLength = avgEnd - avgStart;
+            if (avgLength > 0) {
+                avgX /= avgLength;
+                avgY /= avgLength;
+            } else {
+                // last bucket, the third point is the last point
+                avgX = points[first + (count - 1) * 2];
+                avgY = points[first + (count - 1) * 2 + 1];
+            }
+
+            // the point of the current bucket that forms the largest triangle
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
 
-                if (distance > this.distance) {
-                    this.index = i;
-                    this.distance = distance;
+            double maxArea = -1;
+            int selected = rangeStart;
+
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (points[first + j * 2 + 1] - ay)
+                        - (ax - points[first + j * 2]) * (avgY - ay));
+
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = j;
                 }
             }
-        }
 
-        boolean equals(final Line rhs) {
-            return (start == rhs.start) && (end == rhs.end) && index == rhs.index;
+            ax = points[first + selected * 2];
+            ay = points[first + selected * 2 + 1];
+
+            points[first + written * 2] = ax;
+            points[first + written * 2 + 1] = ay;
+            written++;
         }
 
-        boolean lessThan(final Line rhs) {
-            return distance < rhs.distance;
+        // the last point always stays
+        points[first + written * 2] = points[first + (count - 1) * 2];
+        points[first + written * 2 + 1] = points[first + (count - 1) * 2 + 1];
+        written++;
+
+        return written;
+    }
+
+    /**
+     * Finds the point between start and end (both exclusive) that is the farthest from the
+     * line start-end and adds the segment to the queue, if it has any inner points.
+     */
+    private void pushSegment(SegmentQueue queue, float[] points, int start, int end) {
+
+        if (end <= start + 1)
+            return;
+
+        int index;
+
+        if (mPool != null && end - start >= mParallelThreshold)
+            index = mPool.invoke(new FarthestPointTask(points, start, end, start + 1, end, mParallelThreshold / 4));
+        else
+            index = farthestPoint(points, start, end, start + 1, end);
+
+        queue.push(start, end, index, distanceToLine(points, index, start, end));
+    }
+
+    /**
+     * Returns the index in [from, to) of the point farthest from the line start-end.
+     */
+    private static int farthestPoint(float[] points, int start, int end, int from, int to) {
+
+        int index = from;
+        double maxDistance = -1;
+
+        for (int i = from; i < to; i++) {
+            double distance = distanceToLine(points, i, start, end);
+
+            if (distance > maxDistance) {
+                index = i;
+                maxDistance = distance;
+            }
         }
+
+        return index;
     }
 
-    private static int insertionIndex(Line line, ArrayList<Line> queue) {
-        int min = 0;
-        int max = queue.size();
+    /**
+     * Returns the distance of the point at the given index to the line through the points
+     * at lineStart and lineEnd, or to lineStart if both points are equal.
+     */
+    private static double distanceToLine(float[] points, int index, int lineStart, int lineEnd) {
 
-        while (!queue.isEmpty()) {
-            int midIndex = min + (max - min) / 2;
-            Line midLine = queue.get(midIndex);
+        double x1 = points[lineStart * 2];
+        double y1 = points[lineStart * 2 + 1];
+        double dx = points[lineEnd * 2] - x1;
+        double dy = points[lineEnd * 2 + 1] - y1;
+
+        double px = points[index * 2] - x1;
+        double py = points[index * 2 + 1] - y1;
+
+        double length = Math.sqrt(dx * dx + dy * dy);
+
+        if (length == 0)
+            return Math.sqrt(px * px + py * py);
+
+        return Math.abs(dx * py - dy * px) / length;
+    }
+
+    /**
+     * Binary max-heap of segments ordered by the distance of their farthest point,
+     * stored in primitive arrays.
+     */
+    private static class SegmentQueue {
+
+        int[] start;
+        int[] end;
+        int[] index;
+        double[] distance;
+        int size = 0;
+
+        SegmentQueue(int capacity) {
+            start = new int[capacity];
+            end = new int[capacity];
+            index = new int[capacity];
+            distance = new double[capacity];
+        }
 
-            if (midLine.equals(line)) {
-                return midIndex;
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int s, int e, int i, double d) {
+
+            if (size == start.length) {
+                int capacity = size * 2;
+                start = Arrays.copyOf(start, capacity);
+                end = Arrays.copyOf(end, capacity);
+                index = Arrays.copyOf(index, capacity);
+                distance = Arrays.copyOf(distance, capacity);
             }
-            else if (line.lessThan(midLine)) {
-                // perform search in left half
-                max = midIndex;
+
+            int node = size++;
+
+            while (node > 0) {
+                int parent = (node - 1) / 2;
+                if (distance[parent] >= d)
+                    break;
+                move(parent, node);
+                node = parent;
             }
-            else {
-                // perform search in right half
-                min = midIndex + 1;
+
+            set(node, s, e, i, d);
+        }
+
+        void pop() {
+
+            size--;
+
+            if (size == 0)
+                return;
+
+            // sift the last element down from the root
+            int s = start[size], e = end[size], i = index[size];
+            double d = distance[size];
+
+            int node = 0;
+
+            while (true) {
+                int child = node * 2 + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && distance[child + 1] > distance[child])
+                    child++;
+                if (distance[child] <= d)
+                    break;
+                move(child, node);
+                node = child;
             }
+
+            set(node, s, e, i, d);
         }
 
-        return min;
+        private void move(int from, int to) {
+            set(to, start[from], end[from], index[from], distance[from]);
+        }
+
+        private void set(int node, int s, int e, int i, double d) {
+            start[node] = s;
+            end[node] = e;
+            index[node] = i;
+            distance[node] = d;
+        }
+    }
+
+    private static class FarthestPointTask extends RecursiveTask<Integer> {
+
+        private final float[] points;
+        private final int start, end, from, to, threshold;
+
+        FarthestPointTask(float[] points, int start, int end, int from, int to, int threshold) {
+            this.points = points;
+            this.start = start;
+            this.end = end;
+            this.from = from;
+            this.to = to;
+            this.threshold = Math.max(threshold, 1024);
+        }
+
+        @Override
+        protected Integer compute() {
+
+            if (to - from <= threshold)
+                return farthestPoint(points, start, end, from, to);
+
+            int middle = (from + to) >>> 1;
+
+            FarthestPointTask left = new FarthestPointTask(points, start, end, from, middle, threshold);
+            left.fork();
+
+            int rightIndex = new FarthestPointTask(points, start, end, middle, to, threshold).compute();
+            int leftIndex = left.join();
+
+            return distanceToLine(points, rightIndex, start, end) > distanceToLine(points, leftIndex, start, end)
+                    ? rightIndex : leftIndex;
+        }
+    }
+
+    private static class LttbPartsTask extends RecursiveAction {
+
+        private final float[] points;
+        private final int[] partStart, partThreshold, partResult;
+        private final int from, to;
+
+        LttbPartsTask(float[] points, int[] partStart, int[] partThreshold, int[] partResult, int from, int to) {
+            this.points = points;
+            this.partStart = partStart;
+            this.partThreshold = partThreshold;
+            this.partResult = partResult;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from == 1) {
+                int start = partStart[from];
+                partResult[from] = lttb(points, start, partStart[from + 1] - start, partThreshold[from]);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+
+            invokeAll(new LttbPartsTask(points, partStart, partThreshold, partResult, from, middle),
+                    new LttbPartsTask(points, partStart, partThreshold, partResult, middle, to));
+        }
     }
 }
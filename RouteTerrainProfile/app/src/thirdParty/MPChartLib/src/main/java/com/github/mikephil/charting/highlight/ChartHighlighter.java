@@ -7,6 +7,8 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.interfaces.dataprovider.BarLineScatterCandleBubbleDataProvider;
 import com.github.mikephil.charting.interfaces.datasets.IDataSet;
 import com.github.mikephil.charting.utils.MPPointD;
+import com.github.mikephil.charting.utils.SpatialGridIndex;
+import com.github.mikephil.charting.utils.Transformer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +29,11 @@ public class ChartHighlighter<T extends BarLineScatterCandleBubbleDataProvider>
      */
     protected List<Highlight> mHighlightBuffer = new ArrayList<Highlight>();
 
+    /**
+     * buffer for the value / pixel conversions
+     */
+    protected float[] mPointBuffer = new float[4];
+
     public ChartHighlighter(T chart) {
         this.mChart = chart;
     }
@@ -34,6 +41,9 @@ public class ChartHighlighter<T extends BarLineScatterCandleBubbleDataProvider>
     @Override
     public Highlight getHighlight(float x, float y) {
 
+        if (isSpatiallyIndexed())
+            return getNearestHighlight(x, y, mChart.getMaxHighlightDistance());
+
         MPPointD pos = getValsForTouch(x, y);
         float xVal = (float) pos.x;
         MPPointD.recycleInstance(pos);
@@ -57,6 +67,111 @@ public class ChartHighlighter<T extends BarLineScatterCandleBubbleDataProvider>
         return pos;
     }
 
+    /**
+     * Returns true if all DataSets that can be highlighted have a spatial index, so the
+     * highlight can be found with getNearestHighlight(...).
+     *
+     * @return
+     */
+    protected boolean isSpatiallyIndexed() {
+
+        BarLineScatterCandleBubbleData<?> data = getData();
+
+        if (data == null)
+            return false;
+
+        boolean indexed = false;
+
+        for (int i = 0, dataSetCount = data.getDataSetCount(); i < dataSetCount; i++) {
+
+            IDataSet<? extends Entry> dataSet = data.getDataSetByIndex(i);
+
+            if (!dataSet.isHighlightEnabled())
+                continue;
+
+            if (dataSet.getSpatialIndex() == null)
+                return false;
+
+            indexed = true;
+        }
+
+        return indexed;
+    }
+
+    /**
+     * Returns the Highlight of the entry closest to the given touch position, in pixels, using
+     * the spatial indices of the DataSets. Only the returned Highlight is allocated.
+     *
+     * @param x           touch position
+     * @param y           touch position
+     * @param maxDistance the maximum distance in pixels
+     * @return the Highlight, or null if no entry is closer than maxDistance
+     */
+    protected Highlight getNearestHighlight(float x, float y, float maxDistance) {
+
+        BarLineScatterCandleBubbleData<?> data = getData();
+
+        if (data == null)
+            return null;
+
+        IDataSet<? extends Entry> closestSet = null;
+        int closestSetIndex = -1;
+        int closestEntryIndex = -1;
+        float distance = maxDistance;
+
+        final float[] pts = mPointBuffer;
+
+        for (int i = 0, dataSetCount = data.getDataSetCount(); i < dataSetCount; i++) {
+
+            IDataSet<? extends Entry> dataSet = data.getDataSetByIndex(i);
+
+            if (!dataSet.isHighlightEnabled() || dataSet.getEntryCount() == 0)
+                continue;
+
+            SpatialGridIndex index = dataSet.getSpatialIndex();
+            Transformer trans = mChart.getTransformer(dataSet.getAxisDependency());
+
+            // pixels per value, measured across the DataSet for precision
+            float xMin = dataSet.getXMin();
+            float yMin = dataSet.getYMin();
+            float xRange = dataSet.getXMax() > xMin ? dataSet.getXMax() - xMin : 1f;
+            float yRange = dataSet.getYMax() > yMin ? dataSet.getYMax() - yMin : 1f;
+
+            pts[0] = xMin;
+            pts[1] = yMin;
+            pts[2] = xMin + xRange;
+            pts[3] = yMin + yRange;
+            trans.pointValuesToPixel(pts);
+
+            float scaleX = (pts[2] - pts[0]) / xRange;
+            float scaleY = (pts[3] - pts[1]) / yRange;
+
+            pts[0] = x;
+            pts[1] = y;
+            trans.pixelsToValue(pts);
+
+            int entryIndex = index.findNearest(pts[0], pts[1], scaleX, scaleY, distance);
+
+            if (entryIndex >= 0) {
+                closestSet = dataSet;
+                closestSetIndex = i;
+                closestEntryIndex = entryIndex;
+                distance = index.getLastDistance();
+            }
+        }
+
+        if (closestSet == null)
+            return null;
+
+        Entry e = closestSet.getEntryForIndex(closestEntryIndex);
+
+        pts[0] = e.getX();
+        pts[1] = e.getY();
+        mChart.getTransformer(closestSet.getAxisDependency()).pointValuesToPixel(pts);
+
+        return new Highlight(e.getX(), e.getY(), pts[0], pts[1], closestSetIndex, closestSet.getAxisDependency());
+    }
+
     /**
      * Returns the corresponding Highlight for a given xVal and x- and y-touch position in pixels.
      *
@@ -161,28 +276,34 @@ public class ChartHighlighter<T extends BarLineScatterCandleBubbleDataProvider>
 
         ArrayList<Highlight> highlights = new ArrayList<>();
 
-        //noinspection unchecked
-        List<Entry> entries = set.getEntriesForXValue(xVal);
-        if (entries.size() == 0) {
-            // Try to find closest x-value and take all entries for that x-value
-            final Entry closest = set.getEntryForXValue(xVal, Float.NaN, rounding);
-            if (closest != null)
-            {
-                //noinspection unchecked
-                entries = set.getEntriesForXValue(closest.getX());
-            }
-        }
-
-        if (entries.size() == 0)
+        // the entries are ordered by x, so all entries with the closest x-value are next to
+        // each other, around the index of the closest one
+        int closest = set.getEntryIndex(xVal, Float.NaN, rounding);
+        if (closest < 0)
             return highlights;
 
-        for (Entry e : entries) {
-            MPPointD pixels = mChart.getTransformer(
-                    set.getAxisDependency()).getPixelForValues(e.getX(), e.getY());
+        final float closestX = set.getEntryForIndex(closest).getX();
+
+        int from = closest;
+        while (from > 0 && set.getEntryForIndex(from - 1).getX() == closestX)
+            from--;
+
+        Transformer trans = mChart.getTransformer(set.getAxisDependency());
+        final float[] pts = mPointBuffer;
+
+        for (int i = from, count = set.getEntryCount(); i < count; i++) {
+
+            Entry e = set.getEntryForIndex(i);
+            if (e.getX() != closestX)
+                break;
+
+            pts[0] = e.getX();
+            pts[1] = e.getY();
+            trans.pointValuesToPixel(pts);
 
             highlights.add(new Highlight(
                     e.getX(), e.getY(),
-                    (float) pixels.x, (float) pixels.y,
+                    pts[0], pts[1],
                     dataSetIndex, set.getAxisDependency()));
         }
 
@@ -28,6 +28,17 @@ public class CombinedHighlighter extends ChartHighlighter<CombinedDataProvider>
         barHighlighter = barChart.getBarData() == null ? null : new BarHighlighter(barChart);
     }
 
+    /**
+     * The Highlights of combined charts also carry the index of the data object, so they are
+     * always found by x-value.
+     *
+     * @return
+     */
+    @Override
+    protected boolean isSpatiallyIndexed() {
+        return false;
+    }
+
     @Override
     protected List<Highlight> getHighlightsAtXValue(float xVal, float x, float y) {
 
@@ -10,6 +10,7 @@ import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.formatter.IValueFormatter;
 import com.github.mikephil.charting.utils.MPPointF;
+import com.github.mikephil.charting.utils.SpatialGridIndex;
 
 import java.util.List;
 
@@ -180,6 +181,57 @@ public interface IDataSet<T extends Entry> {
      */
     void addEntryOrdered(T e);
 
+    /**
+     * Appends an Entry to the end of the DataSet for live-updating charts. The x-value of the
+     * Entry must not be lower than the x-value of the last Entry, otherwise it is rejected.
+     * If the DataSet has a streaming capacity and is full, the first Entry is dropped.
+     * The minimum and maximum values are updated incrementally, without looking at the other
+     * entries.
+     *
+     * @param e
+     * @return true if the Entry was appended
+     */
+    boolean appendEntry(T e);
+
+    /**
+     * Returns the index of the first Entry that changed since the last call to
+     * clearDirtyRange(). Entries appended in between only move the end of the range, every
+     * other modification makes the whole DataSet dirty (0). If nothing changed, the entry
+     * count is returned.
+     *
+     * @return
+     */
+    int getDirtyRangeStart();
+
+    /**
+     * Marks all entries as drawn, see getDirtyRangeStart().
+     */
+    void clearDirtyRange();
+
+    /**
+     * Returns a number that changes whenever entries are added or removed, and whenever the
+     * DataSet or its ChartData is told that its entries changed (notifyDataSetChanged(),
+     * ChartData.notifyDataChanged()). Values computed from the entries can be kept as long as
+     * it stays the same.
+     *
+     * @return
+     */
+    int getDataVersion();
+
+    /**
+     * Changes the data version (see getDataVersion()) without recalculating anything, for
+     * entries that may have been changed in place.
+     */
+    void invalidateDataVersion();
+
+    /**
+     * Returns the index over the x- and y-values of the entries, up to date with the entries,
+     * or null if the DataSet has none. The value indices of the index are the entry indices.
+     *
+     * @return
+     */
+    SpatialGridIndex getSpatialIndex();
+
     /**
      * Removes the first Entry (at index 0) of this DataSet from the entries array.
      * Returns true if successful, false if not.
@@ -94,6 +94,22 @@ public interface ILineDataSet extends ILineRadarDataSet<Entry> {
      */
     boolean isDashedLineEnabled();
 
+    /**
+     * Returns true if the line of this DataSet is reduced to at most two segments per pixel
+     * column when drawn in LINEAR mode.
+     *
+     * @return
+     */
+    boolean isPixelDownsamplingEnabled();
+
+    /**
+     * Returns true if only the entries appended since the last frame should be drawn, on top
+     * of the previously drawn line.
+     *
+     * @return
+     */
+    boolean isIncrementalDrawingEnabled();
+
     /**
      * Returns the IFillFormatter that is set for this DataSet.
      *
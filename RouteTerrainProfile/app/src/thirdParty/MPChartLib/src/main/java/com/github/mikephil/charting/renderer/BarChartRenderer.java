@@ -63,11 +63,78 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
 
         for (int i = 0; i < mBarBuffers.length; i++) {
             IBarDataSet set = barData.getDataSetByIndex(i);
-            mBarBuffers[i] = new BarBuffer(set.getEntryCount() * 4 * (set.isStacked() ? set.getStackSize() : 1),
-                    barData.getDataSetCount(), set.isStacked());
+            mBarBuffers[i] = createBarBuffer(set, barData.getDataSetCount());
         }
     }
 
+    /**
+     * Creates the buffer for the given DataSet, sized for its current entries.
+     *
+     * @param set
+     * @param dataSetCount
+     * @return
+     */
+    protected BarBuffer createBarBuffer(IBarDataSet set, int dataSetCount) {
+        return new BarBuffer(getBarBufferSize(set), dataSetCount, set.isStacked());
+    }
+
+    /**
+     * Returns the buffer of the DataSet at the given index. The buffer is replaced if entries
+     * were appended since initBuffers(), so live-updating charts do not need a full
+     * notifyDataSetChanged() after each appended Entry.
+     *
+     * @param set
+     * @param index
+     * @return
+     */
+    protected BarBuffer getBarBuffer(IBarDataSet set, int index) {
+
+        BarBuffer buffer = mBarBuffers[index];
+
+        if (buffer.size() != getBarBufferSize(set)) {
+            buffer = createBarBuffer(set, mBarBuffers.length);
+            mBarBuffers[index] = buffer;
+        }
+
+        return buffer;
+    }
+
+    protected static int getBarBufferSize(IBarDataSet set) {
+        return set.getEntryCount() * 4 * (set.isStacked() ? set.getStackSize() : 1);
+    }
+
+    /**
+     * Feeds the buffer of the DataSet with the bars of the entries in the viewport and
+     * transforms them to pixels. Bars of entries outside the viewport are not computed, so the
+     * cost depends on the number of visible entries. The values are kept for the next frame
+     * if the viewport shows the same entries.
+     * <p/>
+     * The entries in the viewport are found by their x-values, so the entries of the DataSet
+     * must be sorted by x-value, otherwise bars in the viewport may be left out.
+     *
+     * @param dataSet
+     * @param index
+     * @param trans
+     * @return
+     */
+    protected BarBuffer prepareBarBuffer(IBarDataSet dataSet, int index, Transformer trans) {
+
+        BarBuffer buffer = getBarBuffer(dataSet, index);
+        buffer.setPhases(mAnimator.getPhaseX(), mAnimator.getPhaseY());
+        buffer.setDataSet(index);
+        buffer.setInverted(mChart.isInverted(dataSet.getAxisDependency()));
+        buffer.setBarWidth(mChart.getBarData().getBarWidth());
+
+        mXBounds.set(mChart, dataSet);
+
+        // one more entry on each side, for bars that reach into the viewport from outside
+        buffer.feed(dataSet, mXBounds.min - 1, mXBounds.max + 1);
+
+        trans.pointValuesToPixel(buffer.buffer, buffer.getFilledSize() / 2);
+
+        return buffer;
+    }
+
     @Override
     public void drawData(Canvas c) {
 
@@ -94,8 +161,8 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
 
         final boolean drawBorder = dataSet.getBarBorderWidth() > 0.f;
 
-        float phaseX = mAnimator.getPhaseX();
-        float phaseY = mAnimator.getPhaseY();
+        // initialize the buffer
+        BarBuffer buffer = prepareBarBuffer(dataSet, index, trans);
 
         // draw the bar shadow before the values
         if (mChart.isDrawBarShadowEnabled()) {
@@ -107,9 +174,7 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
             final float barWidthHalf = barWidth / 2.0f;
             float x;
 
-            for (int i = 0, count = Math.min((int)(Math.ceil((float)(dataSet.getEntryCount()) * phaseX)), dataSet.getEntryCount());
-                i < count;
-                i++) {
+            for (int i = buffer.getFrom(), count = buffer.getTo(); i < count; i++) {
 
                 BarEntry e = dataSet.getEntryForIndex(i);
 
@@ -133,17 +198,6 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
             }
         }
 
-        // initialize the buffer
-        BarBuffer buffer = mBarBuffers[index];
-        buffer.setPhases(phaseX, phaseY);
-        buffer.setDataSet(index);
-        buffer.setInverted(mChart.isInverted(dataSet.getAxisDependency()));
-        buffer.setBarWidth(mChart.getBarData().getBarWidth());
-
-        buffer.feed(dataSet);
-
-        trans.pointValuesToPixel(buffer.buffer);
-
         final boolean isCustomFill = dataSet.getFills() != null && !dataSet.getFills().isEmpty();
         final boolean isSingleColor = dataSet.getColors().size() == 1;
         final boolean isInverted = mChart.isInverted(dataSet.getAxisDependency());
@@ -152,7 +206,7 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
             mRenderPaint.setColor(dataSet.getColor());
         }
 
-        for (int j = 0, pos = 0; j < buffer.size(); j += 4, pos++) {
+        for (int j = 0, pos = buffer.getFirstBar(); j < buffer.getFilledSize(); j += 4, pos++) {
 
             if (!mViewPortHandler.isInBoundsLeft(buffer.buffer[j + 2]))
                 continue;
@@ -236,8 +290,9 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
                     negOffset = -negOffset - valueTextHeight;
                 }
 
-                // get the buffer
-                BarBuffer buffer = mBarBuffers[i];
+                // get the buffer, fed again as the data may have been drawn by another renderer
+                BarBuffer buffer = prepareBarBuffer(dataSet, i,
+                        mChart.getTransformer(dataSet.getAxisDependency()));
 
                 final float phaseY = mAnimator.getPhaseY();
 
@@ -248,7 +303,7 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
                 // if only single values are drawn (sum)
                 if (!dataSet.isStacked()) {
 
-                    for (int j = 0; j < buffer.buffer.length * mAnimator.getPhaseX(); j += 4) {
+                    for (int j = 0; j < buffer.getFilledSize(); j += 4) {
 
                         float x = (buffer.buffer[j] + buffer.buffer[j + 2]) / 2f;
 
@@ -259,7 +314,8 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
                                 || !mViewPortHandler.isInBoundsLeft(x))
                             continue;
 
-                        BarEntry entry = dataSet.getEntryForIndex(j / 4);
+                        final int entryIndex = buffer.getFrom() + j / 4;
+                        BarEntry entry = dataSet.getEntryForIndex(entryIndex);
                         float val = entry.getY();
 
                         if (dataSet.isDrawValuesEnabled()) {
@@ -267,7 +323,7 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
                                     val >= 0 ?
                                             (buffer.buffer[j + 1] + posOffset) :
                                             (buffer.buffer[j + 3] + negOffset),
-                                    dataSet.getValueTextColor(j / 4));
+                                    dataSet.getValueTextColor(entryIndex));
                         }
 
                         if (entry.getIcon() != null && dataSet.isDrawIconsEnabled()) {
@@ -298,9 +354,9 @@ public class BarChartRenderer extends BarLineScatterCandleBubbleRenderer {
                     Transformer trans = mChart.getTransformer(dataSet.getAxisDependency());
 
                     int bufferIndex = 0;
-                    int index = 0;
+                    int index = buffer.getFrom();
 
-                    while (index < dataSet.getEntryCount() * mAnimator.getPhaseX()) {
+                    while (index < buffer.getTo() && bufferIndex < buffer.getFilledSize()) {
 
                         BarEntry entry = dataSet.getEntryForIndex(index);
 
@@ -75,6 +75,67 @@ public class LegendRenderer extends Renderer {
 
     protected List<LegendEntry> computedEntries = new ArrayList<>(16);
 
+    /**
+     * the entries created for the DataSets by the last computeLegend(...) call, reused by the next
+     * call where they did not change. They may have been handed to the legend, so they are never
+     * modified, a changed entry is replaced by a new one.
+     */
+    protected List<LegendEntry> mEntryPool = new ArrayList<>(16);
+
+    /**
+     * number of entries of mEntryPool used by the current computeLegend(...) call
+     */
+    private int mObtainedEntryCount = 0;
+
+    /**
+     * Returns the entry of the pool at the next position if it has the given values, otherwise
+     * a new entry that takes its place in the pool.
+     */
+    private LegendEntry obtainEntry(String label,
+                                    Legend.LegendForm form,
+                                    float formSize,
+                                    float formLineWidth,
+                                    DashPathEffect formLineDashEffect,
+                                    int formColor) {
+
+        int index = mObtainedEntryCount++;
+
+        if (index < mEntryPool.size()) {
+
+            LegendEntry e = mEntryPool.get(index);
+
+            if ((label == null ? e.label == null : label.equals(e.label))
+                    && e.form == form
+                    && Float.compare(e.formSize, formSize) == 0
+                    && Float.compare(e.formLineWidth, formLineWidth) == 0
+                    && e.formLineDashEffect == formLineDashEffect
+                    && e.formColor == formColor)
+                return e;
+        }
+
+        LegendEntry e = new LegendEntry(label, form, formSize, formLineWidth, formLineDashEffect, formColor);
+
+        if (index < mEntryPool.size())
+            mEntryPool.set(index, e);
+        else
+            mEntryPool.add(e);
+
+        return e;
+    }
+
+    private static boolean isSameEntries(LegendEntry[] entries, List<LegendEntry> computed) {
+
+        if (entries.length != computed.size())
+            return false;
+
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] != computed.get(i))
+                return false;
+        }
+
+        return true;
+    }
+
     /**
      * Prepares the legend and calculates all needed forms, labels and colors.
      *
@@ -85,6 +146,7 @@ public class LegendRenderer extends Renderer {
         if (!mLegend.isLegendCustom()) {
 
             computedEntries.clear();
+            mObtainedEntryCount = 0;
 
             // loop for building up the colors and labels used in the legend
             for (int i = 0; i < data.getDataSetCount(); i++) {
@@ -112,7 +174,7 @@ public class LegendRenderer extends Renderer {
                             label = null;
                         }
 
-                        computedEntries.add(new LegendEntry(
+                        computedEntries.add(obtainEntry(
                                 label,
                                 dataSet.getForm(),
                                 dataSet.getFormSize(),
@@ -124,7 +186,7 @@ public class LegendRenderer extends Renderer {
 
                     if (bds.getLabel() != null) {
                         // add the legend description label
-                        computedEntries.add(new LegendEntry(
+                        computedEntries.add(obtainEntry(
                                 dataSet.getLabel(),
                                 Legend.LegendForm.NONE,
                                 Float.NaN,
@@ -140,7 +202,7 @@ public class LegendRenderer extends Renderer {
 
                     for (int j = 0; j < clrs.size() && j < entryCount; j++) {
 
-                        computedEntries.add(new LegendEntry(
+                        computedEntries.add(obtainEntry(
                                 pds.getEntryForIndex(j).getLabel(),
                                 dataSet.getForm(),
                                 dataSet.getFormSize(),
@@ -152,7 +214,7 @@ public class LegendRenderer extends Renderer {
 
                     if (pds.getLabel() != null) {
                         // add the legend description label
-                        computedEntries.add(new LegendEntry(
+                        computedEntries.add(obtainEntry(
                                 dataSet.getLabel(),
                                 Legend.LegendForm.NONE,
                                 Float.NaN,
@@ -168,7 +230,7 @@ public class LegendRenderer extends Renderer {
                     int decreasingColor = ((ICandleDataSet) dataSet).getDecreasingColor();
                     int increasingColor = ((ICandleDataSet) dataSet).getIncreasingColor();
 
-                    computedEntries.add(new LegendEntry(
+                    computedEntries.add(obtainEntry(
                             null,
                             dataSet.getForm(),
                             dataSet.getFormSize(),
@@ -177,7 +239,7 @@ public class LegendRenderer extends Renderer {
                             decreasingColor
                     ));
 
-                    computedEntries.add(new LegendEntry(
+                    computedEntries.add(obtainEntry(
                             dataSet.getLabel(),
                             dataSet.getForm(),
                             dataSet.getFormSize(),
@@ -199,7 +261,7 @@ public class LegendRenderer extends Renderer {
                             label = data.getDataSetByIndex(i).getLabel();
                         }
 
-                        computedEntries.add(new LegendEntry(
+                        computedEntries.add(obtainEntry(
                                 label,
                                 dataSet.getForm(),
                                 dataSet.getFormSize(),
@@ -215,7 +277,9 @@ public class LegendRenderer extends Renderer {
                 Collections.addAll(computedEntries, mLegend.getExtraEntries());
             }
 
-            mLegend.setEntries(computedEntries);
+            // the entries are only handed to the legend again if they changed
+            if (!isSameEntries(mLegend.getEntries(), computedEntries))
+                mLegend.setEntries(computedEntries);
         }
 
         Typeface tf = mLegend.getTypeface();
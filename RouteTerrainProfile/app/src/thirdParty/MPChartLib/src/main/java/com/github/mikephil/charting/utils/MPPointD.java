@@ -15,6 +15,16 @@ public class MPPointD extends ObjectPool.Poolable {
     static {
         pool = ObjectPool.create(64, new MPPointD(0,0));
         pool.setReplenishPercentage(0.5f);
+        pool.setThreadLocalCacheSize(8);
+    }
+
+    /**
+     * Returns the pool the instances are recycled to, e.g. to read its counters.
+     *
+     * @return
+     */
+    public static ObjectPool<MPPointD> getPool() {
+        return pool;
     }
 
     public static MPPointD getInstance(double x, double y){
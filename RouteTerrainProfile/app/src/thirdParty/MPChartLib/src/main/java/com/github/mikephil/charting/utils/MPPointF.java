@@ -18,6 +18,16 @@ public class MPPointF extends ObjectPool.Poolable {
     static {
         pool = ObjectPool.create(32, new MPPointF(0,0));
         pool.setReplenishPercentage(0.5f);
+        pool.setThreadLocalCacheSize(8);
+    }
+
+    /**
+     * Returns the pool the instances are recycled to, e.g. to read its counters.
+     *
+     * @return
+     */
+    public static ObjectPool<MPPointF> getPool() {
+        return pool;
     }
 
     public MPPointF() {
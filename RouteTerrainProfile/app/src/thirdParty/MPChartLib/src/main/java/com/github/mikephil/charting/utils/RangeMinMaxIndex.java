@@ -0,0 +1,143 @@
+package com.github.mikephil.charting.utils;
+
+import java.util.Arrays;
+
+/**
+ * Segment tree over a growing sequence of [min, max] value pairs that answers
+ * "lowest min / highest max between index a and b" in O(log n).
+ *
+ * Appending a value is O(log n), so the index can be kept up to date while entries are
+ * added to the end of a DataSet. Any other modification requires a clear() and re-adding
+ * the values.
+ */
+public class RangeMinMaxIndex {
+
+    /**
+     * number of leaves, always a power of two
+     */
+    private int mCapacity;
+
+    /**
+     * number of values added so far
+     */
+    private int mSize = 0;
+
+    /**
+     * tree nodes, node i has the children 2i and 2i + 1, the leaves start at mCapacity
+     */
+    private float[] mMin;
+    private float[] mMax;
+
+    public RangeMinMaxIndex(int capacity) {
+        mCapacity = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        mMin = new float[2 * mCapacity];
+        mMax = new float[2 * mCapacity];
+        clear();
+    }
+
+    /**
+     * Removes all values, keeps the allocated memory.
+     */
+    public void clear() {
+        Arrays.fill(mMin, Float.MAX_VALUE);
+        Arrays.fill(mMax, -Float.MAX_VALUE);
+        mSize = 0;
+    }
+
+    /**
+     * Returns the number of values in the index.
+     *
+     * @return
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Appends a value pair to the end of the index.
+     *
+     * @param min the lowest value the element contributes
+     * @param max the highest value the element contributes
+     */
+    public void add(float min, float max) {
+
+        if (mSize == mCapacity)
+            grow();
+
+        int node = mCapacity + mSize;
+        mMin[node] = min;
+        mMax[node] = max;
+        mSize++;
+
+        for (node >>= 1; node > 0; node >>= 1) {
+            mMin[node] = Math.min(mMin[2 * node], mMin[2 * node + 1]);
+            mMax[node] = Math.max(mMax[2 * node], mMax[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the lowest min value between the given indices (both inclusive),
+     * Float.MAX_VALUE if the range is empty.
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    public float getMin(int from, int to) {
+
+        float result = Float.MAX_VALUE;
+
+        for (int l = Math.max(from, 0) + mCapacity, r = Math.min(to, mSize - 1) + mCapacity + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1)
+                result = Math.min(result, mMin[l++]);
+            if ((r & 1) == 1)
+                result = Math.min(result, mMin[--r]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the highest max value between the given indices (both inclusive),
+     * -Float.MAX_VALUE if the range is empty.
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    public float getMax(int from, int to) {
+
+        float result = -Float.MAX_VALUE;
+
+        for (int l = Math.max(from, 0) + mCapacity, r = Math.min(to, mSize - 1) + mCapacity + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1)
+                result = Math.max(result, mMax[l++]);
+            if ((r & 1) == 1)
+                result = Math.max(result, mMax[--r]);
+        }
+
+        return result;
+    }
+
+    private void grow() {
+
+        int capacity = mCapacity * 2;
+        float[] min = new float[2 * capacity];
+        float[] max = new float[2 * capacity];
+
+        Arrays.fill(min, Float.MAX_VALUE);
+        Arrays.fill(max, -Float.MAX_VALUE);
+
+        System.arraycopy(mMin, mCapacity, min, capacity, mSize);
+        System.arraycopy(mMax, mCapacity, max, capacity, mSize);
+
+        for (int node = capacity - 1; node > 0; node--) {
+            min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+            max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+        }
+
+        mCapacity = capacity;
+        mMin = min;
+        mMax = max;
+    }
+}
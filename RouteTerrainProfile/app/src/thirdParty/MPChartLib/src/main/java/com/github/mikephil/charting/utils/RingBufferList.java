@@ -0,0 +1,141 @@
+package com.github.mikephil.charting.utils;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * List with a fixed capacity, backed by a circular array. Adding to the end and removing
+ * from either end is O(1), inserting or removing in the middle shifts the elements like an
+ * ArrayList does. Adding to a full list throws an IllegalStateException, the owner decides
+ * which element to drop.
+ *
+ * @param <T>
+ */
+public class RingBufferList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final Object[] mElements;
+
+    /**
+     * position of the first element in mElements
+     */
+    private int mHead = 0;
+
+    private int mSize = 0;
+
+    public RingBufferList(int capacity) {
+
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+
+        mElements = new Object[capacity];
+    }
+
+    /**
+     * Returns the maximum number of elements the list can hold.
+     *
+     * @return
+     */
+    public int capacity() {
+        return mElements.length;
+    }
+
+    /**
+     * Returns true if no more elements can be added.
+     *
+     * @return
+     */
+    public boolean isFull() {
+        return mSize == mElements.length;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index, mSize);
+        return (T) mElements[position(index)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkIndex(index, mSize);
+
+        int position = position(index);
+        T previous = (T) mElements[position];
+        mElements[position] = element;
+        return previous;
+    }
+
+    @Override
+    public boolean add(T element) {
+        add(mSize, element);
+        return true;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        checkIndex(index, mSize + 1);
+
+        if (isFull())
+            throw new IllegalStateException("RingBufferList is full, capacity " + mElements.length);
+
+        if (index == 0) {
+            mHead = mHead == 0 ? mElements.length - 1 : mHead - 1;
+        } else {
+            for (int i = mSize; i > index; i--)
+                mElements[position(i)] = mElements[position(i - 1)];
+        }
+
+        mElements[position(index)] = element;
+        mSize++;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        checkIndex(index, mSize);
+
+        T removed = (T) mElements[position(index)];
+
+        if (index == 0) {
+            mElements[mHead] = null;
+            mHead = position(1);
+        } else {
+            for (int i = index; i < mSize - 1; i++)
+                mElements[position(i)] = mElements[position(i + 1)];
+
+            mElements[position(mSize - 1)] = null;
+        }
+
+        mSize--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+
+        for (int i = 0; i < mSize; i++)
+            mElements[position(i)] = null;
+
+        mHead = 0;
+        mSize = 0;
+        modCount++;
+    }
+
+    private int position(int index) {
+        int position = mHead + index;
+        return position < mElements.length ? position : position - mElements.length;
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+    }
+}
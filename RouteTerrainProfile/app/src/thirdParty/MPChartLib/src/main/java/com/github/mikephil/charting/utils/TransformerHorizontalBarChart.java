@@ -34,6 +34,8 @@ public class TransformerHorizontalBarChart extends Transformer {
             mMatrixOffset.postScale(-1.0f, 1.0f);
         }
 
+        invalidateValueToPixelAffine();
+
         // mMatrixOffset.set(offset);
 
         // mMatrixOffset.reset();
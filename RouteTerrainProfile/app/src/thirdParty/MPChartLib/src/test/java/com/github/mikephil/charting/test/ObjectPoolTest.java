@@ -8,6 +8,8 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by otheruser on 6/28/16.
@@ -55,6 +57,15 @@ public class ObjectPoolTest {
 
     }
 
+    static class StressPoolable extends ObjectPool.Poolable{
+
+        public int owner = 0;
+
+        protected ObjectPool.Poolable instantiate(){
+            return new StressPoolable();
+        }
+    }
+
     @Test
     public void testObjectPool(){
 
@@ -237,4 +248,93 @@ public class ObjectPoolTest {
 
     }
 
+    @Test
+    public void testConcurrentObjectPool() throws InterruptedException {
+
+        for(int cacheSize : new int[]{0, 8}){
+
+            ObjectPool<StressPoolable> pool = ObjectPool.create(16, new StressPoolable());
+            pool.setReplenishPercentage(0.5f);
+            pool.setThreadLocalCacheSize(cacheSize);
+
+            final int threads = 4;
+            final int iterations = 50000;
+
+            stress(pool, threads, iterations);
+
+            Assert.assertEquals(threads * iterations * 3L, pool.getHitCount() + pool.getMissCount());
+
+            // everything was recycled, so all objects ever created are back in the pool
+            Assert.assertTrue(pool.getPoolCount() >= pool.getHighWaterMark());
+            Assert.assertTrue(pool.getPoolCapacity() >= pool.getHighWaterMark());
+
+            // the counts add up: a get for each object in the pool does not create a new one
+            final long misses = pool.getMissCount();
+            final int count = pool.getPoolCount();
+            ArrayList<StressPoolable> all = new ArrayList<>();
+            for(int i = 0 ; i < count ; i++){
+                all.add(pool.get());
+            }
+            Assert.assertEquals(misses, pool.getMissCount());
+            Assert.assertEquals(0, pool.getPoolCount());
+            pool.recycle(all);
+            Assert.assertEquals(count, pool.getPoolCount());
+        }
+    }
+
+    /**
+     * Gets three objects and recycles them again on each iteration, on all threads at once, and
+     * fails if an object is handed out twice.
+     */
+    private static void stress(final ObjectPool<StressPoolable> pool, int threads, final int iterations)
+            throws InterruptedException {
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicInteger failures = new AtomicInteger();
+
+        for(int t = 0 ; t < threads ; t++){
+            final int id = t + 1;
+
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        for(int i = 0 ; i < iterations ; i++){
+                            StressPoolable a = pool.get();
+                            StressPoolable b = pool.get();
+                            StressPoolable c = pool.get();
+
+                            a.owner = id;
+                            b.owner = id;
+                            c.owner = id;
+                            Thread.yield();
+
+                            if(a.owner != id || b.owner != id || c.owner != id || a == b || b == c || a == c){
+                                failures.incrementAndGet();
+                            }
+
+                            pool.recycle(c);
+                            pool.recycle(a);
+                            pool.recycle(b);
+                        }
+
+                        pool.flushThreadLocalCache();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        start.countDown();
+        done.await();
+
+        Assert.assertEquals(0, failures.get());
+    }
+
 }
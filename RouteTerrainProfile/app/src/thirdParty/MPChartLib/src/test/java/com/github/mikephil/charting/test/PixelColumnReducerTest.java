@@ -0,0 +1,136 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.utils.PixelColumnReducer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class PixelColumnReducerTest {
+
+    @Test
+    public void testSegmentsPerColumn() {
+
+        PixelColumnReducer reducer = new PixelColumnReducer();
+
+        // three points in column 0, one in column 1, two in column 3
+        float[] pixels = new float[]{
+                0.1f, 10f,
+                0.5f, 30f,
+                0.9f, 20f,
+                1.5f, 15f,
+                3.2f, 5f,
+                3.7f, 8f};
+
+        reducer.reset();
+        reducer.add(pixels, 6);
+        reducer.finish();
+
+        float[] expected = new float[]{
+                0.1f, 10f, 0.1f, 30f,   // column 0 min / max
+                0.9f, 20f, 1.5f, 15f,   // column 0 -> column 1
+                1.5f, 15f, 3.2f, 5f,    // column 1 -> column 3
+                3.2f, 5f, 3.2f, 8f};    // column 3 min / max
+
+        assertEquals(expected.length, reducer.getSegmentFloatCount());
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], reducer.getSegments()[i], 0f);
+
+        // adding in several chunks gives the same result
+        reducer.reset();
+        reducer.add(new float[]{0.1f, 10f, 0.5f, 30f}, 2);
+        reducer.add(new float[]{0.9f, 20f, 1.5f, 15f, 3.2f, 5f}, 3);
+        reducer.add(new float[]{3.7f, 8f}, 1);
+        reducer.finish();
+
+        assertEquals(expected.length, reducer.getSegmentFloatCount());
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], reducer.getSegments()[i], 0f);
+
+        // a single point has no segments
+        reducer.reset();
+        reducer.add(new float[]{1f, 1f}, 1);
+        reducer.finish();
+
+        assertEquals(0, reducer.getSegmentFloatCount());
+    }
+
+    @Test
+    public void testSegmentCountIsBoundedByWidth() {
+
+        final int width = 1080;
+        final int count = 200000;
+
+        float[] pixels = randomWalk(count, width);
+
+        PixelColumnReducer reducer = new PixelColumnReducer();
+        reducer.reset();
+        reducer.add(pixels, count);
+        reducer.finish();
+
+        int segments = reducer.getSegmentFloatCount() / 4;
+
+        assertTrue(segments <= 2 * width);
+
+        // the extremes of the line are kept
+        float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, pixels[i * 2 + 1]);
+            max = Math.max(max, pixels[i * 2 + 1]);
+        }
+
+        float reducedMin = Float.MAX_VALUE, reducedMax = -Float.MAX_VALUE;
+        for (int i = 0; i < reducer.getSegmentFloatCount(); i += 2) {
+            reducedMin = Math.min(reducedMin, reducer.getSegments()[i + 1]);
+            reducedMax = Math.max(reducedMax, reducer.getSegments()[i + 1]);
+        }
+
+        assertEquals(min, reducedMin, 0f);
+        assertEquals(max, reducedMax, 0f);
+    }
+
+    /**
+     * The segments handed to Canvas.drawLines(...) stay bounded by the chart width however many
+     * entries are reduced, while LineChartRenderer.drawLinear draws one segment per entry.
+     */
+    @Test
+    public void testSegmentCountDoesNotGrowWithEntries() {
+
+        final int width = 1080;
+
+        PixelColumnReducer reducer = new PixelColumnReducer();
+
+        for (int count = 10000; count <= 1000000; count *= 10) {
+
+            int reducedFloats = reduce(reducer, randomWalk(count, width), count);
+
+            assertTrue(reducedFloats > 0);
+            assertTrue(reducedFloats / 4 <= 2 * width);
+        }
+    }
+
+    private static int reduce(PixelColumnReducer reducer, float[] pixels, int count) {
+
+        reducer.reset();
+        reducer.add(pixels, count);
+        reducer.finish();
+        return reducer.getSegmentFloatCount();
+    }
+
+    private static float[] randomWalk(int count, int width) {
+
+        Random random = new Random(3);
+        float[] pixels = new float[count * 2];
+        float y = 500f;
+
+        for (int i = 0; i < count; i++) {
+            y += random.nextFloat() * 10f - 5f;
+            pixels[i * 2] = (float) i * width / count;
+            pixels[i * 2 + 1] = y;
+        }
+        return pixels;
+    }
+}
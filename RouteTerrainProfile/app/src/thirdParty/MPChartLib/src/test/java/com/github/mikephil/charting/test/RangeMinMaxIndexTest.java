@@ -0,0 +1,70 @@
+package com.github.mikephil.charting.test;
+
+import com.github.mikephil.charting.utils.RangeMinMaxIndex;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+
+public class RangeMinMaxIndexTest {
+
+    @Test
+    public void testMatchesLinearScan() {
+
+        Random random = new Random(7);
+        float[] values = new float[1000];
+
+        // small initial capacity to exercise growing
+        RangeMinMaxIndex index = new RangeMinMaxIndex(1);
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat() * 2000f - 1000f;
+            index.add(values[i], values[i]);
+        }
+
+        assertEquals(values.length, index.size());
+
+        for (int q = 0; q < 500; q++) {
+            int from = random.nextInt(values.length);
+            int to = from + random.nextInt(values.length - from);
+
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for (int i = from; i <= to; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+
+            assertEquals(min, index.getMin(from, to), 0f);
+            assertEquals(max, index.getMax(from, to), 0f);
+        }
+    }
+
+    @Test
+    public void testRangesAndClear() {
+
+        RangeMinMaxIndex index = new RangeMinMaxIndex(4);
+        index.add(1f, 5f);
+        index.add(-2f, 3f);
+        index.add(4f, 4f);
+
+        assertEquals(-2f, index.getMin(0, 2), 0f);
+        assertEquals(5f, index.getMax(0, 2), 0f);
+        assertEquals(4f, index.getMin(2, 2), 0f);
+        assertEquals(4f, index.getMax(1, 2), 0f);
+
+        // out of range indices are clamped
+        assertEquals(-2f, index.getMin(-5, 50), 0f);
+
+        // empty range
+        assertEquals(Float.MAX_VALUE, index.getMin(2, 1), 0f);
+        assertEquals(-Float.MAX_VALUE, index.getMax(2, 1), 0f);
+
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertEquals(Float.MAX_VALUE, index.getMin(0, 2), 0f);
+    }
+}
@@ -82,17 +82,54 @@ class MainActivity : AppCompatActivity() {
 
     private lateinit var customAdapter: CustomAdapter
 
-    private var searchService = SearchService(
-        onCompleted = { results, errorCode, _ ->
+    /**
+     * Runs the searches of the pipeline with a SearchService.
+     */
+    private val searchBackend = object : ISearchBackend<Landmark> {
+        private val requests = SearchRequestQueue<Landmark>(GemError.Cancel)
+
+        private val searchService = SearchService(
+            onCompleted = { results, errorCode, _ ->
+                EspressoIdlingResource.decrement()
+
+                // Matched to the search it belongs to, results of cancelled searches are dropped.
+                requests.completed(results, errorCode)
+            }
+        )
+
+        override fun search(filter: String, latitude: Double, longitude: Double, onResult: (List<Landmark>, Int) -> Unit): Int {
+            val request = requests.add(onResult)
+            val error = SdkCall.execute {
+                val res = searchService.searchByFilter(filter, Coordinates(latitude, longitude))
+                //this is for testing only
+                if (!GemError.isError(res))
+                    EspressoIdlingResource.increment()
+                res
+            } ?: GemError.General
+
+            if (GemError.isError(error))
+                requests.remove(request)
+
+            return error
+        }
+
+        override fun cancel() {
+            requests.cancel()
+            SdkCall.execute { searchService.cancelSearch() }
+        }
+
+        override fun searchText(results: List<Landmark>): Array<String> = SdkCall.execute {
+            Array(results.size) { "${results[it].name} ${GemUtil.getLandmarkDescription(results[it], true)}" }
+        } ?: arrayOf()
+    }
+
+    private val searchPipeline = SearchPipeline(searchBackend).apply {
+        listener = ISearchResultsListener { filter, results, source, errorCode ->
             when (errorCode) {
                 GemError.NoError -> {
                     // No error encountered, we can handle the results.
                     refreshList(results)
-                    noResultText.isVisible = results.isEmpty()
-                }
-
-                GemError.Cancel -> {
-                    // The search action was cancelled.
+                    noResultText.isVisible = filter.isNotEmpty() && results.isEmpty() && (source != TSearchSource.EPrefix)
                 }
 
                 GemError.Busy -> {
@@ -104,9 +141,9 @@ class MainActivity : AppCompatActivity() {
                     showDialog("Search service error: ${GemError.getMessage(errorCode)}")
                 }
             }
-            EspressoIdlingResource.decrement()
+            progressBar.isVisible = isSearching
         }
-    )
+    }
 
     // ---------------------------------------------------------------------------------------------
 
@@ -153,6 +190,7 @@ class MainActivity : AppCompatActivity() {
                 object : SearchView.OnQueryTextListener {
                     override fun onQueryTextSubmit(query: String?): Boolean {
                         clearFocus()
+                        searchPipeline.flush()
                         return true
                     }
 
@@ -173,7 +211,7 @@ class MainActivity : AppCompatActivity() {
         //observe the list and update UI
         results.observe(this) {
             customAdapter.submitList(it)
-            progressBar.visibility = View.GONE
+            progressBar.isVisible = searchPipeline.isSearching
         }
 
         /// MAGIC LANE
@@ -213,13 +251,15 @@ class MainActivity : AppCompatActivity() {
 
     override fun onStop() {
         super.onStop()
-        if (isFinishing)
+        if (isFinishing) {
+            searchPipeline.cancel()
             GemSdk.release() // Release the SDK.
+        }
     }
 
     // ---------------------------------------------------------------------------------------------
 
-    private fun refreshList(results: ArrayList<Landmark>) = SdkCall.execute {
+    private fun refreshList(results: List<Landmark>) = SdkCall.execute {
         val list = results.map { landmark ->
             val meters = reference?.let { landmark.coordinates?.getDistance(it)?.toInt() ?: 0 } ?: 0
             val dist = GemUtil.getDistText(meters, EUnitSystem.Metric, true)
@@ -235,30 +275,21 @@ class MainActivity : AppCompatActivity() {
 
     // ---------------------------------------------------------------------------------------------
 
-    private fun search(filter: String) = SdkCall.postAsync({
-        // Cancel any search that is in progress now.
-        searchService.cancelSearch()
-        if (filter.isBlank()) {
-            refreshList(arrayListOf())
-            noResultText.isVisible = false
-        }
-
+    private fun search(filter: String) {
         // Give a random position if position is not available
-        val position = PositionService.position
-        reference = if (position?.isValid() == true)
-            position.coordinates
-        else
-            Coordinates(51.5072, 0.1276) // center London
-
-
-        val res = searchService.searchByFilter(filter, reference)
-
-        if (GemError.isError(res) && res != GemError.Cancel) {
-            showDialog(GemError.getMessage(res))
-        }
-        //this is for testing only
-        EspressoIdlingResource.increment()
-    }, 200)
+        val coordinates = SdkCall.execute {
+            val position = PositionService.position
+            reference = if (position?.isValid() == true)
+                position.coordinates
+            else
+                Coordinates(51.5072, 0.1276) // center London
+
+            reference?.let { Pair(it.latitude, it.longitude) }
+        } ?: Pair(51.5072, 0.1276)
+
+        // Debounced, cancelled and answered from the cache by the pipeline.
+        searchPipeline.query(filter, coordinates.first, coordinates.second)
+    }
 
     // ---------------------------------------------------------------------------------------------
 
@@ -0,0 +1,424 @@
+// -------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.search
+
+// -------------------------------------------------------------------------------------------------
+
+import android.os.Handler
+import android.os.Looper
+import kotlin.math.floor
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Runs the remote searches of a [SearchPipeline].
+ */
+interface ISearchBackend<T> {
+    /**
+     * Starts a search. [onResult] is called once on the main thread with the results, or with an
+     * empty list and the error code.
+     *
+     * @return Return the error code of starting the search, 0 on success.
+     */
+    fun search(filter: String, latitude: Double, longitude: Double, onResult: (List<T>, Int) -> Unit): Int
+
+    /**
+     * Cancels the running search, its result is not used anymore.
+     */
+    fun cancel()
+
+    /**
+     * Returns the text of each result the typed filters are matched against, e.g. the name and
+     * the description. Called once per result list.
+     */
+    fun searchText(results: List<T>): Array<String>
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Delays the remote searches of a [SearchPipeline].
+ */
+interface ISearchScheduler {
+    fun postDelayed(task: Runnable, delayMillis: Long)
+
+    fun remove(task: Runnable)
+}
+
+// -------------------------------------------------------------------------------------------------
+
+class MainThreadSearchScheduler : ISearchScheduler {
+    private val handler = Handler(Looper.getMainLooper())
+
+    override fun postDelayed(task: Runnable, delayMillis: Long) {
+        handler.postDelayed(task, delayMillis)
+    }
+
+    override fun remove(task: Runnable) {
+        handler.removeCallbacks(task)
+    }
+}
+
+// -------------------------------------------------------------------------------------------------
+
+enum class TSearchSource {
+    /** Results of a shorter filter filtered locally, while the remote search runs. */
+    EPrefix,
+
+    /** Results of the same search done before. */
+    ECache,
+
+    /** Results of the remote search. */
+    ERemote,
+}
+
+// -------------------------------------------------------------------------------------------------
+
+fun interface ISearchResultsListener<T> {
+    /**
+     * @param errorCode 0, or the error of the remote search; the results are empty then.
+     */
+    fun onResults(filter: String, results: List<T>, source: TSearchSource, errorCode: Int)
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Pairs the completions of a search service with the searches started on it, for an
+ * [ISearchBackend].
+ *
+ * The service calls back once for each search it started, in the order they were started, but
+ * does not tell which search completed. A result already on its way when a search is cancelled
+ * must not be taken for the search started next, so each started search gets an entry here and
+ * each completion is matched to the oldest one. Completions of cancelled searches are dropped.
+ *
+ * Used from the main thread.
+ */
+class SearchRequestQueue<T>(private val cancelCode: Int) {
+    // ---------------------------------------------------------------------------------------------
+
+    class TRequest<T> internal constructor(internal var onResult: ((List<T>, Int) -> Unit)?)
+
+    private val requests = ArrayDeque<TRequest<T>>()
+
+    /** Number of started searches not completed yet. */
+    val size: Int
+        get() = requests.size
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Call right before starting a search, [onResult] receives its completion. If the search
+     * cannot be started, [remove] the returned request.
+     */
+    fun add(onResult: (List<T>, Int) -> Unit): TRequest<T> {
+        val request = TRequest(onResult)
+        requests.addLast(request)
+        return request
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Forgets a request whose search was not started, no completion is expected for it.
+     */
+    fun remove(request: TRequest<T>) {
+        requests.remove(request)
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Drops the results of the searches started so far, their completions are still expected.
+     */
+    fun cancel() {
+        for (request in requests) {
+            request.onResult = null
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Call with each completion of the service.
+     */
+    fun completed(results: List<T>, errorCode: Int) {
+        val request = if (errorCode == cancelCode) {
+            // a search cancelled here completes with the cancel code, even when an older one is
+            // still to complete
+            requests.firstOrNull { it.onResult == null } ?: requests.firstOrNull()
+        } else {
+            requests.firstOrNull()
+        } ?: return
+
+        requests.remove(request)
+        request.onResult?.invoke(results, errorCode)
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Turns the text typed in a search box into as few remote searches as possible.
+ *
+ * - The remote search starts once the text did not change for [debounceMillis]. Typing cancels
+ *   the pending search instead of starting and cancelling one per keystroke.
+ * - Results are kept in an LRU cache keyed by the filter and the reference position rounded to a
+ *   tile of [tileDegrees], so a search that was done before is answered at once.
+ * - While the remote search for "berl" runs, the cached results of "ber" are narrowed locally and
+ *   shown right away.
+ * - A query equal to the running or last one is ignored.
+ *
+ * Used from the main thread.
+ *
+ * This file is kept identical in the Search, SearchCompose and AndroidAutoRouteNavigation
+ * examples, apart from the package.
+ */
+class SearchPipeline<T>(
+    private val backend: ISearchBackend<T>,
+    private val scheduler: ISearchScheduler = MainThreadSearchScheduler(),
+    val debounceMillis: Long = 300,
+    val cacheSize: Int = 32,
+    val tileDegrees: Double = 0.05
+) {
+    // ---------------------------------------------------------------------------------------------
+
+    private class TEntry<T>(val results: List<T>, val texts: Array<String>)
+
+    // ---------------------------------------------------------------------------------------------
+
+    var listener: ISearchResultsListener<T>? = null
+
+    /**
+     * Anything besides the filter and the position that changes the results, e.g. the search
+     * preferences. Part of the cache key.
+     */
+    var scope = ""
+
+    /** Number of remote searches started. */
+    var remoteCount = 0
+        private set
+
+    /** Number of queries answered from the cache. */
+    var cacheHitCount = 0
+        private set
+
+    val isSearching: Boolean
+        get() = (pendingKey != null) || (runningKey != null)
+
+    private val cache = object : LinkedHashMap<String, TEntry<T>>(cacheSize, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, TEntry<T>>?): Boolean = size > cacheSize
+    }
+
+    /** Key of the last query, the one whose results are shown. */
+    private var currentKey: String? = null
+
+    private var pendingKey: String? = null
+    private var pendingFilter = ""
+    private var pendingLatitude = 0.0
+    private var pendingLongitude = 0.0
+
+    private var runningKey: String? = null
+
+    /** Changed by each remote search, results of older ones are dropped. */
+    private var generation = 0
+
+    private val startPending = Runnable { startRemote() }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Searches [text] around the reference position. The results are given to the [listener],
+     * possibly several times: first narrowed from a shorter filter, then from the remote search.
+     */
+    fun query(text: String, latitude: Double, longitude: Double) {
+        val filter = text.trim()
+        val tile = tileKey(latitude, longitude)
+        val key = cacheKey(filter, tile)
+        if (key == currentKey) {
+            return
+        }
+
+        currentKey = key
+
+        if (filter.isEmpty()) {
+            cancel()
+            listener?.onResults(filter, emptyList(), TSearchSource.ECache, 0)
+            return
+        }
+
+        cache[key]?.let { entry ->
+            cancel()
+            cacheHitCount++
+            listener?.onResults(filter, entry.results, TSearchSource.ECache, 0)
+            return
+        }
+
+        narrowFromPrefix(filter, tile)?.let { results ->
+            listener?.onResults(filter, results, TSearchSource.EPrefix, 0)
+        }
+
+        // the search for this text is already running, e.g. after deleting and typing a letter again
+        if (key == runningKey) {
+            scheduler.remove(startPending)
+            pendingKey = null
+            return
+        }
+
+        pendingKey = key
+        pendingFilter = filter
+        pendingLatitude = latitude
+        pendingLongitude = longitude
+
+        scheduler.remove(startPending)
+        scheduler.postDelayed(startPending, debounceMillis)
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Starts the pending search now, e.g. when the query is submitted.
+     */
+    fun flush() {
+        if (pendingKey != null) {
+            scheduler.remove(startPending)
+            startRemote()
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Drops the pending search and cancels the running one.
+     */
+    fun cancel() {
+        scheduler.remove(startPending)
+        pendingKey = null
+
+        if (runningKey != null) {
+            runningKey = null
+            generation++
+            backend.cancel()
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    fun clearCache() {
+        cache.clear()
+        currentKey = null
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun startRemote() {
+        val key = pendingKey ?: return
+        pendingKey = null
+
+        if (runningKey != null) {
+            backend.cancel()
+        }
+
+        val filter = pendingFilter
+        val searchGeneration = ++generation
+        runningKey = key
+        remoteCount++
+
+        val error = backend.search(filter, pendingLatitude, pendingLongitude) { results, errorCode ->
+            onRemoteResults(searchGeneration, key, filter, results, errorCode)
+        }
+
+        if ((error != 0) && (searchGeneration == generation)) {
+            runningKey = null
+            listener?.onResults(filter, emptyList(), TSearchSource.ERemote, error)
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun onRemoteResults(searchGeneration: Int, key: String, filter: String, results: List<T>, errorCode: Int) {
+        if (searchGeneration != generation) {
+            return // cancelled or replaced
+        }
+
+        runningKey = null
+
+        if (errorCode == 0) {
+            val texts = backend.searchText(results)
+            cache[key] = TEntry(results, Array(texts.size) { texts[it].lowercase() })
+        }
+
+        if (key == currentKey) {
+            listener?.onResults(filter, results, TSearchSource.ERemote, errorCode)
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Filters the results of the longest cached filter the new one starts with.
+     */
+    private fun narrowFromPrefix(filter: String, tile: String): List<T>? {
+        val lowercase = filter.lowercase()
+
+        for (length in lowercase.length - 1 downTo 1) {
+            val entry = cache[cacheKey(lowercase.substring(0, length), tile)] ?: continue
+            val words = lowercase.split(' ').filter { it.isNotEmpty() }
+
+            val results = ArrayList<T>()
+            for (i in entry.results.indices) {
+                if (words.all { matchesWordStart(entry.texts[i], it) }) {
+                    results.add(entry.results[i])
+                }
+            }
+
+            return results
+        }
+
+        return null
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun tileKey(latitude: Double, longitude: Double): String =
+        "${floor(latitude / tileDegrees).toInt()}:${floor(longitude / tileDegrees).toInt()}"
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun cacheKey(filter: String, tile: String) = "${filter.lowercase()}|$tile|$scope"
+
+    // ---------------------------------------------------------------------------------------------
+
+    companion object {
+        /**
+         * Returns true if [word] starts one of the words of [text], both lowercase.
+         */
+        fun matchesWordStart(text: String, word: String): Boolean {
+            var index = text.indexOf(word)
+            while (index >= 0) {
+                if ((index == 0) || !text[index - 1].isLetterOrDigit()) {
+                    return true
+                }
+
+                index = text.indexOf(word, index + 1)
+            }
+
+            return false
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
@@ -0,0 +1,192 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.search
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class SearchPipelineTest {
+
+    private val cancelCode = -3
+
+    /** Delays nothing, the test runs the posted search. */
+    private class ManualScheduler : ISearchScheduler {
+        var task: Runnable? = null
+
+        override fun postDelayed(task: Runnable, delayMillis: Long) {
+            this.task = task
+        }
+
+        override fun remove(task: Runnable) {
+            if (this.task === task) {
+                this.task = null
+            }
+        }
+
+        fun run() {
+            val task = task ?: return
+            this.task = null
+            task.run()
+        }
+    }
+
+    /**
+     * Like a SearchService: completes each started search once, in order, without telling which
+     * search completed. The test decides when.
+     */
+    private inner class FakeBackend : ISearchBackend<String> {
+        val requests = SearchRequestQueue<String>(cancelCode)
+        val started = ArrayList<String>()
+        var cancelCount = 0
+
+        override fun search(filter: String, latitude: Double, longitude: Double, onResult: (List<String>, Int) -> Unit): Int {
+            requests.add(onResult)
+            started.add(filter)
+            return 0
+        }
+
+        override fun cancel() {
+            cancelCount++
+            requests.cancel()
+        }
+
+        override fun searchText(results: List<String>): Array<String> = results.toTypedArray()
+
+        fun complete(results: List<String>, errorCode: Int = 0) = requests.completed(results, errorCode)
+    }
+
+    private class TResult(val filter: String, val results: List<String>, val source: TSearchSource, val errorCode: Int)
+
+    private lateinit var scheduler: ManualScheduler
+    private lateinit var backend: FakeBackend
+    private lateinit var pipeline: SearchPipeline<String>
+    private val delivered = ArrayList<TResult>()
+
+    @Before
+    fun setUp() {
+        scheduler = ManualScheduler()
+        backend = FakeBackend()
+        pipeline = SearchPipeline(backend, scheduler)
+        pipeline.listener = ISearchResultsListener { filter, results, source, errorCode ->
+            delivered.add(TResult(filter, results, source, errorCode))
+        }
+    }
+
+    @Test
+    fun typingStartsOneSearch() {
+        pipeline.query("b", 52.5, 13.4)
+        pipeline.query("be", 52.5, 13.4)
+        pipeline.query("ber", 52.5, 13.4)
+        scheduler.run()
+
+        assertEquals(listOf("ber"), backend.started)
+        assertTrue(pipeline.isSearching)
+
+        backend.complete(listOf("Berlin", "Bern"))
+
+        assertFalse(pipeline.isSearching)
+        assertEquals(1, delivered.size)
+        assertEquals(TSearchSource.ERemote, delivered[0].source)
+        assertEquals(listOf("Berlin", "Bern"), delivered[0].results)
+    }
+
+    @Test
+    fun repeatedSearchIsAnsweredFromTheCache() {
+        pipeline.query("ber", 52.5, 13.4)
+        scheduler.run()
+        backend.complete(listOf("Berlin", "Bern"))
+
+        pipeline.query("paris", 52.5, 13.4)
+        pipeline.query("ber", 52.51, 13.41)
+
+        assertEquals(listOf("ber"), backend.started)
+        assertEquals(1, pipeline.cacheHitCount)
+        assertEquals(TSearchSource.ECache, delivered.last().source)
+        assertEquals(listOf("Berlin", "Bern"), delivered.last().results)
+    }
+
+    @Test
+    fun longerFilterIsNarrowedWhileSearching() {
+        pipeline.query("ber", 52.5, 13.4)
+        scheduler.run()
+        backend.complete(listOf("Berlin", "Bern", "Bad Bergzabern"))
+
+        pipeline.query("berl", 52.5, 13.4)
+
+        assertEquals(TSearchSource.EPrefix, delivered.last().source)
+        assertEquals(listOf("Berlin"), delivered.last().results)
+
+        scheduler.run()
+        assertEquals(listOf("ber", "berl"), backend.started)
+    }
+
+    @Test
+    fun queuedResultOfCancelledSearchIsDropped() {
+        pipeline.query("berlin", 52.5, 13.4)
+        scheduler.run()
+
+        // the results of "berlin" are on their way when "paris" replaces the search
+        pipeline.query("paris", 52.5, 13.4)
+        pipeline.flush()
+
+        assertEquals(listOf("berlin", "paris"), backend.started)
+        assertEquals(1, backend.cancelCount)
+
+        backend.complete(listOf("Berlin"))
+
+        assertTrue(delivered.isEmpty())
+        assertTrue(pipeline.isSearching)
+
+        backend.complete(listOf("Paris", "Paris Orly"))
+
+        assertEquals(1, delivered.size)
+        assertEquals("paris", delivered[0].filter)
+        assertEquals(listOf("Paris", "Paris Orly"), delivered[0].results)
+
+        // cached with its own results
+        pipeline.query("berlin", 52.5, 13.4)
+        pipeline.query("paris", 52.5, 13.4)
+        assertEquals(listOf("Paris", "Paris Orly"), delivered.last().results)
+    }
+
+    @Test
+    fun cancelCompletionMatchesTheCancelledSearch() {
+        pipeline.query("berlin", 52.5, 13.4)
+        scheduler.run()
+        pipeline.query("paris", 52.5, 13.4)
+        pipeline.flush()
+
+        // the cancelled search completes with the cancel code, then the new one
+        backend.complete(emptyList(), cancelCode)
+        assertEquals(1, backend.requests.size)
+
+        backend.complete(listOf("Paris"))
+
+        assertEquals(1, delivered.size)
+        assertEquals(listOf("Paris"), delivered[0].results)
+        assertEquals(0, backend.requests.size)
+    }
+
+    @Test
+    fun errorIsDelivered() {
+        pipeline.query("ber", 52.5, 13.4)
+        scheduler.run()
+        backend.complete(emptyList(), 5)
+
+        assertEquals(5, delivered.last().errorCode)
+
+        // errors are not cached
+        pipeline.query("paris", 52.5, 13.4)
+        pipeline.query("ber", 52.5, 13.4)
+        scheduler.run()
+        assertEquals(listOf("ber", "ber"), backend.started)
+    }
+}
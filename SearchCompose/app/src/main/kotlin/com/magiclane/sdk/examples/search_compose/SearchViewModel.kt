@@ -14,7 +14,6 @@ package com.magiclane.sdk.examples.search_compose
 // --------------------------------------------------------------------------------------------------------------------------------------------------
 
 import android.content.Context
-import android.util.Log
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateListOf
 import androidx.compose.runtime.mutableStateOf
@@ -25,6 +24,11 @@ import androidx.compose.ui.graphics.asImageBitmap
 import com.magiclane.sdk.core.EUnitSystem
 import com.magiclane.sdk.core.GemError
 import com.magiclane.sdk.examples.search_compose.data.SearchResult
+import com.magiclane.sdk.examples.search_compose.data.repository.ISearchBackend
+import com.magiclane.sdk.examples.search_compose.data.repository.ISearchResultsListener
+import com.magiclane.sdk.examples.search_compose.data.repository.SearchPipeline
+import com.magiclane.sdk.examples.search_compose.data.repository.SearchRequestQueue
+import com.magiclane.sdk.examples.search_compose.data.repository.TSearchSource
 import com.magiclane.sdk.places.Coordinates
 import com.magiclane.sdk.places.Landmark
 import com.magiclane.sdk.places.SearchService
@@ -54,42 +58,67 @@ class SearchViewModel : ViewModel() {
 
     var errorMessage by mutableStateOf("")
 
-    // Initialize SearchService with callback handling
-    private var searchService = SearchService(onCompleted =  { results, errorCode, _ ->
-        if (errorCode != GemError.Cancel) {
-            displayProgress = false
+    // Runs the searches of the pipeline with a SearchService
+    private val searchBackend = object : ISearchBackend<Landmark> {
+        private val requests = SearchRequestQueue<Landmark>(GemError.Cancel)
+
+        private val searchService = SearchService(onCompleted = { results, errorCode, _ ->
+            // Matched to the search it belongs to, results of cancelled searches are dropped.
+            requests.completed(results, errorCode)
+        })
+
+        override fun search(filter: String, latitude: Double, longitude: Double, onResult: (List<Landmark>, Int) -> Unit): Int {
+            val request = requests.add(onResult)
+            val error = SdkCall.execute { searchService.searchByFilter(filter, Coordinates(latitude, longitude)) } ?: GemError.General
+            if (GemError.isError(error)) {
+                requests.remove(request)
+            }
+            return error
         }
 
-        when (errorCode) {
-            GemError.NoError -> {
-                // No error encountered, we can handle the results.
-                refresh(results)
-                if (results.isEmpty()) {
+        override fun cancel() {
+            requests.cancel()
+            SdkCall.execute { searchService.cancelSearch() }
+        }
+
+        override fun searchText(results: List<Landmark>): Array<String> = SdkCall.execute {
+            Array(results.size) { "${results[it].name} ${GemUtil.getLandmarkDescription(results[it], true)}" }
+        } ?: arrayOf()
+    }
+
+    // Debounces, cancels and caches the searches typed in the search field
+    private val searchPipeline = SearchPipeline(searchBackend).apply {
+        listener = ISearchResultsListener { filter, results, source, errorCode ->
+            displayProgress = isSearching
+
+            when (errorCode) {
+                GemError.NoError -> {
+                    // No error encountered, we can handle the results.
+                    refresh(results)
+                    statusMessage = if (filter.isNotEmpty() && results.isEmpty() && (source != TSearchSource.EPrefix)) {
+                        "No search results"
+                    } else {
+                        ""
+                    }
+                }
+                GemError.Busy -> {
+                    refresh(results)
+                    statusMessage = "Requested operation cannot be performed. Internal limit reached. Please use an API token in order to avoid this error."
+                }
+                GemError.NotFound -> {
+                    refresh(results)
                     statusMessage = "No search results"
-                } else {
-                    statusMessage = ""
                 }
-            }
-            GemError.Cancel -> {
-                // The search action was cancelled.
-            }
-            GemError.Busy -> {
-                refresh(results)
-                statusMessage = "Requested operation cannot be performed. Internal limit reached. Please use an API token in order to avoid this error."
-            }
-            GemError.NotFound -> {
-                refresh(results)
-                statusMessage = "No search results"
-            }
-            else -> {
-                // There was a problem at computing the search operation.
-                refresh(results)
-                statusMessage = GemError.getMessage(errorCode)
+                else -> {
+                    // There was a problem at computing the search operation.
+                    refresh(results)
+                    statusMessage = GemError.getMessage(errorCode)
+                }
             }
         }
-    })
+    }
 
-    fun refresh(landmarks: ArrayList<Landmark>) {
+    fun refresh(landmarks: List<Landmark>) {
         _searchItems.clear()
         SdkCall.execute {
             for (landmark in landmarks) {
@@ -106,27 +135,27 @@ class SearchViewModel : ViewModel() {
     }
 
     // Moved from MainActivity - Business logic for performing search
-    private fun search(filter: String, context: Context) = SdkCall.postAsync {
-        // Cancel any search that is in progress now.
-        Log.d("SEARCH", filter)
-        searchService.cancelSearch()
-
+    private fun search(filter: String, context: Context) {
         if (filter.isBlank()) {
-            refresh(arrayListOf())
+            searchPipeline.query(filter, 0.0, 0.0)
             if (!Util.isInternetConnected(context)) {
                 statusMessage = "Please connect to the internet!"
             } else {
                 statusMessage = ""
             }
         } else {
-            val position = PositionService.position
-            reference = if (position?.isValid() == true) {
-                position.coordinates
-            } else {
-                Coordinates(51.5072, 0.1276) // center London
-            }
+            val coordinates = SdkCall.execute {
+                val position = PositionService.position
+                reference = if (position?.isValid() == true) {
+                    position.coordinates
+                } else {
+                    Coordinates(51.5072, 0.1276) // center London
+                }
+
+                reference?.let { Pair(it.latitude, it.longitude) }
+            } ?: Pair(51.5072, 0.1276)
 
-            searchService.searchByFilter(filter, reference)
+            searchPipeline.query(filter, coordinates.first, coordinates.second)
         }
     }
 
@@ -144,7 +173,7 @@ class SearchViewModel : ViewModel() {
 
     override fun onCleared() {
         super.onCleared()
-        searchService.cancelSearch()
+        searchPipeline.cancel()
     }
 }
 
@@ -0,0 +1,277 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.trackpositions
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import kotlin.math.abs
+import kotlin.math.asin
+import kotlin.math.atan
+import kotlin.math.atan2
+import kotlin.math.cos
+import kotlin.math.min
+import kotlin.math.sin
+import kotlin.math.sqrt
+import kotlin.math.tan
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Geodesic math on tracks stored as primitive arrays of interleaved coordinates:
+ * [lat0, lon0, lat1, lon1, ...] in degrees.
+ *
+ * Distances are in meters, bearings in degrees clockwise from north in (-180, 180].
+ *
+ * This file is kept identical in the TrackPostions and ExternalPositionSourceNavigation examples.
+ */
+object Geodesy
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /** Mean earth radius (IUGG), used by the spherical formulas. */
+    const val EARTH_RADIUS = 6371008.8
+
+    // WGS84 ellipsoid, used by Vincenty's formula
+    private const val WGS84_A = 6378137.0
+    private const val WGS84_F = 1 / 298.257223563
+    private const val WGS84_B = WGS84_A * (1 - WGS84_F)
+
+    private const val DEG_TO_RAD = Math.PI / 180.0
+    private const val RAD_TO_DEG = 180.0 / Math.PI
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Per point values of a track, all arrays have one value per point. The values of the first
+     * point are -1.0 since there is no previous point, except the cumulative distance which is 0.
+     */
+    class TTrackMetrics(val pointCount: Int)
+    {
+        /** Distance from the previous point. */
+        val distances = DoubleArray(pointCount)
+
+        /** Distance from the first point. */
+        val cumulativeDistances = DoubleArray(pointCount)
+
+        /** Bearing from the previous point. */
+        val bearings = DoubleArray(pointCount)
+
+        /** Speed from the previous point, in m/s. */
+        val speeds = DoubleArray(pointCount)
+
+        val totalDistance: Double
+            get() = if (pointCount > 0) cumulativeDistances[pointCount - 1] else 0.0
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Haversine distance, accurate for short hops where the spherical law of cosines is not.
+     */
+    fun haversineDistance(lat1: Double, lon1: Double, lat2: Double, lon2: Double): Double
+    {
+        val sinHalfDLat = sin((lat2 - lat1) * DEG_TO_RAD / 2)
+        val sinHalfDLon = sin((lon2 - lon1) * DEG_TO_RAD / 2)
+        val a = sinHalfDLat * sinHalfDLat + cos(lat1 * DEG_TO_RAD) * cos(lat2 * DEG_TO_RAD) * sinHalfDLon * sinHalfDLon
+
+        return 2 * EARTH_RADIUS * asin(min(1.0, sqrt(a)))
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Distance on the WGS84 ellipsoid (Vincenty's inverse formula). Falls back to the haversine
+     * distance for nearly antipodal points, where the iteration does not converge.
+     */
+    fun vincentyDistance(lat1: Double, lon1: Double, lat2: Double, lon2: Double): Double
+    {
+        val l = (lon2 - lon1) * DEG_TO_RAD
+        val u1 = atan((1 - WGS84_F) * tan(lat1 * DEG_TO_RAD))
+        val u2 = atan((1 - WGS84_F) * tan(lat2 * DEG_TO_RAD))
+        val sinU1 = sin(u1)
+        val cosU1 = cos(u1)
+        val sinU2 = sin(u2)
+        val cosU2 = cos(u2)
+
+        var lambda = l
+        var iterations = 0
+
+        var sinSigma: Double
+        var cosSigma: Double
+        var sigma: Double
+        var cosSqAlpha: Double
+        var cos2SigmaM: Double
+
+        while (true)
+        {
+            val sinLambda = sin(lambda)
+            val cosLambda = cos(lambda)
+            val t = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda
+            sinSigma = sqrt(cosU2 * sinLambda * cosU2 * sinLambda + t * t)
+
+            if (sinSigma == 0.0)
+            {
+                return 0.0 // coincident points
+            }
+
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda
+            sigma = atan2(sinSigma, cosSigma)
+            val sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma
+            cosSqAlpha = 1 - sinAlpha * sinAlpha
+            cos2SigmaM = if (cosSqAlpha != 0.0) cosSigma - 2 * sinU1 * sinU2 / cosSqAlpha else 0.0 // equatorial line
+
+            val c = WGS84_F / 16 * cosSqAlpha * (4 + WGS84_F * (4 - 3 * cosSqAlpha))
+            val previousLambda = lambda
+            lambda = l + (1 - c) * WGS84_F * sinAlpha *
+                    (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)))
+
+            if (abs(lambda - previousLambda) <= 1e-12)
+            {
+                break
+            }
+
+            if (++iterations >= 200)
+            {
+                return haversineDistance(lat1, lon1, lat2, lon2)
+            }
+        }
+
+        val uSq = cosSqAlpha * (WGS84_A * WGS84_A - WGS84_B * WGS84_B) / (WGS84_B * WGS84_B)
+        val a = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)))
+        val b = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)))
+        val deltaSigma = b * sinSigma * (cos2SigmaM + b / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM) -
+                b / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)))
+
+        return WGS84_B * a * (sigma - deltaSigma)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Initial bearing of the great circle from the first point to the second one.
+     */
+    fun bearing(lat1: Double, lon1: Double, lat2: Double, lon2: Double): Double
+    {
+        val phi1 = lat1 * DEG_TO_RAD
+        val phi2 = lat2 * DEG_TO_RAD
+        val dLon = (lon2 - lon1) * DEG_TO_RAD
+
+        val x = cos(phi2) * sin(dLon)
+        val y = cos(phi1) * sin(phi2) - sin(phi1) * cos(phi2) * cos(dLon)
+
+        return atan2(x, y) * RAD_TO_DEG
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Computes the distances, bearings and speeds of a track in one pass.
+     *
+     * The sine and cosine of each latitude are computed once and reused by both segments the
+     * point belongs to; the haversine terms also give the bearing, so a segment costs four sines or
+     * cosines, three square roots and two atan2 calls.
+     *
+     * @param coordinates Interleaved latitudes and longitudes, in degrees.
+     * @param timestamps Time of each point in milliseconds, null if the points are [interval] seconds apart.
+     * @param interval Seconds between the points, used when there are no timestamps.
+     * @param ellipsoidal Use Vincenty's formula on the WGS84 ellipsoid instead of the haversine one.
+     * @param metrics Reused output if it has as many points as [coordinates], a new one is allocated otherwise.
+     */
+    fun computeTrack(coordinates: DoubleArray,
+                     timestamps: LongArray? = null,
+                     interval: Double = 1.0,
+                     ellipsoidal: Boolean = false,
+                     metrics: TTrackMetrics? = null): TTrackMetrics
+    {
+        val pointCount = coordinates.size / 2
+        require((timestamps == null) || (timestamps.size >= pointCount)) { "Missing timestamps" }
+
+        val result = if ((metrics != null) && (metrics.pointCount == pointCount)) metrics else TTrackMetrics(pointCount)
+        if (pointCount == 0)
+        {
+            return result
+        }
+
+        val distances = result.distances
+        val cumulative = result.cumulativeDistances
+        val bearings = result.bearings
+        val speeds = result.speeds
+
+        distances[0] = -1.0
+        cumulative[0] = 0.0
+        bearings[0] = -1.0
+        speeds[0] = -1.0
+
+        var previousLat = coordinates[0]
+        var previousLon = coordinates[1]
+        var previousSinLat = sin(previousLat * DEG_TO_RAD)
+        var previousCosLat = cos(previousLat * DEG_TO_RAD)
+        var total = 0.0
+
+        for (i in 1 until pointCount)
+        {
+            val lat = coordinates[2 * i]
+            val lon = coordinates[2 * i + 1]
+            val sinLat = sin(lat * DEG_TO_RAD)
+            val cosLat = cos(lat * DEG_TO_RAD)
+
+            // across the antimeridian take the short way, so that cos(dLon/2) >= 0
+            var dLon = lon - previousLon
+            if (dLon > 180.0)
+            {
+                dLon -= 360.0
+            }
+            else if (dLon < -180.0)
+            {
+                dLon += 360.0
+            }
+
+            val sinHalfDLat = sin((lat - previousLat) * DEG_TO_RAD / 2)
+            val sinHalfDLon = sin(dLon * DEG_TO_RAD / 2)
+            val sinSqHalfDLon = sinHalfDLon * sinHalfDLon
+
+            val distance = if (ellipsoidal)
+            {
+                vincentyDistance(previousLat, previousLon, lat, lon)
+            }
+            else
+            {
+                val a = sinHalfDLat * sinHalfDLat + previousCosLat * cosLat * sinSqHalfDLon
+                2 * EARTH_RADIUS * atan2(sqrt(a), sqrt(1 - a))
+            }
+
+            // sin(dLon) = 2 sin(dLon/2) cos(dLon/2) and cos(dLon) = 1 - 2 sin²(dLon/2)
+            val cosHalfDLon = sqrt(1 - sinSqHalfDLon)
+            val x = cosLat * 2 * sinHalfDLon * cosHalfDLon
+            val y = previousCosLat * sinLat - previousSinLat * cosLat * (1 - 2 * sinSqHalfDLon)
+
+            val seconds = if (timestamps != null) (timestamps[i] - timestamps[i - 1]) / 1000.0 else interval
+
+            total += distance
+            distances[i] = distance
+            cumulative[i] = total
+            bearings[i] = atan2(x, y) * RAD_TO_DEG
+            speeds[i] = if (seconds > 0) distance / seconds else -1.0
+
+            previousLat = lat
+            previousLon = lon
+            previousSinLat = sinLat
+            previousCosLat = cosLat
+        }
+
+        return result
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
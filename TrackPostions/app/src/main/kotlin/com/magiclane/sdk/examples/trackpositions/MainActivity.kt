@@ -27,6 +27,7 @@ import androidx.activity.addCallback
 import androidx.appcompat.app.AppCompatActivity
 import androidx.core.content.ContextCompat
 import androidx.core.view.isVisible
+import androidx.lifecycle.lifecycleScope
 import androidx.test.espresso.idling.CountingIdlingResource
 import com.google.android.material.bottomsheet.BottomSheetDialog
 import com.magiclane.sdk.core.EPathFileFormat
@@ -57,14 +58,12 @@ import com.magiclane.sdk.util.GemUtil
 import com.magiclane.sdk.util.SdkCall
 import com.magiclane.sdk.util.SdkImages
 import com.magiclane.sdk.util.Util
+import kotlinx.coroutines.launch
 import java.io.File
+import java.io.IOException
 import java.util.Locale
 import java.util.Timer
 import kotlin.concurrent.fixedRateTimer
-import kotlin.math.acos
-import kotlin.math.atan2
-import kotlin.math.cos
-import kotlin.math.sin
 import kotlin.system.exitProcess
 
 // -------------------------------------------------------------------------------------------------------------------------------
@@ -75,98 +74,100 @@ class MainActivity : AppCompatActivity()
 
     companion object
     {
-        val positions = arrayOf(
-            Pair(48.133931, 11.582914),
-            Pair(48.134015, 11.583203),
-            Pair(48.134057, 11.583348),
-            Pair(48.134085, 11.583499),
-            Pair(48.134116, 11.583676),
-            Pair(48.134144, 11.583854),
-            Pair(48.134166, 11.584010),
-            Pair(48.134189, 11.584166),
-            Pair(48.134210, 11.584312),
-            Pair(48.134231, 11.584458),
-            Pair(48.134253, 11.584605),
-            Pair(48.134274, 11.584751),
-            Pair(48.134295, 11.584897),
-            Pair(48.134316, 11.585044),
-            Pair(48.134338, 11.585190),
-            Pair(48.134361, 11.585335),
-            Pair(48.134390, 11.585515),
-            Pair(48.134419, 11.585695),
-            Pair(48.134443, 11.585846),
-            Pair(48.134473, 11.585995),
-            Pair(48.134503, 11.586126),
-            Pair(48.134467, 11.586266),
-            Pair(48.134430, 11.586405),
-            Pair(48.134394, 11.586545),
-            Pair(48.134357, 11.586684),
-            Pair(48.134321, 11.586823),
-            Pair(48.134283, 11.586967),
-            Pair(48.134297, 11.587086),
-            Pair(48.134380, 11.587167),
-            Pair(48.134464, 11.587249),
-            Pair(48.134563, 11.587345),
-            Pair(48.134661, 11.587441),
-            Pair(48.134761, 11.587534),
-            Pair(48.134861, 11.587626),
-            Pair(48.134975, 11.587732),
-            Pair(48.135089, 11.587838),
-            Pair(48.135204, 11.587943),
-            Pair(48.135322, 11.588038),
-            Pair(48.135451, 11.588137),
-            Pair(48.135581, 11.588231),
-            Pair(48.135716, 11.588328),
-            Pair(48.135851, 11.588426),
-            Pair(48.135972, 11.588513),
-            Pair(48.136093, 11.588601),
-            Pair(48.136207, 11.588680),
-            Pair(48.136322, 11.588759),
-            Pair(48.136423, 11.588829),
-            Pair(48.136524, 11.588898),
-            Pair(48.136615, 11.588962),
-            Pair(48.136706, 11.589028),
-            Pair(48.136807, 11.589117),
-            Pair(48.136905, 11.589215),
-            Pair(48.136994, 11.589347),
-            Pair(48.137081, 11.589481),
-            Pair(48.137164, 11.589608),
-            Pair(48.137247, 11.589737),
-            Pair(48.137344, 11.589894),
-            Pair(48.137444, 11.590049),
-            Pair(48.137538, 11.590199),
-            Pair(48.137632, 11.590350),
-            Pair(48.137730, 11.590508),
-            Pair(48.137829, 11.590667),
-            Pair(48.137934, 11.590834),
-            Pair(48.138038, 11.591002),
-            Pair(48.138134, 11.591156),
-            Pair(48.138229, 11.591310),
-            Pair(48.138316, 11.591454),
-            Pair(48.138404, 11.591597),
-            Pair(48.138496, 11.591749),
-            Pair(48.138589, 11.591900),
-            Pair(48.138681, 11.592051),
-            Pair(48.138773, 11.592203),
-            Pair(48.138867, 11.592351),
-            Pair(48.138962, 11.592499),
-            Pair(48.139041, 11.592624),
-            Pair(48.139126, 11.592740),
-            Pair(48.139207, 11.592828),
-            Pair(48.139287, 11.592917),
-            Pair(48.139374, 11.593012),
-            Pair(48.139461, 11.593107),
-            Pair(48.139571, 11.593208),
-            Pair(48.139685, 11.593301),
-            Pair(48.139809, 11.593403),
-            Pair(48.139934, 11.593505),
-            Pair(48.140077, 11.593604),
-            Pair(48.140220, 11.593703),
-            Pair(48.140364, 11.593802),
-            Pair(48.140514, 11.593876),
-            Pair(48.140670, 11.593947),
-            Pair(48.140827, 11.594018)
+        // interleaved latitudes and longitudes
+        val positions = doubleArrayOf(
+            48.133931, 11.582914,
+            48.134015, 11.583203,
+            48.134057, 11.583348,
+            48.134085, 11.583499,
+            48.134116, 11.583676,
+            48.134144, 11.583854,
+            48.134166, 11.584010,
+            48.134189, 11.584166,
+            48.134210, 11.584312,
+            48.134231, 11.584458,
+            48.134253, 11.584605,
+            48.134274, 11.584751,
+            48.134295, 11.584897,
+            48.134316, 11.585044,
+            48.134338, 11.585190,
+            48.134361, 11.585335,
+            48.134390, 11.585515,
+            48.134419, 11.585695,
+            48.134443, 11.585846,
+            48.134473, 11.585995,
+            48.134503, 11.586126,
+            48.134467, 11.586266,
+            48.134430, 11.586405,
+            48.134394, 11.586545,
+            48.134357, 11.586684,
+            48.134321, 11.586823,
+            48.134283, 11.586967,
+            48.134297, 11.587086,
+            48.134380, 11.587167,
+            48.134464, 11.587249,
+            48.134563, 11.587345,
+            48.134661, 11.587441,
+            48.134761, 11.587534,
+            48.134861, 11.587626,
+            48.134975, 11.587732,
+            48.135089, 11.587838,
+            48.135204, 11.587943,
+            48.135322, 11.588038,
+            48.135451, 11.588137,
+            48.135581, 11.588231,
+            48.135716, 11.588328,
+            48.135851, 11.588426,
+            48.135972, 11.588513,
+            48.136093, 11.588601,
+            48.136207, 11.588680,
+            48.136322, 11.588759,
+            48.136423, 11.588829,
+            48.136524, 11.588898,
+            48.136615, 11.588962,
+            48.136706, 11.589028,
+            48.136807, 11.589117,
+            48.136905, 11.589215,
+            48.136994, 11.589347,
+            48.137081, 11.589481,
+            48.137164, 11.589608,
+            48.137247, 11.589737,
+            48.137344, 11.589894,
+            48.137444, 11.590049,
+            48.137538, 11.590199,
+            48.137632, 11.590350,
+            48.137730, 11.590508,
+            48.137829, 11.590667,
+            48.137934, 11.590834,
+            48.138038, 11.591002,
+            48.138134, 11.591156,
+            48.138229, 11.591310,
+            48.138316, 11.591454,
+            48.138404, 11.591597,
+            48.138496, 11.591749,
+            48.138589, 11.591900,
+            48.138681, 11.592051,
+            48.138773, 11.592203,
+            48.138867, 11.592351,
+            48.138962, 11.592499,
+            48.139041, 11.592624,
+            48.139126, 11.592740,
+            48.139207, 11.592828,
+            48.139287, 11.592917,
+            48.139374, 11.593012,
+            48.139461, 11.593107,
+            48.139571, 11.593208,
+            48.139685, 11.593301,
+            48.139809, 11.593403,
+            48.139934, 11.593505,
+            48.140077, 11.593604,
+            48.140220, 11.593703,
+            48.140364, 11.593802,
+            48.140514, 11.593876,
+            48.140670, 11.593947,
+            48.140827, 11.594018
         )
+        val trackMetrics = Geodesy.computeTrack(positions)
         val destination = Pair(48.140827, 11.594018)
         var fileType = EPathFileFormat.Gpx
         val paths = ArrayList<Path>()
@@ -184,6 +185,8 @@ class MainActivity : AppCompatActivity()
 
     private var timer: Timer? = null
 
+    private val trackExporter = TrackExporter()
+
     private var externalDataSource: ExternalDataSource? = null
 
     /*
@@ -329,18 +332,18 @@ class MainActivity : AppCompatActivity()
                             SdkCall.execute {
                                 val externalPosition = PositionData.produce(
                                     System.currentTimeMillis(),
-                                    positions[index].first,
-                                    positions[index].second,
+                                    positions[2 * index],
+                                    positions[2 * index + 1],
                                     -1.0,
-                                    positions.getBearing(index),
-                                    positions.getSpeed(index)
+                                    trackMetrics.bearings[index],
+                                    trackMetrics.speeds[index]
                                 )
                                 externalPosition?.let { pos ->
                                     dataSource.pushData(pos)
                                 }
                             }
                             index++
-                            if (index == positions.size)
+                            if (index == trackMetrics.pointCount)
                             {
                                 timer?.cancel()
                                 Thread.sleep(3000)
@@ -440,7 +443,8 @@ class MainActivity : AppCompatActivity()
     // ----------------------------------- ----------------------------------------------------------------------------------------
 
     /**
-     * Saves paths in the desired file format 
+     * Saves paths in the desired file format. The tracked positions are copied on the SDK thread,
+     * the file is written on a background thread.
      */
     private fun saveRoute()
     {
@@ -454,33 +458,45 @@ class MainActivity : AppCompatActivity()
                     //get path
                     val path = Path.produceWithCoords(list!!)
                     paths.add(path)
-                    //export the file
-                    path.exportAs(fileType)?.bytes?.let { bytes ->
-                        val prefix = GemSdk.internalStoragePath + File.separator + "exported"
-                        val suffix = "path" + paths.size.toString() + '.' + when (fileType)
-                        {
-                            EPathFileFormat.Gpx -> "gpx"
-                            EPathFileFormat.Kml -> "kml"
-                            EPathFileFormat.GeoJson -> "json"
-                            EPathFileFormat.LatLonTxt -> "txt"
-                            else -> "gpx"
-                        }
-                        val file = File(prefix + File.separator + suffix)
-                        file.getParentFile()?.mkdirs()
-                        if (!file.exists())
-                            file.delete()
-                        val created = file.createNewFile()
-                        if (created)
-                        {
-                            file.writeBytes(bytes)
-                            Util.postOnMain { Toast.makeText(this@MainActivity, "Saved route $suffix", Toast.LENGTH_SHORT).show() }
-                        }
+
+                    val track = TTrackPoints(list.size)
+                    for (coordinates in list)
+                        track.add(coordinates.latitude, coordinates.longitude, coordinates.altitude)
+
+                    val baseName = "path" + paths.size.toString()
+                    val format = when (fileType)
+                    {
+                        EPathFileFormat.Kml -> ETrackFormat.Kml
+                        EPathFileFormat.GeoJson -> ETrackFormat.GeoJson
+                        EPathFileFormat.LatLonTxt -> ETrackFormat.LatLonTxt
+                        else -> ETrackFormat.Gpx
                     }
+
+                    //export the file
+                    Util.postOnMain { exportTrack(track, baseName, listOf(format)) }
                 }
             }
         }
     }
 
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun exportTrack(track: TTrackPoints, baseName: String, formats: List<ETrackFormat>)
+    {
+        val directory = File(GemSdk.internalStoragePath + File.separator + "exported")
+        lifecycleScope.launch {
+            try
+            {
+                val files = trackExporter.export(track, directory, baseName, formats)
+                Toast.makeText(this@MainActivity, "Saved route ${files.joinToString { it.name }}", Toast.LENGTH_SHORT).show()
+            }
+            catch (e: IOException)
+            {
+                showDialog(e.message ?: getString(R.string.error))
+            }
+        }
+    }
+
     // ---------------------------------------------------------------------------------------------------------------------------
     // ---------------------------------------------------------------------------------------------------------------------------
 
@@ -644,76 +660,6 @@ class MainActivity : AppCompatActivity()
 }
 // ---------------------------------------------------------------------------------------------------------------------------
 
-//region EXTENDED FUNCTIONS ------------------------------------------------------------------------------------------------------
-// -------------------------------------------------------------------------------------------------------------------------------
-/**
- * Mathematical formula for calculating real distance between 2 coordinates
- * @return real distance between 2 geographical points
- */
-fun Pair<Double, Double>.getDistanceOnGeoid(to: Pair<Double, Double>): Double
-{
-    val (latitude1, longitude1) = this
-    val (latitude2, longitude2) = to
-    // convert degrees to radians
-    val lat1 = latitude1 * Math.PI / 180.0
-    val lon1 = longitude1 * Math.PI / 180.0
-    val lat2 = latitude2 * Math.PI / 180.0
-    val lon2 = longitude2 * Math.PI / 180.0
-
-    // radius of earth in metres
-    val r = 6378100.0
-    // P
-    val rho1 = r * cos(lat1)
-    val z1 = r * sin(lat1)
-    val x1 = rho1 * cos(lon1)
-    val y1 = rho1 * sin(lon1)
-    // Q
-    val rho2 = r * cos(lat2)
-    val z2 = r * sin(lat2)
-    val x2 = rho2 * cos(lon2)
-    val y2 = rho2 * sin(lon2)
-    // dot product
-    val dot = (x1 * x2 + y1 * y2 + z1 * z2)
-    val cosTheta = dot / (r * r)
-    val theta = acos(cosTheta)
-    // distance in Metres
-    return (r * theta)
-}
-
-// -------------------------------------------------------------------------------------------------------------------------------
-/**
- * @return speed value equal with distance between point at [index] and previous point.
- * If there is no previous point returns -1.0
- */
-fun Array<Pair<Double, Double>>.getSpeed(index: Int): Double
-{
-    if ((index > 0) && (index < size))
-        return this[index - 1].getDistanceOnGeoid(this[index])
-    return -1.0
-}
-
-// -------------------------------------------------------------------------------------------------------------------------------
-/**
- * Calculates bearing between 2 points Formula β = atan2(X,Y) where  X and Y are two quantities
- * that can be calculated based on the given latitude and longitude
- * @return Bearing value between point at [index] and previous point.
- * If there is no previous point returns -1.0
- */
-fun Array<Pair<Double, Double>>.getBearing(index: Int): Double
-{
-    if ((index > 0) && (index < size))
-    {
-        val x = cos(this[index].first) * sin(this[index].second - this[index - 1].second)
-        val y =
-            cos(this[index - 1].first) * sin(this[index].first) - sin(this[index - 1].first) * cos(
-                this[index].first
-            ) * cos(this[index].second - this[index - 1].second)
-        return (atan2(x, y) * 180) / Math.PI
-    }
-    return -1.0
-}
-//endregion ----------------------------------------------------------------------------------------------------------------------
-
 // region FOR TESTING ------------------------------------------------------------------------------------------------------------
 // -------------------------------------------------------------------------------------------------------------------------------
 object EspressoIdlingResource
@@ -0,0 +1,542 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.trackpositions
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.withContext
+import java.io.BufferedWriter
+import java.io.Closeable
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.io.OutputStreamWriter
+import java.io.Writer
+import java.util.zip.GZIPOutputStream
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * File formats a track can be exported to.
+ */
+enum class ETrackFormat(val extension: String)
+{
+    Gpx("gpx"),
+    Kml("kml"),
+    GeoJson("json"),
+    LatLonTxt("txt");
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun createWriter(out: Writer): ITrackWriter = when (this)
+    {
+        Gpx -> GpxTrackWriter(out)
+        Kml -> KmlTrackWriter(out)
+        GeoJson -> GeoJsonTrackWriter(out)
+        LatLonTxt -> LatLonTxtTrackWriter(out)
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Writes a track to a text format one point at a time, nothing of the track is kept.
+ */
+interface ITrackWriter
+{
+    /** Writes what comes before the points. [hasAltitude] tells if the points have an altitude. */
+    fun begin(name: String, hasAltitude: Boolean)
+
+    fun point(latitude: Double, longitude: Double, altitude: Double)
+
+    /** Writes what comes after the points. */
+    fun end()
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Positions of a track in a primitive array: [lat0, lon0, alt0, lat1, lon1, alt1, ...], latitudes
+ * and longitudes in degrees, altitudes in meters.
+ *
+ * Filled on the SDK thread from the tracked positions, then handed to a [TrackExporter].
+ */
+class TTrackPoints(capacity: Int = 256)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private var values = DoubleArray(3 * capacity.coerceAtLeast(1))
+
+    var size = 0
+        private set
+
+    /** True if any point has an altitude other than 0. */
+    var hasAltitude = false
+        private set
+
+    fun latitude(index: Int) = values[3 * index]
+
+    fun longitude(index: Int) = values[3 * index + 1]
+
+    fun altitude(index: Int) = values[3 * index + 2]
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    fun add(latitude: Double, longitude: Double, altitude: Double = 0.0)
+    {
+        if (3 * size + 3 > values.size)
+        {
+            values = values.copyOf(values.size * 2)
+        }
+
+        values[3 * size] = latitude
+        values[3 * size + 1] = longitude
+        values[3 * size + 2] = altitude
+        size++
+
+        if ((altitude != 0.0) && !altitude.isNaN())
+        {
+            hasAltitude = true
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Exports tracks to files on a background dispatcher.
+ *
+ * All requested formats are written in a single pass over the points, each through a buffered
+ * stream, so neither the exported text nor a copy of the track is built in memory. Each file is
+ * written to a temporary file next to it, synced and renamed over the target at the end, so a
+ * reader never sees a partly written file and a failed or cancelled export leaves the previous
+ * file as it was. Optionally the files are gzip compressed, ".gz" is then added to their names.
+ */
+class TrackExporter(private val dispatcher: CoroutineDispatcher = Dispatchers.IO)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Exports [track] to [directory] as "[baseName].extension" for each of the [formats]. Returns
+     * the files written, in the order of the formats.
+     */
+    suspend fun export(
+        track: TTrackPoints,
+        directory: File,
+        baseName: String,
+        formats: Collection<ETrackFormat>,
+        gzip: Boolean = false,
+        name: String = baseName): List<File> = withContext(dispatcher)
+    {
+        if (!directory.isDirectory && !directory.mkdirs() && !directory.isDirectory)
+        {
+            throw IOException("Cannot create directory $directory")
+        }
+
+        val outputs = ArrayList<TOutput>(formats.size)
+        var completed = false
+
+        try
+        {
+            for (format in formats.distinct())
+            {
+                val target = File(directory, "$baseName.${format.extension}" + if (gzip) ".gz" else "")
+                val temp = File.createTempFile(".$baseName.", ".tmp", directory)
+                try
+                {
+                    outputs.add(TOutput(format, target, temp, gzip))
+                }
+                catch (e: Throwable)
+                {
+                    // not in outputs yet, so not discarded below
+                    temp.delete()
+                    throw e
+                }
+            }
+
+            for (output in outputs)
+            {
+                output.trackWriter.begin(name, track.hasAltitude)
+            }
+
+            for (i in 0 until track.size)
+            {
+                val latitude = track.latitude(i)
+                val longitude = track.longitude(i)
+                val altitude = track.altitude(i)
+
+                for (output in outputs)
+                {
+                    output.trackWriter.point(latitude, longitude, altitude)
+                }
+
+                if ((i and CANCEL_CHECK_MASK) == 0)
+                {
+                    ensureActive()
+                }
+            }
+
+            for (output in outputs)
+            {
+                output.trackWriter.end()
+                output.finish()
+            }
+
+            for (output in outputs)
+            {
+                output.commit()
+            }
+
+            completed = true
+            outputs.map { it.target }
+        }
+        finally
+        {
+            if (!completed)
+            {
+                for (output in outputs)
+                {
+                    output.discard()
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * A file being written: the temporary file, the streams writing it and its final name.
+     */
+    private class TOutput(format: ETrackFormat, val target: File, private val temp: File, gzip: Boolean)
+    {
+        private val fileStream = FileOutputStream(temp)
+        private var gzipStream: GZIPOutputStream? = null
+        private val writer: Writer
+        val trackWriter: ITrackWriter
+
+        init
+        {
+            var stream: OutputStream = fileStream
+            try
+            {
+                if (gzip)
+                {
+                    gzipStream = GZIPOutputStream(stream, BUFFER_SIZE)
+                    stream = gzipStream!!
+                }
+                writer = BufferedWriter(OutputStreamWriter(stream, Charsets.UTF_8), BUFFER_SIZE)
+            }
+            catch (e: IOException)
+            {
+                closeQuietly(stream)
+                throw e
+            }
+            trackWriter = format.createWriter(writer)
+        }
+
+        /** Flushes everything to the temporary file, which stays open until [commit]. */
+        fun finish()
+        {
+            writer.flush()
+            gzipStream?.finish()
+            fileStream.flush()
+        }
+
+        /** Replaces the target with the temporary file. */
+        fun commit()
+        {
+            fileStream.fd.sync()
+
+            // closing the outermost stream also releases the deflater of a gzip stream
+            writer.close()
+
+            if (!temp.renameTo(target))
+            {
+                // some file systems do not replace an existing file on rename
+                target.delete()
+                if (!temp.renameTo(target))
+                {
+                    throw IOException("Cannot rename $temp to $target")
+                }
+            }
+        }
+
+        fun discard()
+        {
+            closeQuietly(writer)
+            closeQuietly(fileStream)
+            temp.delete()
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        private const val BUFFER_SIZE = 64 * 1024
+
+        /** The export checks for cancellation every 4096 points. */
+        private const val CANCEL_CHECK_MASK = 4095
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
+        private fun closeQuietly(closeable: Closeable)
+        {
+            try
+            {
+                closeable.close()
+            }
+            catch (_: IOException)
+            {
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * Appends [value] with [decimals] fractional digits, without the locale and without allocating.
+ */
+internal fun Writer.writeFixed(value: Double, decimals: Int)
+{
+    if (value.isNaN() || value.isInfinite())
+    {
+        write("0")
+        return
+    }
+
+    var scale = 1L
+    for (i in 0 until decimals)
+    {
+        scale *= 10
+    }
+
+    val scaled = Math.round(Math.abs(value) * scale)
+    val whole = scaled / scale
+    var fraction = scaled % scale
+
+    if ((value < 0) && (scaled != 0L))
+    {
+        write('-'.code)
+    }
+    write(whole.toString())
+
+    if (decimals > 0)
+    {
+        write('.'.code)
+        var divisor = scale / 10
+        while (divisor > 0)
+        {
+            write('0'.code + (fraction / divisor).toInt())
+            fraction %= divisor
+            divisor /= 10
+        }
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+private fun Writer.writeEscapedXml(text: String)
+{
+    for (c in text)
+    {
+        when (c)
+        {
+            '&' -> write("&amp;")
+            '<' -> write("&lt;")
+            '>' -> write("&gt;")
+            '"' -> write("&quot;")
+            else -> write(c.code)
+        }
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+private fun Writer.writeEscapedJson(text: String)
+{
+    for (c in text)
+    {
+        when
+        {
+            c == '"' -> write("\\\"")
+            c == '\\' -> write("\\\\")
+            c < ' ' -> write("\\u" + c.code.toString(16).padStart(4, '0'))
+            else -> write(c.code)
+        }
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+private const val COORDINATE_DECIMALS = 7
+private const val ALTITUDE_DECIMALS = 1
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * GPX 1.1, one track with one segment.
+ */
+private class GpxTrackWriter(private val out: Writer) : ITrackWriter
+{
+    private var hasAltitude = false
+
+    override fun begin(name: String, hasAltitude: Boolean)
+    {
+        this.hasAltitude = hasAltitude
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        out.write("<gpx version=\"1.1\" creator=\"TrackPositions\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n")
+        out.write("<trk><name>")
+        out.writeEscapedXml(name)
+        out.write("</name><trkseg>\n")
+    }
+
+    override fun point(latitude: Double, longitude: Double, altitude: Double)
+    {
+        out.write("<trkpt lat=\"")
+        out.writeFixed(latitude, COORDINATE_DECIMALS)
+        out.write("\" lon=\"")
+        out.writeFixed(longitude, COORDINATE_DECIMALS)
+        if (hasAltitude)
+        {
+            out.write("\"><ele>")
+            out.writeFixed(altitude, ALTITUDE_DECIMALS)
+            out.write("</ele></trkpt>\n")
+        }
+        else
+        {
+            out.write("\"/>\n")
+        }
+    }
+
+    override fun end()
+    {
+        out.write("</trkseg></trk>\n</gpx>\n")
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * KML 2.2, one placemark with a line string.
+ */
+private class KmlTrackWriter(private val out: Writer) : ITrackWriter
+{
+    private var hasAltitude = false
+
+    override fun begin(name: String, hasAltitude: Boolean)
+    {
+        this.hasAltitude = hasAltitude
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        out.write("<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document><Placemark><name>")
+        out.writeEscapedXml(name)
+        out.write("</name><LineString><coordinates>\n")
+    }
+
+    override fun point(latitude: Double, longitude: Double, altitude: Double)
+    {
+        out.writeFixed(longitude, COORDINATE_DECIMALS)
+        out.write(','.code)
+        out.writeFixed(latitude, COORDINATE_DECIMALS)
+        if (hasAltitude)
+        {
+            out.write(','.code)
+            out.writeFixed(altitude, ALTITUDE_DECIMALS)
+        }
+        out.write('\n'.code)
+    }
+
+    override fun end()
+    {
+        out.write("</coordinates></LineString></Placemark></Document></kml>\n")
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * GeoJSON, a feature collection with one line string feature.
+ */
+private class GeoJsonTrackWriter(private val out: Writer) : ITrackWriter
+{
+    private var hasAltitude = false
+    private var first = true
+
+    override fun begin(name: String, hasAltitude: Boolean)
+    {
+        this.hasAltitude = hasAltitude
+        first = true
+        out.write("{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"properties\":{\"name\":\"")
+        out.writeEscapedJson(name)
+        out.write("\"},\"geometry\":{\"type\":\"LineString\",\"coordinates\":[")
+    }
+
+    override fun point(latitude: Double, longitude: Double, altitude: Double)
+    {
+        if (!first)
+        {
+            out.write(','.code)
+        }
+        first = false
+
+        out.write("\n[")
+        out.writeFixed(longitude, COORDINATE_DECIMALS)
+        out.write(','.code)
+        out.writeFixed(latitude, COORDINATE_DECIMALS)
+        if (hasAltitude)
+        {
+            out.write(','.code)
+            out.writeFixed(altitude, ALTITUDE_DECIMALS)
+        }
+        out.write(']'.code)
+    }
+
+    override fun end()
+    {
+        out.write("\n]}}]}\n")
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * One "latitude,longitude" line per point.
+ */
+private class LatLonTxtTrackWriter(private val out: Writer) : ITrackWriter
+{
+    override fun begin(name: String, hasAltitude: Boolean)
+    {
+    }
+
+    override fun point(latitude: Double, longitude: Double, altitude: Double)
+    {
+        out.writeFixed(latitude, COORDINATE_DECIMALS)
+        out.write(','.code)
+        out.writeFixed(longitude, COORDINATE_DECIMALS)
+        out.write('\n'.code)
+    }
+
+    override fun end()
+    {
+    }
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
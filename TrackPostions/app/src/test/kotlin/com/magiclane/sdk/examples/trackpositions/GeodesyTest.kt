@@ -0,0 +1,92 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.trackpositions
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+
+class GeodesyTest {
+
+    @Test
+    fun haversineMatchesTheSphere() {
+        val degree = Geodesy.EARTH_RADIUS * Math.PI / 180
+
+        assertEquals(degree, Geodesy.haversineDistance(0.0, 0.0, 0.0, 1.0), 1e-6)
+        assertEquals(degree, Geodesy.haversineDistance(45.0, 7.0, 46.0, 7.0), 1e-6)
+        assertEquals(Geodesy.EARTH_RADIUS * Math.PI / 2, Geodesy.haversineDistance(0.0, 0.0, 90.0, 0.0), 1e-6)
+        assertEquals(Geodesy.EARTH_RADIUS * Math.PI, Geodesy.haversineDistance(0.0, 0.0, 0.0, 180.0), 1e-6)
+    }
+
+    @Test
+    fun vincentyMatchesKnownDistances() {
+        // Flinders Peak to Buninyong, the example of Vincenty's paper as published by Geoscience Australia
+        val flindersLat = -(37 + 57 / 60.0 + 3.72030 / 3600)
+        val flindersLon = 144 + 25 / 60.0 + 29.52440 / 3600
+        val buninyongLat = -(37 + 39 / 60.0 + 10.15610 / 3600)
+        val buninyongLon = 143 + 55 / 60.0 + 35.38390 / 3600
+        assertEquals(54972.271, Geodesy.vincentyDistance(flindersLat, flindersLon, buninyongLat, buninyongLon), 0.001)
+
+        // one degree along the equator, and the WGS84 quarter meridian
+        assertEquals(111319.491, Geodesy.vincentyDistance(0.0, 0.0, 0.0, 1.0), 0.001)
+        assertEquals(10001965.729, Geodesy.vincentyDistance(0.0, 0.0, 90.0, 0.0), 0.001)
+
+        assertEquals(0.0, Geodesy.vincentyDistance(48.1, 11.5, 48.1, 11.5), 0.0)
+    }
+
+    @Test
+    fun bearingPointsTheRightWay() {
+        assertEquals(0.0, Geodesy.bearing(0.0, 0.0, 1.0, 0.0), 1e-9)
+        assertEquals(90.0, Geodesy.bearing(0.0, 0.0, 0.0, 1.0), 1e-9)
+        assertEquals(180.0, Geodesy.bearing(1.0, 0.0, 0.0, 0.0), 1e-9)
+        assertEquals(-90.0, Geodesy.bearing(0.0, 1.0, 0.0, 0.0), 1e-9)
+    }
+
+    @Test
+    fun computeTrackMatchesThePairwiseFormulas() {
+        val coordinates = doubleArrayOf(48.1, 11.5, 48.1003, 11.5004, 48.0998, 11.5011, 48.2, 11.4, 48.2, 11.4)
+        val timestamps = longArrayOf(0, 1000, 3000, 63000, 64000)
+
+        val metrics = Geodesy.computeTrack(coordinates, timestamps)
+        val ellipsoidal = Geodesy.computeTrack(coordinates, timestamps, ellipsoidal = true)
+
+        assertEquals(-1.0, metrics.distances[0], 0.0)
+        assertEquals(0.0, metrics.cumulativeDistances[0], 0.0)
+
+        var total = 0.0
+        for (i in 1 until metrics.pointCount) {
+            val lat1 = coordinates[2 * i - 2]
+            val lon1 = coordinates[2 * i - 1]
+            val lat2 = coordinates[2 * i]
+            val lon2 = coordinates[2 * i + 1]
+            val distance = Geodesy.haversineDistance(lat1, lon1, lat2, lon2)
+            total += distance
+
+            assertEquals(distance, metrics.distances[i], 1e-6)
+            assertEquals(total, metrics.cumulativeDistances[i], 1e-6)
+            assertEquals(Geodesy.vincentyDistance(lat1, lon1, lat2, lon2), ellipsoidal.distances[i], 1e-6)
+            assertEquals(distance * 1000 / (timestamps[i] - timestamps[i - 1]), metrics.speeds[i], 1e-6)
+
+            if (distance > 0)
+                assertEquals(Geodesy.bearing(lat1, lon1, lat2, lon2), metrics.bearings[i], 1e-6)
+        }
+
+        assertEquals(total, metrics.totalDistance, 1e-6)
+
+        // same point count: the metrics are reused
+        assertSame(metrics, Geodesy.computeTrack(coordinates, timestamps, metrics = metrics))
+    }
+
+    @Test
+    fun computeTrackTakesTheShortWayAcrossTheAntimeridian() {
+        val metrics = Geodesy.computeTrack(doubleArrayOf(0.0, 179.5, 0.0, -179.5))
+
+        assertEquals(Geodesy.haversineDistance(0.0, 0.0, 0.0, 1.0), metrics.distances[1], 1e-6)
+        assertEquals(90.0, metrics.bearings[1], 1e-6)
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.trackpositions
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import java.io.File
+import java.io.StringWriter
+import java.nio.file.Files
+import java.util.zip.GZIPInputStream
+
+class TrackExporterTest {
+
+    private lateinit var directory: File
+    private val exporter = TrackExporter(Dispatchers.Default)
+
+    @Before
+    fun setUp() {
+        directory = Files.createTempDirectory("track-export").toFile()
+    }
+
+    @After
+    fun tearDown() {
+        directory.deleteRecursively()
+    }
+
+    private fun track(count: Int, altitude: Boolean = false): TTrackPoints {
+        val track = TTrackPoints()
+        for (i in 0 until count)
+            track.add(48.1 + i * 0.0001, 11.5 - i * 0.00005, if (altitude) 500.0 + i else 0.0)
+        return track
+    }
+
+    @Test
+    fun writesEveryFormatInOnePass() {
+        val files = runBlocking { exporter.export(track(3), directory, "path1", ETrackFormat.values().toList(), name = "a<b") }
+
+        assertEquals(listOf("path1.gpx", "path1.kml", "path1.json", "path1.txt"), files.map { it.name })
+
+        val gpx = files[0].readText()
+        assertTrue(gpx.contains("<name>a&lt;b</name>"))
+        assertTrue(gpx.contains("<trkpt lat=\"48.1000000\" lon=\"11.5000000\"/>"))
+        assertTrue(gpx.contains("<trkpt lat=\"48.1002000\" lon=\"11.4999000\"/>"))
+        assertTrue(gpx.trimEnd().endsWith("</gpx>"))
+
+        val kml = files[1].readText()
+        assertTrue(kml.contains("\n11.4999500,48.1001000\n"))
+
+        val json = files[2].readText()
+        assertTrue(json.contains("\"coordinates\":[\n[11.5000000,48.1000000],\n[11.4999500,48.1001000],\n[11.4999000,48.1002000]\n]"))
+
+        assertEquals("48.1000000,11.5000000\n48.1001000,11.4999500\n48.1002000,11.4999000\n", files[3].readText())
+
+        // only the exported files are left
+        assertEquals(4, directory.listFiles()!!.size)
+    }
+
+    @Test
+    fun writesAltitudesWhenTheTrackHasThem() {
+        val files = runBlocking { exporter.export(track(2, true), directory, "path1", listOf(ETrackFormat.Gpx, ETrackFormat.Kml)) }
+
+        assertTrue(files[0].readText().contains("<trkpt lat=\"48.1001000\" lon=\"11.4999500\"><ele>501.0</ele></trkpt>"))
+        assertTrue(files[1].readText().contains("\n11.5000000,48.1000000,500.0\n"))
+    }
+
+    @Test
+    fun gzipReplacesThePreviousFile() {
+        val previous = File(directory, "path1.txt.gz")
+        previous.writeText("previous")
+
+        val files = runBlocking { exporter.export(track(1000), directory, "path1", listOf(ETrackFormat.LatLonTxt), gzip = true) }
+
+        assertEquals(previous, files[0])
+        val lines = GZIPInputStream(previous.inputStream()).bufferedReader().readLines()
+        assertEquals(1000, lines.size)
+        assertEquals("48.1999000,11.4500500", lines[999])
+        assertEquals(1, directory.listFiles()!!.size)
+    }
+
+    @Test
+    fun cancelledExportKeepsThePreviousFile() {
+        val previous = File(directory, "path1.gpx")
+        previous.writeText("previous")
+
+        val job = Job()
+
+        // cancels the export from inside, after it started: it checks the directory first, then
+        // opens the temporary files and notices the cancellation while writing the points
+        val cancellingDirectory = object : File(directory.path) {
+            override fun isDirectory(): Boolean {
+                job.cancel()
+                return super.isDirectory()
+            }
+        }
+
+        runBlocking {
+            try {
+                withContext(job) { exporter.export(track(10000), cancellingDirectory, "path1", listOf(ETrackFormat.Gpx, ETrackFormat.Kml)) }
+                fail("The export was not cancelled")
+            } catch (e: CancellationException) {
+            }
+        }
+
+        assertTrue(job.isCancelled)
+        assertEquals("previous", previous.readText())
+        assertEquals(listOf("path1.gpx"), directory.listFiles()!!.map { it.name })
+        assertFalse(directory.listFiles()!!.any { it.name.endsWith(".tmp") })
+    }
+
+    @Test
+    fun fixedDecimalsMatchFormat() {
+        val values = doubleArrayOf(0.0, -0.00000001, 1.5, -11.59310749, 179.99999996, 48.1, -0.5, 1234.05)
+        for (value in values) {
+            val writer = StringWriter()
+            writer.writeFixed(value, 7)
+            val expected = String.format(java.util.Locale.US, "%.7f", value).replace("-0.0000000", "0.0000000")
+            assertEquals(expected, writer.toString())
+        }
+    }
+
+    @Test
+    fun longTrackIsWrittenCompletely() {
+        val track = track(20000, true)
+        val files = runBlocking { exporter.export(track, directory, "path", listOf(ETrackFormat.Gpx, ETrackFormat.LatLonTxt)) }
+
+        val gpx = files[0].readText()
+        assertEquals(20000, gpx.split("<trkpt ").size - 1)
+        assertTrue(gpx.contains("<trkpt lat=\"50.0999000\" lon=\"10.5000500\"><ele>20499.0</ele></trkpt>"))
+
+        val lines = files[1].readLines()
+        assertEquals(20000, lines.size)
+        assertEquals("50.0999000,10.5000500", lines[19999])
+    }
+}
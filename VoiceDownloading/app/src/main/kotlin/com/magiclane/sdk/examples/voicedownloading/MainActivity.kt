@@ -14,7 +14,6 @@ package com.magiclane.sdk.examples.voicedownloading
 // -------------------------------------------------------------------------------------------------------------------------------
 
 import android.annotation.SuppressLint
-import android.graphics.Bitmap
 import android.os.Bundle
 import android.os.Handler
 import android.os.Looper
@@ -64,8 +63,6 @@ class MainActivity : AppCompatActivity()
     private val kDefaultToken =
         "YOUR_TOKEN"
 
-    private val flagBitmapsMap = HashMap<String, Bitmap?>()
-
     private val progressListener = ProgressListener.create(
         onStarted = {
             progressBar?.visibility = View.VISIBLE
@@ -274,6 +271,11 @@ class MainActivity : AppCompatActivity()
     {
         // -----------------------------------------------------------------------------------------------------------------------
 
+        private val thumbnails = ThumbnailCache.getInstance(this@MainActivity)
+        private val flagSize = resources.getDimension(R.dimen.icon_size).toInt()
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
         inner class ViewHolder(view: View) : RecyclerView.ViewHolder(view)
         {
             val text: TextView = view.findViewById(R.id.text)
@@ -308,7 +310,8 @@ class MainActivity : AppCompatActivity()
                         )
                     } - ${getParameter(dataSet[position], "gender")}"
                 }
-                imageView.setImageBitmap(SdkCall.execute { getFlagBitmap(dataSet[position]) })
+                // rasterized in the background the first time, then read from memory or disk
+                thumbnails.loadFlag(imageView, SdkCall.execute { dataSet[position].countryCodes?.firstOrNull() }, flagSize)
 
                 statusImageView.visibility = View.GONE
                 progressBar.visibility = View.INVISIBLE
@@ -338,24 +341,6 @@ class MainActivity : AppCompatActivity()
 
         // -----------------------------------------------------------------------------------------------------------------------
 
-        private fun getFlagBitmap(item: ContentStoreItem): Bitmap?
-        {
-            item.countryCodes?.let { codes ->
-                val isoCode = codes[0]
-                if (!flagBitmapsMap.containsKey(isoCode))
-                {
-                    val size = resources.getDimension(R.dimen.icon_size).toInt()
-                    flagBitmapsMap[isoCode] =
-                        MapDetails().getCountryFlag(codes[0])?.asBitmap(size, size)
-                }
-
-                return flagBitmapsMap[isoCode]
-            }
-            return null
-        }
-
-        // -----------------------------------------------------------------------------------------------------------------------
-
         private fun getCountryName(item: ContentStoreItem): String
         {
             item.countryCodes?.let { codes ->
@@ -0,0 +1,256 @@
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.voicedownloading
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import android.os.SystemClock
+import android.util.Log
+import android.util.LruCache
+import android.widget.ImageView
+import com.magiclane.sdk.core.MapDetails
+import com.magiclane.sdk.util.SdkCall
+import com.magiclane.sdk.util.Util
+import java.io.File
+import java.io.FileOutputStream
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+// -------------------------------------------------------------------------------------------------------------------------------
+
+/**
+ * App-wide cache of the small images shown in content lists: country flags, style previews.
+ *
+ * Binding a list item never rasterizes: [load] sets the bitmap at once when it is in memory, and
+ * otherwise queues the work on a background thread. There the PNG saved by an earlier launch is
+ * decoded, or the image is rasterized by the SDK and saved for the next launch. Several views
+ * asking for the same image while it loads share the same work. A view recycled for another item
+ * in the meantime is not updated with the old image.
+ *
+ * The images are assumed not to change for a key, e.g. a flag for an ISO code and a size.
+ *
+ * This file is kept identical in the DownloadingOnboardMap, DownloadingOnboardMapSimulation and
+ * VoiceDownloading examples, apart from the package.
+ */
+class ThumbnailCache private constructor(private val directory: File)
+{
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private val memory = object : LruCache<String, Bitmap>((Runtime.getRuntime().maxMemory() / 16).toInt())
+    {
+        override fun sizeOf(key: String, value: Bitmap): Int = value.allocationByteCount
+    }
+
+    /**
+     * Keys no image was loaded for, with the time they can be asked again. The SDK may not be
+     * ready yet, so they are not given up for good.
+     */
+    private val missing = HashMap<String, Long>()
+
+    /** Callbacks waiting for an image being loaded. */
+    private val pending = HashMap<String, ArrayList<(Bitmap?) -> Unit>>()
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(2) { runnable ->
+        Thread(runnable, "ThumbnailCache").apply {
+            isDaemon = true
+            priority = Thread.NORM_PRIORITY - 1
+        }
+    }
+
+    var memoryHits = 0
+        private set
+
+    var diskHits = 0
+        private set
+
+    var renderCount = 0
+        private set
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the image if it is in memory, or null after starting to load it. [onLoaded] is called
+     * on the main thread once it is loaded, only in the second case.
+     *
+     * @param render Rasterizes the image, called on the SDK thread.
+     */
+    fun load(key: String, render: () -> Bitmap?, onLoaded: (Bitmap?) -> Unit): Bitmap?
+    {
+        synchronized(this)
+        {
+            memory.get(key)?.let {
+                memoryHits++
+                return it
+            }
+
+            missing[key]?.let {
+                if (SystemClock.elapsedRealtime() < it)
+                {
+                    return null
+                }
+                missing.remove(key)
+            }
+
+            pending[key]?.let {
+                it.add(onLoaded)
+                return null
+            }
+
+            pending[key] = arrayListOf(onLoaded)
+        }
+
+        executor.execute { loadInBackground(key, render) }
+        return null
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Shows an image in a view, possibly later. The view shows nothing until then.
+     */
+    fun loadInto(imageView: ImageView, key: String, render: () -> Bitmap?)
+    {
+        imageView.tag = key
+        val bitmap = load(key, render) { loaded ->
+            // the view may show another item by now
+            if (imageView.tag == key)
+            {
+                imageView.setImageBitmap(loaded)
+            }
+        }
+
+        imageView.setImageBitmap(bitmap)
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Shows the flag of a country, rasterized at [size] x [size] pixels.
+     */
+    fun loadFlag(imageView: ImageView, isoCode: String?, size: Int)
+    {
+        if (isoCode.isNullOrEmpty())
+        {
+            imageView.tag = null
+            imageView.setImageBitmap(null)
+            return
+        }
+
+        loadInto(imageView, "flag_${isoCode}_$size") { MapDetails().getCountryFlag(isoCode)?.asBitmap(size, size) }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    private fun loadInBackground(key: String, render: () -> Bitmap?)
+    {
+        var bitmap: Bitmap? = null
+        try
+        {
+            val file = File(directory, fileName(key))
+
+            bitmap = if (file.exists()) BitmapFactory.decodeFile(file.path) else null
+            if (bitmap != null)
+            {
+                synchronized(this) { diskHits++ }
+            }
+            else
+            {
+                bitmap = SdkCall.execute { render() }
+                synchronized(this) { renderCount++ }
+                bitmap?.let { save(file, it) }
+            }
+        }
+        catch (e: Exception)
+        {
+            Log.w(TAG, "Loading $key failed", e)
+        }
+        finally
+        {
+            // the views waiting for the image are always answered
+            val result = bitmap
+            val callbacks = synchronized(this) {
+                if (result != null)
+                {
+                    memory.put(key, result)
+                }
+                else
+                {
+                    missing[key] = SystemClock.elapsedRealtime() + MISSING_RETRY_MS
+                }
+
+                pending.remove(key)
+            }
+
+            Util.postOnMain { callbacks?.forEach { it(result) } }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Writes a PNG next to the final file and renames it, so a file that exists is complete.
+     */
+    private fun save(file: File, bitmap: Bitmap)
+    {
+        val temp = File(directory, file.name + ".tmp")
+        try
+        {
+            directory.mkdirs()
+            val written = FileOutputStream(temp).use { bitmap.compress(Bitmap.CompressFormat.PNG, 100, it) }
+            if (!written || !temp.renameTo(file))
+            {
+                temp.delete()
+            }
+        }
+        catch (e: Exception)
+        {
+            Log.w(TAG, "Saving ${file.name} failed", e)
+            temp.delete()
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        private const val TAG = "ThumbnailCache"
+
+        /** How long a key without image is not asked again. */
+        private const val MISSING_RETRY_MS = 10_000L
+
+        @Volatile
+        private var instance: ThumbnailCache? = null
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
+        fun getInstance(context: Context): ThumbnailCache =
+            instance ?: synchronized(this) {
+                instance ?: ThumbnailCache(File(context.applicationContext.cacheDir, "thumbnails")).also { instance = it }
+            }
+
+        // -----------------------------------------------------------------------------------------------------------------------
+
+        /** A file name for a key, the characters a file name cannot have are replaced. */
+        fun fileName(key: String): String
+        {
+            val safe = key.map { if (it.isLetterOrDigit() || (it == '_') || (it == '-')) it else '_' }.joinToString("")
+            return if (safe == key) "$safe.png" else "${safe}_${Integer.toHexString(key.hashCode())}.png"
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------------------------------------
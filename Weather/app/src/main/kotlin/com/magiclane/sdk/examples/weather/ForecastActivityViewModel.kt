@@ -16,46 +16,24 @@ package com.magiclane.sdk.examples.weather
 import android.graphics.Bitmap
 import androidx.lifecycle.MutableLiveData
 import androidx.lifecycle.ViewModel
-import com.magiclane.sdk.EDaylight
-import com.magiclane.sdk.OnWeatherForecastCompleted
-import com.magiclane.sdk.WeatherService
 import com.magiclane.sdk.core.GemError
-import com.magiclane.sdk.core.ProgressListener
-import com.magiclane.sdk.core.Time
-import com.magiclane.sdk.core.TimezoneResult
-import com.magiclane.sdk.core.TimezoneService
 import com.magiclane.sdk.places.Coordinates
-import com.magiclane.sdk.places.CoordinatesList
-import com.magiclane.sdk.util.SdkCall
-import java.text.SimpleDateFormat
-import java.time.DayOfWeek
-import java.util.Date
-import java.util.Locale
-import java.util.TimeZone
-import kotlin.math.roundToInt
 
 // -------------------------------------------------------------------------------------------------
 class ForecastActivityViewModel : ViewModel()
 {
-    // ---------------------------------------------------------------------------------------------
-    init
-    {
-        //initialise the weather service
-        SdkCall.execute { weatherService = WeatherService() }
-    }
-
     // ---------------------------------------------------------------------------------------------
     companion object
     {
-        const val FORECAST_DAYS = 7
-        const val FORECAST_HOUR = 48
-        const val IMAGE_SIZE = 120
+        /**
+         * Shared by the forecast screens, so going back and forth between the current, hourly and
+         * daily forecasts of a place does not request them again.
+         */
+        val repository: ForecastRepository<TForecastResult> by lazy { ForecastRepository(WeatherForecastSource()) }
     }
 
-    private var weatherService: WeatherService? = null
     var forecastItemsList: MutableLiveData<MutableList<ForecastItem>> = MutableLiveData()
     var errorMessage: MutableLiveData<String> = MutableLiveData()
-    private lateinit var listener: OnWeatherForecastCompleted
     var updatedAt = ""
     var currentTime = ""
     var description = ""
@@ -66,158 +44,26 @@ class ForecastActivityViewModel : ViewModel()
 
     // ---------------------------------------------------------------------------------------------
 
-    fun getForecastList(forecastType: EForecastType, coordinates: Coordinates) = SdkCall.execute {
-        listener = { results, err, msg ->
-            if (err == GemError.NoError)
-                SdkCall.execute {
-                    // in this example we require the weather forecast for only one location 
-                    // results[0].forecast holds the list of forecast items for the selected landmark 
-                    results[0].forecast?.let {
-                        val list = mutableListOf<ForecastItem>()
-                        //map the conditions list to a list of our data object, ForecastItem
-                        val formatter = SimpleDateFormat("HH:mm", Locale.UK)
-                        val dateFormatter = SimpleDateFormat("yyyy-MM-dd", Locale.getDefault())
-                        val timeOffset = getUTCOffsetInMilliSeconds(coordinates) ?: 0
-                        formatter.timeZone = TimeZone.getTimeZone("GMT")
-                        it.mapNotNullTo(list) { forecastItem ->
-                            when (forecastType) 
-                            {
-                                EForecastType.NOT_ASSIGNED -> null
-                                EForecastType.CURRENT ->
-                                {
-                                    val forecastItemTimestamp = forecastItem.timestamp?.asLong() ?: 0L
-                                    updatedAt = results[0].updated?.run {
-                                        "Updated at: " + formatter.format(Date(asLong() + timeOffset))
-                                    } ?: ""
-                                    currentTime = "Current time: " + formatter.format(Date(forecastItemTimestamp + timeOffset))
-                                    description = forecastItem.description ?: "aaaaaaaaaaaa"
-                                    isDay = forecastItem.daylight == EDaylight.Day || forecastItem.daylight == EDaylight.NotAvailable
-                                    forecastItem.parameters?.forEach { param ->
-                                        when (param.type)
-                                        {
-                                            "Temperature" ->
-                                                currentTemperature = String.format(Locale.getDefault(), "%d%s", param.value.roundToInt(), param.unit)
-
-                                            "FeelsLike" ->
-                                                feelsLike = String.format(Locale.getDefault(), "%s %d%s", param.name, param.value.roundToInt(), param.unit)
-
-                                            "Sunrise", "Sunset" ->
-                                            {
-                                                val timeValue = (param.value * 1000).toLong() + timeOffset
-                                                val time = formatter.format(Date(timeValue))
-                                                list.add(
-                                                    ForecastItem(
-                                                        conditionName = param.type ?: "",
-                                                        conditionValue = time
-                                                    )
-                                                )
-                                            }
-
-                                            else ->
-                                            {
-                                                if (param.value.rem(1) == 0.0)
-                                                    list.add(
-                                                        ForecastItem(
-                                                            conditionName = param.type ?: "",
-                                                            conditionValue = String.format(Locale.getDefault(), "%d %s", param.value.roundToInt(), param.unit)
-                                                        )
-                                                    )
-                                                else
-                                                    list.add(
-                                                        ForecastItem(
-                                                            conditionName = param.type ?: "",
-                                                            conditionValue = String.format(Locale.getDefault(), "%.2f %s", param.value, param.unit)
-                                                        )
-                                                    )
-                                            }
-                                        }
-                                    }
-                                    currentBMP = forecastItem.image?.asBitmap(IMAGE_SIZE, IMAGE_SIZE)
-                                    null
-                                }
-
-                                EForecastType.DAILY ->
-                                {
-                                    val dateParam = forecastItem.timestamp?.run {
-                                        dateFormatter.format(Date(asLong() + timeOffset))
-                                    } ?: ""
-                                    val dayOfWeekParam = forecastItem.timestamp?.run {
-                                        val dayOfWeekIndex = if (dayOfWeek == 1) 6 else dayOfWeek - 2
-                                        DayOfWeek.entries[dayOfWeekIndex].name
-                                    } ?: ""
-                                    val temperatureHighParam = forecastItem.parameters?.find { param -> param.type == "TemperatureHigh" }?.run {
-                                        String.format(Locale.getDefault(), "%d%s", value.roundToInt(), unit)
-                                    } ?: ""
-                                    val temperatureLowParam = forecastItem.parameters?.find { param -> param.type == "TemperatureLow" }?.run {
-                                        String.format(Locale.getDefault(), "%d%s", value.roundToInt(), unit)
-                                    } ?: ""
-                                    ForecastItem(
-                                        date = dateParam,
-                                        dayOfWeek = dayOfWeekParam,
-                                        bmp = forecastItem.image?.asBitmap(IMAGE_SIZE, IMAGE_SIZE),
-                                        highTemperature = temperatureHighParam,
-                                        lowTemperature = temperatureLowParam
-                                    )
-                                }
-
-                                EForecastType.HOURLY ->
-                                {
-                                    val dateParam = forecastItem.timestamp?.run {
-                                        dateFormatter.format(Date(asLong() + timeOffset))
-                                    } ?: ""
-                                    val timeParam = forecastItem.timestamp?.run {
-                                        formatter.format(Date(asLong()+ timeOffset))
-                                    } ?: ""
-                                    val isDayLight = forecastItem.daylight == EDaylight.Day || forecastItem.daylight == EDaylight.NotAvailable
-
-                                    val temperatureParam = forecastItem.parameters?.find { param -> param.type == "Temperature" }?.run {
-                                        String.format(Locale.getDefault(), "%d%s", value.roundToInt(), unit)
-                                    } ?: ""
-
-                                    ForecastItem(
-                                        date = dateParam,
-                                        time = timeParam,
-                                        bmp = forecastItem.image?.asBitmap(IMAGE_SIZE, IMAGE_SIZE),
-                                        temperature = temperatureParam,
-                                        isDuringDay = isDayLight
-                                    )
-                                }
-                            }
-                        }
-                        //update the value of the live data to trigger the observer 
-                        forecastItemsList.postValue(list)
-                    }
+    fun getForecastList(forecastType: EForecastType, coordinates: Coordinates)
+    {
+        repository.get(forecastType, coordinates.latitude, coordinates.longitude) { result, err, msg ->
+            if ((err == GemError.NoError) && (result != null))
+            {
+                result.current?.let {
+                    updatedAt = it.updatedAt
+                    currentTime = it.currentTime
+                    description = it.description
+                    currentBMP = it.bmp
+                    isDay = it.isDay
+                    currentTemperature = it.temperature
+                    feelsLike = it.feelsLike
                 }
-            else 
+                //update the value of the live data to trigger the observer
+                forecastItemsList.postValue(result.items.toMutableList())
+            }
+            else
                 errorMessage.postValue(msg)
         }
-        val coords = CoordinatesList().apply { add(coordinates) }
-        //get the type of forecast based on the activity's argument
-        when (forecastType)
-        {
-            EForecastType.NOT_ASSIGNED -> null
-            //retrieves a list of lists comprised of a single item with in depth details about the weather for each location
-            EForecastType.CURRENT -> weatherService?.getCurrent(coords, onCompleted = listener)
-            //retrieves a list of lists comprised of multiple items with a few details about the weather for each location
-            EForecastType.DAILY -> weatherService?.getDailyForecast(FORECAST_DAYS, coords, onCompleted = listener)
-            //retrieves a list of lists comprised of multiple items with a few details about the weather for each location
-            EForecastType.HOURLY -> weatherService?.getHourlyForecast(FORECAST_HOUR, coords, onCompleted = listener)
-        }
-    }
-    // ---------------------------------------------------------------------------------------------
-
-    private fun getUTCOffsetInMilliSeconds(coordinates: Coordinates): Int? = SdkCall.execute {
-        val timezoneResult = TimezoneResult()
-        val time = Time()
-
-        time.setUniversalTime()
-
-        TimezoneService.getTimezoneInfoWithCoordinates(
-            timezoneResult, coordinates, time,
-            ProgressListener()
-        )
-
-        timezoneResult.offset * 1000
     }
 }
 // -------------------------------------------------------------------------------------------------
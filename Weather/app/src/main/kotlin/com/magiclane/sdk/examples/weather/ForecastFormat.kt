@@ -0,0 +1,118 @@
+// -------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.weather
+
+// -------------------------------------------------------------------------------------------------
+
+import java.text.NumberFormat
+import java.util.Locale
+import kotlin.math.roundToInt
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Formats the times and values of the forecasts.
+ *
+ * The times are local times given as UTC milliseconds plus the offset of the place, so they are
+ * formatted with plain arithmetic on the epoch instead of a SimpleDateFormat per response: there is
+ * no time zone, no shared state and nothing to allocate but the result. java.time would do the
+ * same, but needs API 26 without desugaring.
+ *
+ * Thread safe.
+ */
+object ForecastFormat
+{
+    // ---------------------------------------------------------------------------------------------
+
+    private const val MILLIS_PER_MINUTE = 60 * 1000L
+    private const val MILLIS_PER_DAY = 24 * 60 * MILLIS_PER_MINUTE
+
+    private val DAY_NAMES = arrayOf("MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY")
+
+    private val decimalFormat = object : ThreadLocal<NumberFormat>()
+    {
+        override fun initialValue(): NumberFormat = NumberFormat.getNumberInstance(Locale.getDefault()).apply {
+            minimumFractionDigits = 2
+            maximumFractionDigits = 2
+            isGroupingUsed = false
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /** "HH:mm" */
+    fun time(localMillis: Long): String
+    {
+        val minutes = localMillis.mod(MILLIS_PER_DAY) / MILLIS_PER_MINUTE
+        val hour = (minutes / 60).toInt()
+        val minute = (minutes % 60).toInt()
+
+        return StringBuilder(5).append2(hour).append(':').append2(minute).toString()
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /** "yyyy-MM-dd" */
+    fun date(localMillis: Long): String
+    {
+        // days to civil date, H. Hinnant's algorithm
+        val z = localMillis.floorDiv(MILLIS_PER_DAY) + 719468
+        val era = z.floorDiv(146097L)
+        val dayOfEra = z - era * 146097
+        val yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365
+        val dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)
+        val mp = (5 * dayOfYear + 2) / 153
+        val day = (dayOfYear - (153 * mp + 2) / 5 + 1).toInt()
+        val month = (if (mp < 10) mp + 3 else mp - 9).toInt()
+        val year = yearOfEra + era * 400 + (if (month <= 2) 1 else 0)
+
+        return StringBuilder(10).append(year).append('-').append2(month).append('-').append2(day).toString()
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /** Upper case English name of the day, e.g. "MONDAY". */
+    fun dayOfWeek(localMillis: Long): String
+    {
+        // 1970-01-01 was a Thursday
+        val index = (localMillis.floorDiv(MILLIS_PER_DAY) + 3).mod(7L).toInt()
+        return DAY_NAMES[index]
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /** The value rounded, followed by the unit, e.g. "21°C". */
+    fun rounded(value: Double, unit: String?, separator: String = ""): String =
+        "${value.roundToInt()}$separator${unit ?: ""}"
+
+    // ---------------------------------------------------------------------------------------------
+
+    /** The value with two decimals in the default locale, followed by the unit. */
+    fun decimal(value: Double, unit: String?, separator: String = " "): String =
+        "${decimalFormat.get()!!.format(value)}$separator${unit ?: ""}"
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun StringBuilder.append2(value: Int): StringBuilder
+    {
+        if (value < 10)
+        {
+            append('0')
+        }
+
+        return append(value)
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
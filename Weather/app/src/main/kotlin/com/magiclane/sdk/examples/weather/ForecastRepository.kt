@@ -0,0 +1,223 @@
+// -------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.weather
+
+// -------------------------------------------------------------------------------------------------
+
+import kotlin.math.floor
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Fetches the forecasts of a [ForecastRepository], e.g. from the SDK weather service.
+ */
+interface IForecastSource<T>
+{
+    /**
+     * Starts a forecast request. [onCompleted] is called once, with the result or with null and
+     * the error code and message.
+     *
+     * @param utcOffsetMillis Offset of the local time at the position, for formatting the times.
+     * @return Return the error code of starting the request, 0 on success.
+     */
+    fun fetch(type: EForecastType, latitude: Double, longitude: Double, utcOffsetMillis: Int,
+              onCompleted: (T?, Int, String) -> Unit): Int
+
+    /**
+     * Returns the offset of the local time from UTC at a position, null if unknown.
+     */
+    fun utcOffsetMillis(latitude: Double, longitude: Double): Int?
+}
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Keeps the forecasts of the places looked at recently.
+ *
+ * Results are cached per forecast type and per tile of [tileDegrees], and are served for
+ * [ttlMillis]. A request for a forecast that is already being fetched waits for the same result
+ * instead of starting another one. The UTC offset of a tile is looked up once and kept for
+ * [offsetTtlMillis], so the current, hourly and daily forecasts of a place share it. Failed
+ * requests are not cached.
+ *
+ * Thread safe. The callbacks run on the thread that completes the request, or on the calling
+ * thread for cached results.
+ */
+class ForecastRepository<T>(
+    private val source: IForecastSource<T>,
+    val ttlMillis: Long = DEFAULT_TTL_MILLIS,
+    val offsetTtlMillis: Long = DEFAULT_OFFSET_TTL_MILLIS,
+    val tileDegrees: Double = DEFAULT_TILE_DEGREES,
+    private val clock: () -> Long = System::currentTimeMillis)
+{
+    // ---------------------------------------------------------------------------------------------
+
+    private class TEntry<T>(val value: T, val time: Long)
+
+    private class TOffset(val millis: Int, val time: Long)
+
+    // ---------------------------------------------------------------------------------------------
+
+    private val cache = HashMap<String, TEntry<T>>()
+    private val offsets = HashMap<String, TOffset>()
+    private val pending = HashMap<String, ArrayList<(T?, Int, String) -> Unit>>()
+
+    /** Number of requests sent to the source. */
+    var fetchCount = 0
+        private set
+
+    /** Number of requests answered from the cache. */
+    var hitCount = 0
+        private set
+
+    /** Number of requests that joined one already running. */
+    var joinedCount = 0
+        private set
+
+    /** Number of UTC offsets looked up. */
+    var offsetLookupCount = 0
+        private set
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Gets a forecast, from the cache if it is recent enough.
+     */
+    fun get(type: EForecastType, latitude: Double, longitude: Double, onCompleted: (T?, Int, String) -> Unit)
+    {
+        val tile = tileKey(latitude, longitude)
+        val key = "${type.name}|$tile"
+
+        val cached = synchronized(this) {
+            val now = clock()
+            val entry = cache[key]
+            if ((entry != null) && (now - entry.time < ttlMillis))
+            {
+                hitCount++
+                entry
+            }
+            else
+            {
+                cache.remove(key)
+
+                val waiting = pending[key]
+                if (waiting != null)
+                {
+                    joinedCount++
+                    waiting.add(onCompleted)
+                    return
+                }
+
+                pending[key] = arrayListOf(onCompleted)
+                fetchCount++
+                null
+            }
+        }
+
+        if (cached != null)
+        {
+            onCompleted(cached.value, 0, "")
+            return
+        }
+
+        val offset = utcOffset(tile, latitude, longitude)
+
+        val error = source.fetch(type, latitude, longitude, offset) { value, errorCode, message ->
+            complete(key, value, errorCode, message)
+        }
+
+        if (error != 0)
+        {
+            complete(key, null, error, "")
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Drops the cached forecasts, e.g. on a pull to refresh. Running requests are kept.
+     */
+    @Synchronized
+    fun clear()
+    {
+        cache.clear()
+        offsets.clear()
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun complete(key: String, value: T?, errorCode: Int, message: String)
+    {
+        val callbacks = synchronized(this) {
+            if ((value != null) && (errorCode == 0))
+            {
+                cache[key] = TEntry(value, clock())
+            }
+
+            pending.remove(key)
+        } ?: return
+
+        for (callback in callbacks)
+        {
+            callback(value, errorCode, message)
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun utcOffset(tile: String, latitude: Double, longitude: Double): Int
+    {
+        synchronized(this)
+        {
+            offsets[tile]?.let {
+                if (clock() - it.time < offsetTtlMillis)
+                {
+                    return it.millis
+                }
+            }
+        }
+
+        // unknown offsets are not kept, the next request tries again
+        val millis = source.utcOffsetMillis(latitude, longitude) ?: return 0
+
+        synchronized(this)
+        {
+            offsetLookupCount++
+            offsets[tile] = TOffset(millis, clock())
+        }
+
+        return millis
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private fun tileKey(latitude: Double, longitude: Double): String =
+        "${floor(latitude / tileDegrees).toInt()}:${floor(longitude / tileDegrees).toInt()}"
+
+    // ---------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        /** Forecasts are updated by the provider about every 10 minutes. */
+        const val DEFAULT_TTL_MILLIS = 10 * 60 * 1000L
+
+        /** Long enough to keep offsets for a session, short enough to follow a DST change. */
+        const val DEFAULT_OFFSET_TTL_MILLIS = 60 * 60 * 1000L
+
+        /** About a kilometer, the resolution of the forecasts. */
+        const val DEFAULT_TILE_DEGREES = 0.01
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
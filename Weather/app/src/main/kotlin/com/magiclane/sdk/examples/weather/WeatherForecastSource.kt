@@ -0,0 +1,218 @@
+// -------------------------------------------------------------------------------------------------
+
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+// -------------------------------------------------------------------------------------------------
+
+package com.magiclane.sdk.examples.weather
+
+// -------------------------------------------------------------------------------------------------
+
+import android.graphics.Bitmap
+import com.magiclane.sdk.EDaylight
+import com.magiclane.sdk.OnWeatherForecastCompleted
+import com.magiclane.sdk.WeatherService
+import com.magiclane.sdk.core.GemError
+import com.magiclane.sdk.core.ProgressListener
+import com.magiclane.sdk.core.Time
+import com.magiclane.sdk.core.TimezoneResult
+import com.magiclane.sdk.core.TimezoneService
+import com.magiclane.sdk.places.Coordinates
+import com.magiclane.sdk.places.CoordinatesList
+import com.magiclane.sdk.util.SdkCall
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * The header of the current forecast.
+ */
+data class TCurrentForecast(
+    val updatedAt: String = "",
+    val currentTime: String = "",
+    val description: String = "",
+    val bmp: Bitmap? = null,
+    val isDay: Boolean = false,
+    val temperature: String = "",
+    val feelsLike: String = ""
+)
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * A forecast ready to be shown: the list items, and the header for the current forecast.
+ */
+data class TForecastResult(
+    val items: List<ForecastItem>,
+    val current: TCurrentForecast? = null
+)
+
+// -------------------------------------------------------------------------------------------------
+
+/**
+ * Gets the forecasts from the SDK weather service and maps them to [TForecastResult]. The images
+ * are rasterized once here, so cached results do not rasterize them again.
+ */
+class WeatherForecastSource : IForecastSource<TForecastResult>
+{
+    // ---------------------------------------------------------------------------------------------
+
+    private val weatherService: WeatherService? by lazy { SdkCall.execute { WeatherService() } }
+
+    // ---------------------------------------------------------------------------------------------
+
+    override fun fetch(type: EForecastType, latitude: Double, longitude: Double, utcOffsetMillis: Int,
+                       onCompleted: (TForecastResult?, Int, String) -> Unit): Int = SdkCall.execute {
+        val service = weatherService ?: return@execute GemError.General
+
+        val listener: OnWeatherForecastCompleted = { results, err, msg ->
+            if (err == GemError.NoError)
+            {
+                val result = SdkCall.execute {
+                    // in this example we require the weather forecast for only one location
+                    // results[0].forecast holds the list of forecast items for the selected landmark
+                    val location = results.firstOrNull() ?: return@execute null
+                    val forecast = location.forecast ?: return@execute null
+                    val timeOffset = utcOffsetMillis
+
+                    val items = ArrayList<ForecastItem>(forecast.size)
+                    var current: TCurrentForecast? = null
+
+                    //map the conditions list to a list of our data object, ForecastItem
+                    for (forecastItem in forecast)
+                    {
+                        val localTime = (forecastItem.timestamp?.asLong() ?: 0L) + timeOffset
+                        val isDayLight = forecastItem.daylight == EDaylight.Day || forecastItem.daylight == EDaylight.NotAvailable
+
+                        when (type)
+                        {
+                            EForecastType.NOT_ASSIGNED -> return@execute null
+
+                            EForecastType.CURRENT ->
+                            {
+                                var temperature = ""
+                                var feelsLike = ""
+                                forecastItem.parameters?.forEach { param ->
+                                    when (param.type)
+                                    {
+                                        "Temperature" -> temperature = ForecastFormat.rounded(param.value, param.unit)
+
+                                        "FeelsLike" -> feelsLike = "${param.name} ${ForecastFormat.rounded(param.value, param.unit)}"
+
+                                        "Sunrise", "Sunset" ->
+                                        {
+                                            val time = ForecastFormat.time((param.value * 1000).toLong() + timeOffset)
+                                            items.add(ForecastItem(conditionName = param.type ?: "", conditionValue = time))
+                                        }
+
+                                        else ->
+                                        {
+                                            val value = if (param.value.rem(1) == 0.0)
+                                                ForecastFormat.rounded(param.value, param.unit, " ")
+                                            else
+                                                ForecastFormat.decimal(param.value, param.unit)
+
+                                            items.add(ForecastItem(conditionName = param.type ?: "", conditionValue = value))
+                                        }
+                                    }
+                                }
+
+                                current = TCurrentForecast(
+                                    updatedAt = location.updated?.let { "Updated at: " + ForecastFormat.time(it.asLong() + timeOffset) } ?: "",
+                                    currentTime = "Current time: " + ForecastFormat.time(localTime),
+                                    description = forecastItem.description ?: "",
+                                    bmp = forecastItem.image?.asBitmap(IMAGE_SIZE, IMAGE_SIZE),
+                                    isDay = isDayLight,
+                                    temperature = temperature,
+                                    feelsLike = feelsLike
+                                )
+                            }
+
+                            EForecastType.DAILY ->
+                            {
+                                val parameters = forecastItem.parameters
+                                items.add(
+                                    ForecastItem(
+                                        date = if (forecastItem.timestamp != null) ForecastFormat.date(localTime) else "",
+                                        dayOfWeek = if (forecastItem.timestamp != null) ForecastFormat.dayOfWeek(localTime) else "",
+                                        bmp = forecastItem.image?.asBitmap(IMAGE_SIZE, IMAGE_SIZE),
+                                        highTemperature = parameters?.find { it.type == "TemperatureHigh" }?.let { ForecastFormat.rounded(it.value, it.unit) } ?: "",
+                                        lowTemperature = parameters?.find { it.type == "TemperatureLow" }?.let { ForecastFormat.rounded(it.value, it.unit) } ?: ""
+                                    )
+                                )
+                            }
+
+                            EForecastType.HOURLY ->
+                            {
+                                items.add(
+                                    ForecastItem(
+                                        date = if (forecastItem.timestamp != null) ForecastFormat.date(localTime) else "",
+                                        time = if (forecastItem.timestamp != null) ForecastFormat.time(localTime) else "",
+                                        bmp = forecastItem.image?.asBitmap(IMAGE_SIZE, IMAGE_SIZE),
+                                        temperature = forecastItem.parameters?.find { it.type == "Temperature" }?.let { ForecastFormat.rounded(it.value, it.unit) } ?: "",
+                                        isDuringDay = isDayLight
+                                    )
+                                )
+                            }
+                        }
+                    }
+
+                    TForecastResult(items, current)
+                }
+
+                onCompleted(result, if (result != null) GemError.NoError else GemError.General, msg)
+            }
+            else
+            {
+                onCompleted(null, err, msg)
+            }
+        }
+
+        val coords = CoordinatesList().apply { add(Coordinates(latitude, longitude)) }
+        //get the type of forecast based on the activity's argument
+        //the listener is only called if the request was started, otherwise its error is returned
+        when (type)
+        {
+            EForecastType.NOT_ASSIGNED -> GemError.InvalidInput
+            //retrieves a list of lists comprised of a single item with in depth details about the weather for each location
+            EForecastType.CURRENT -> service.getCurrent(coords, onCompleted = listener)
+            //retrieves a list of lists comprised of multiple items with a few details about the weather for each location
+            EForecastType.DAILY -> service.getDailyForecast(FORECAST_DAYS, coords, onCompleted = listener)
+            //retrieves a list of lists comprised of multiple items with a few details about the weather for each location
+            EForecastType.HOURLY -> service.getHourlyForecast(FORECAST_HOURS, coords, onCompleted = listener)
+        }
+    } ?: GemError.General
+
+    // ---------------------------------------------------------------------------------------------
+
+    override fun utcOffsetMillis(latitude: Double, longitude: Double): Int? = SdkCall.execute {
+        val timezoneResult = TimezoneResult()
+        val time = Time()
+
+        time.setUniversalTime()
+
+        TimezoneService.getTimezoneInfoWithCoordinates(
+            timezoneResult, Coordinates(latitude, longitude), time,
+            ProgressListener()
+        )
+
+        timezoneResult.offset * 1000
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    companion object
+    {
+        const val FORECAST_DAYS = 7
+        const val FORECAST_HOURS = 48
+        const val IMAGE_SIZE = 120
+    }
+
+    // ---------------------------------------------------------------------------------------------
+}
+
+// -------------------------------------------------------------------------------------------------
@@ -0,0 +1,191 @@
+/*
+ * SPDX-FileCopyrightText: 1995-2025 Magic Lane International B.V. <info@magiclane.com>
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Contact Magic Lane at <info@magiclane.com> for SDK licensing options.
+ */
+
+package com.magiclane.sdk.examples.weather
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+/**
+ * Runs the forecast repository against a fake source completed by hand, and a fake clock.
+ */
+class ForecastRepositoryTest {
+
+    private class FakeSource : IForecastSource<String> {
+        val requests = ArrayList<(String?, Int, String) -> Unit>()
+        val offsetRequests = ArrayList<Pair<Double, Double>>()
+        var offset: Int? = 3600000
+        var startError = 0
+
+        override fun fetch(
+            type: EForecastType, latitude: Double, longitude: Double, utcOffsetMillis: Int,
+            onCompleted: (String?, Int, String) -> Unit
+        ): Int {
+            if (startError != 0)
+                return startError
+            requests.add(onCompleted)
+            return 0
+        }
+
+        override fun utcOffsetMillis(latitude: Double, longitude: Double): Int? {
+            offsetRequests.add(Pair(latitude, longitude))
+            return offset
+        }
+    }
+
+    private var now = 1000L
+    private val source = FakeSource()
+    private val repository = ForecastRepository(source, ttlMillis = 100, offsetTtlMillis = 1000) { now }
+
+    private class Result {
+        var value: String? = null
+        var error = -1
+        var calls = 0
+    }
+
+    private fun get(type: EForecastType = EForecastType.DAILY, latitude: Double = 45.65, longitude: Double = 25.6): Result {
+        val result = Result()
+        repository.get(type, latitude, longitude) { value, error, _ ->
+            result.value = value
+            result.error = error
+            result.calls++
+        }
+        return result
+    }
+
+    @Test
+    fun servesCachedResultWithinTtl() {
+        val first = get()
+        source.requests[0]("sunny", 0, "")
+        assertEquals("sunny", first.value)
+
+        now += 99
+        val second = get(latitude = 45.652, longitude = 25.602)
+
+        assertEquals("sunny", second.value)
+        assertEquals(1, second.calls)
+        assertEquals(1, repository.fetchCount)
+        assertEquals(1, repository.hitCount)
+    }
+
+    @Test
+    fun fetchesAgainAfterTtl() {
+        get()
+        source.requests[0]("sunny", 0, "")
+
+        now += 100
+        val second = get()
+
+        assertEquals(0, second.calls)
+        assertEquals(2, source.requests.size)
+
+        source.requests[1]("rain", 0, "")
+        assertEquals("rain", second.value)
+    }
+
+    @Test
+    fun coalescesConcurrentRequests() {
+        val first = get()
+        val second = get()
+
+        assertEquals(1, source.requests.size)
+        assertEquals(1, repository.joinedCount)
+
+        source.requests[0]("sunny", 0, "")
+
+        assertEquals("sunny", first.value)
+        assertEquals("sunny", second.value)
+        assertEquals(1, second.calls)
+    }
+
+    @Test
+    fun keepsTypesAndPlacesApart() {
+        get(EForecastType.DAILY)
+        get(EForecastType.HOURLY)
+        get(EForecastType.DAILY, latitude = 48.85, longitude = 2.35)
+
+        assertEquals(3, source.requests.size)
+    }
+
+    @Test
+    fun doesNotCacheErrors() {
+        val first = get()
+        source.requests[0](null, 2, "no connection")
+        assertNull(first.value)
+        assertEquals(2, first.error)
+
+        get()
+        assertEquals(2, source.requests.size)
+    }
+
+    @Test
+    fun requestNotStartedIsNotJoined() {
+        source.startError = 4
+        val first = get()
+        assertEquals(4, first.error)
+        assertEquals(1, first.calls)
+
+        source.startError = 0
+        val second = get()
+        assertEquals(1, source.requests.size)
+        assertEquals(0, repository.joinedCount)
+
+        source.requests[0]("sunny", 0, "")
+        assertEquals("sunny", second.value)
+    }
+
+    @Test
+    fun looksUpOffsetOncePerTile() {
+        get(EForecastType.CURRENT)
+        get(EForecastType.HOURLY)
+        get(EForecastType.DAILY)
+
+        assertEquals(1, source.offsetRequests.size)
+        assertEquals(1, repository.offsetLookupCount)
+
+        source.requests[2]("sunny", 0, "")
+        now += 1000
+        get(EForecastType.DAILY)
+        assertEquals(2, source.offsetRequests.size)
+    }
+
+    @Test
+    fun retriesUnknownOffset() {
+        source.offset = null
+        get(EForecastType.CURRENT)
+        get(EForecastType.HOURLY)
+
+        assertEquals(2, source.offsetRequests.size)
+        assertEquals(0, repository.offsetLookupCount)
+    }
+
+    @Test
+    fun formatsTimes() {
+        assertEquals("00:00", ForecastFormat.time(0))
+        assertEquals("1970-01-01", ForecastFormat.date(0))
+        assertEquals("THURSDAY", ForecastFormat.dayOfWeek(0))
+
+        // 2024-02-29 13:05 UTC
+        val leapDay = 1709211900000L
+        assertEquals("13:05", ForecastFormat.time(leapDay))
+        assertEquals("2024-02-29", ForecastFormat.date(leapDay))
+        assertEquals("THURSDAY", ForecastFormat.dayOfWeek(leapDay))
+
+        // one minute before the epoch
+        assertEquals("23:59", ForecastFormat.time(-60000))
+        assertEquals("1969-12-31", ForecastFormat.date(-60000))
+        assertEquals("WEDNESDAY", ForecastFormat.dayOfWeek(-60000))
+    }
+
+    @Test
+    fun formatsValues() {
+        assertEquals("21°C", ForecastFormat.rounded(20.6, "°C"))
+        assertEquals("3 km", ForecastFormat.rounded(3.0, "km", " "))
+        assertEquals("0", ForecastFormat.rounded(-0.4, null))
+    }
+}